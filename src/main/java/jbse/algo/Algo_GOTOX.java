@@ -41,7 +41,12 @@ StrategyUpdate<DecisionAlternative_NONE>> {
 
     @Override
     protected BytecodeCooker bytecodeCooker() {
-        return (state) -> { };
+        return (state) -> {
+            //possibly registers the target of a backward jump as a loop point
+            if (this.ctx.stateTree.mergesStates() && this.data.jumpOffset() < 0) {
+                this.ctx.stateTree.addLoopPoint(state.getCurrentMethodSignature(), state.getCurrentProgramCounter() + this.data.jumpOffset());
+            }
+        };
     }
 
     @Override
@@ -8,6 +8,7 @@ import static jbse.common.Type.widens;
 
 import java.util.function.Supplier;
 
+import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms.Outcome;
 import jbse.tree.DecisionAlternative_IFX;
 import jbse.val.Calculator;
@@ -84,6 +85,17 @@ StrategyUpdate<DecisionAlternative_IFX>> {
                 throwVerifyError(state, this.ctx.getCalculator());
                 exitFromAlgorithm();
             }
+            
+            //possibly registers the successors as loop points, 
+            //if the jump is backward or this is a loop point
+            if (this.ctx.stateTree.mergesStates()) {
+                final Signature method = state.getCurrentMethodSignature();
+                final int programCounter = state.getCurrentProgramCounter();
+                if (this.data.jumpOffset() < 0 || this.ctx.stateTree.isLoopPoint(method, programCounter)) {
+                    this.ctx.stateTree.addLoopPoint(method, programCounter + this.data.jumpOffset());
+                    this.ctx.stateTree.addLoopPoint(method, programCounter + IFX_OFFSET);
+                }
+            }
         };
     }
 
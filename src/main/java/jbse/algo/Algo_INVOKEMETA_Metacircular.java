@@ -1,6 +1,5 @@
 package jbse.algo;
 
-import static java.lang.System.arraycopy;
 import static jbse.algo.Util.continueWithBaseLevelImpl;
 import static jbse.algo.Util.ensureClassInitialized;
 import static jbse.algo.Util.exitFromAlgorithm;
@@ -22,18 +21,19 @@ import static jbse.common.Type.className;
 import static jbse.common.Type.isPrimitive;
 import static jbse.common.Type.isPrimitiveOpStack;
 import static jbse.common.Type.isVoid;
-import static jbse.common.Type.parametersNumber;
-import static jbse.common.Type.splitParametersDescriptors;
-import static jbse.common.Type.splitReturnValueDescriptor;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import jbse.algo.exc.CannotAccessImplementationReflectively;
 import jbse.algo.exc.CannotInvokeNativeException;
 import jbse.algo.exc.SymbolicValueNotAllowedException;
 import jbse.bc.ClassFile;
+import jbse.bc.Signature;
 import jbse.bc.exc.BadClassFileVersionException;
 import jbse.bc.exc.ClassFileIllFormedException;
 import jbse.bc.exc.ClassFileNotAccessibleException;
@@ -103,6 +103,108 @@ DecisionAlternative_XLOAD_GETX,
 StrategyDecide<DecisionAlternative_XLOAD_GETX>,
 StrategyRefine<DecisionAlternative_XLOAD_GETX>,
 StrategyUpdate<DecisionAlternative_XLOAD_GETX>> {
+    /**
+     * Caches the {@link MetacircularInvoker}s of the methods
+     * invoked metacircularly, by implementation signature.
+     */
+    private static final ConcurrentHashMap<Signature, MetacircularInvoker> INVOKERS = new ConcurrentHashMap<>();
+    
+    /**
+     * A method that is invoked metacircularly, resolved once 
+     * and adapted to a uniform {@code (Object[]) -> Object} shape.
+     */
+    private static final class MetacircularInvoker {
+        /** 
+         * A {@link MethodHandle} to the method with type 
+         * {@code (Object[])Object}; it expects the receiver 
+         * (if any) as first argument, and the parameters 
+         * of the method as the next ones.
+         */
+        private final MethodHandle handle;
+        
+        /**
+         * The types of the arguments when they must be 
+         * narrowed before the invocation ({@code byte}, 
+         * {@code short}, {@code char} or {@code boolean}, 
+         * that come as {@code int}s from the operand stack),
+         * otherwise {@code 0}.
+         */
+        private final char[] narrowing;
+        
+        /**
+         * Constructor.
+         * 
+         * @param methodSignature the {@link Signature} of the method.
+         * @param isStatic {@code true} iff the method is static.
+         * @throws ClassNotFoundException if the class of the method or
+         *         of some of its parameters is not found.
+         * @throws NoSuchMethodException if the method is not found.
+         * @throws IllegalAccessException if the method cannot be accessed.
+         * @throws SecurityException if reflection is not allowed. 
+         */
+        MetacircularInvoker(Signature methodSignature, boolean isStatic) 
+        throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException {
+            final String[] paramsType = methodSignature.getMethodDescriptor().getParameterTypes();
+            final Class<?> methodClass = Class.forName(binaryClassName(methodSignature.getClassName()));
+            final Class<?>[] paramsClass = new Class<?>[paramsType.length];
+            for (int i = 0; i < paramsType.length; ++i) {
+                paramsClass[i] = getJavaClass(paramsType[i]);
+            }
+            final Method m = methodClass.getDeclaredMethod(methodSignature.getName(), paramsClass);
+            m.setAccessible(true);
+            final int nArgs = paramsType.length + (isStatic ? 0 : 1);
+            this.handle = MethodHandles.lookup().unreflect(m)
+                          .asSpreader(Object[].class, nArgs)
+                          .asType(MethodType.methodType(Object.class, Object[].class));
+            this.narrowing = new char[nArgs];
+            for (int i = 0; i < paramsType.length; ++i) {
+                final char type = paramsType[i].charAt(0);
+                if (type == Type.BYTE || type == Type.SHORT || type == Type.CHAR || type == Type.BOOLEAN) {
+                    this.narrowing[i + (isStatic ? 0 : 1)] = type;
+                }
+            }
+        }
+        
+        /**
+         * Invokes the method.
+         * 
+         * @param args an {@link Object}{@code []}, the reflected 
+         *        arguments (it is modified by the invocation).
+         * @return the {@link Object} returned by the method, boxed
+         *         if primitive, or {@code null} if the method is void.
+         * @throws Throwable whatever the method throws.
+         */
+        Object invoke(Object[] args) throws Throwable {
+            for (int i = 0; i < args.length; ++i) {
+                if (this.narrowing[i] != 0) {
+                    args[i] = narrow(this.narrowing[i], args[i]);
+                }
+            }
+            return (Object) this.handle.invokeExact(args);
+        }
+        
+        private static Object narrow(char type, Object arg) {
+            final int argInt;
+            if (arg instanceof Number) {
+                argInt = ((Number) arg).intValue();
+            } else if (arg instanceof Character) {
+                argInt = ((Character) arg).charValue();
+            } else {
+                return arg; //Boolean or of the right type, lets the invocation check it
+            }
+            switch (type) {
+            case Type.BYTE:
+                return Byte.valueOf((byte) argInt);
+            case Type.SHORT:
+                return Short.valueOf((short) argInt);
+            case Type.CHAR:
+                return Character.valueOf((char) argInt);
+            default: //Type.BOOLEAN
+                return Boolean.valueOf(argInt != 0);
+            }
+        }
+    }
+    
     private boolean isVoid; //set by cookMore
     private Value valToLoad; //set by cookMore
     private boolean someRefNotExpanded; //set by decider
@@ -112,7 +214,7 @@ StrategyUpdate<DecisionAlternative_XLOAD_GETX>> {
     @Override
     protected final Supplier<Integer> numOperands() {
         return () -> {
-            return parametersNumber(this.methodSignatureImplementation.getDescriptor(), this.isStatic);
+            return this.methodSignatureImplementation.getMethodDescriptor().parametersNumber(this.isStatic);
         };
     }
 
@@ -143,7 +245,7 @@ StrategyUpdate<DecisionAlternative_XLOAD_GETX>> {
 
             //determines the return value or whether it must perform
             //a metacircular method invocation
-            final String returnType = splitReturnValueDescriptor(this.methodSignatureImplementation.getDescriptor());
+            final String returnType = this.methodSignatureImplementation.getMethodDescriptor().getReturnType();
             this.isVoid = isVoid(returnType);
             if (allConstant && (this.isVoid || isPrimitive(returnType) || JAVA_STRING.equals(className(returnType)))) {
                 //delegates to metacircular invocation
@@ -173,59 +275,47 @@ StrategyUpdate<DecisionAlternative_XLOAD_GETX>> {
 
     private Value invokeMetacircularly(State state, Value[] args) 
     throws CannotInvokeNativeException, HeapMemoryExhaustedException, InvalidInputException {
-        try {
-            //reflects the arguments
-            final String[] argsType = splitParametersDescriptors(this.methodSignatureImplementation.getDescriptor());
-            final Object[] argsRefl = new Object[args.length];
-            final Class<?> methodClass = Class.forName(binaryClassName(this.methodSignatureImplementation.getClassName()));
-            final Class<?>[] argsClass = new Class[args.length];
-            for (int i = 0; i < args.length; ++i) {
-                if (args[i] instanceof Simplex) {
-                    argsRefl[i] = ((Simplex) args[i]).getActualValue();
-                } else {
-                    //it must be a reference to a constant String
-                    argsRefl[i] = valueString(state, (Reference) args[i]);
-                    if (argsRefl[i] == null) {
-                        failExecution("Unexpected argument in metacircular invocation: " + args[i] + ".");
-                    }
-                }
-                if (!this.isStatic && i == 0) {
-                	argsClass[i] = methodClass;
-                } else {
-                	argsClass[i] = getJavaClass(argsType[i]);
-                }
+        //resolves the method, or gets it from the cache
+        MetacircularInvoker invoker = INVOKERS.get(this.methodSignatureImplementation);
+        if (invoker == null) {
+            try {
+                invoker = new MetacircularInvoker(this.methodSignatureImplementation, this.isStatic);
+            } catch (ClassNotFoundException | SecurityException | 
+                     NoSuchMethodException | IllegalAccessException e) {
+                throw new CannotAccessImplementationReflectively(e);
             }
-            
-            //prepares the method and the args for the metacircular method invocation
-            final Method m = methodClass.getDeclaredMethod(this.methodSignatureImplementation.getName(), argsClass);
-            m.setAccessible(true);
-            final Object argThis;
-            final Object[] argsOther;
-            if (this.isStatic) {
-                argThis = null;
-                argsOther = argsRefl;
+            INVOKERS.putIfAbsent(this.methodSignatureImplementation, invoker);
+        }
+        
+        //reflects the arguments
+        final Object[] argsRefl = new Object[args.length];
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i] instanceof Simplex) {
+                argsRefl[i] = ((Simplex) args[i]).getActualValue();
             } else {
-                //this block works only if the "this" argument is a constant string
-                argThis = argsRefl[0]; 
-                argsOther = new Object[argsRefl.length - 1];
-                arraycopy(argsRefl, 1, argsOther, 0, argsOther.length);
+                //it must be a reference to a constant String
+                argsRefl[i] = valueString(state, (Reference) args[i]);
+                if (argsRefl[i] == null) {
+                    failExecution("Unexpected argument in metacircular invocation: " + args[i] + ".");
+                }
             }
+        }
 
-            //invokes the method
-            final Object retValRefl = m.invoke(argThis, argsOther);
-
-            //reifies the return value
-            final String returnType = splitReturnValueDescriptor(this.methodSignatureImplementation.getDescriptor());
-            if (this.isVoid) {
-                return null;
-            } else {
-                return toValue(state, retValRefl, returnType);
-            }
-        } catch (ClassNotFoundException | SecurityException | 
-                 NoSuchMethodException | IllegalArgumentException | 
-                 IllegalAccessException | InvocationTargetException e) {
+        //invokes the method
+        final Object retValRefl;
+        try {
+            retValRefl = invoker.invoke(argsRefl);
+        } catch (Throwable e) {
             throw new CannotAccessImplementationReflectively(e);
         }
+
+        //reifies the return value
+        if (this.isVoid) {
+            return null;
+        } else {
+            final String returnType = this.methodSignatureImplementation.getMethodDescriptor().getReturnType();
+            return toValue(state, retValRefl, returnType);
+        }
     }
 
     private static Class<?> getJavaClass(String type) throws ClassNotFoundException {
@@ -0,0 +1,264 @@
+package jbse.algo;
+
+import static jbse.algo.Util.continueWith;
+import static jbse.algo.Util.continueWithBaseLevelImpl;
+import static jbse.algo.Util.failExecution;
+import static jbse.bc.Offsets.offsetInvoke;
+import static jbse.common.Type.isPrimitive;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jbse.bc.Signature;
+import jbse.common.MethodDescriptor;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureAlgorithms.Outcome;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.State;
+import jbse.tree.DecisionAlternative_XSWITCH;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.Simplex;
+import jbse.val.Value;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * {@link Algo_INVOKEMETA} implementing the effect of
+ * a method call to a pure method by means of its summary,
+ * as recorded by {@link MethodSummaries}. More precisely:
+ * <ul>
+ * <li>If the method is native, it continues with
+ *     {@link Algo_INVOKEMETA_Metacircular};</li>
+ * <li>If the method has a complete summary, and some of
+ *     its paths have a condition that, instantiated on 
+ *     the actual parameters, is satisfiable, it branches
+ *     once for each of these paths, assuming the condition 
+ *     and pushing the corresponding return value;</li>
+ * <li>Otherwise, it possibly starts recording the summary
+ *     and continues with the execution of the method's
+ *     bytecode. The summary is not recorded if the decision
+ *     procedure {@link jbse.dec.DecisionProcedure#mayPruneSatisfiable() may 
+ *     prune satisfiable paths}.</li>
+ * </ul>
+ * Only static methods with primitive parameters and
+ * primitive return type are summarized.
+ */
+public final class Algo_INVOKEMETA_Summarized extends Algo_INVOKEMETA<
+DecisionAlternative_XSWITCH,
+StrategyDecide<DecisionAlternative_XSWITCH>,
+StrategyRefine<DecisionAlternative_XSWITCH>,
+StrategyUpdate<DecisionAlternative_XSWITCH>> {
+    private final Algo_INVOKEMETA_Metacircular algo_INVOKEMETA_Metacircular = new Algo_INVOKEMETA_Metacircular();
+    private Primitive[] conditions; //set by cooker
+    private Primitive[] returnValues; //set by cooker
+    private ArrayList<Integer> satisfiable; //set by cooker
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> {
+            return this.data.signature().getMethodDescriptor().parametersNumber(this.isStatic);
+        };
+    }
+
+    @Override
+    protected BytecodeCooker bytecodeCooker() {
+        return (state) -> {
+            //if this algorithm is overriding a native method, the only
+            //possible alternative is trying to execute it metacircularly
+            if (this.isOverriddenMethodNative) {
+                this.algo_INVOKEMETA_Metacircular.setFeatures(this.isInterface, this.isSpecial, this.isStatic, this.isOverriddenMethodNative, this.methodSignatureImplementation);
+                continueWith(this.algo_INVOKEMETA_Metacircular);
+            }
+
+            //if the parameters are all concrete, or the method
+            //cannot be summarized, executes the method
+            final Signature methodSignature = this.data.signature();
+            final Value[] args = this.data.operands();
+            boolean allConcrete = true;
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i].isSymbolic()) {
+                    allConcrete = false;
+                    break;
+                }
+            }
+            if (allConcrete || !this.isStatic || !isSummarizable(methodSignature)) {
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+
+            //if the summary is not available, possibly
+            //records it and executes the method; the summary
+            //is not recorded if the decision procedure may 
+            //prune some paths (e.g., under guidance), because
+            //it would be incomplete
+            final MethodSummaries summaries = this.ctx.methodSummaries;
+            final List<MethodSummaries.Entry> entries = summaries.getEntries(methodSignature);
+            if (entries == null) {
+                if (!this.ctx.decisionProcedure.mayPruneSatisfiable()) {
+                    summaries.startRecording(methodSignature, state, args, this.ctx.stateTree.getNumOfStates());
+                }
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+
+            //instantiates the summary
+            this.conditions = new Primitive[entries.size()];
+            this.returnValues = new Primitive[entries.size()];
+            if (!instantiate(this.ctx.getCalculator(), summaries.getFormals(methodSignature), args, entries, this.conditions, this.returnValues)) {
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+            
+            //determines the satisfiable paths; if there
+            //is none, executes the method
+            this.satisfiable = satisfiable(this.ctx.decisionProcedure, this.conditions);
+            if (this.satisfiable.isEmpty()) {
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+        };
+    }
+
+    static boolean isSummarizable(Signature methodSignature) {
+        final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
+        for (int i = 0; i < methodDescriptor.getNumberOfParameters(); ++i) {
+            if (!isPrimitive(methodDescriptor.getParameterType(i))) {
+                return false;
+            }
+        }
+        return isPrimitive(methodDescriptor.getReturnType());
+    }
+
+    /**
+     * Instantiates a summary on the actual parameters.
+     *
+     * @param calc a {@link Calculator}.
+     * @param formals the formal parameters of the summary.
+     * @param args the actual parameters.
+     * @param entries the entries of the summary.
+     * @param conditions a {@link Primitive}{@code []} with the same 
+     *        size of {@code entries}, where the conditions of the 
+     *        instantiated entries are stored.
+     * @param returnValues a {@link Primitive}{@code []} with the same 
+     *        size of {@code entries}, where the return values of the 
+     *        instantiated entries are stored.
+     * @return {@code true} iff the summary can be instantiated,
+     *         i.e., the actual parameters do not mention the
+     *         formal parameters and have their same types.
+     */
+    static boolean instantiate(Calculator calc, Primitive[] formals, Value[] args, List<MethodSummaries.Entry> entries, Primitive[] conditions, Primitive[] returnValues) {
+        final HashSet<PrimitiveSymbolicAtomic> mentioned = new HashSet<>();
+        for (Value arg : args) {
+            if (!(arg instanceof Primitive) || !MethodSummaries.symbolsOf((Primitive) arg, mentioned)) {
+                return false;
+            }
+        }
+        for (Primitive formal : formals) {
+            if (mentioned.contains(formal)) {
+                return false;
+            }
+        }
+
+        try {
+            for (int i = 0; i < entries.size(); ++i) {
+                conditions[i] = replaceAll(calc, entries.get(i).getCondition(), formals, args);
+                returnValues[i] = replaceAll(calc, entries.get(i).getReturnValue(), formals, args);
+            }
+        } catch (InvalidOperandException | InvalidTypeException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Determines which conditions of an instantiated summary
+     * are satisfiable.
+     * 
+     * @param dec the {@link DecisionProcedure} used to check 
+     *        the conditions.
+     * @param conditions the instantiated conditions.
+     * @return an {@link ArrayList}{@code <}{@link Integer}{@code >},
+     *         the indices in {@code conditions} of the satisfiable
+     *         ones, in increasing order.
+     * @throws InvalidInputException if some condition is {@code null}.
+     * @throws DecisionException if {@code dec} fails.
+     */
+    static ArrayList<Integer> satisfiable(DecisionProcedure dec, Primitive[] conditions) 
+    throws InvalidInputException, DecisionException {
+        final ArrayList<Integer> retVal = new ArrayList<>();
+        for (int i = 0; i < conditions.length; ++i) {
+            final Primitive condition = conditions[i];
+            final boolean sat;
+            if (condition instanceof Simplex) {
+                sat = ((Boolean) ((Simplex) condition).getActualValue()).booleanValue();
+            } else if (condition instanceof Expression) {
+                sat = dec.isSat((Expression) condition);
+            } else {
+                sat = true;
+            }
+            if (sat) {
+                retVal.add(i);
+            }
+        }
+        return retVal;
+    }
+
+    private static Primitive replaceAll(Calculator calc, Primitive p, Primitive[] formals, Value[] args)
+    throws InvalidOperandException, InvalidTypeException {
+        calc.push(p);
+        for (int i = 0; i < formals.length; ++i) {
+            try {
+                calc.replace(formals[i], (Primitive) args[i]);
+            } catch (InvalidTypeException e) {
+                calc.pop();
+                throw e;
+            } catch (InvalidInputException e) {
+                //this should never happen
+                failExecution(e);
+            }
+        }
+        return calc.pop();
+    }
+
+    @Override
+    protected Class<DecisionAlternative_XSWITCH> classDecisionAlternative() {
+        return DecisionAlternative_XSWITCH.class;
+    }
+
+    @Override
+    protected StrategyDecide<DecisionAlternative_XSWITCH> decider() {
+        return (state, result) -> {
+            //adds all the satisfiable paths
+            for (int i : this.satisfiable) {
+                result.add(DecisionAlternative_XSWITCH.toNonconcrete(i, i));
+            }
+            return Outcome.val(true, result.size() > 1);
+        };
+    }
+
+    @Override
+    protected StrategyRefine<DecisionAlternative_XSWITCH> refiner() {
+        return (state, alt) -> {
+            state.assume(this.conditions[alt.value()]);
+        };
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_XSWITCH> updater() {
+        return (state, alt) -> {
+            state.pushOperand(this.returnValues[alt.value()]);
+        };
+    }
+
+    @Override
+    protected Supplier<Boolean> isProgramCounterUpdateAnOffset() {
+        return () -> true;
+    }
+
+    @Override
+    protected Supplier<Integer> programCounterUpdate() {
+        return () -> offsetInvoke(this.isInterface);
+    }
+}
@@ -2,7 +2,6 @@ package jbse.algo;
 
 import static jbse.algo.Util.continueWith;
 import static jbse.algo.Util.continueWithBaseLevelImpl;
-import static jbse.common.Type.parametersNumber;
 
 import java.util.function.Supplier;
 
@@ -30,7 +29,7 @@ public final class Algo_INVOKEMETA_Uninterpreted extends Algo_INVOKEMETA_Nonbran
     @Override
     protected final Supplier<Integer> numOperands() {
         return () -> {
-            return parametersNumber(this.data.signature().getDescriptor(), this.isStatic);
+            return this.data.signature().getMethodDescriptor().parametersNumber(this.isStatic);
         };
     }
 
@@ -12,7 +12,6 @@ import static jbse.bc.Signatures.ILLEGAL_ACCESS_ERROR;
 import static jbse.bc.Signatures.INCOMPATIBLE_CLASS_CHANGE_ERROR;
 import static jbse.bc.Signatures.NO_SUCH_METHOD_ERROR;
 import static jbse.bc.Signatures.NULL_POINTER_EXCEPTION;
-import static jbse.common.Type.parametersNumber;
 
 import java.util.function.Supplier;
 
@@ -81,7 +80,7 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     @Override
     protected final Supplier<Integer> numOperands() {
         return () -> {
-            return parametersNumber(this.data.signature().getDescriptor(), this.isStatic);
+            return this.data.signature().getMethodDescriptor().parametersNumber(this.isStatic);
         };
     }
 
@@ -28,6 +28,7 @@ import jbse.tree.DecisionAlternative_XLOAD_GETX_Null;
 import jbse.tree.DecisionAlternative_XLOAD_GETX_Expands;
 import jbse.tree.DecisionAlternative_XLOAD_GETX_Resolved;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
 import jbse.val.Value;
 import jbse.val.exc.InvalidTypeException;
 
@@ -101,6 +102,21 @@ StrategyUpdate<DecisionAlternative_XLOAD_GETX>> {
         };
     }
 
+    //caches the last fast path alternative, since the same constants are loaded over and over
+    private DecisionAlternative_XLOAD_GETX_Resolved fastPathAlternativeLast = null;
+
+    @Override
+    protected final DecisionAlternative_XLOAD_GETX fastPathAlternative() {
+        //concrete primitive values need no resolution
+        if (!(this.valToLoad instanceof Simplex)) {
+            return null;
+        }
+        if (this.fastPathAlternativeLast == null || !this.valToLoad.equals(this.fastPathAlternativeLast.getValueToLoad())) {
+            this.fastPathAlternativeLast = new DecisionAlternative_XLOAD_GETX_Resolved(this.valToLoad);
+        }
+        return this.fastPathAlternativeLast;
+    }
+
     @Override
     protected final StrategyRefine_XLOAD_GETX refiner() {
         return new StrategyRefine_XLOAD_GETX() {
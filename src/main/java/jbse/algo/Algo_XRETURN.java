@@ -16,7 +16,6 @@ import static jbse.common.Type.REFERENCE;
 import static jbse.common.Type.isPrimitive;
 import static jbse.common.Type.isPrimitiveOpStack;
 import static jbse.common.Type.isReference;
-import static jbse.common.Type.splitReturnValueDescriptor;
 
 import java.util.function.Supplier;
 
@@ -28,6 +27,7 @@ import jbse.bc.exc.ClassFileNotFoundException;
 import jbse.bc.exc.IncompatibleClassFileException;
 import jbse.bc.exc.PleaseLoadClassException;
 import jbse.bc.exc.WrongClassNameException;
+import jbse.common.MethodDescriptor;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.mem.State.Phase;
 import jbse.tree.DecisionAlternative_NONE;
@@ -89,12 +89,12 @@ StrategyUpdate<DecisionAlternative_NONE>> {
             try {            	
                 //checks/converts the type of the value to be returned
                 final ClassFile currentClass = state.getCurrentClass();
-                final String currentMethodDescriptor = state.getCurrentMethodSignature().getDescriptor();
+                final MethodDescriptor currentMethodDescriptor = state.getCurrentMethodSignature().getMethodDescriptor();
                 if (currentMethodDescriptor == null) {
                 	//this happens with no-wrap snippet frames: just accept
                 	//the return value (i.e., do nothing)
                 } else {
-                	final String destinationType = splitReturnValueDescriptor(currentMethodDescriptor);
+                	final String destinationType = currentMethodDescriptor.getReturnType();
                 	if (isPrimitive(destinationType)) {
                 		final char destinationTypePrimitive = destinationType.charAt(0);
                 		if (isPrimitiveOpStack(destinationTypePrimitive)) {
@@ -190,6 +190,9 @@ StrategyUpdate<DecisionAlternative_NONE>> {
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
+            if (state.getSummaryRecordingStackSize() == state.getStackSize()) {
+                this.ctx.methodSummaries.recordReturn(state, this.ctx.getCalculator(), this.valueToReturn);
+            }
             state.popCurrentFrame();
             if (state.getStackSize() == 0) {
             	if (state.phase() == Phase.POST_INITIAL) {
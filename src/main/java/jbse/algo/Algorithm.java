@@ -13,6 +13,7 @@ import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
 import jbse.dec.DecisionProcedureAlgorithms.Outcome;
 import jbse.dec.exc.DecisionException;
+import jbse.jvm.Metrics;
 import jbse.jvm.exc.FailureException;
 import jbse.mem.State;
 import jbse.mem.exc.ContradictionException;
@@ -20,6 +21,7 @@ import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.mem.exc.InvalidProgramCounterException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.DecisionAlternative;
+import jbse.tree.DecisionAlternative_NONE;
 import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
@@ -126,6 +128,30 @@ UP extends StrategyUpdate<R>> implements Action {
      */
     protected void cleanup() { }
 
+    /**
+     * The fast path. Override this method for the bytecodes 
+     * that, at least in some cases (e.g., when their operands 
+     * are {@link jbse.val.Simplex}), surely have exactly one 
+     * successor state that needs no refinement. In these cases 
+     * {@link #exec} skips the decision phase and directly 
+     * updates the state with the returned alternative.
+     * It is invoked after the bytecode is cooked.
+     * 
+     * @return the sole {@code R} alternative of the bytecode 
+     *         if the fast path can be taken, {@code null} 
+     *         otherwise. The default implementation returns
+     *         {@link DecisionAlternative_NONE#instance()} if 
+     *         {@link #classDecisionAlternative()} is 
+     *         {@link DecisionAlternative_NONE}, since the 
+     *         deciders of these bytecodes just yield it, 
+     *         otherwise {@code null}. Bytecodes whose decider 
+     *         does more must override it.
+     */
+    @SuppressWarnings("unchecked")
+    protected R fastPathAlternative() {
+        return (classDecisionAlternative() == DecisionAlternative_NONE.class ? (R) DecisionAlternative_NONE.instance() : null);
+    }
+
     private final Supplier<Integer> numOperands; //just caches
     protected D data; //just caches
     private final BytecodeCooker cooker;  //just caches
@@ -249,6 +275,14 @@ UP extends StrategyUpdate<R>> implements Action {
             failExecution(e);
         }
 
+        //possibly takes the fast path
+        final R fastPathAlternative = fastPathAlternative();
+        if (fastPathAlternative != null) {
+            final boolean branchAdded = this.ctx.stateTree.possiblyAddBranchPoint(false, fastPathAlternative.trivial(), fastPathAlternative.concrete(), fastPathAlternative.noDecision());
+            generateNextState(state, fastPathAlternative, false, false, branchAdded);
+            return;
+        }
+
         //decides the satisfiability of the different alternatives
         final SortedSet<R> decisionResults = this.ctx.mkDecisionResultSet(classDecisionAlternative());     
         final Outcome outcome = this.decider.decide(state, decisionResults);
@@ -263,72 +297,101 @@ UP extends StrategyUpdate<R>> implements Action {
         final boolean shouldRefine = outcome.shouldRefine();
         final boolean branchingDecision = outcome.branchingDecision();
         final boolean branchAdded = possiblyAddBranchPoint(decisionResults);
+        final Metrics metrics = this.ctx.getMetrics();
         for (R result : decisionResults) {
-            final State stateCurrent = (tot > 1 ? state.lazyClone() : state);
-
-            //pops the operands from the operand stack
-            try {
-                stateCurrent.popOperands(this.numOperands.get());
-            } catch (ThreadStackEmptyException | InvalidNumberOfOperandsException e) {
-                //this should never happen
-                failExecution(e);
+            final State stateCurrent;
+            if (tot > 1 && metrics != null) {
+                final long cloneStart = System.nanoTime();
+                stateCurrent = state.lazyClone();
+                metrics.histogram(Metrics.STATE_CLONE_TIME).record(System.nanoTime() - cloneStart);
+            } else {
+                stateCurrent = (tot > 1 ? state.lazyClone() : state);
             }
+            generateNextState(stateCurrent, result, shouldRefine, branchingDecision, branchAdded);
+        }
+        
+        if (tot > 1) {
+        	state.freeze();
+        }
+    }
 
-            InterruptException interrupt = null;
-            try {
-                //possibly refines the state
-                if (shouldRefine) {
-                    this.refiner.refine(stateCurrent, result);
-                }
-                
-            	//initializes lazily this.updated
-                if (this.updater == null) {
-                    this.updater = updater();
-                }
-                
-
-                //completes the bytecode semantics
-                this.updater.update(stateCurrent, result);
-            } catch (InterruptException e) {
-                interrupt = e;
-            } catch (InvalidInputException | InvalidTypeException | 
-                     InvalidOperatorException | InvalidOperandException | 
-                     ThreadStackEmptyException e) {
-                //this should never happen
-                failExecution(e);
-            }
+    /**
+     * Completes the execution of the bytecode on a state
+     * for a decision alternative.
+     * 
+     * @param stateCurrent the {@link State} to be updated.
+     * @param result the {@code R} alternative.
+     * @param shouldRefine {@code true} iff {@code stateCurrent}
+     *        must be refined.
+     * @param branchingDecision {@code true} iff {@code stateCurrent}
+     *        is the result of a branching decision.
+     * @param branchAdded {@code true} iff a branch point was added
+     *        to the state tree, and {@code stateCurrent} must be
+     *        added to it.
+     */
+    private void generateNextState(State stateCurrent, R result, boolean shouldRefine, boolean branchingDecision, boolean branchAdded) 
+    throws DecisionException, ContradictionException, 
+    ClasspathException, InvalidInputException, 
+    CannotManageStateException, FailureException, 
+    InterruptException {
+        //pops the operands from the operand stack
+        try {
+            stateCurrent.popOperands(this.numOperands.get());
+        } catch (ThreadStackEmptyException | InvalidNumberOfOperandsException e) {
+            //this should never happen
+            failExecution(e);
+        }
 
-            //updates the program counter
-            try {
-                if (stateCurrent.isStuck() || stateCurrent.getStackSize() == 0) {
-                    //nothing to do
-                } else if (interrupt == null) {
-                    if (this.isProgramCounterUpdateAnOffset.get()) {
-                        stateCurrent.incProgramCounter(this.programCounterUpdate.get());
-                    } else {
-                        stateCurrent.setProgramCounter(this.programCounterUpdate.get());
-                    }
-                } else if (interrupt.hasContinuation()) {
-                    throw interrupt;
-                } //else, nothing to do
-            } catch (InvalidProgramCounterException e) {
-                throwVerifyError(stateCurrent, this.ctx.getCalculator());
-            } catch (ThreadStackEmptyException e) {
-                //this should never happen
-                failExecution(e);
+        InterruptException interrupt = null;
+        try {
+            //possibly refines the state
+            if (shouldRefine) {
+                this.refiner.refine(stateCurrent, result);
             }
-
-            //is the state the result of a branching decision?
-            stateCurrent.setBranchingDecision(branchingDecision);
-
-            //adds the created state to the tree, if on a new branch
-            if (branchAdded) {
-                this.ctx.stateTree.addState(stateCurrent, result.getBranchNumber(), result.getIdentifier());
+            
+        	//initializes lazily this.updated
+            if (this.updater == null) {
+                this.updater = updater();
             }
+            
+
+            //completes the bytecode semantics
+            this.updater.update(stateCurrent, result);
+        } catch (InterruptException e) {
+            interrupt = e;
+        } catch (InvalidInputException | InvalidTypeException | 
+                 InvalidOperatorException | InvalidOperandException | 
+                 ThreadStackEmptyException e) {
+            //this should never happen
+            failExecution(e);
         }
-        
-        if (tot > 1) {
-        	state.freeze();
+
+        //updates the program counter
+        try {
+            if (stateCurrent.isStuck() || stateCurrent.getStackSize() == 0) {
+                //nothing to do
+            } else if (interrupt == null) {
+                if (this.isProgramCounterUpdateAnOffset.get()) {
+                    stateCurrent.incProgramCounter(this.programCounterUpdate.get());
+                } else {
+                    stateCurrent.setProgramCounter(this.programCounterUpdate.get());
+                }
+            } else if (interrupt.hasContinuation()) {
+                throw interrupt;
+            } //else, nothing to do
+        } catch (InvalidProgramCounterException e) {
+            throwVerifyError(stateCurrent, this.ctx.getCalculator());
+        } catch (ThreadStackEmptyException e) {
+            //this should never happen
+            failExecution(e);
+        }
+
+        //is the state the result of a branching decision?
+        stateCurrent.setBranchingDecision(branchingDecision);
+
+        //adds the created state to the tree, if on a new branch
+        if (branchAdded) {
+            this.ctx.stateTree.addState(stateCurrent, result.getBranchNumber(), result.getIdentifier());
         }
     }
 
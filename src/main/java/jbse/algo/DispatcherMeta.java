@@ -14,6 +14,7 @@ import jbse.bc.exc.MethodNotFoundException;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.meta.annotations.MetaOverriddenBy;
+import jbse.meta.annotations.Pure;
 import jbse.meta.annotations.Uninterpreted;
 
 /**
@@ -82,15 +83,15 @@ class DispatcherMeta extends Dispatcher<Signature, Algo_INVOKEMETA<?, ?, ?, ?>>
     }
 
     /**
-     * Checks whether a method has a {@link MetaOverriddenBy} or {@link Uninterpreted} 
-     * annotation, and as a side effect populates this {@link DispatcherMeta} with the 
+     * Checks whether a method has a {@link MetaOverriddenBy}, {@link Uninterpreted} 
+     * or {@link Pure} annotation, and as a side effect populates this {@link DispatcherMeta} with the 
      * {@link Algorithm} to manage it.
      *  
      * @param methodClass the {@link ClassFile} of a <em>resolved</em> method, or {@code null}
      *        for a classless method.
      * @param methodSignature the {@link Signature} of a <em>resolved</em> method.
-     * @return {@code true} iff the method has a {@link MetaOverriddenBy} 
-     *         or {@link Uninterpreted} annotation.
+     * @return {@code true} iff the method has a {@link MetaOverriddenBy}, 
+     *         {@link Uninterpreted} or {@link Pure} annotation.
      * @throws MethodNotFoundException  if it is unable to find a declaration for 
      *         {@code methodSignature} in {@code methodClass}.
      * @throws MetaUnsupportedException if it is unable to find the specified {@link Algorithm}, 
@@ -115,6 +116,7 @@ class DispatcherMeta extends Dispatcher<Signature, Algo_INVOKEMETA<?, ?, ?, ?>>
         final String uninterpreted = internalClassName(Uninterpreted.class.getName());
         final boolean overridAnnotationPresent = findMethodAnnotation(methodClass, methodSignature, metaOverriddenBy);
         final boolean unintAnnotationPresent = findMethodAnnotation(methodClass, methodSignature, uninterpreted);
+        final boolean pureAnnotationPresent = findMethodAnnotation(methodClass, methodSignature, internalClassName(Pure.class.getName()));
         if (overridAnnotationPresent) { //MetaOverridden has highest priority
             final String value = methodClass.getMethodAnnotationParameterValueString(methodSignature, metaOverriddenBy, "value");
             loadAlgoMetaOverridden(methodSignature, value);
@@ -122,6 +124,9 @@ class DispatcherMeta extends Dispatcher<Signature, Algo_INVOKEMETA<?, ?, ?, ?>>
         } else if (unintAnnotationPresent) {
             loadAlgoUninterpreted(methodSignature);
             return true;
+        } else if (pureAnnotationPresent) {
+            loadAlgoSummarized(methodSignature);
+            return true;
         }
         
         //looks if the method signature matches some pattern
@@ -205,6 +210,17 @@ class DispatcherMeta extends Dispatcher<Signature, Algo_INVOKEMETA<?, ?, ?, ?>>
         loadMetaDelegate(methodSignatureResolved, metaDelegate);
     }
 
+    /**
+     * Loads an {@link Algorithm} to manage the invocation of a method with the
+     * {@link Pure} annotation.
+     * 
+     * @param methodSignatureResolved the {@link Signature} of a <em>resolved</em> method.
+     */
+    void loadAlgoSummarized(Signature methodSignatureResolved) {
+        final Algo_INVOKEMETA_Summarized metaDelegate = new Algo_INVOKEMETA_Summarized();
+        loadMetaDelegate(methodSignatureResolved, metaDelegate);
+    }
+
     private void loadMetaDelegate(Signature methodSignatureResolved, final Algo_INVOKEMETA<?, ?, ?, ?> metaDelegate) {
         setCase(methodSignatureResolved, () -> metaDelegate);
     }
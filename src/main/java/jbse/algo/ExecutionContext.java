@@ -47,8 +47,12 @@ import static jbse.algo.Overrides.ALGO_JAVA_OBJECT_GETCLASS;
 import static jbse.algo.Overrides.ALGO_JAVA_OBJECT_HASHCODE;
 import static jbse.algo.Overrides.ALGO_JAVA_PACKAGE_GETSYSTEMPACKAGE0;
 import static jbse.algo.Overrides.ALGO_JAVA_REFLECT_ARRAY_NEWARRAY;
+import static jbse.algo.Overrides.ALGO_JAVA_STRING_CHARAT;
+import static jbse.algo.Overrides.ALGO_JAVA_STRING_EQUALS;
 import static jbse.algo.Overrides.ALGO_JAVA_STRING_HASHCODE;
+import static jbse.algo.Overrides.ALGO_JAVA_STRING_INDEXOF;
 import static jbse.algo.Overrides.ALGO_JAVA_STRING_INTERN;
+import static jbse.algo.Overrides.ALGO_JAVA_STRING_STARTSWITH;
 import static jbse.algo.Overrides.ALGO_JAVA_STRINGBUILDER_APPEND;
 import static jbse.algo.Overrides.ALGO_JAVA_SYSTEM_ARRAYCOPY;
 import static jbse.algo.Overrides.ALGO_JAVA_SYSTEM_IDENTITYHASHCODE;
@@ -256,8 +260,12 @@ import static jbse.bc.Signatures.JAVA_STRICTMATH_SINH;
 import static jbse.bc.Signatures.JAVA_STRICTMATH_SQRT;
 import static jbse.bc.Signatures.JAVA_STRICTMATH_TAN;
 import static jbse.bc.Signatures.JAVA_STRICTMATH_TANH;
+import static jbse.bc.Signatures.JAVA_STRING_CHARAT;
+import static jbse.bc.Signatures.JAVA_STRING_EQUALS;
 import static jbse.bc.Signatures.JAVA_STRING_HASHCODE;
+import static jbse.bc.Signatures.JAVA_STRING_INDEXOF;
 import static jbse.bc.Signatures.JAVA_STRING_INTERN;
+import static jbse.bc.Signatures.JAVA_STRING_STARTSWITH;
 import static jbse.bc.Signatures.JAVA_STRINGBUILDER_APPEND_BOOLEAN;
 import static jbse.bc.Signatures.JAVA_STRINGBUILDER_APPEND_CHAR;
 import static jbse.bc.Signatures.JAVA_STRINGBUILDER_APPEND_DOUBLE;
@@ -396,8 +404,11 @@ import static jbse.bc.Signatures.noclass_REGISTERMETHODTYPE;
 import static jbse.bc.Signatures.noclass_SETSTANDARDCLASSLOADERSREADY;
 import static jbse.bc.Signatures.noclass_STORELINKEDMETHODANDAPPENDIX;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -412,6 +423,7 @@ import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.jvm.Metrics;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.mem.State;
 import jbse.rules.TriggerRulesRepo;
@@ -446,6 +458,35 @@ public final class ExecutionContext {
     /** The maximum length of an array to be granted simple representation. Used during initialization. */
     private final int maxSimpleArrayLength;
     
+    /** 
+     * Whether the arrays that cannot be granted simple representation
+     * are represented with the theory of arrays. Used during initialization. 
+     */
+    private boolean useArrayTheory = false;
+    
+    /** 
+     * The number of post-initial steps between two incremental
+     * garbage collections of the current state, or {@code 0} 
+     * if no incremental garbage collection must be performed. 
+     */
+    private long gcIncrementalPeriod = 0L;
+    
+    /** 
+     * The number of background threads that read ahead the
+     * classfiles, or {@code 0} if no classfile must be read ahead. 
+     * Used during initialization. 
+     */
+    private int classFilePrefetchThreads = 0;
+    
+    /** 
+     * The names of the packages whose classes must be read ahead.
+     * Used during initialization. 
+     */
+    private List<String> classFilePrefetchPackages = Collections.emptyList();
+    
+    /** The {@link Metrics} to be updated, or {@code null}. */
+    private Metrics metrics = null;
+    
     /** The maximum heap size expressed as maximum number of objects. Used during initialization. */
     private final long maxHeapSize;
     
@@ -512,6 +553,9 @@ public final class ExecutionContext {
 
     /** Maps method signatures to their base-level overrides. */
     public final HashMap<Signature, Signature> baseOverrides = new HashMap<>();
+
+    /** The summaries of the pure methods. */
+    public final MethodSummaries methodSummaries = new MethodSummaries();
     
     /** The initial state. */
     public State stateInitial = null;
@@ -683,8 +727,12 @@ public final class ExecutionContext {
             addMetaOverridden(JAVA_STRICTMATH_SQRT,                               ALGO_INVOKEMETA_METACIRCULAR);
             addMetaOverridden(JAVA_STRICTMATH_TAN,                                ALGO_INVOKEMETA_METACIRCULAR);
             addMetaOverridden(JAVA_STRICTMATH_TANH,                               ALGO_INVOKEMETA_METACIRCULAR);
+            addMetaOverridden(JAVA_STRING_CHARAT,                                 ALGO_JAVA_STRING_CHARAT);
+            addMetaOverridden(JAVA_STRING_EQUALS,                                 ALGO_JAVA_STRING_EQUALS);
             addMetaOverridden(JAVA_STRING_HASHCODE,                               ALGO_JAVA_STRING_HASHCODE);
+            addMetaOverridden(JAVA_STRING_INDEXOF,                                ALGO_JAVA_STRING_INDEXOF);
             addMetaOverridden(JAVA_STRING_INTERN,                                 ALGO_JAVA_STRING_INTERN);
+            addMetaOverridden(JAVA_STRING_STARTSWITH,                             ALGO_JAVA_STRING_STARTSWITH);
             addMetaOverridden(JAVA_STRINGBUILDER_APPEND_BOOLEAN,                  ALGO_JAVA_STRINGBUILDER_APPEND);
             addMetaOverridden(JAVA_STRINGBUILDER_APPEND_CHAR,                     ALGO_JAVA_STRINGBUILDER_APPEND);
             addMetaOverridden(JAVA_STRINGBUILDER_APPEND_DOUBLE,                   ALGO_JAVA_STRINGBUILDER_APPEND);
@@ -852,6 +900,89 @@ public final class ExecutionContext {
     	return this.makePreInitClassesSymbolic;
     }
     
+    /**
+     * Sets whether the arrays with primitive members that 
+     * cannot be granted simple representation are represented 
+     * with the theory of arrays in the states created by 
+     * {@link #createStateVirginPreInitial()}.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+        this.useArrayTheory = useArrayTheory;
+    }
+    
+    /**
+     * Sets the number of post-initial steps between two 
+     * incremental garbage collections of the current state
+     * (see {@link State#gcIncremental()}).
+     * 
+     * @param gcIncrementalPeriod a {@code long}, {@code 0} 
+     *        (or less) means no incremental garbage collection.
+     */
+    public void setGcIncrementalPeriod(long gcIncrementalPeriod) {
+        this.gcIncrementalPeriod = Math.max(0L, gcIncrementalPeriod);
+    }
+    
+    /**
+     * Returns the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * 
+     * @return a {@code long}, {@code 0} if no incremental 
+     *         garbage collection must be performed.
+     */
+    public long getGcIncrementalPeriod() {
+        return this.gcIncrementalPeriod;
+    }
+    
+    /**
+     * Sets whether the classfiles must be read ahead in
+     * the states created by {@link #createStateVirginPreInitial()}
+     * (see {@link ClassHierarchy#startPrefetching(int, Iterable)}).
+     * 
+     * @param classFilePrefetchThreads an {@code int}, the number
+     *        of background threads, {@code 0} (or less) means no
+     *        read ahead.
+     * @param classFilePrefetchPackages a {@link List}{@code <}{@link String}{@code >},
+     *        the names of the packages whose classes must all be read ahead.
+     */
+    public void setClassFilePrefetch(int classFilePrefetchThreads, List<String> classFilePrefetchPackages) {
+        this.classFilePrefetchThreads = Math.max(0, classFilePrefetchThreads);
+        this.classFilePrefetchPackages = new ArrayList<>(classFilePrefetchPackages); //safety copy
+    }
+    
+    /**
+     * Sets whether the states at loop points must be merged
+     * (see {@link StateTree#setStateMerging(Calculator)}).
+     * 
+     * @param mergeStatesAtLoops a {@code boolean}.
+     */
+    public void setMergeStatesAtLoops(boolean mergeStatesAtLoops) {
+        this.stateTree.setStateMerging(mergeStatesAtLoops ? this.calc : null);
+    }
+    
+    /**
+     * Sets the {@link Metrics} to be updated during 
+     * symbolic execution.
+     * 
+     * @param metrics a {@link Metrics}, or {@code null}
+     *        if no metrics must be collected.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Returns the {@link Metrics} to be updated during 
+     * symbolic execution.
+     * 
+     * @return a {@link Metrics}, or {@code null}
+     *         if no metrics must be collected.
+     */
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+    
     /**
      * Factory method. It creates a virgin, pre-initial 
      * state, with incomplete initialization.
@@ -864,7 +995,10 @@ public final class ExecutionContext {
      */
     public State createStateVirginPreInitial() throws InvalidClassFileFactoryClassException {
         try {
-			return new State(this.bypassStandardLoading, this.stateTree.getPreInitialHistoryPoint(), this.maxSimpleArrayLength, this.maxHeapSize, this.classpath, this.classFileFactoryClass, this.expansionBackdoor, this.modelClassSubstitutions, this.symbolFactory);
+			final State retVal = new State(this.bypassStandardLoading, this.stateTree.getPreInitialHistoryPoint(), this.maxSimpleArrayLength, this.maxHeapSize, this.classpath, this.classFileFactoryClass, this.expansionBackdoor, this.modelClassSubstitutions, this.symbolFactory);
+			retVal.setUseArrayTheory(this.useArrayTheory);
+			retVal.getClassHierarchy().startPrefetching(this.classFilePrefetchThreads, this.classFilePrefetchPackages);
+			return retVal;
 		} catch (InvalidInputException e) {
 			//this should never happen
 			throw new UnexpectedInternalException(e);
@@ -983,6 +1117,16 @@ public final class ExecutionContext {
         this.dispatcherMeta.addUninterpretedPattern(patternMethodClassName, patternMethodDescriptor, patternMethodName);
     }
 
+    /**
+     * Allows to customize the behavior of the invocations of a method 
+     * by treating it as pure, and summarizing its invocations. 
+     * 
+     * @param methodSignature the {@link Signature} of a method. 
+     */
+    public void addPure(Signature methodSignature) { 
+        this.dispatcherMeta.loadAlgoSummarized(methodSignature);
+    }
+
     /**
      * Determines whether a class has a pure static initializer, where with
      * "pure" we mean that its effect is independent on when the initializer
@@ -0,0 +1,363 @@
+package jbse.algo;
+
+import static jbse.algo.Util.failExecution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jbse.bc.Signature;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
+import jbse.val.Any;
+import jbse.val.Calculator;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.Value;
+import jbse.val.WideningConversion;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Stores the summaries of the invocations of pure methods. The
+ * summary of a method is recorded during the first invocation of
+ * the method whose actual parameters are distinct symbols not
+ * mentioned in the path condition (the formal parameters of the
+ * summary). The method is executed at the base level, and
+ * every path that returns from the invocation adds to the summary
+ * an {@link Entry}, made by the conjunction of the path condition
+ * clauses assumed during the invocation and by the returned value.
+ * The summary is complete when all the paths of the invocation
+ * have been explored, and it is discarded if some path exits
+ * the invocation in some other way (e.g., by throwing an exception,
+ * or by being stopped), or assumes something that does not only
+ * depend on the formal parameters. At most one summary is
+ * recorded at a time.
+ */
+public final class MethodSummaries {
+    /**
+     * A path of an invocation.
+     */
+    public static final class Entry {
+        private final Primitive condition;
+        private final Primitive returnValue;
+
+        private Entry(Primitive condition, Primitive returnValue) {
+            this.condition = condition;
+            this.returnValue = returnValue;
+        }
+
+        /**
+         * Returns the condition of the path.
+         *
+         * @return a boolean {@link Primitive} that only
+         *         mentions the formal parameters of the summary.
+         */
+        public Primitive getCondition() {
+            return this.condition;
+        }
+
+        /**
+         * Returns the value returned along the path.
+         *
+         * @return a {@link Primitive} that only
+         *         mentions the formal parameters of the summary.
+         */
+        public Primitive getReturnValue() {
+            return this.returnValue;
+        }
+    }
+
+    /**
+     * The summary of a method.
+     */
+    private static final class Summary {
+        final Primitive[] formals;
+        final ArrayList<Entry> entries = new ArrayList<>();
+        boolean complete = false;
+        boolean discarded = false;
+
+        Summary(Primitive[] formals) {
+            this.formals = formals;
+        }
+    }
+
+    /** Maps the signatures of the methods to their summaries. */
+    private final HashMap<Signature, Summary> summaries = new HashMap<>();
+
+    /** The summary being recorded, or {@code null}. */
+    private Summary recording = null;
+
+    /**
+     * The number of path condition clauses at the
+     * start of the invocation being recorded.
+     */
+    private int recordingPathConditionSize;
+
+    /**
+     * The number of pending states in the state tree
+     * at the start of the invocation being recorded.
+     */
+    private int recordingNumOfStates;
+
+    /**
+     * Checks whether a summary is being recorded.
+     *
+     * @return {@code true} iff a summary is being recorded.
+     */
+    public boolean isRecording() {
+        return this.recording != null;
+    }
+
+    /**
+     * Checks whether the summary of a method was
+     * never recorded.
+     *
+     * @param methodSignature the {@link Signature} of a method.
+     * @return {@code true} iff no summary was ever recorded
+     *         (completely or not) for {@code methodSignature}.
+     */
+    public boolean isNew(Signature methodSignature) {
+        return !this.summaries.containsKey(methodSignature);
+    }
+
+    /**
+     * Returns the formal parameters of the complete summary of a method.
+     *
+     * @param methodSignature the {@link Signature} of a method.
+     * @return a {@link Primitive}{@code []}, or {@code null} if
+     *         {@code methodSignature} has no complete summary.
+     */
+    public Primitive[] getFormals(Signature methodSignature) {
+        final Summary summary = this.summaries.get(methodSignature);
+        return (summary == null || !summary.complete ? null : summary.formals.clone());
+    }
+
+    /**
+     * Returns the entries of the complete summary of a method.
+     *
+     * @param methodSignature the {@link Signature} of a method.
+     * @return a {@link List}{@code <}{@link Entry}{@code >}, or
+     *         {@code null} if {@code methodSignature} has no
+     *         complete summary.
+     */
+    public List<Entry> getEntries(Signature methodSignature) {
+        final Summary summary = this.summaries.get(methodSignature);
+        return (summary == null || !summary.complete ? null : Collections.unmodifiableList(summary.entries));
+    }
+
+    /**
+     * Possibly starts recording the summary of a method.
+     *
+     * @param methodSignature the {@link Signature} of the invoked method.
+     * @param state the {@link State} that is about to invoke the method.
+     * @param args a {@link Value}{@code []}, the actual parameters
+     *        of the invocation.
+     * @param numOfStates an {@code int}, the number of pending states
+     *        in the state tree.
+     * @return {@code true} iff the recording started, i.e., iff no
+     *         other summary is being recorded, the method has no
+     *         summary, and {@code args} are distinct symbols not mentioned
+     *         by the path condition of {@code state}.
+     * @throws FrozenStateException if {@code state} is frozen.
+     */
+    public boolean startRecording(Signature methodSignature, State state, Value[] args, int numOfStates)
+    throws FrozenStateException {
+        if (isRecording() || !isNew(methodSignature)) {
+            return false;
+        }
+        final HashSet<PrimitiveSymbolicAtomic> formals = new HashSet<>();
+        for (Value arg : args) {
+            if (!(arg instanceof PrimitiveSymbolicAtomic) || !formals.add((PrimitiveSymbolicAtomic) arg)) {
+                return false;
+            }
+        }
+        final HashSet<PrimitiveSymbolicAtomic> mentioned = new HashSet<>();
+        for (Clause c : state.getPathCondition()) {
+            if (c instanceof ClauseAssume && !symbolsOf(((ClauseAssume) c).getCondition(), mentioned)) {
+                return false;
+            }
+        }
+        for (PrimitiveSymbolicAtomic formal : formals) {
+            if (mentioned.contains(formal)) {
+                return false;
+            }
+        }
+
+        final Primitive[] formalsArray = new Primitive[args.length];
+        for (int i = 0; i < args.length; ++i) {
+            formalsArray[i] = (Primitive) args[i];
+        }
+        this.recording = new Summary(formalsArray);
+        this.summaries.put(methodSignature, this.recording);
+        this.recordingPathConditionSize = state.getPathCondition().size();
+        this.recordingNumOfStates = numOfStates;
+        state.setSummaryRecordingStackSize(state.getStackSize() + 1);
+        return true;
+    }
+
+    /**
+     * Records the return from the invocation whose summary
+     * is being recorded, and stops recording on the state.
+     *
+     * @param state the {@link State} that is about to return.
+     *        Its current frame must be the one of the invocation.
+     * @param calc a {@link Calculator}.
+     * @param returnValue the {@link Value} returned by the
+     *        invocation.
+     * @throws FrozenStateException if {@code state} is frozen.
+     */
+    public void recordReturn(State state, Calculator calc, Value returnValue)
+    throws FrozenStateException {
+        state.setSummaryRecordingStackSize(0);
+        if (this.recording == null || this.recording.discarded) {
+            return;
+        }
+        final HashSet<PrimitiveSymbolicAtomic> formals = new HashSet<>();
+        for (Primitive formal : this.recording.formals) {
+            formals.add((PrimitiveSymbolicAtomic) formal);
+        }
+        final HashSet<PrimitiveSymbolicAtomic> mentioned = new HashSet<>();
+        try {
+            if (!(returnValue instanceof Primitive) || !symbolsOf((Primitive) returnValue, mentioned)) {
+                this.recording.discarded = true;
+                return;
+            }
+            final List<Clause> pathCondition = state.getPathCondition();
+            calc.pushBoolean(true);
+            for (Clause c : pathCondition.subList(this.recordingPathConditionSize, pathCondition.size())) {
+                if (!(c instanceof ClauseAssume) || !symbolsOf(((ClauseAssume) c).getCondition(), mentioned)) {
+                    calc.pop();
+                    this.recording.discarded = true;
+                    return;
+                }
+                calc.and(((ClauseAssume) c).getCondition());
+            }
+            final Primitive condition = calc.pop();
+            if (!formals.containsAll(mentioned)) {
+                this.recording.discarded = true;
+                return;
+            }
+            this.recording.entries.add(new Entry(condition, (Primitive) returnValue));
+        } catch (InvalidOperandException | InvalidTypeException e) {
+            //the condition cannot be built
+            this.recording.discarded = true;
+        }
+    }
+
+    /**
+     * Must be invoked whenever a path ends, before
+     * backtracking. Discards the summary being recorded if
+     * the path did not return from the recorded invocation,
+     * and completes the summary if all the paths of the recorded
+     * invocation have been explored.
+     *
+     * @param state the final {@link State} of the path.
+     * @param numOfStates an {@code int}, the number of pending
+     *        states in the state tree.
+     */
+    public void onPathEnd(State state, int numOfStates) {
+        if (this.recording == null) {
+            return;
+        }
+        if (state.getSummaryRecordingStackSize() != 0) {
+            this.recording.discarded = true;
+        }
+        if (numOfStates <= this.recordingNumOfStates) {
+            //the states are explored depth-first, thus all
+            //the states of the recorded invocation were explored
+            this.recording.complete = !this.recording.discarded;
+            this.recording = null;
+        }
+    }
+
+    /**
+     * Collects the symbols in a {@link Primitive}.
+     *
+     * @param p a {@link Primitive}.
+     * @param symbols a {@link Set}{@code <}{@link PrimitiveSymbolicAtomic}{@code >}
+     *        where the symbols in {@code p} are added.
+     * @return {@code true} iff {@code p} only depends on the
+     *         collected symbols, i.e., it contains no {@link Term},
+     *         {@link Any}, or function application to a reference.
+     */
+    public static boolean symbolsOf(Primitive p, Set<PrimitiveSymbolicAtomic> symbols) {
+        final SymbolCollector collector = new SymbolCollector(symbols);
+        try {
+            p.accept(collector);
+        } catch (Exception e) {
+            //this should never happen
+            failExecution(e);
+        }
+        return collector.retVal;
+    }
+
+    private static final class SymbolCollector implements PrimitiveVisitor {
+        private final Set<PrimitiveSymbolicAtomic> symbols;
+        boolean retVal = true;
+
+        SymbolCollector(Set<PrimitiveSymbolicAtomic> symbols) {
+            this.symbols = symbols;
+        }
+
+        @Override
+        public void visitAny(Any x) {
+            this.retVal = false;
+        }
+
+        @Override
+        public void visitExpression(Expression e) throws Exception {
+            if (!e.isUnary()) {
+                e.getFirstOperand().accept(this);
+            }
+            e.getSecondOperand().accept(this);
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) throws Exception {
+            for (Value arg : x.getArgs()) {
+                if (arg instanceof Primitive) {
+                    ((Primitive) arg).accept(this);
+                } else {
+                    this.retVal = false;
+                }
+            }
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+            this.symbols.add(s);
+        }
+
+        @Override
+        public void visitSimplex(Simplex x) {
+            //nothing to do
+        }
+
+        @Override
+        public void visitTerm(Term x) {
+            this.retVal = false;
+        }
+
+        @Override
+        public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+            x.getArg().accept(this);
+        }
+
+        @Override
+        public void visitWideningConversion(WideningConversion x) throws Exception {
+            x.getArg().accept(this);
+        }
+    }
+}
@@ -80,8 +80,12 @@ public final class Overrides {
     public static final String ALGO_JAVA_OBJECT_HASHCODE                           = internalClassName(jbse.algo.meta.Algo_JAVA_OBJECT_HASHCODE.class.getName());
     public static final String ALGO_JAVA_PACKAGE_GETSYSTEMPACKAGE0                 = internalClassName(jbse.algo.meta.Algo_JAVA_PACKAGE_GETSYSTEMPACKAGE0.class.getName());
     public static final String ALGO_JAVA_REFLECT_ARRAY_NEWARRAY                    = internalClassName(jbse.algo.meta.Algo_JAVA_REFLECT_ARRAY_NEWARRAY.class.getName());
+    public static final String ALGO_JAVA_STRING_CHARAT                             = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_CHARAT.class.getName());
+    public static final String ALGO_JAVA_STRING_EQUALS                             = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_EQUALS.class.getName());
     public static final String ALGO_JAVA_STRING_HASHCODE                           = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_HASHCODE.class.getName());
+    public static final String ALGO_JAVA_STRING_INDEXOF                            = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_INDEXOF.class.getName());
     public static final String ALGO_JAVA_STRING_INTERN                             = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_INTERN.class.getName());
+    public static final String ALGO_JAVA_STRING_STARTSWITH                         = internalClassName(jbse.algo.meta.Algo_JAVA_STRING_STARTSWITH.class.getName());
     public static final String ALGO_JAVA_STRINGBUILDER_APPEND                      = internalClassName(jbse.algo.meta.Algo_JAVA_STRINGBUILDER_APPEND.class.getName());
     public static final String ALGO_JAVA_SYSTEM_ARRAYCOPY                          = internalClassName(jbse.algo.meta.Algo_JAVA_SYSTEM_ARRAYCOPY.class.getName());
     public static final String ALGO_JAVA_SYSTEM_IDENTITYHASHCODE                   = internalClassName(jbse.algo.meta.Algo_JAVA_SYSTEM_IDENTITYHASHCODE.class.getName());
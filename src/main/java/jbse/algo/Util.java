@@ -69,6 +69,7 @@ import jbse.mem.Array;
 import jbse.mem.Frame;
 import jbse.mem.Instance;
 import jbse.mem.Klass;
+import jbse.mem.Objekt;
 import jbse.mem.SnippetFrameNoWrap;
 import jbse.mem.State;
 import jbse.mem.State.Phase;
@@ -370,6 +371,52 @@ public final class Util {
         }
     }
 
+    /**
+     * Returns the {@code value} array of a {@code java.lang.String}
+     * object, if it has simple representation and all its members
+     * are known.
+     * 
+     * @param s a {@link State}.
+     * @param ref a {@link Reference}.
+     * @return the {@link Array} that is the {@code value} of the
+     *         {@code java.lang.String} referred by {@code ref}, 
+     *         or {@code null} if {@code ref} does not refer to a 
+     *         {@code java.lang.String} (e.g., it is null, or it
+     *         is symbolic and unresolved), or its value has not
+     *         simple representation (see {@link Array#hasSimpleRep()}),
+     *         or some of its members is still unknown (i.e., it 
+     *         is an initial symbolic member not yet read). The members
+     *         of the returned array can be symbolic.
+     * @throws FrozenStateException if {@code s} is frozen.
+     */
+    public static Array valueArraySimple(State s, Reference ref) throws FrozenStateException {
+        final Objekt o = s.getObject(ref);
+        if (!(o instanceof Instance)) {
+            return null;
+        }
+        final ClassFile cf_JAVA_STRING = s.getClassHierarchy().getClassFileClassArray(CLASSLOADER_BOOT, JAVA_STRING);
+        if (cf_JAVA_STRING == null) {
+            failExecution("Could not find class java.lang.String.");
+        }
+        if (!cf_JAVA_STRING.equals(o.getType())) {
+            return null;
+        }
+        final Value valueRef = o.getFieldValue(JAVA_STRING_VALUE);
+        if (!(valueRef instanceof Reference)) {
+            return null;
+        }
+        final Objekt value = s.getObject((Reference) valueRef);
+        if (!(value instanceof Array) || !((Array) value).hasSimpleRep()) {
+            return null;
+        }
+        for (Array.AccessOutcomeIn entry : ((Array) value).values()) {
+            if (!(entry instanceof Array.AccessOutcomeInValue) || ((Array.AccessOutcomeInValue) entry).getValue() == null) {
+                return null;
+            }
+        }
+        return (Array) value;
+    }
+
     /**
      * Equivalent to 
      * {@link #throwNew}{@code (state, "java/lang/VerifyError")}.
@@ -104,15 +104,16 @@ public final class Algo_JAVA_FILEINPUTSTREAM_CLOSE0 extends Algo_INVOKEMETA_Nonb
             }
             
             //removes the association fd/FileInputStream from the state
-            //and closes the FileInputStream
+            //and closes the FileInputStream if no other state uses it
             final FileInputStream fis = (FileInputStream) state.getFile(this.fileId);
-            state.removeFile(this.fileId);
-            try {
-                fis.close();
-            } catch (IOException e) {
-                //exception while closing
-                throwNew(state, this.ctx.getCalculator(), IO_EXCEPTION);
-                exitFromAlgorithm();
+            if (state.removeFile(this.fileId)) {
+                try {
+                    fis.close();
+                } catch (IOException e) {
+                    //exception while closing
+                    throwNew(state, this.ctx.getCalculator(), IO_EXCEPTION);
+                    exitFromAlgorithm();
+                }
             }
         };
     }
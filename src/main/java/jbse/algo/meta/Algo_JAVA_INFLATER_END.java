@@ -30,6 +30,7 @@ import jbse.val.Simplex;
  */
 public final class Algo_JAVA_INFLATER_END extends Algo_INVOKEMETA_Nonbranching {
     private long addr; //set by cookMore
+    private long addrInflater; //set by cookMore
     
     @Override
     protected Supplier<Integer> numOperands() {
@@ -48,28 +49,34 @@ public final class Algo_JAVA_INFLATER_END extends Algo_INVOKEMETA_Nonbranching {
             }
             this.addr = ((Long) ((Simplex) _addr).getActualValue()).longValue();
             //TODO check that addr is valid, and react appropriately in the negative case
-            
-            //invokes metacircularly the end method
-            final Method method = Inflater.class.getDeclaredMethod("end", long.class);
-            method.setAccessible(true);
-            method.invoke(null, state.getInflater(this.addr));
-        } catch (InvocationTargetException e) {
-            final String cause = internalClassName(e.getCause().getClass().getName());
-            throwNew(state, this.ctx.getCalculator(), cause);
-            exitFromAlgorithm();
+            this.addrInflater = state.getInflater(this.addr);
         } catch (ClassCastException e) {
             throwVerifyError(state, this.ctx.getCalculator());
             exitFromAlgorithm();
-        } catch (SecurityException | NoSuchMethodException | IllegalAccessException e) {
-            //this should not happen
-            failExecution(e);
         }
     }
 
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.removeInflater(this.addr);
+            //the inflater is ended only if no other 
+            //state uses it
+            if (!state.removeInflater(this.addr)) {
+                return;
+            }
+            try {
+                //invokes metacircularly the end method
+                final Method method = Inflater.class.getDeclaredMethod("end", long.class);
+                method.setAccessible(true);
+                method.invoke(null, this.addrInflater);
+            } catch (InvocationTargetException e) {
+                final String cause = internalClassName(e.getCause().getClass().getName());
+                throwNew(state, this.ctx.getCalculator(), cause);
+                exitFromAlgorithm();
+            } catch (SecurityException | NoSuchMethodException | IllegalAccessException e) {
+                //this should not happen
+                failExecution(e);
+            }
         };
     }
 }
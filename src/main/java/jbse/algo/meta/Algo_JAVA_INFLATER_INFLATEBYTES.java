@@ -77,7 +77,7 @@ public final class Algo_JAVA_INFLATER_INFLATEBYTES extends Algo_INVOKEMETA_Nonbr
             if (_addr.isSymbolic()) {
                 throw new SymbolicValueNotAllowedException("The long addr parameter to invocation of method java.util.zip.Inflater.inflateBytes cannot be a symbolic value.");
             }
-            final long addr = Long.valueOf(state.getInflater(((Long) ((Simplex) _addr).getActualValue()).longValue()));
+            final long addr = Long.valueOf(state.getInflaterExclusive(((Long) ((Simplex) _addr).getActualValue()).longValue()));
             //TODO what if addr is wrong?
             
             //gets the third (byte[] b) parameter
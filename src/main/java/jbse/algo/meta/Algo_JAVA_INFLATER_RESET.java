@@ -50,7 +50,7 @@ public final class Algo_JAVA_INFLATER_RESET extends Algo_INVOKEMETA_Nonbranching
             //invokes metacircularly the reset method
             final Method method = Inflater.class.getDeclaredMethod("reset", long.class);
             method.setAccessible(true);
-            method.invoke(null, state.getInflater(addr));
+            method.invoke(null, state.getInflaterExclusive(addr));
         } catch (InvocationTargetException e) {
             final String cause = internalClassName(e.getCause().getClass().getName());
             throwNew(state, this.ctx.getCalculator(), cause);
@@ -0,0 +1,154 @@
+package jbse.algo.meta;
+
+import static jbse.algo.Util.continueWithBaseLevelImpl;
+import static jbse.algo.Util.exitFromAlgorithm;
+import static jbse.algo.Util.failExecution;
+import static jbse.algo.Util.throwNew;
+import static jbse.algo.Util.throwVerifyError;
+import static jbse.algo.Util.valueArraySimple;
+import static jbse.bc.Offsets.offsetInvoke;
+import static jbse.bc.Signatures.STRING_INDEX_OUT_OF_BOUNDS_EXCEPTION;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+
+import java.util.function.Supplier;
+
+import jbse.algo.Algo_INVOKEMETA;
+import jbse.algo.BytecodeCooker;
+import jbse.algo.StrategyDecide;
+import jbse.algo.StrategyRefine;
+import jbse.algo.StrategyUpdate;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedureAlgorithms.Outcome;
+import jbse.mem.Array;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.tree.DecisionAlternative_IFX;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.Reference;
+import jbse.val.Simplex;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Meta-level implementation of {@link java.lang.String#charAt(int)}.
+ * When the string has simple representation and the index is
+ * symbolic it branches only on whether the index is in bounds,
+ * and yields the accessed character as a single value, rather
+ * than branching on each possible index as the base-level
+ * implementation does.
+ */
+public final class Algo_JAVA_STRING_CHARAT extends Algo_INVOKEMETA<
+DecisionAlternative_IFX,
+StrategyDecide<DecisionAlternative_IFX>,
+StrategyRefine<DecisionAlternative_IFX>,
+StrategyUpdate<DecisionAlternative_IFX>> {
+    private Primitive inBounds; //set by cooker
+    private Primitive charAt; //set by cooker
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> 2;
+    }
+
+    @Override
+    protected BytecodeCooker bytecodeCooker() {
+        return (state) -> {
+            final Calculator calc = this.ctx.getCalculator();
+            try {
+                final Reference thisReference = (Reference) this.data.operand(0);
+                final Primitive index = (Primitive) this.data.operand(1);
+                final Array thisValue = valueArraySimple(state, thisReference);
+                if (thisValue == null || index instanceof Simplex) {
+                    //executes the String.charAt implementation
+                    continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+                }
+                final Primitive indexNonNegative = calc.push(index).ge(calc.valInt(0)).pop();
+                this.inBounds = calc.push(index).lt(thisValue.getLength()).and(indexNonNegative).pop();
+                this.charAt = charAt(calc, thisValue, index);
+            } catch (ClassCastException e) {
+                throwVerifyError(state, calc);
+                exitFromAlgorithm();
+            } catch (InvalidOperandException | InvalidTypeException | FastArrayAccessNotAllowedException e) {
+                //this should never happen
+                failExecution(e);
+            }
+        };
+    }
+
+    /**
+     * Returns the character of an array of characters
+     * at a given index. The character is built without
+     * branching, as the sum of the products of each
+     * character with the equality of its position with
+     * the index (booleans counted as {@code 1} and {@code 0}).
+     *
+     * @param calc a {@link Calculator}.
+     * @param value an {@link Array} of {@code char}s with simple representation.
+     * @param index a {@link Primitive} with type {@code int}, the index.
+     *        It is assumed to be within the bounds of {@code value}.
+     * @return a {@link Primitive} with type {@code char}, the
+     *         character of {@code value} at {@code index}.
+     * @throws InvalidInputException if {@code calc == null}.
+     * @throws InvalidTypeException if {@code value} is not an
+     *         array of {@code char}s or {@code index} is not an {@code int}.
+     * @throws InvalidOperandException never.
+     * @throws FastArrayAccessNotAllowedException if {@code value}
+     *         has not simple representation.
+     */
+    static Primitive charAt(Calculator calc, Array value, Primitive index)
+    throws InvalidInputException, InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+        final int length = ((Integer) ((Simplex) value.getLength()).getActualValue()).intValue();
+        Primitive charAt = calc.valInt(0);
+        for (int i = 0; i < length; ++i) {
+            final Primitive c_i = (Primitive) ((Array.AccessOutcomeInValue) value.getFast(calc, calc.valInt(i))).getValue();
+            final Primitive index_eq_i = calc.push(index).eq(calc.valInt(i)).widen(INT).pop();
+            charAt = calc.push(charAt).add(calc.push(c_i).widen(INT).mul(index_eq_i).pop()).pop();
+        }
+        return calc.push(charAt).narrow(CHAR).pop();
+    }
+
+    @Override
+    protected Class<DecisionAlternative_IFX> classDecisionAlternative() {
+        return DecisionAlternative_IFX.class;
+    }
+
+    @Override
+    protected StrategyDecide<DecisionAlternative_IFX> decider() {
+        return (state, result) -> {
+            final Outcome o = this.ctx.decisionProcedure.decide_IFX(this.inBounds, result);
+            return o;
+        };
+    }
+
+    @Override
+    protected StrategyRefine<DecisionAlternative_IFX> refiner() {
+        return (state, alt) -> {
+            final Calculator calc = this.ctx.getCalculator();
+            final Primitive assumption = (alt.value() ? this.inBounds : calc.push(this.inBounds).not().pop());
+            state.assume(calc.simplify(this.ctx.decisionProcedure.simplify(assumption)));
+        };
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_IFX> updater() {
+        return (state, alt) -> {
+            if (alt.value()) {
+                state.pushOperand(this.charAt);
+            } else {
+                throwNew(state, this.ctx.getCalculator(), STRING_INDEX_OUT_OF_BOUNDS_EXCEPTION);
+                exitFromAlgorithm();
+            }
+        };
+    }
+
+    @Override
+    protected Supplier<Boolean> isProgramCounterUpdateAnOffset() {
+        return () -> true;
+    }
+
+    @Override
+    protected Supplier<Integer> programCounterUpdate() {
+        return () -> offsetInvoke(this.isInterface);
+    }
+}
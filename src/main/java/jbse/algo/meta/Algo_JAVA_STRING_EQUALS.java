@@ -0,0 +1,117 @@
+package jbse.algo.meta;
+
+import static jbse.algo.Util.continueWithBaseLevelImpl;
+import static jbse.algo.Util.exitFromAlgorithm;
+import static jbse.algo.Util.failExecution;
+import static jbse.algo.Util.throwVerifyError;
+import static jbse.algo.Util.valueArraySimple;
+import static jbse.common.Type.INT;
+
+import java.util.function.Supplier;
+
+import jbse.algo.Algo_INVOKEMETA_Nonbranching;
+import jbse.algo.InterruptException;
+import jbse.algo.StrategyUpdate;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
+import jbse.mem.Array;
+import jbse.mem.State;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.DecisionAlternative_NONE;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.Reference;
+import jbse.val.Simplex;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Meta-level implementation of {@link java.lang.String#equals(Object)}.
+ * When both strings have simple representation it yields the
+ * conjunction of the equalities of their characters as a single
+ * value, rather than branching on each character as the
+ * base-level implementation does.
+ */
+public final class Algo_JAVA_STRING_EQUALS extends Algo_INVOKEMETA_Nonbranching {
+    private Primitive equals; //set by cookMore
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> 2;
+    }
+
+    @Override
+    protected void cookMore(State state)
+    throws ThreadStackEmptyException, InterruptException,
+    ClasspathException, FrozenStateException, InvalidInputException {
+        final Calculator calc = this.ctx.getCalculator();
+        try {
+            final Reference thisReference = (Reference) this.data.operand(0);
+            final Reference otherReference = (Reference) this.data.operand(1);
+            final Array thisValue = valueArraySimple(state, thisReference);
+            final Array otherValue = valueArraySimple(state, otherReference);
+            if (thisValue == null || otherValue == null) {
+                //executes the String.equals implementation
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+            final int thisLength = ((Integer) ((Simplex) thisValue.getLength()).getActualValue()).intValue();
+            final int otherLength = ((Integer) ((Simplex) otherValue.getLength()).getActualValue()).intValue();
+            if (thisValue == otherValue) {
+                this.equals = calc.valInt(1);
+            } else if (thisLength != otherLength) {
+                this.equals = calc.valInt(0);
+            } else {
+                this.equals = calc.push(charsEqual(calc, thisValue, 0, otherValue, 0, thisLength)).widen(INT).pop();
+            }
+        } catch (ClassCastException e) {
+            throwVerifyError(state, calc);
+            exitFromAlgorithm();
+        } catch (InvalidOperandException | InvalidTypeException | FastArrayAccessNotAllowedException e) {
+            //this should never happen
+            failExecution(e);
+        }
+    }
+
+    /**
+     * Returns the conjunction of the equalities of
+     * two ranges of characters.
+     *
+     * @param calc a {@link Calculator}.
+     * @param a an {@link Array} of {@code char}s with simple representation.
+     * @param aOffset an {@code int}, the start of the range in {@code a}.
+     * @param b an {@link Array} of {@code char}s with simple representation.
+     * @param bOffset an {@code int}, the start of the range in {@code b}.
+     * @param length an {@code int}, the length of the ranges. The ranges
+     *        must be within the bounds of {@code a} and {@code b}.
+     * @return a {@link Primitive} with type {@code boolean}, that
+     *         is {@code true} iff the two ranges have the same characters.
+     * @throws InvalidInputException if {@code calc == null}.
+     * @throws InvalidTypeException if {@code a} or {@code b} are
+     *         not arrays of {@code char}s.
+     * @throws InvalidOperandException never.
+     * @throws FastArrayAccessNotAllowedException if {@code a} or
+     *         {@code b} have not simple representation.
+     */
+    static Primitive charsEqual(Calculator calc, Array a, int aOffset, Array b, int bOffset, int length)
+    throws InvalidInputException, InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+        calc.pushBoolean(true);
+        for (int i = 0; i < length; ++i) {
+            final Primitive a_i = (Primitive) ((Array.AccessOutcomeInValue) a.getFast(calc, calc.valInt(aOffset + i))).getValue();
+            final Primitive b_i = (Primitive) ((Array.AccessOutcomeInValue) b.getFast(calc, calc.valInt(bOffset + i))).getValue();
+            //chars are compared as ints, as the JVM does
+            final Primitive b_i_int = calc.push(b_i).widen(INT).pop();
+            final Primitive a_i_eq_b_i = calc.push(a_i).widen(INT).eq(b_i_int).pop();
+            calc.and(a_i_eq_b_i);
+        }
+        return calc.pop();
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_NONE> updater() {
+        return (state, alt) -> {
+            state.pushOperand(this.equals);
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package jbse.algo.meta;
+
+import static jbse.algo.Util.continueWithBaseLevelImpl;
+import static jbse.algo.Util.exitFromAlgorithm;
+import static jbse.algo.Util.failExecution;
+import static jbse.algo.Util.throwVerifyError;
+import static jbse.algo.Util.valueArraySimple;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+
+import java.util.function.Supplier;
+
+import jbse.algo.Algo_INVOKEMETA_Nonbranching;
+import jbse.algo.InterruptException;
+import jbse.algo.StrategyUpdate;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
+import jbse.mem.Array;
+import jbse.mem.State;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.DecisionAlternative_NONE;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.Reference;
+import jbse.val.Simplex;
+import jbse.val.WideningConversion;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Meta-level implementation of {@link java.lang.String#indexOf(int, int)}
+ * (and thus of {@link java.lang.String#indexOf(int)}). When the string
+ * has simple representation, the start index is concrete and the
+ * searched value is surely a {@code char} it yields the index as a
+ * single value, rather than branching on each character as the
+ * base-level implementation does.
+ */
+public final class Algo_JAVA_STRING_INDEXOF extends Algo_INVOKEMETA_Nonbranching {
+    private Primitive indexOf; //set by cookMore
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> 3;
+    }
+
+    @Override
+    protected void cookMore(State state)
+    throws ThreadStackEmptyException, InterruptException,
+    ClasspathException, FrozenStateException, InvalidInputException {
+        final Calculator calc = this.ctx.getCalculator();
+        try {
+            final Reference thisReference = (Reference) this.data.operand(0);
+            final Primitive ch = (Primitive) this.data.operand(1);
+            final Primitive fromIndex = (Primitive) this.data.operand(2);
+            final Array thisValue = valueArraySimple(state, thisReference);
+            if (thisValue == null || !(fromIndex instanceof Simplex) || !isChar(ch)) {
+                //executes the String.indexOf implementation
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+            final int from = ((Integer) ((Simplex) fromIndex).getActualValue()).intValue();
+            this.indexOf = indexOf(calc, thisValue, ch, Math.max(from, 0));
+        } catch (ClassCastException e) {
+            throwVerifyError(state, calc);
+            exitFromAlgorithm();
+        } catch (InvalidOperandException | InvalidTypeException | FastArrayAccessNotAllowedException e) {
+            //this should never happen
+            failExecution(e);
+        }
+    }
+
+    /**
+     * Checks whether a value searched by {@link String#indexOf(int, int)}
+     * is surely a {@code char}, i.e., whether the base-level implementation
+     * would not search it as a supplementary code point.
+     *
+     * @param ch a {@link Primitive} with type {@code int}.
+     * @return {@code true} iff {@code ch} is a concrete value less than
+     *         {@link Character#MIN_SUPPLEMENTARY_CODE_POINT}, or the widening
+     *         of a {@code char}.
+     */
+    private static boolean isChar(Primitive ch) {
+        if (ch instanceof Simplex) {
+            return ((Integer) ((Simplex) ch).getActualValue()).intValue() < Character.MIN_SUPPLEMENTARY_CODE_POINT;
+        }
+        return (ch instanceof WideningConversion && ((WideningConversion) ch).getArg().getType() == CHAR);
+    }
+
+    /**
+     * Returns the index of the first occurrence of a character
+     * in an array of characters. The index is built without
+     * branching: If {@code noMatch_i} is the conjunction of
+     * the disequalities of {@code ch} with the characters in
+     * {@code [fromIndex, i)}, the first occurrence of {@code ch}
+     * is at {@code fromIndex + (noMatch_{fromIndex + 1} + ... + noMatch_{length - 1})}
+     * (booleans counted as {@code 1} and {@code 0}), unless
+     * {@code noMatch_length} holds, in which case it is {@code -1}.
+     *
+     * @param calc a {@link Calculator}.
+     * @param value an {@link Array} of {@code char}s with simple representation.
+     * @param ch a {@link Primitive} with type {@code int}, the searched character.
+     * @param fromIndex a nonnegative {@code int}, the index to start the search from.
+     * @return a {@link Primitive} with type {@code int}, the index
+     *         of the first occurrence of {@code ch} in {@code value}
+     *         at or after {@code fromIndex}, or {@code -1} if there
+     *         is no such occurrence.
+     * @throws InvalidInputException if {@code calc == null}.
+     * @throws InvalidTypeException if {@code value} is not an
+     *         array of {@code char}s or {@code ch} is not an {@code int}.
+     * @throws InvalidOperandException never.
+     * @throws FastArrayAccessNotAllowedException if {@code value}
+     *         has not simple representation.
+     */
+    static Primitive indexOf(Calculator calc, Array value, Primitive ch, int fromIndex)
+    throws InvalidInputException, InvalidTypeException, InvalidOperandException, FastArrayAccessNotAllowedException {
+        final int length = ((Integer) ((Simplex) value.getLength()).getActualValue()).intValue();
+        if (fromIndex >= length) {
+            return calc.valInt(-1);
+        }
+        Primitive noMatch = calc.valBoolean(true);
+        Primitive index = calc.valInt(fromIndex);
+        for (int i = fromIndex; i < length; ++i) {
+            final Primitive c_i = (Primitive) ((Array.AccessOutcomeInValue) value.getFast(calc, calc.valInt(i))).getValue();
+            //chars are compared as ints, as the JVM does
+            final Primitive c_i_ne_ch = calc.push(c_i).widen(INT).ne(ch).pop();
+            noMatch = calc.push(noMatch).and(c_i_ne_ch).pop();
+            if (i < length - 1) {
+                index = calc.push(index).add(calc.push(noMatch).widen(INT).pop()).pop();
+            }
+        }
+        final Primitive notFoundCorrection = calc.push(noMatch).widen(INT).mul(calc.valInt(length)).pop();
+        return calc.push(index).sub(notFoundCorrection).pop();
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_NONE> updater() {
+        return (state, alt) -> {
+            state.pushOperand(this.indexOf);
+        };
+    }
+}
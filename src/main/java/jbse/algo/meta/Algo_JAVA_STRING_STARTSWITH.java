@@ -0,0 +1,86 @@
+package jbse.algo.meta;
+
+import static jbse.algo.Util.continueWithBaseLevelImpl;
+import static jbse.algo.Util.exitFromAlgorithm;
+import static jbse.algo.Util.failExecution;
+import static jbse.algo.Util.throwVerifyError;
+import static jbse.algo.Util.valueArraySimple;
+import static jbse.algo.meta.Algo_JAVA_STRING_EQUALS.charsEqual;
+import static jbse.common.Type.INT;
+
+import java.util.function.Supplier;
+
+import jbse.algo.Algo_INVOKEMETA_Nonbranching;
+import jbse.algo.InterruptException;
+import jbse.algo.StrategyUpdate;
+import jbse.common.exc.ClasspathException;
+import jbse.common.exc.InvalidInputException;
+import jbse.mem.Array;
+import jbse.mem.State;
+import jbse.mem.exc.FastArrayAccessNotAllowedException;
+import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.tree.DecisionAlternative_NONE;
+import jbse.val.Calculator;
+import jbse.val.Primitive;
+import jbse.val.Reference;
+import jbse.val.Simplex;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Meta-level implementation of {@link java.lang.String#startsWith(String, int)}
+ * (and thus of {@link java.lang.String#startsWith(String)} and
+ * {@link java.lang.String#endsWith(String)}). When both strings have
+ * simple representation and the offset is concrete it yields the
+ * conjunction of the equalities of the compared characters as a
+ * single value, rather than branching on each character as the
+ * base-level implementation does.
+ */
+public final class Algo_JAVA_STRING_STARTSWITH extends Algo_INVOKEMETA_Nonbranching {
+    private Primitive startsWith; //set by cookMore
+
+    @Override
+    protected Supplier<Integer> numOperands() {
+        return () -> 3;
+    }
+
+    @Override
+    protected void cookMore(State state)
+    throws ThreadStackEmptyException, InterruptException,
+    ClasspathException, FrozenStateException, InvalidInputException {
+        final Calculator calc = this.ctx.getCalculator();
+        try {
+            final Reference thisReference = (Reference) this.data.operand(0);
+            final Reference prefixReference = (Reference) this.data.operand(1);
+            final Primitive toffset = (Primitive) this.data.operand(2);
+            final Array thisValue = valueArraySimple(state, thisReference);
+            final Array prefixValue = valueArraySimple(state, prefixReference);
+            if (thisValue == null || prefixValue == null || !(toffset instanceof Simplex)) {
+                //executes the String.startsWith implementation
+                continueWithBaseLevelImpl(state, this.isInterface, this.isSpecial, this.isStatic);
+            }
+            final int thisLength = ((Integer) ((Simplex) thisValue.getLength()).getActualValue()).intValue();
+            final int prefixLength = ((Integer) ((Simplex) prefixValue.getLength()).getActualValue()).intValue();
+            final int offset = ((Integer) ((Simplex) toffset).getActualValue()).intValue();
+            if (offset < 0 || offset > thisLength - prefixLength) {
+                this.startsWith = calc.valInt(0);
+            } else {
+                this.startsWith = calc.push(charsEqual(calc, thisValue, offset, prefixValue, 0, prefixLength)).widen(INT).pop();
+            }
+        } catch (ClassCastException e) {
+            throwVerifyError(state, calc);
+            exitFromAlgorithm();
+        } catch (InvalidOperandException | InvalidTypeException | FastArrayAccessNotAllowedException e) {
+            //this should never happen
+            failExecution(e);
+        }
+    }
+
+    @Override
+    protected StrategyUpdate<DecisionAlternative_NONE> updater() {
+        return (state, alt) -> {
+            state.pushOperand(this.startsWith);
+        };
+    }
+}
@@ -30,6 +30,8 @@ import jbse.val.Simplex;
  */
 public final class Algo_JAVA_ZIPFILE_FREEENTRY extends Algo_INVOKEMETA_Nonbranching {
     private long jzentry; //set by cookMore
+    private long jzfileJz; //set by cookMore
+    private long jzentryJz; //set by cookMore
     
     @Override
     protected Supplier<Integer> numOperands() {
@@ -59,28 +61,35 @@ public final class Algo_JAVA_ZIPFILE_FREEENTRY extends Algo_INVOKEMETA_Nonbranch
             }
             this.jzentry = ((Long) ((Simplex) _jzentry).getActualValue()).longValue();
             //TODO what if jzentry is not open?
-            
-            //invokes metacircularly the freeEntry method
-            final Method method = ZipFile.class.getDeclaredMethod("freeEntry", long.class, long.class);
-            method.setAccessible(true);
-            method.invoke(null, state.getZipFileJz(jzfile), state.getZipFileEntryJz(this.jzentry));
-        } catch (InvocationTargetException e) {
-            final String cause = internalClassName(e.getCause().getClass().getName());
-            throwNew(state, this.ctx.getCalculator(), cause);
-            exitFromAlgorithm();
+            this.jzfileJz = state.getZipFileJz(jzfile);
+            this.jzentryJz = state.getZipFileEntryJz(this.jzentry);
         } catch (ClassCastException e) {
             throwVerifyError(state, this.ctx.getCalculator());
             exitFromAlgorithm();
-        } catch (SecurityException | NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
-            //this should not happen
-            failExecution(e);
         }
     }
 
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
-            state.removeZipFileEntry(this.jzentry);
+            //the jzentry C structure is freed only if 
+            //no other state uses it
+            if (!state.removeZipFileEntry(this.jzentry)) {
+                return;
+            }
+            try {
+                //invokes metacircularly the freeEntry method
+                final Method method = ZipFile.class.getDeclaredMethod("freeEntry", long.class, long.class);
+                method.setAccessible(true);
+                method.invoke(null, this.jzfileJz, this.jzentryJz);
+            } catch (InvocationTargetException e) {
+                final String cause = internalClassName(e.getCause().getClass().getName());
+                throwNew(state, this.ctx.getCalculator(), cause);
+                exitFromAlgorithm();
+            } catch (SecurityException | NoSuchMethodException | IllegalAccessException | IllegalArgumentException e) {
+                //this should not happen
+                failExecution(e);
+            }
         };
     }
 }
@@ -112,6 +112,11 @@ public final class Algo_JBSE_BASE_MAKEKLASSSYMBOLIC_DO extends Algo_INVOKEMETA_N
         };
     }
 
+    @Override
+    protected DecisionAlternative_NONE fastPathAlternative() {
+        return null; //the state must be refined
+    }
+
     private ArrayList<ReferenceSymbolic> assumeAliases;
     private ArrayList<ReferenceSymbolic> assumeAliasesTargets;
     private ArrayList<ReferenceSymbolic> assumeExpands;
@@ -195,7 +200,7 @@ public final class Algo_JBSE_BASE_MAKEKLASSSYMBOLIC_DO extends Algo_INVOKEMETA_N
                         final ReferenceSymbolic newFieldValue = (ReferenceSymbolic) state.createSymbolMemberField(fieldType, fieldType, currentObjekt.getOrigin(), fieldName, fieldClass);
 
                         //sets the field
-                        var.setValue(newFieldValue);
+                        currentObjekt.setFieldValue(sig, newFieldValue);
 
                         //records the resolution
                         this.assumeNull.add(newFieldValue);
@@ -212,7 +217,7 @@ public final class Algo_JBSE_BASE_MAKEKLASSSYMBOLIC_DO extends Algo_INVOKEMETA_N
                             final ReferenceSymbolic newFieldValue = (ReferenceSymbolic) state.createSymbolMemberField(fieldType, fieldType, currentObjekt.getOrigin(), fieldName, fieldClass);
 
                             //sets the field
-                            var.setValue(newFieldValue);
+                            currentObjekt.setFieldValue(sig, newFieldValue);
 
                             if (o.isSymbolic()) {
                                 //records the resolution by alias
@@ -247,7 +252,7 @@ public final class Algo_JBSE_BASE_MAKEKLASSSYMBOLIC_DO extends Algo_INVOKEMETA_N
                     final ReferenceSymbolic newFieldValue = (ReferenceSymbolic) state.createSymbolMemberField(fieldType, fieldType, currentObjekt.getOrigin(), fieldName, fieldClass);
 
                     //sets the field
-                    var.setValue(newFieldValue);
+                    currentObjekt.setFieldValue(sig, newFieldValue);
 
                     //calculates the assumption
                     final ReferenceSymbolic ref = (ReferenceSymbolic) fieldValue;
@@ -1,7 +1,5 @@
 package jbse.algo.meta;
 
-import static jbse.common.Util.unsafe;
-
 import java.util.function.Supplier;
 
 import jbse.algo.Algo_INVOKEMETA_Nonbranching;
@@ -36,8 +34,8 @@ public final class Algo_SUN_UNSAFE_FREEMEMORY extends Algo_INVOKEMETA_Nonbranchi
     @Override
     protected StrategyUpdate<DecisionAlternative_NONE> updater() {
         return (state, alt) -> {
+            //also frees the memory block if no other state uses it
             state.removeMemoryBlock(this.memoryAddress);
-            unsafe().freeMemory(this.memoryAddress);
         };
     }
 }
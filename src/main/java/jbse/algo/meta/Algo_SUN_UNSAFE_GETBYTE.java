@@ -8,6 +8,7 @@ import jbse.algo.Algo_INVOKEMETA_Nonbranching;
 import jbse.algo.StrategyUpdate;
 import jbse.algo.exc.SymbolicValueNotAllowedException;
 import jbse.mem.State;
+import jbse.mem.exc.FrozenStateException;
 import jbse.tree.DecisionAlternative_NONE;
 import jbse.val.Simplex;
 
@@ -25,12 +26,12 @@ public final class Algo_SUN_UNSAFE_GETBYTE extends Algo_INVOKEMETA_Nonbranching
     }
     
     @Override
-    protected void cookMore(State state) throws SymbolicValueNotAllowedException {
+    protected void cookMore(State state) throws SymbolicValueNotAllowedException, FrozenStateException {
         if (!(this.data.operand(1) instanceof Simplex)) {
             throw new SymbolicValueNotAllowedException("sun.misc.Unsafe.getByte cannot be invoked with a symbolic argument");
         }
         final long memoryAddress = ((Long) ((Simplex) this.data.operand(1)).getActualValue()).longValue();
-        this.value = unsafe().getByte(memoryAddress);
+        this.value = unsafe().getByte(state.translateMemoryAddress(memoryAddress, false));
     }
     
     @Override
@@ -0,0 +1,175 @@
+package jbse.apps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Writes {@link String}s to a {@link Writer} on a background
+ * thread. The {@link String}s are queued in a bounded buffer,
+ * so a producer faster than the {@link Writer} is blocked
+ * until the buffer has room (back-pressure). The {@link Writer}
+ * is flushed whenever the buffer gets empty. An {@link IOException}
+ * raised by the {@link Writer} is rethrown to the producer
+ * by the next invocation of {@link #write(String)} or
+ * {@link #close()}.
+ */
+public final class AsyncWriter implements Closeable {
+    /** Marks the end of the stream in the buffer. */
+    private static final String END = new String();
+
+    /** The {@link Writer} that is written on the background thread. */
+    private final Writer writer;
+
+    /** The buffer. */
+    private final ArrayBlockingQueue<String> buffer;
+
+    /** The background thread. */
+    private final Thread thread;
+
+    /** The first failure of the background thread, or {@code null}. */
+    private volatile IOException failure = null;
+
+    /** Set when this {@link AsyncWriter} is closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor. Starts the background thread.
+     *
+     * @param writer the {@link Writer} where the {@link String}s
+     *        will be written. It will be closed when this
+     *        {@link AsyncWriter} is closed.
+     * @param capacity a positive {@code int}, the maximum number
+     *        of {@link String}s that can be queued.
+     * @param threadName a {@link String}, the name of the
+     *        background thread.
+     * @throws NullPointerException if {@code writer == null}.
+     * @throws IllegalArgumentException if {@code capacity <= 0}.
+     */
+    public AsyncWriter(Writer writer, int capacity, String threadName) {
+        if (writer == null) {
+            throw new NullPointerException();
+        }
+        this.writer = writer;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::drain, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a {@link String} to be written, blocking
+     * if the buffer is full.
+     *
+     * @param s the {@link String} to be written.
+     * @throws IOException if writing a previous {@link String}
+     *         failed, or if the current thread is interrupted
+     *         while waiting for room in the buffer.
+     * @throws IllegalStateException if this {@link AsyncWriter}
+     *         was closed.
+     */
+    public void write(String s) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException("Tried to write on a closed AsyncWriter.");
+        }
+        checkFailure();
+        put(s);
+    }
+
+    /**
+     * Writes all the queued {@link String}s, stops the
+     * background thread and closes the {@link Writer}.
+     * Subsequent invocations have no effect.
+     *
+     * @throws IOException if writing some {@link String}
+     *         or closing the {@link Writer} failed, or
+     *         if the current thread is interrupted while
+     *         waiting for the background thread.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        put(END);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+        checkFailure();
+    }
+
+    private void put(String s) throws InterruptedIOException {
+        try {
+            this.buffer.put(s);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        final IOException e = this.failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * The body of the background thread.
+     */
+    private void drain() {
+        final ArrayList<String> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(this.buffer.take());
+                this.buffer.drainTo(batch);
+                for (String s : batch) {
+                    if (s == END) {
+                        this.writer.flush();
+                        return;
+                    }
+                    this.writer.write(s);
+                }
+                batch.clear();
+                if (this.buffer.isEmpty()) {
+                    this.writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            this.failure = e;
+            for (String s : batch) {
+                if (s == END) {
+                    return;
+                }
+            }
+            //keeps consuming the buffer so the producer is never blocked
+            drainAfterFailure();
+        } catch (InterruptedException e) {
+            this.failure = new InterruptedIOException();
+        }
+    }
+
+    private void drainAfterFailure() {
+        try {
+            while (this.buffer.take() != END) {
+                //discards
+            }
+        } catch (InterruptedException e) {
+            //nothing to do, the thread stops
+        }
+    }
+}
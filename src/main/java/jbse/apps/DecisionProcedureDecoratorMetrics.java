@@ -0,0 +1,168 @@
+package jbse.apps;
+
+import java.util.Collection;
+import java.util.Map;
+
+import jbse.bc.ClassFile;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedure;
+import jbse.dec.DecisionProcedureDecorator;
+import jbse.dec.exc.DecisionException;
+import jbse.jvm.Metrics;
+import jbse.mem.Clause;
+import jbse.mem.Objekt;
+import jbse.val.Expression;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.Simplex;
+
+/**
+ * A {@link DecisionProcedureDecorator} that records in a 
+ * {@link Metrics} histogram the latency, in nanoseconds, of 
+ * every query and assumption update to its component. When 
+ * the component is a stage of a chain of responsibility, the 
+ * latency includes the time spent in the next stages.
+ */
+public class DecisionProcedureDecoratorMetrics extends DecisionProcedureDecorator {
+    private final Metrics.Histogram latency;
+
+    /**
+     * Constructor.
+     * 
+     * @param component the decorated {@link DecisionProcedure}.
+     * @param metrics the {@link Metrics} where the latencies are recorded.
+     * @param stageName a {@link String}, the name of the stage; The 
+     *        latencies are recorded in the histogram with name 
+     *        {@link Metrics#SOLVER_TIME_PREFIX}{@code  + stageName}.
+     * @throws InvalidInputException if {@code component == null}.
+     */
+    public DecisionProcedureDecoratorMetrics(DecisionProcedure component, Metrics metrics, String stageName) 
+    throws InvalidInputException {
+        super(component);
+        this.latency = metrics.histogram(Metrics.SOLVER_TIME_PREFIX + stageName);
+    }
+
+    private void record(long start) {
+        this.latency.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void pushAssumption(Clause c) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        super.pushAssumption(c);
+        record(start);
+    }
+
+    @Override
+    public void clearAssumptions() 
+    throws DecisionException {
+        final long start = System.nanoTime();
+        super.clearAssumptions();
+        record(start);
+    }
+    
+    @Override
+    public void addAssumptions(Iterable<Clause> assumptionsToAdd) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        super.addAssumptions(assumptionsToAdd);
+        record(start);
+    }
+    
+    @Override
+    public void addAssumptions(Clause... assumptionsToAdd) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        super.addAssumptions(assumptionsToAdd);
+        record(start);
+    }
+
+    @Override
+    public void setAssumptions(Collection<Clause> newAssumptions) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        super.setAssumptions(newAssumptions);
+        record(start);
+    }
+
+    @Override
+    public Collection<Clause> getAssumptions() 
+    throws DecisionException {
+        final long start = System.nanoTime();
+        final Collection<Clause> result = super.getAssumptions();
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSat(Expression exp) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSat(exp);
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatNull(ReferenceSymbolic r) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatNull(r);
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatAliases(ReferenceSymbolic r, long heapPos, Objekt o)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatAliases(r, heapPos, o);
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatExpands(ReferenceSymbolic r, ClassFile classFile)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatExpands(r, classFile);
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatInitialized(ClassFile classFile) 
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatInitialized(classFile);
+        record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isSatNotInitialized(ClassFile classFile)
+    throws InvalidInputException, DecisionException {
+        final long start = System.nanoTime();
+        final boolean result = super.isSatNotInitialized(classFile);
+        record(start);
+        return result;
+    }
+    
+    @Override
+    public Map<PrimitiveSymbolic, Simplex> getModel() throws DecisionException {
+        final long start = System.nanoTime();
+        final Map<PrimitiveSymbolic, Simplex> result = super.getModel();
+        record(start);
+        return result;
+    }
+    
+    @Override
+    public Primitive simplify(Primitive c) throws DecisionException {
+        final long start = System.nanoTime();
+        final Primitive result = super.simplify(c);
+        record(start);
+        return result;
+    }
+}
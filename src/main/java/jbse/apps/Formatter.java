@@ -30,6 +30,19 @@ public interface Formatter {
      */
     String emit();
 
+    /**
+     * Emits the formatted {@link State} by appending it 
+     * to a buffer. Formatters that build their output 
+     * in a {@link StringBuilder} should override this 
+     * method to avoid creating an intermediate {@link String}.
+     * 
+     * @param buffer the {@link StringBuilder} where the
+     *        formatted {@link State} is appended.
+     */
+    default void emit(StringBuilder buffer) {
+        buffer.append(emit());
+    }
+
     /**
      * Cleans the current formatting. Must be invoked
      * before invocations of {@link #formatPrologue()} or 
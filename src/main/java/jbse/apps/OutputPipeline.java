@@ -0,0 +1,246 @@
+package jbse.apps;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * An asynchronous output stage. Text is queued in a bounded
+ * ring buffer by the producer thread and printed on a number
+ * of {@link PrintStream}s by a writer thread, in the same
+ * order it was queued. When the ring buffer is full the
+ * producer blocks until the writer thread makes room
+ * (back-pressure). The writer thread prints the queued text
+ * in batches, and flushes the {@link PrintStream}s once per
+ * batch. The text is produced in {@link StringBuilder}s that
+ * are pooled and recycled after printing.
+ */
+public final class OutputPipeline implements Closeable {
+    /**
+     * The maximum capacity of a pooled buffer; larger
+     * buffers are not recycled to avoid retaining memory.
+     */
+    private static final int MAX_POOLED_BUFFER_CAPACITY = 1 << 20;
+
+    /** An entry in the ring buffer. */
+    private static final class Entry {
+        final PrintStream[] targets;
+        final StringBuilder text;
+        final Throwable throwable;
+        final CountDownLatch done;
+
+        Entry(PrintStream[] targets, StringBuilder text, Throwable throwable, CountDownLatch done) {
+            this.targets = targets;
+            this.text = text;
+            this.throwable = throwable;
+            this.done = done;
+        }
+    }
+
+    /** Marks the end of the stream in the ring buffer. */
+    private static final Entry END = new Entry(null, null, null, null);
+
+    /** The ring buffer. */
+    private final ArrayBlockingQueue<Entry> ring;
+
+    /** The pool of free buffers. */
+    private final ArrayBlockingQueue<StringBuilder> pool;
+
+    /** The writer thread. */
+    private final Thread thread;
+
+    /** Set when this {@link OutputPipeline} is closed. */
+    private boolean closed = false;
+
+    /**
+     * Constructor. Starts the writer thread.
+     *
+     * @param capacity a positive {@code int}, the capacity
+     *        of the ring buffer.
+     * @throws IllegalArgumentException if {@code capacity <= 0}.
+     */
+    public OutputPipeline(int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.pool = new ArrayBlockingQueue<>(capacity + 1);
+        this.thread = new Thread(this::drain, "jbse-output");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns an empty buffer. The buffer must be
+     * passed to {@link #print(PrintStream[], StringBuilder)},
+     * after which it must not be used any more.
+     *
+     * @return an empty {@link StringBuilder}.
+     */
+    public StringBuilder acquireBuffer() {
+        final StringBuilder retVal = this.pool.poll();
+        return (retVal == null ? new StringBuilder() : retVal);
+    }
+
+    /**
+     * Queues the content of a buffer to be printed.
+     *
+     * @param ps a {@link PrintStream}{@code []}; the text will
+     *        be printed on all the streams in it (behaves correctly
+     *        even if {@code ps} or one of its member is {@code null}).
+     * @param buffer a {@link StringBuilder}, typically obtained
+     *        by {@link #acquireBuffer()}. After the invocation it
+     *        is owned by this {@link OutputPipeline}.
+     */
+    public void print(PrintStream[] ps, StringBuilder buffer) {
+        put(new Entry(ps, buffer, null, null));
+    }
+
+    /**
+     * Queues a {@link String} to be printed.
+     *
+     * @param ps a {@link PrintStream}{@code []}; the text will
+     *        be printed on all the streams in it (behaves correctly
+     *        even if {@code ps} or one of its member is {@code null}).
+     * @param txt a {@link String}, the text to be printed.
+     * @param newLine a {@code boolean}; if {@code true} the
+     *        line separator is printed after {@code txt}.
+     */
+    public void print(PrintStream[] ps, String txt, boolean newLine) {
+        final StringBuilder buffer = acquireBuffer();
+        buffer.append(txt);
+        if (newLine) {
+            buffer.append(System.lineSeparator());
+        }
+        print(ps, buffer);
+    }
+
+    /**
+     * Queues a {@link Throwable}'s stack trace to be printed.
+     *
+     * @param ps a {@link PrintStream}{@code []}; the stack trace will
+     *        be printed on all the streams in it (behaves correctly
+     *        even if {@code ps} or one of its member is {@code null}).
+     * @param t a {@link Throwable}.
+     */
+    public void printException(PrintStream[] ps, Throwable t) {
+        put(new Entry(ps, null, t, null));
+    }
+
+    /**
+     * Waits until all the queued text is printed.
+     */
+    public void sync() {
+        if (this.closed) {
+            return;
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        put(new Entry(null, null, null, done));
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prints all the queued text and stops the writer
+     * thread. Subsequent invocations have no effect.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        put(END);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(Entry e) {
+        if (this.closed && e != END) {
+            throw new IllegalStateException("Tried to print on a closed OutputPipeline.");
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.ring.put(e);
+                break;
+            } catch (InterruptedException exc) {
+                //does not lose output
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The body of the writer thread.
+     */
+    private void drain() {
+        final ArrayList<Entry> batch = new ArrayList<>();
+        final Set<PrintStream> toFlush = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (true) {
+            try {
+                batch.add(this.ring.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            this.ring.drainTo(batch);
+            boolean end = false;
+            for (Entry e : batch) {
+                if (e == END) {
+                    end = true;
+                    break;
+                }
+                if (e.done != null) {
+                    flush(toFlush);
+                    e.done.countDown();
+                    continue;
+                }
+                if (e.targets != null) {
+                    for (PrintStream p : e.targets) {
+                        if (p != null) {
+                            if (e.throwable == null) {
+                                p.append(e.text);
+                            } else {
+                                e.throwable.printStackTrace(p);
+                            }
+                            toFlush.add(p);
+                        }
+                    }
+                }
+                if (e.text != null) {
+                    recycle(e.text);
+                }
+            }
+            batch.clear();
+            flush(toFlush);
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    private void recycle(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_CAPACITY) {
+            buffer.setLength(0);
+            this.pool.offer(buffer);
+        }
+    }
+
+    private static void flush(Set<PrintStream> toFlush) {
+        for (PrintStream p : toFlush) {
+            p.flush();
+        }
+        toFlush.clear();
+    }
+}
@@ -10,6 +10,10 @@ import static jbse.common.Type.isPrimitiveIntegral;
 import static jbse.common.Type.splitParametersDescriptors;
 import static jbse.common.Type.splitReturnValueDescriptor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -49,40 +53,128 @@ import jbse.val.WideningConversion;
 
 /**
  * A {@link Formatter} that emits a JUnit test suite, with 
- * test cases covering the symbolic states.
+ * test cases covering the symbolic states. The test suite
+ * is either emitted, or streamed to one or more files
+ * in an output directory.
  * 
  * @author Esther Turati
  * @author Pietro Braione
  */
 public final class StateFormatterJUnitTestSuite implements Formatter {
+    /** The name of the test suite class. */
+    private static final String TEST_SUITE_CLASS_NAME = "TestSuite";
+    
+    /** The maximum number of test cases waiting to be written to file. */
+    private static final int WRITE_BUFFER_CAPACITY = 64;
+    
     private final Supplier<State> initialStateSupplier;
     private final Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier;
-    private StringBuilder output = new StringBuilder();
+    
+    /** 
+     * The directory where the test suite is streamed, 
+     * or {@code null} if the test suite is emitted.
+     */
+    private final Path outputDirectory;
+    
+    /** 
+     * The maximum number of test cases in a test suite file, 
+     * or {@code 0} for unlimited.
+     */
+    private final int testsPerFile;
+    
+    private final StringBuilder output = new StringBuilder();
     private int testCounter = 0;
-
+    
+    /** The {@link AsyncWriter} to the current test suite file. */
+    private AsyncWriter writer = null;
+    
+    /** The number of test suite files. */
+    private int fileCounter = 0;
+    
+    /** The number of test cases in the current test suite file. */
+    private int testsInFile = 0;
+
+    /**
+     * Constructor for a formatter that emits the test suite.
+     * 
+     * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+     *        for the initial state.
+     * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code , }{@link Simplex}{@code >>}
+     *        for the model of the current state.
+     */
     public StateFormatterJUnitTestSuite(Supplier<State> initialStateSupplier, 
                                         Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier) {
+        this(initialStateSupplier, modelSupplier, null, 0);
+    }
+
+    /**
+     * Constructor for a formatter that streams the test suite to files.
+     * Each test case is written as soon as it is formatted, on a background 
+     * thread. If {@code testsPerFile == 0} the test suite is written to 
+     * the file {@code TestSuite.java}, otherwise it is split into the files
+     * {@code TestSuite_1.java}, {@code TestSuite_2.java}... each
+     * with at most {@code testsPerFile} test cases. In this case 
+     * {@link #emit()} always returns the empty {@link String}.
+     * 
+     * @param initialStateSupplier a {@link Supplier}{@code <}{@link State}{@code >}
+     *        for the initial state.
+     * @param modelSupplier a {@link Supplier}{@code <}{@link Map}{@code <}{@link PrimitiveSymbolic}{@code , }{@link Simplex}{@code >>}
+     *        for the model of the current state.
+     * @param outputDirectory a {@link Path}, the directory where the
+     *        test suite files are written. If {@code null} the test 
+     *        suite is emitted.
+     * @param testsPerFile a nonnegative {@code int}, the maximum number
+     *        of test cases in a test suite file ({@code 0} means unlimited).
+     * @throws IllegalArgumentException if {@code testsPerFile < 0}.
+     */
+    public StateFormatterJUnitTestSuite(Supplier<State> initialStateSupplier, 
+                                        Supplier<Map<PrimitiveSymbolic, Simplex>> modelSupplier,
+                                        Path outputDirectory, int testsPerFile) {
+        if (testsPerFile < 0) {
+            throw new IllegalArgumentException("The number of tests per file cannot be negative.");
+        }
         this.initialStateSupplier = initialStateSupplier;
         this.modelSupplier = modelSupplier;
+        this.outputDirectory = outputDirectory;
+        this.testsPerFile = testsPerFile;
     }
 
     @Override
     public void formatPrologue() {
-        this.output.append(PROLOGUE);
+        if (this.outputDirectory == null) {
+            appendPrologue(this.output, TEST_SUITE_CLASS_NAME);
+        } else {
+            openFile();
+        }
     }
 
     @Override
     public void formatState(State state) {
+        final StringBuilder testCase = new StringBuilder();
         try {
-			new JUnitTestCase(this.output, this.initialStateSupplier.get(), state, this.modelSupplier.get(), this.testCounter++);
+			new JUnitTestCase(testCase, this.initialStateSupplier.get(), state, this.modelSupplier.get(), this.testCounter++);
 		} catch (FrozenStateException e) {
-			this.output.delete(0, this.output.length());
+			return;
 		}
+        if (this.outputDirectory == null) {
+            this.output.append(testCase);
+        } else {
+            if (this.testsPerFile > 0 && this.testsInFile == this.testsPerFile) {
+                closeFile();
+                openFile();
+            }
+            write(testCase.toString());
+            ++this.testsInFile;
+        }
     }
 
     @Override
     public void formatEpilogue() {
-        this.output.append("}\n");
+        if (this.outputDirectory == null) {
+            this.output.append(EPILOGUE);
+        } else {
+            closeFile();
+        }
     }
 
     @Override
@@ -90,12 +182,65 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         return this.output.toString();
     }
 
+    @Override
+    public void emit(StringBuilder buffer) {
+        buffer.append(this.output);
+    }
+
     @Override
     public void cleanup() {
-        this.output = new StringBuilder();
+        this.output.setLength(0);
+    }
+    
+    private void openFile() {
+        ++this.fileCounter;
+        final String className = (this.testsPerFile == 0 ? TEST_SUITE_CLASS_NAME : TEST_SUITE_CLASS_NAME + "_" + this.fileCounter);
+        try {
+            Files.createDirectories(this.outputDirectory);
+            this.writer = new AsyncWriter(Files.newBufferedWriter(this.outputDirectory.resolve(className + ".java")), 
+                                          WRITE_BUFFER_CAPACITY, "jbse-junit-writer-" + this.fileCounter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.testsInFile = 0;
+        final StringBuilder prologue = new StringBuilder();
+        appendPrologue(prologue, className);
+        write(prologue.toString());
+    }
+    
+    private void closeFile() {
+        if (this.writer == null) {
+            return;
+        }
+        write(EPILOGUE);
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.writer = null;
+        }
+    }
+    
+    private void write(String s) {
+        try {
+            this.writer.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void appendPrologue(StringBuilder s, String className) {
+        s.append(PROLOGUE_IMPORTS);
+        s.append("public class ");
+        s.append(className);
+        s.append(" {\n");
+        s.append(PROLOGUE_MEMBERS);
     }
 
-    private static final String PROLOGUE =
+    private static final String EPILOGUE = "}\n";
+
+    private static final String PROLOGUE_IMPORTS =
         "import static java.lang.System.identityHashCode;\n" +
         "import static org.junit.Assert.*;\n" +
         "\n" +
@@ -105,8 +250,9 @@ public final class StateFormatterJUnitTestSuite implements Formatter {
         "import sun.misc.Unsafe;\n" +
         "\n" +
         "import org.junit.Test;\n" +
-        "\n" +
-        "public class TestSuite {\n" +
+        "\n";
+    
+    private static final String PROLOGUE_MEMBERS =
         "    private static class AccessibleObject {\n" +
         "        private final Object target;\n" +
         "        AccessibleObject(Object o) {\n" +
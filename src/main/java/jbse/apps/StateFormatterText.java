@@ -56,7 +56,7 @@ import jbse.val.WideningConversion;
 public final class StateFormatterText implements Formatter {
     private final List<Path> srcPath;
     private final boolean fullPrint;
-    private StringBuilder output = new StringBuilder();
+    private final StringBuilder output = new StringBuilder();
 
     public StateFormatterText(List<Path> srcPath, boolean fullPrint) {
         this.srcPath = new ArrayList<>(srcPath);
@@ -77,9 +77,14 @@ public final class StateFormatterText implements Formatter {
         return this.output.toString();
     }
 
+    @Override
+    public void emit(StringBuilder buffer) {
+        buffer.append(this.output);
+    }
+
     @Override
     public void cleanup() {
-        this.output = new StringBuilder();
+        this.output.setLength(0);
     }
 
     private static void formatState(State state, StringBuilder sb, List<Path> srcPath, boolean fullPrint, boolean breakLines, String indentTxt, String indentCurrent) 
@@ -360,6 +365,12 @@ public final class StateFormatterText implements Formatter {
         boolean hasUnknownValues = false;
         boolean hasKnownValues = false;
         final StringBuilder buf = new StringBuilder();
+        if (a.hasTheoryRep()) {
+            hasKnownValues = true;
+            buf.append(lineSep);
+            buf.append(indentCurrent);
+            formatValue(s, buf, a.getTheoryContents());
+        }
         for (Array.AccessOutcomeIn e : a.values()) {
             if (a.hasSimpleRep()) {
                 hasKnownValues = true; //the entries will surely have values
@@ -102,6 +102,16 @@ public abstract class DecisionProcedureGuidance extends DecisionProcedureAlgorit
         stopFastAndImprecise();
     }
 
+    /**
+     * {@inheritDoc}
+     * A {@link DecisionProcedureGuidance} follows a concrete
+     * execution, thus it always returns {@code true}.
+     */
+    @Override
+    public final boolean mayPruneSatisfiable() {
+        return true;
+    }
+
     @Override
     public final void pushAssumption(Clause c) 
     throws InvalidInputException, DecisionException {
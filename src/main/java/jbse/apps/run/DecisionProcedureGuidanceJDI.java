@@ -10,10 +10,13 @@ import static jbse.bc.Offsets.XLOADSTORE_IMMEDIATE_WIDE_OFFSET;
 import static jbse.bc.Offsets.XLOADSTORE_IMMEDIATE_OFFSET;
 import static jbse.bc.Offsets.XLOADSTORE_IMPLICIT_OFFSET;
 import static jbse.bc.Opcodes.OP_ANEWARRAY;
+import static jbse.bc.Opcodes.OP_GOTO_W;
 import static jbse.bc.Opcodes.OP_IALOAD;
 import static jbse.bc.Opcodes.OP_IASTORE;
 import static jbse.bc.Opcodes.OP_IF_ACMPNE;
 import static jbse.bc.Opcodes.OP_IFEQ;
+import static jbse.bc.Opcodes.OP_IFNONNULL;
+import static jbse.bc.Opcodes.OP_IFNULL;
 import static jbse.bc.Opcodes.OP_ILOAD;
 import static jbse.bc.Opcodes.OP_ILOAD_0;
 import static jbse.bc.Opcodes.OP_ILOAD_1;
@@ -24,6 +27,8 @@ import static jbse.bc.Opcodes.OP_INVOKEDYNAMIC;
 import static jbse.bc.Opcodes.OP_INVOKESTATIC;
 import static jbse.bc.Opcodes.OP_INVOKEVIRTUAL;
 import static jbse.bc.Opcodes.OP_IRETURN;
+import static jbse.bc.Opcodes.OP_JSR;
+import static jbse.bc.Opcodes.OP_JSR_W;
 import static jbse.bc.Opcodes.OP_LOOKUPSWITCH;
 import static jbse.bc.Opcodes.OP_MULTIANEWARRAY;
 import static jbse.bc.Opcodes.OP_TABLESWITCH;
@@ -54,6 +59,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -83,13 +89,18 @@ import com.sun.jdi.connect.Connector;
 import com.sun.jdi.connect.IllegalConnectorArgumentsException;
 import com.sun.jdi.connect.LaunchingConnector;
 import com.sun.jdi.connect.VMStartException;
+import com.sun.jdi.event.BreakpointEvent;
+import com.sun.jdi.event.ClassPrepareEvent;
 import com.sun.jdi.event.Event;
 import com.sun.jdi.event.EventIterator;
 import com.sun.jdi.event.EventQueue;
 import com.sun.jdi.event.EventSet;
+import com.sun.jdi.event.LocatableEvent;
 import com.sun.jdi.event.MethodEntryEvent;
 import com.sun.jdi.event.MethodExitEvent;
 import com.sun.jdi.event.StepEvent;
+import com.sun.jdi.request.BreakpointRequest;
+import com.sun.jdi.request.ClassPrepareRequest;
 import com.sun.jdi.request.EventRequest;
 import com.sun.jdi.request.EventRequestManager;
 import com.sun.jdi.request.MethodEntryRequest;
@@ -174,7 +185,33 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
      */
     public DecisionProcedureGuidanceJDI(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
     throws GuidanceException, InvalidInputException {
-        super(component, new JVMJDI(calc, runnerParameters, stopSignature, numberOfHits));
+        this(component, calc, runnerParameters, stopSignature, numberOfHits, false);
+    }
+
+    /**
+     * Builds the {@link DecisionProcedureGuidanceJDI}.
+     *
+     * @param component the component {@link DecisionProcedure} it decorates.
+     * @param calc a {@link Calculator}.
+     * @param runnerParameters the {@link RunnerParameters} of the symbolic execution.
+     *        The constructor modifies this object by adding the {@link Runner.Actions}s
+     *        necessary to the execution.
+     * @param stopSignature the {@link Signature} of a method. The guiding concrete execution 
+     *        will stop at the entry of the {@code numberOfHits}-th invocation of the 
+     *        method whose signature is {@code stopSignature}, and the reached state will be 
+     *        used as the initial one.
+     * @param numberOfHits an {@code int} greater or equal to one.
+     * @param useBreakpoints a {@code boolean}; if {@code true} the guiding concrete 
+     *        execution reaches the stop method by means of breakpoints on the 
+     *        start and stop methods, otherwise by inspecting all the method 
+     *        entry and exit events.
+     * @throws GuidanceException if something fails during creation (and the caller
+     *         is to blame).
+     * @throws InvalidInputException if {@code component == null}.
+     */
+    public DecisionProcedureGuidanceJDI(DecisionProcedure component, Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, boolean useBreakpoints) 
+    throws GuidanceException, InvalidInputException {
+        super(component, new JVMJDI(calc, runnerParameters, stopSignature, numberOfHits, useBreakpoints));
     }
 
     private static final class JVMJDI extends JVM {
@@ -188,10 +225,12 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
         private final String stopMethodDescriptor;
         private final String stopMethodName;  
         private final int numberOfHits;
+        private final boolean useBreakpoints;
         private final VirtualMachine vm;
         private boolean intoMethodRunnPar = false;
         private int hitCounter = 0;
-        private MethodEntryEvent methodEntryEvent;
+        private LocatableEvent methodEntryEvent;
+        private final HashSet<Method> methodsWithEntryRequest = new HashSet<>();
         private int numOfFramesAtMethodEntry;
         private StepEvent currentStepEvent;        
         private boolean jdiIsWaitingForJBSE = false;
@@ -206,7 +245,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
         private int previousCodeIndex = -1;
         private Primitive xaloadIndex = null;
 
-        public JVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits) 
+        public JVMJDI(Calculator calc, RunnerParameters runnerParameters, Signature stopSignature, int numberOfHits, boolean useBreakpoints) 
         throws GuidanceException {
             super(calc, runnerParameters, stopSignature, numberOfHits);
             this.startMethodClassName = runnerParameters.getMethodSignature().getClassName();
@@ -216,8 +255,13 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
             this.stopMethodDescriptor = stopSignature.getDescriptor();
             this.stopMethodName = stopSignature.getName();
             this.numberOfHits = numberOfHits;
+            this.useBreakpoints = useBreakpoints;
             this.vm = createVM(runnerParameters, stopSignature);
-            run();
+            if (this.useBreakpoints) {
+                runByBreakpoints();
+            } else {
+                run();
+            }
         }
 
         private VirtualMachine createVM(RunnerParameters runnerParameters, Signature stopSignature) 
@@ -330,7 +374,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
                     this.intoMethodRunnPar) {
                     ++this.hitCounter;
                     if (this.hitCounter == this.numberOfHits) {
-                        this.methodEntryEvent = (MethodEntryEvent) event;
+                        this.methodEntryEvent = (LocatableEvent) event;
                         try {
                             this.numOfFramesAtMethodEntry = this.methodEntryEvent.thread().frameCount();
                         } catch (IncompatibleThreadStateException e) {
@@ -344,6 +388,205 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
             return false;
         }
 
+        private void runByBreakpoints() throws GuidanceException {
+            //sets class prepare requests for the classes of the start 
+            //and stop methods, and breakpoints on the methods of the
+            //classes that are already loaded
+            final EventRequestManager mgr = this.vm.eventRequestManager();
+            final ArrayList<EventRequest> requests = new ArrayList<>();
+            final HashSet<ReferenceType> instrumented = new HashSet<>();
+            final HashSet<String> classNames = new HashSet<>();
+            classNames.add(binaryClassName(this.startMethodClassName));
+            classNames.add(binaryClassName(this.stopMethodClassName));
+            for (String className : classNames) {
+                final ClassPrepareRequest cpr = mgr.createClassPrepareRequest();
+                cpr.addClassFilter(className);
+                cpr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+                cpr.enable();
+                requests.add(cpr);
+                for (ReferenceType type : this.vm.classesByName(className)) {
+                    setBreakpoints(mgr, type, instrumented, requests);
+                }
+            }
+
+            //executes; all the events in an event set are
+            //processed before resuming 
+            final EventQueue queue = this.vm.eventQueue();
+            boolean testMethodEntryFound = false;
+            while (!testMethodEntryFound) {
+                try {
+                    final EventSet eventSet = queue.remove();
+                    final EventIterator it = eventSet.eventIterator();
+                    while (!testMethodEntryFound && it.hasNext()) {
+                        final Event event = it.nextEvent();
+                        if (event instanceof ClassPrepareEvent) {
+                            setBreakpoints(mgr, ((ClassPrepareEvent) event).referenceType(), instrumented, requests);
+                        } else if (event instanceof BreakpointEvent) {
+                            testMethodEntryFound = checkIfBreakpoint((BreakpointEvent) event);
+                        } else if (event instanceof MethodEntryEvent && 
+                                   this.methodsWithEntryRequest.contains(((MethodEntryEvent) event).method())) {
+                            testMethodEntryFound = checkIfBreakpoint((MethodEntryEvent) event);
+                        }
+                    }
+                    if (!testMethodEntryFound) {
+                        eventSet.resume();
+                    }
+                } catch (InterruptedException e) {
+                    throw new GuidanceException(e);
+                } catch (VMDisconnectedException e) {
+                    if (testMethodEntryFound) {
+                        return; //must not try to delete event requests
+                    } else {
+                        throw new GuidanceException(e);
+                    }
+                } catch (IncompatibleThreadStateException e) {
+                    throw new UnexpectedInternalException(e); 
+                }
+            }
+
+            //deletes event requests
+            mgr.deleteEventRequests(requests);
+        }
+
+        private void setBreakpoints(EventRequestManager mgr, ReferenceType type, HashSet<ReferenceType> instrumented, ArrayList<EventRequest> requests) {
+            if (!instrumented.add(type)) {
+                return;
+            }
+            final String typeName = type.name().replace('.', '/');
+            final ArrayList<Method> methods = new ArrayList<>();
+            if (typeName.equals(this.startMethodClassName)) {
+                methods.addAll(type.methodsByName(this.startMethodName, this.startMethodDescriptor));
+            }
+            if (typeName.equals(this.stopMethodClassName)) {
+                methods.addAll(type.methodsByName(this.stopMethodName, this.stopMethodDescriptor));
+            }
+            boolean entryRequested = false;
+            for (Method method : methods) {
+                if (method.location() == null) {
+                    continue; //abstract or native
+                }
+                if (this.vm.canGetBytecodes() && !isJumpTarget(method.bytecodes(), 0)) {
+                    final BreakpointRequest bpr = mgr.createBreakpointRequest(method.location());
+                    bpr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+                    bpr.enable();
+                    requests.add(bpr);
+                } else {
+                    //a breakpoint at the start of the method would also 
+                    //be hit by the jumps to it, e.g., by the back edges
+                    //of a loop, thus the method entries are detected
+                    //with a method entry request on the method's class
+                    this.methodsWithEntryRequest.add(method);
+                    if (!entryRequested) {
+                        final MethodEntryRequest menr = mgr.createMethodEntryRequest();
+                        menr.addClassFilter(type);
+                        menr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+                        menr.enable();
+                        requests.add(menr);
+                        entryRequested = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks whether a bytecode index is the target of
+         * some jump in the bytecode of a method.
+         * 
+         * @param bc the bytecode of the method.
+         * @param target an {@code int}, the bytecode index.
+         * @return {@code true} if {@code target} is the target 
+         *         of some jump, or if the bytecode contains some 
+         *         unrecognized instruction.
+         */
+        private static boolean isJumpTarget(byte[] bc, int target) {
+            int previousCodeIndex = -1;
+            int codeIndex = 0;
+            while (codeIndex < bc.length) {
+                final byte opcode = bc[codeIndex];
+                final int length;
+                if (opcode == OP_LOOKUPSWITCH || opcode == OP_TABLESWITCH) {
+                    final int padding = 3 - (codeIndex % 4);
+                    int nextParamStartIndex = codeIndex + padding + 1;
+                    if (codeIndex + byteCat(bc[nextParamStartIndex], bc[nextParamStartIndex + 1], bc[nextParamStartIndex + 2], bc[nextParamStartIndex + 3]) == target) {
+                        return true;
+                    }
+                    nextParamStartIndex += 4;
+                    if (opcode == OP_LOOKUPSWITCH) {
+                        final int npairs = byteCat(bc[nextParamStartIndex], bc[nextParamStartIndex + 1], bc[nextParamStartIndex + 2], bc[nextParamStartIndex + 3]); 
+                        nextParamStartIndex += 4;
+                        for (int i = 0; i < npairs; i++, nextParamStartIndex += 8) {
+                            if (codeIndex + byteCat(bc[nextParamStartIndex + 4], bc[nextParamStartIndex + 5], bc[nextParamStartIndex + 6], bc[nextParamStartIndex + 7]) == target) {
+                                return true;
+                            }
+                        }
+                    } else { //opcode == OP_TABLESWITCH
+                        final int low = byteCat(bc[nextParamStartIndex], bc[nextParamStartIndex + 1], bc[nextParamStartIndex + 2], bc[nextParamStartIndex + 3]); 
+                        final int high = byteCat(bc[nextParamStartIndex + 4], bc[nextParamStartIndex + 5], bc[nextParamStartIndex + 6], bc[nextParamStartIndex + 7]); 
+                        nextParamStartIndex += 8;
+                        for (int i = low; i <= high; i++, nextParamStartIndex += 4) {
+                            if (codeIndex + byteCat(bc[nextParamStartIndex], bc[nextParamStartIndex + 1], bc[nextParamStartIndex + 2], bc[nextParamStartIndex + 3]) == target) {
+                                return true;
+                            }
+                        }
+                    }
+                    length = nextParamStartIndex - codeIndex;
+                } else {
+                    if ((opcode >= OP_IFEQ && opcode <= OP_JSR) || opcode == OP_IFNULL || opcode == OP_IFNONNULL) {
+                        if (codeIndex + byteCatShort(bc[codeIndex + 1], bc[codeIndex + 2]) == target) {
+                            return true;
+                        }
+                    } else if (opcode == OP_GOTO_W || opcode == OP_JSR_W) {
+                        if (codeIndex + byteCat(bc[codeIndex + 1], bc[codeIndex + 2], bc[codeIndex + 3], bc[codeIndex + 4]) == target) {
+                            return true;
+                        }
+                    }
+                    length = offset(bc, codeIndex, previousCodeIndex);
+                    if (length == 0) {
+                        return true; //unrecognized instruction, conservatively
+                    }
+                }
+                previousCodeIndex = codeIndex;
+                codeIndex += length;
+            }
+            return false;
+        }
+
+        private boolean checkIfBreakpoint(LocatableEvent event) throws IncompatibleThreadStateException {
+            final Method jdiMeth = event.location().method();
+            final String jdiMethClassName = jdiMethodClassName(jdiMeth);
+            final String jdiMethDescr = jdiMeth.signature();
+            final String jdiMethName = jdiMeth.name();
+            if (this.startMethodClassName.equals(jdiMethClassName) &&
+                this.startMethodDescriptor.equals(jdiMethDescr) &&
+                this.startMethodName.equals(jdiMethName)) {
+                this.hitCounter = 0;
+            }
+            if (this.stopMethodClassName.equals(jdiMethClassName) &&
+                this.stopMethodDescriptor.equals(jdiMethDescr) &&
+                this.stopMethodName.equals(jdiMethName) && 
+                startMethodIsOnStack(event.thread())) {
+                ++this.hitCounter;
+                if (this.hitCounter == this.numberOfHits) {
+                    this.methodEntryEvent = event;
+                    this.numOfFramesAtMethodEntry = event.thread().frameCount();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean startMethodIsOnStack(ThreadReference thread) throws IncompatibleThreadStateException {
+            for (StackFrame frame : thread.frames()) {
+                final Method jdiMeth = frame.location().method();
+                if (this.startMethodClassName.equals(jdiMethodClassName(jdiMeth)) &&
+                    this.startMethodDescriptor.equals(jdiMeth.signature()) &&
+                    this.startMethodName.equals(jdiMeth.name())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         private LaunchingConnector findLaunchingConnector() {
             final List<Connector> connectors = Bootstrap.virtualMachineManager().allConnectors();
             for (Connector connector : connectors) {
@@ -790,6 +1033,11 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 
             final EventRequestManager mgr = this.vm.eventRequestManager();
             final MethodExitRequest mexr = mgr.createMethodExitRequest();
+            if (this.useBreakpoints) {
+                //only the exits from the current method are relevant
+                mexr.addThreadFilter(this.currentStepEvent.thread());
+                mexr.addClassFilter(this.currentStepEvent.location().declaringType());
+            }
             mexr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
             mexr.enable();
 
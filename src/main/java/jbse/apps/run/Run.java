@@ -2,8 +2,10 @@ package jbse.apps.run;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Map;
@@ -14,9 +16,11 @@ import jbse.algo.exc.CannotManageStateException;
 import jbse.algo.exc.MetaUnsupportedException;
 import jbse.algo.exc.NotYetImplementedException;
 import jbse.algo.exc.UninterpretedUnsupportedException;
+import jbse.apps.DecisionProcedureDecoratorMetrics;
 import jbse.apps.DecisionProcedureDecoratorPrint;
 import jbse.apps.DecisionProcedureDecoratorTimer;
 import jbse.apps.IO;
+import jbse.apps.OutputPipeline;
 import jbse.apps.Formatter;
 import jbse.apps.StateFormatterGraphviz;
 import jbse.apps.StateFormatterJUnitTestSuite;
@@ -42,12 +46,16 @@ import jbse.dec.DecisionProcedureAlwSat;
 import jbse.dec.DecisionProcedureClassInit;
 import jbse.dec.DecisionProcedureEquality;
 import jbse.dec.DecisionProcedureLICS;
+import jbse.dec.DecisionProcedureLinearIntegerArithmetic;
 import jbse.dec.DecisionProcedureSignAnalysis;
 import jbse.dec.DecisionProcedureSMTLIB2_AUFNIRA;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.instrumentation.Instrumentation;
 import jbse.jvm.Engine;
+import jbse.jvm.Metrics;
 import jbse.jvm.Runner;
+import jbse.jvm.Runner.PathBudget;
 import jbse.jvm.RunnerBuilder;
 import jbse.jvm.RunnerParameters;
 import jbse.jvm.exc.CannotBacktrackException;
@@ -112,6 +120,12 @@ public final class Run {
     /** The {@link PrintStream}s for errors (critical log information). */
     private PrintStream[] err = null;
 
+    /** 
+     * The {@link OutputPipeline} for asynchronous output, or 
+     * {@code null} if output is synchronous. 
+     */
+    private OutputPipeline outputPipeline = null;
+
     /** The {@link Formatter} to output states. */
     private Formatter formatter = null;
 
@@ -127,6 +141,12 @@ public final class Run {
     /** The concretization checker. */
     private InitialHeapChecker checker = null;
 
+    /** The {@link Metrics} of the execution, {@code null} if metrics are not collected. */
+    private Metrics metrics = null;
+
+    /** The timestamp of the next periodic dump of {@link #metrics}. */
+    private long timestampNextMetricsDump = 0;
+
     /** Counter for the number of analyzed paths that are safe (do not violate assertions). */
     private long pathsSafe = 0;
 
@@ -332,6 +352,28 @@ public final class Run {
             return super.atScopeExhaustionCount();
         }
 
+        @Override
+        public boolean atPathBudgetExhaustion(PathBudget budget) {
+            this.pathKind = PathTypes.ABANDONED;
+            switch (budget) {
+            case STEPS:
+                this.endOfPathMessage = WARNING_PATH_ABANDONED_STEPS;
+                break;
+            case TIME:
+                this.endOfPathMessage = WARNING_PATH_ABANDONED_TIME;
+                break;
+            case SPEED:
+                this.endOfPathMessage = WARNING_PATH_ABANDONED_SPEED;
+                break;
+            case SOLVER_TIME:
+                this.endOfPathMessage = WARNING_PATH_ABANDONED_SOLVER_TIME;
+                break;
+            default: //to keep compiler happy:
+                throw new AssertionError();
+            }
+            return super.atPathBudgetExhaustion(budget);
+        }
+
         @Override
         public boolean atCannotManageStateException(CannotManageStateException e)
         throws CannotManageStateException {
@@ -384,6 +426,13 @@ public final class Run {
             if (Run.this.engine.atInitialState()) {
             	this.mayPrint = true;
             }
+            
+            //possibly dumps the metrics
+            if (Run.this.metrics != null && Run.this.parameters.getMetricsDumpPeriodMillis() > 0 &&
+                System.currentTimeMillis() >= Run.this.timestampNextMetricsDump) {
+                Run.this.dumpMetrics();
+                Run.this.timestampNextMetricsDump = System.currentTimeMillis() + Run.this.parameters.getMetricsDumpPeriodMillis();
+            }
 
             //prints/asks (all+bytecode and branches)
             boolean stop = false;
@@ -460,6 +509,11 @@ public final class Run {
                     //this.endOfPathMessage already set
                     counterKind = null;
                     break;
+                case ABANDONED:
+                    //counter is provided by runner
+                    //this.endOfPathMessage already set
+                    counterKind = null;
+                    break;
                 case CONTRADICTORY:
                     this.endOfPathMessage = MSG_PATH_CONTRADICTORY;
                     counterKind = null;
@@ -583,6 +637,10 @@ public final class Run {
         // sets up this object
         int retVal = build();
         if (retVal > 0) {
+            if (this.outputPipeline != null) {
+                this.outputPipeline.close();
+                this.outputPipeline = null;
+            }
             return retVal;
         }
 
@@ -614,10 +672,27 @@ public final class Run {
             printFinalStats();
         }
 
+        // dumps the metrics
+        if (this.metrics != null) {
+            dumpMetrics();
+        }
+
         // closes and returns the error code
         return close();
     }
 
+    /**
+     * Writes {@code this.metrics} to the metrics file.
+     */
+    private void dumpMetrics() {
+        try {
+            this.metrics.writeJson(this.parameters.getMetricsFile());
+        } catch (IOException e) {
+            err(ERROR_METRICS_FILE_WRITE);
+            err(e);
+        }
+    }
+
     /**
      * Gets a line of text on the input stream.
      * 
@@ -625,6 +700,9 @@ public final class Run {
      * @return the read line.
      */
     public String in(String prompt) {
+        if (this.outputPipeline != null) {
+            this.outputPipeline.sync();
+        }
         return IO.readln(this.out, prompt);
     }
 
@@ -634,7 +712,11 @@ public final class Run {
      * @param s the text to be printed.
      */
     public void out(String s) {
-        IO.println(this.out, s);
+        if (this.outputPipeline == null) {
+            IO.println(this.out, s);
+        } else {
+            this.outputPipeline.print(this.out, s, true);
+        }
     }
 
     /**
@@ -643,7 +725,11 @@ public final class Run {
      * @param s the text to be printed.
      */
     public void outNoBreak(String s) {
-        IO.print(this.out, s);
+        if (this.outputPipeline == null) {
+            IO.print(this.out, s);
+        } else {
+            this.outputPipeline.print(this.out, s, false);
+        }
     }
 
     /**
@@ -652,7 +738,11 @@ public final class Run {
      * @param s the text to be printed.
      */
     public void log(String s) {
-        IO.println(this.log, s);
+        if (this.outputPipeline == null) {
+            IO.println(this.log, s);
+        } else {
+            this.outputPipeline.print(this.log, s, true);
+        }
     }
 
     /**
@@ -661,7 +751,11 @@ public final class Run {
      * @param s the text to be printed.
      */
     public void err(String s) {
-        IO.println(this.err, s);
+        if (this.outputPipeline == null) {
+            IO.println(this.err, s);
+        } else {
+            this.outputPipeline.print(this.err, s, true);
+        }
     }
 
     /**
@@ -670,7 +764,11 @@ public final class Run {
      * @param t the {@link Throwable} to be printed.
      */
     public void err(Throwable t) {
-        IO.printException(this.err, t);
+        if (this.outputPipeline == null) {
+            IO.printException(this.err, t);
+        } else {
+            this.outputPipeline.printException(this.err, t);
+        }
     }
 
     /**
@@ -696,10 +794,23 @@ public final class Run {
         try {
             final RunnerParameters runnerParameters = this.parameters.getRunnerParameters();
             runnerParameters.setActions(new ActionsRun());
+            if (this.parameters.getFlightRecorderEvents()) {
+                if (Instrumentation.isSupported()) {
+                    Instrumentation.setEnabled(true);
+                } else if (this.parameters.getShowWarnings()) {
+                    log(WARNING_FLIGHT_RECORDER_UNSUPPORTED);
+                }
+            }
+            if (this.parameters.getMetricsFile() != null) {
+                this.metrics = new Metrics();
+                runnerParameters.setMetrics(this.metrics);
+                this.timestampNextMetricsDump = System.currentTimeMillis() + this.parameters.getMetricsDumpPeriodMillis();
+            }
             final CalculatorRewriting calc = createCalculator();
             runnerParameters.setCalculator(calc);
             createDecisionProcedure(calc);
             runnerParameters.setDecisionProcedure(this.decisionProcedure);
+            runnerParameters.setSolverClock(this.timer::getTime);
             final RunnerBuilder rb = new RunnerBuilder();
             this.runner = rb.build(this.parameters.getRunnerParameters());
             this.engine = rb.getEngine();
@@ -774,6 +885,11 @@ public final class Run {
         }
         this.out[1] = this.log[1] = this.err[1];
 
+        // possibly makes the output asynchronous
+        if (this.parameters.getAsyncOutput() > 0) {
+            this.outputPipeline = new OutputPipeline(this.parameters.getAsyncOutput());
+        }
+
         // sets line separator style
         if (this.parameters.getTextMode() == TextMode.WINDOWS) {
             System.setProperty("line.separator", "\r\n");
@@ -835,7 +951,10 @@ public final class Run {
         } else if (type == StateFormatMode.PATH) {
             this.formatter = new StateFormatterPath();
         } else if (type == StateFormatMode.JUNIT_TEST) {
-            this.formatter = new StateFormatterJUnitTestSuite(this::getInitialState, this::getModel);
+            final String dir = this.parameters.getJUnitTestSuiteDirectoryName();
+            this.formatter = new StateFormatterJUnitTestSuite(this::getInitialState, this::getModel, 
+                                                              (dir == null ? null : Paths.get(dir)), 
+                                                              this.parameters.getJUnitTestSuiteTestsPerFile());
         } else {
             throw new CannotBuildFormatterException(ERROR_UNDEF_STATE_FORMAT);
         }
@@ -864,6 +983,9 @@ public final class Run {
         } catch (InstantiationException | IllegalAccessException | UnexpectedInternalException e) {
             throw new CannotBuildCalculatorException(e);
         }
+        if (this.metrics != null) {
+            calc.setSimplificationTimeObserver(this.metrics.histogram(Metrics.REWRITING_TIME));
+        }
         return calc;
     }
 
@@ -928,19 +1050,28 @@ public final class Run {
     				}
     				throw new CannotBuildDecisionProcedureException(ERROR_UNDEF_DECISION_PROCEDURE);
     			}
+    			if (type != DecisionProcedureType.ALL_SAT) {
+    				core = measured(core, "external");
+    			}
     		} catch (DecisionException e) {
     			throw new CannotBuildDecisionProcedureException(e);
     		}
 
+    		//further wraps cores with linear integer arithmetic, if required
+    		if (this.parameters.getDoLinearIntegerArithmetic()) {
+    			core = measured(new DecisionProcedureLinearIntegerArithmetic(core), "lia");
+    			coreNumeric = (needHeapCheck ? new DecisionProcedureLinearIntegerArithmetic(coreNumeric) : null);
+    		}
+
     		//further wraps cores with sign analysis, if required
     		if (this.parameters.getDoSignAnalysis()) {
-    			core = new DecisionProcedureSignAnalysis(core);
+    			core = measured(new DecisionProcedureSignAnalysis(core), "sign");
     			coreNumeric = (needHeapCheck ? new DecisionProcedureSignAnalysis(coreNumeric) : null);
     		}
 
     		//further wraps cores with equality analysis, if required
     		if (this.parameters.getDoEqualityAnalysis()) {
-    			core = new DecisionProcedureEquality(core);
+    			core = measured(new DecisionProcedureEquality(core), "equality");
     			coreNumeric = (needHeapCheck ? new DecisionProcedureEquality(coreNumeric) : null);
     		}
 
@@ -951,11 +1082,11 @@ public final class Run {
 
     		//further wraps core with LICS decision procedure
     		if (this.parameters.getUseLICS()) {
-    			core = new DecisionProcedureLICS(core, this.parameters.getLICSRulesRepo());
+    			core = measured(new DecisionProcedureLICS(core, this.parameters.getLICSRulesRepo()), "lics");
     		}
 
     		//further wraps core with class init decision procedure
-    		core = new DecisionProcedureClassInit(core, this.parameters.getClassInitRulesRepo());
+    		core = measured(new DecisionProcedureClassInit(core, this.parameters.getClassInitRulesRepo()), "classInit");
 
     		//further wraps core with conservative repOk decision procedure
     		if (this.parameters.getUseConservativeRepOks()) {
@@ -995,6 +1126,8 @@ public final class Run {
     					this.guidance = new DecisionProcedureGuidanceJBSE(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature());
     				} else if (this.parameters.getGuidanceType() == GuidanceType.JDI) {
     					this.guidance = new DecisionProcedureGuidanceJDI(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature());
+    				} else if (this.parameters.getGuidanceType() == GuidanceType.JDI_BREAKPOINTS) {
+    					this.guidance = new DecisionProcedureGuidanceJDI(core, calc, guidanceDriverParameters, this.parameters.getMethodSignature(), 1, true);
     				} else {
     					throw new UnexpectedInternalException(ERROR_DECISION_PROCEDURE_GUIDANCE_UNRECOGNIZED + this.parameters.getGuidanceType().toString());
     				}
@@ -1015,6 +1148,21 @@ public final class Run {
     	}
     }
 
+    /**
+     * Possibly decorates a stage of the decision procedure
+     * so it records its latencies in {@code this.metrics}.
+     * 
+     * @param stage a {@link DecisionProcedure}, the stage.
+     * @param stageName a {@link String}, the name of the stage.
+     * @return {@code stage} decorated with a {@link DecisionProcedureDecoratorMetrics}, 
+     *         or {@code stage} itself if metrics are not collected.
+     * @throws InvalidInputException if {@code stage == null}.
+     */
+    private DecisionProcedure measured(DecisionProcedure stage, String stageName) 
+    throws InvalidInputException {
+        return (this.metrics == null ? stage : new DecisionProcedureDecoratorMetrics(stage, this.metrics, stageName));
+    }
+
     /**
      * Creates the heap checker into {@code this.checker}.
      * 
@@ -1051,7 +1199,13 @@ public final class Run {
     private void emitState(State s) {
         this.formatter.cleanup();
         this.formatter.formatState(s);
-        outNoBreak(this.formatter.emit());
+        if (this.outputPipeline == null) {
+            outNoBreak(this.formatter.emit());
+        } else {
+            final StringBuilder buffer = this.outputPipeline.acquireBuffer();
+            this.formatter.emit(buffer);
+            this.outputPipeline.print(this.out, buffer);
+        }
     }
 
     /**
@@ -1077,6 +1231,7 @@ public final class Run {
             this.pathsSafe - 
             this.pathsUnsafe -
             this.runner.getPathsOutOfScope() -
+            this.runner.getPathsAbandoned() -
             this.pathsUnmanageable;
         log(MSG_END_STATES + this.engine.getAnalyzedStates() + ", " +
         	MSG_END_STATES_PREINITIAL + this.preInitialStateCount + ", " +
@@ -1096,6 +1251,8 @@ public final class Run {
              " (" + this.pathsConcretizableOutOfScope + " concretizable)" :  
              "") +
             ", " +
+            MSG_END_PATHS_ABANDONED + this.runner.getPathsAbandoned() +
+            ", " +
             MSG_END_PATHS_VIOLATING_ASSUMPTION + pathsViolatingAssumptions +
             ", " +
             MSG_END_PATHS_UNMANAGEABLE + this.pathsUnmanageable + ".");
@@ -1145,6 +1302,12 @@ public final class Run {
             retVal = 2;
         }
 
+        // prints all the pending output
+        if (this.outputPipeline != null) {
+            this.outputPipeline.close();
+            this.outputPipeline = null;
+        }
+
         // closes all the output streams with the exception of
         // stdout/err
         for (PrintStream p : this.out) {
@@ -1226,6 +1389,9 @@ public final class Run {
     /** Message: total paths violating assumptions. */
     private static final String MSG_END_PATHS_VIOLATING_ASSUMPTION = "Violating assumptions: ";
 
+    /** Message: total abandoned paths. */
+    private static final String MSG_END_PATHS_ABANDONED = "Abandoned: ";
+
     /** Message: total unmanageable paths. */
     private static final String MSG_END_PATHS_UNMANAGEABLE = "Unmanageable: ";
 
@@ -1254,6 +1420,9 @@ public final class Run {
     /** Warning: timeout. */
     private static final String WARNING_TIMEOUT = "Timeout.";
 
+    /** Warning: the JVM does not support the Java Flight Recorder. */
+    private static final String WARNING_FLIGHT_RECORDER_UNSUPPORTED = "This JVM does not support the Java Flight Recorder, the flight recorder events will not be emitted.";
+
     /** Warning: exhausted heap scope. */
     private static final String WARNING_SCOPE_EXHAUSTED_HEAP = " path exhausted heap scope.";
 
@@ -1263,6 +1432,18 @@ public final class Run {
     /** Warning: exhausted count scope. */
     private static final String WARNING_SCOPE_EXHAUSTED_COUNT = " path exhausted count scope.";
 
+    /** Warning: exhausted path step budget. */
+    private static final String WARNING_PATH_ABANDONED_STEPS = " path exhausted its step budget and was abandoned.";
+
+    /** Warning: exhausted path time budget. */
+    private static final String WARNING_PATH_ABANDONED_TIME = " path exhausted its time budget and was abandoned.";
+
+    /** Warning: path too slow. */
+    private static final String WARNING_PATH_ABANDONED_SPEED = " path was slower than the minimum speed and was abandoned.";
+
+    /** Warning: exhausted path decision procedure time budget. */
+    private static final String WARNING_PATH_ABANDONED_SOLVER_TIME = " path exhausted its decision procedure time budget and was abandoned.";
+
     /** Warning: cannot manage a native method invocation. */
     private static final String WARNING_CANNOT_INVOKE_NATIVE = " performed an unmanageable native method invocation: ";
 
@@ -1278,6 +1459,9 @@ public final class Run {
     /** Error: unable to open dump file. */
     private static final String ERROR_DUMP_FILE_OPEN = "Could not open the dump file. The session will be displayed on console only.";
 
+    /** Error: unable to write the metrics file. */
+    private static final String ERROR_METRICS_FILE_WRITE = "Could not write the metrics file.";
+
     /** Error: unable to connect with decision procedure. */
     private static final String ERROR_DECISION_PROCEDURE_FAILED = "Connection failed, cause: ";
 
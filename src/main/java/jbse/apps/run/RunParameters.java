@@ -108,7 +108,14 @@ public final class RunParameters implements Cloneable {
         JBSE,
         
         /** Use the platform JVM through JDI for the concrete execution. */
-        JDI
+        JDI,
+        
+        /** 
+         * Use the platform JVM through JDI for the concrete execution, 
+         * reaching the guided method by means of breakpoints rather than 
+         * by inspecting all the method entry and exit events. 
+         */
+        JDI_BREAKPOINTS
     }
 
     /**
@@ -204,6 +211,14 @@ public final class RunParameters implements Cloneable {
          */
         UNMANAGEABLE,
 
+        /**
+         * An abandoned leaf, i.e., the last state of
+         * a path that exceeded its step, time or 
+         * decision procedure time budget, or that 
+         * was too slow.
+         */
+        ABANDONED,
+
         /**
          * A contradictory leaf, i.e, the final 
          * state of a path that violates an 
@@ -326,6 +341,12 @@ public final class RunParameters implements Cloneable {
     /** Whether the engine should do sign analysis before invoking the decision procedure. */
     private boolean doEqualityAnalysis = false;
 
+    /** 
+     * Whether the engine should decide linear integer arithmetic 
+     * constraints in-process before invoking the decision procedure. 
+     */
+    private boolean doLinearIntegerArithmetic = false;
+
     /** 
      * Whether the engine should use the LICS decision procedure.
      * Set to true by default because the LICS decision procedure
@@ -368,6 +389,31 @@ public final class RunParameters implements Cloneable {
 
     /** The name of the output file. */
     private String outFileName = null;
+    
+    /** 
+     * The capacity of the buffer of the asynchronous output, 
+     * or {@code 0} if the output is synchronous. 
+     */
+    private int asyncOutputCapacity = 0;
+    
+    /** 
+     * The file where the metrics are dumped as JSON, or 
+     * {@code null} if no metrics must be collected. 
+     */
+    private Path metricsFile = null;
+    
+    /** 
+     * The period in milliseconds of the dumps of the metrics
+     * during the execution, or {@code 0} if the metrics must 
+     * be dumped only at the end of the execution. 
+     */
+    private long metricsDumpPeriodMillis = 0L;
+    
+    /** 
+     * Whether the Java Flight Recorder events of 
+     * {@link jbse.instrumentation} must be emitted. 
+     */
+    private boolean flightRecorderEvents = false;
 
     /** The text mode. */
     private TextMode textMode = TextMode.PLATFORM;
@@ -386,6 +432,18 @@ public final class RunParameters implements Cloneable {
 
     /** The format mode. */
     private StateFormatMode stateFormatMode = StateFormatMode.FULLTEXT;
+    
+    /** 
+     * The directory where the JUnit test suite is streamed, 
+     * or {@code null} if it must be emitted to the output. 
+     */
+    private String junitTestSuiteDirectoryName = null;
+    
+    /** 
+     * The maximum number of test cases in a JUnit test suite 
+     * file, {@code 0} for unlimited. 
+     */
+    private int junitTestSuiteTestsPerFile = 0;
 
     /** 
      * Maximum stack depth to which we show code;
@@ -1070,6 +1128,41 @@ public final class RunParameters implements Cloneable {
     	return this.runnerParameters.getUninterpretedPattern();
     }
 
+    /**
+     * Specifies that a method is pure, i.e., that its result only 
+     * depends on its parameters and that it has no side effects. 
+     * The paths of the first invocation of the method with symbolic 
+     * parameters are recorded as a summary, that is reused by the 
+     * subsequent invocations. Only static methods with primitive 
+     * parameters and primitive return type are summarized.
+     * 
+     * @param methodClassName the name of the class containing the method.
+     * @param methodDescriptor the descriptor of the method.
+     * @param methodName the name of the method.
+     * @throws NullPointerException if any of the above parameters is {@code null}.
+     */
+    public void addPure(String methodClassName, String methodDescriptor, String methodName) {
+        this.runnerParameters.addPure(methodClassName, methodDescriptor, methodName);
+    }
+
+    /**
+     * Clears the methods set with {@link #addPure(String, String, String) addPure}.
+     */
+    public void clearPure() {
+        this.runnerParameters.clearPure();
+    }
+
+    /**
+     * Returns the methods that must be treated as pure.
+     * 
+     * @return A {@link List}{@code <}{@link String}{@code []>}, 
+     *         where each array is a triple (method class name, 
+     *         method parameters, method name).
+     */
+    public List<String[]> getPure() {
+        return this.runnerParameters.getPure();
+    }
+
     /**
      * Sets the signature of the method which must be symbolically executed, 
      * and cancels the effect of any previous call to {@link #setStartingState(State)}.
@@ -1168,7 +1261,9 @@ public final class RunParameters implements Cloneable {
      * 
      * @param useHashMapModel a {@code boolean}. If {@code true} all
      *        the hash maps will be replaced by a model class that
-     *        is more symbolic-execution-friendly than {@code java.util.HashMap}.
+     *        is more symbolic-execution-friendly than {@code java.util.HashMap}, 
+     *        and all the hash sets will be replaced by a model class
+     *        that is backed by it.
      */
     public void setUseHashMapModel(boolean useHashMapModel) {
     	this.runnerParameters.setUseHashMapModel(useHashMapModel);
@@ -1184,6 +1279,141 @@ public final class RunParameters implements Cloneable {
     public boolean getUseHashMapModel() {
     	return this.runnerParameters.getUseHashMapModel();
     }
+    
+    /**
+     * Sets whether the arrays with primitive (nonboolean) members
+     * that cannot be granted simple representation must be 
+     * represented as terms of the theory of arrays, rather than
+     * as lists of guarded entries. Loads from these arrays do 
+     * not branch on the entries, but yield {@code select} terms
+     * that are solved by the external decision procedure, 
+     * that therefore must be set (see {@link #setDecisionProcedureType(DecisionProcedureType)}). 
+     * Note that the test suites generated by {@link StateFormatMode#JUNIT_TEST} 
+     * do not reconstruct the contents of these arrays.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+    	this.runnerParameters.setUseArrayTheory(useArrayTheory);
+    }
+    
+    /**
+     * Returns whether the arrays with primitive members
+     * that cannot be granted simple representation must
+     * be represented as terms of the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+    	return this.runnerParameters.getUseArrayTheory();
+    }
+    
+    /**
+     * Sets the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * Incremental garbage collection disposes the unreachable 
+     * concrete objects created during symbolic execution 
+     * (e.g., boxed values, iterators, string builders), 
+     * making the states smaller, while it keeps all the 
+     * symbolic objects and the objects in the initial state.
+     * 
+     * @param gcIncrementalPeriod a {@code long}, {@code 0} 
+     *        (or less) means no incremental garbage collection
+     *        (default).
+     */
+    public void setGcIncrementalPeriod(long gcIncrementalPeriod) {
+    	this.runnerParameters.setGcIncrementalPeriod(gcIncrementalPeriod);
+    }
+    
+    /**
+     * Returns the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * 
+     * @return a {@code long}.
+     */
+    public long getGcIncrementalPeriod() {
+    	return this.runnerParameters.getGcIncrementalPeriod();
+    }
+    
+    /**
+     * Sets the number of background threads that read and 
+     * parse ahead of time the classfiles that are likely to 
+     * be loaded soon, i.e., the classes referred by the 
+     * loaded classes and the classes in the packages set 
+     * with {@link #addClassFilePrefetchPackages(String...)}.
+     * Reading ahead mainly speeds up the startup and the 
+     * first path.
+     * 
+     * @param classFilePrefetchThreads an {@code int}, {@code 0} 
+     *        (or less) means no read ahead (default).
+     */
+    public void setClassFilePrefetchThreads(int classFilePrefetchThreads) {
+    	this.runnerParameters.setClassFilePrefetchThreads(classFilePrefetchThreads);
+    }
+    
+    /**
+     * Returns the number of background threads that read 
+     * ahead the classfiles.
+     * 
+     * @return an {@code int}.
+     */
+    public int getClassFilePrefetchThreads() {
+    	return this.runnerParameters.getClassFilePrefetchThreads();
+    }
+    
+    /**
+     * Adds packages whose classes must all be read ahead
+     * (see {@link #setClassFilePrefetchThreads(int)}).
+     * 
+     * @param packageNames a varargs of {@link String}s, the
+     *        names of the packages with slashes as separators
+     *        (e.g., {@code "java/util"}).
+     * @throws NullPointerException if {@code packageNames == null}.
+     */
+    public void addClassFilePrefetchPackages(String... packageNames) {
+    	this.runnerParameters.addClassFilePrefetchPackages(packageNames);
+    }
+    
+    /**
+     * Clears the packages set with {@link #addClassFilePrefetchPackages(String...)}.
+     */
+    public void clearClassFilePrefetchPackages() {
+    	this.runnerParameters.clearClassFilePrefetchPackages();
+    }
+    
+    /**
+     * Returns the packages whose classes must all be read ahead.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     */
+    public List<String> getClassFilePrefetchPackages() {
+    	return this.runnerParameters.getClassFilePrefetchPackages();
+    }
+    
+    /**
+     * Sets whether the states at loop heads must be merged.
+     * When a symbolic execution forks at a loop, the pending 
+     * states that reach the same loop point with the same heap
+     * and frames are merged into a single state, whose local 
+     * variables and operands that differ become fresh symbols
+     * constrained by a disjunction in the path condition. This 
+     * trades more complex solver queries for fewer paths. 
+     * By default states are not merged.
+     * 
+     * @param mergeStatesAtLoops a {@code boolean}.
+     */
+    public void setMergeStatesAtLoops(boolean mergeStatesAtLoops) {
+    	this.runnerParameters.setMergeStatesAtLoops(mergeStatesAtLoops);
+    }
+    
+    /**
+     * Returns whether the states at loop heads must be merged.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getMergeStatesAtLoops() {
+    	return this.runnerParameters.getMergeStatesAtLoops();
+    }
 
     /**
      * Sets a timeout for execution.
@@ -1212,6 +1442,99 @@ public final class RunParameters implements Cloneable {
         return this.runnerParameters.getTimeout();
     }
 
+    /**
+     * Sets the maximum number of steps of a path. The paths
+     * that exceed it are abandoned. Only the steps in the 
+     * post-initial phase, and for the paths resumed by a 
+     * backtrack only the steps after the backtrack, are counted.
+     * 
+     * @param pathStepBudget a {@code long}, the maximum number 
+     *        of steps ({@code <= 0} means unlimited, the default).
+     */
+    public void setPathStepBudget(long pathStepBudget) { 
+        this.runnerParameters.setPathStepBudget(pathStepBudget);
+    }
+
+    /**
+     * Gets the maximum number of steps of a path.
+     * 
+     * @return a {@code long}, the maximum number of 
+     *         steps ({@code <= 0} means unlimited).
+     */
+    public long getPathStepBudget() {
+        return this.runnerParameters.getPathStepBudget();
+    }
+
+    /**
+     * Sets the maximum time of a path. The paths that 
+     * exceed it are abandoned. The time is measured as 
+     * the step budget (see {@link #setPathStepBudget(long)}). 
+     * 
+     * @param time a {@code long}, the amount of time 
+     *        ({@code <= 0} means unlimited, the default).
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setPathTimeBudget(long time, TimeUnit timeUnit) { 
+        this.runnerParameters.setPathTimeBudget(time, timeUnit);
+    }
+
+    /**
+     * Gets the maximum time of a path.
+     * 
+     * @return a {@code long}, the time in milliseconds 
+     *         ({@code <= 0} means unlimited).
+     */
+    public long getPathTimeBudget() {
+        return this.runnerParameters.getPathTimeBudget();
+    }
+
+    /**
+     * Sets the minimum speed of a path. The speed of the 
+     * current path is measured once per second, and the 
+     * path is abandoned if, in the last second, it was 
+     * slower than the minimum. 
+     * 
+     * @param pathMinSpeed a {@code long}, the minimum speed 
+     *        in states per second ({@code <= 0} means no 
+     *        minimum, the default).
+     */
+    public void setPathMinSpeed(long pathMinSpeed) { 
+        this.runnerParameters.setPathMinSpeed(pathMinSpeed);
+    }
+
+    /**
+     * Gets the minimum speed of a path.
+     * 
+     * @return a {@code long}, the minimum speed in states 
+     *         per second ({@code <= 0} means no minimum).
+     */
+    public long getPathMinSpeed() {
+        return this.runnerParameters.getPathMinSpeed();
+    }
+
+    /**
+     * Sets the maximum time the decision procedure may 
+     * spend on a path. The paths that exceed it are abandoned.
+     * 
+     * @param time a {@code long}, the amount of time 
+     *        ({@code <= 0} means unlimited, the default).
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setPathSolverTimeBudget(long time, TimeUnit timeUnit) { 
+        this.runnerParameters.setPathSolverTimeBudget(time, timeUnit);
+    }
+
+    /**
+     * Gets the maximum time the decision procedure 
+     * may spend on a path.
+     * 
+     * @return a {@code long}, the time in milliseconds 
+     *         ({@code <= 0} means unlimited).
+     */
+    public long getPathSolverTimeBudget() {
+        return this.runnerParameters.getPathSolverTimeBudget();
+    }
+
     /**
      * Sets a limited heap scope for the objects of a given class. 
      * The heap scope is the maximum number of objects of a given class 
@@ -1564,6 +1887,31 @@ public final class RunParameters implements Cloneable {
         return this.doEqualityAnalysis;
     }
 
+    /**
+     * Sets whether the engine should decide the conjunctions of 
+     * linear constraints over integral values in-process, 
+     * invoking the decision procedure set with 
+     * {@link #setDecisionProcedureType(DecisionProcedureType)}
+     * only for the nonlinear or mixed queries. 
+     * 
+     * @param doLinearIntegerArithmetic {@code true} iff the engine 
+     *        must decide linear integer arithmetic in-process.
+     */
+    public void setDoLinearIntegerArithmetic(boolean doLinearIntegerArithmetic) {
+        this.doLinearIntegerArithmetic = doLinearIntegerArithmetic;
+    }
+
+    /**
+     * Gets whether the engine should decide linear integer
+     * arithmetic in-process.
+     * 
+     * @return {@code true} iff the engine must decide linear 
+     *         integer arithmetic in-process.
+     */
+    public boolean getDoLinearIntegerArithmetic() {
+        return this.doLinearIntegerArithmetic;
+    }
+
     /**
      * Sets whether the engine shall invoke or not the conservative
      * repOk methods at every heap expansion. By default they are
@@ -1968,6 +2316,36 @@ public final class RunParameters implements Cloneable {
         return this.showOnConsole;
     }
 
+    /**
+     * Sets whether the output (states, log, errors) should be
+     * printed asynchronously. In this case the output is queued 
+     * in a bounded buffer and printed by a background thread, 
+     * so that symbolic execution is not blocked by console and
+     * file I/O unless the buffer is full. The output order
+     * is preserved.
+     * 
+     * @param asyncOutputCapacity an {@code int}, the maximum number
+     *        of output items that can be queued; {@code 0} means
+     *        that the output is synchronous (the default).
+     * @throws IllegalArgumentException if {@code asyncOutputCapacity < 0}.
+     */
+    public void setAsyncOutput(int asyncOutputCapacity) {
+        if (asyncOutputCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.asyncOutputCapacity = asyncOutputCapacity;
+    }
+
+    /**
+     * Gets the capacity of the buffer of the asynchronous output.
+     * 
+     * @return an {@code int}, {@code 0} meaning that the 
+     *         output is synchronous.
+     */
+    public int getAsyncOutput() {
+        return this.asyncOutputCapacity;
+    }
+
     /**
      * Sets the name of the output file.
      * 
@@ -2003,6 +2381,87 @@ public final class RunParameters implements Cloneable {
         return this.outFileName;
     }
 
+    /**
+     * Sets the file where the metrics of the execution are
+     * dumped as JSON, and enables the collection of the metrics.
+     * The metrics include the number of steps for each opcode, 
+     * the execution times of the algorithms, the state clone 
+     * times, the number of pending states, the latency of each 
+     * stage of the decision procedure and the rewriting times 
+     * (see {@link jbse.jvm.Metrics}). The metrics are dumped at 
+     * the end of the execution, and periodically during it if
+     * a dump period is set with {@link #setMetricsDumpPeriod(long, TimeUnit)}.
+     * 
+     * @param metricsFile a {@link Path}, or {@code null} to 
+     *        disable the collection of the metrics (default).
+     */
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Returns the file where the metrics of the execution 
+     * are dumped.
+     * 
+     * @return a {@link Path}, or {@code null} if the 
+     *         metrics are not collected.
+     */
+    public Path getMetricsFile() {
+        return this.metricsFile;
+    }
+
+    /**
+     * Sets the period of the dumps of the metrics 
+     * during the execution.
+     * 
+     * @param time a {@code long}, the period; {@code 0} (or less)
+     *        means that the metrics are dumped only at the end
+     *        of the execution (default).
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     * @throws NullPointerException if {@code timeUnit == null}.
+     */
+    public void setMetricsDumpPeriod(long time, TimeUnit timeUnit) {
+        this.metricsDumpPeriodMillis = Math.max(0L, timeUnit.toMillis(time));
+    }
+
+    /**
+     * Returns the period of the dumps of the metrics 
+     * during the execution.
+     * 
+     * @return a {@code long}, the period in milliseconds, 
+     *         {@code 0} if the metrics are dumped only at 
+     *         the end of the execution.
+     */
+    public long getMetricsDumpPeriodMillis() {
+        return this.metricsDumpPeriodMillis;
+    }
+
+    /**
+     * Sets whether the Java Flight Recorder events of the 
+     * engine steps, state clones, external decision procedure 
+     * queries, class loads and backtracks must be emitted 
+     * (see {@link jbse.instrumentation.Instrumentation}). 
+     * The events are recorded only if a flight recording is 
+     * running, e.g., started with the {@code -XX:StartFlightRecording} 
+     * JVM option.
+     * 
+     * @param flightRecorderEvents a {@code boolean}; 
+     *        The default is {@code false}.
+     */
+    public void setFlightRecorderEvents(boolean flightRecorderEvents) {
+        this.flightRecorderEvents = flightRecorderEvents;
+    }
+
+    /**
+     * Returns whether the Java Flight Recorder events 
+     * must be emitted.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getFlightRecorderEvents() {
+        return this.flightRecorderEvents;
+    }
+
     /**
      * Sets the line separation text mode.
      * 
@@ -2161,6 +2620,23 @@ public final class RunParameters implements Cloneable {
         }
     }
 
+    /**
+     * Relevant only when {@link #setStepShowMode(StepShowMode)}
+     * is set to {@link StepShowMode#LEAVES} or 
+     * {@link StepShowMode#SUMMARIES} to further filter
+     * which leaves/summaries must be shown.
+     * 
+     * @param show {@code true} iff the leaves/summaries 
+     *        of abandoned paths must be shown.
+     */
+    public void setShowAbandoned(boolean show) {
+        if (show) {
+            this.pathsToShow.add(PathTypes.ABANDONED);
+        } else {
+            this.pathsToShow.remove(PathTypes.ABANDONED);
+        }
+    }
+
     /**
      * Returns the paths types to be shown.
      * 
@@ -2272,6 +2748,70 @@ public final class RunParameters implements Cloneable {
         return this.stateFormatMode;
     }
     
+    /**
+     * Sets the directory where the JUnit test suite is streamed
+     * when the state format mode is {@link StateFormatMode#JUNIT_TEST}.
+     * Each test case is written to file as soon as it is generated,
+     * rather than being emitted to the output.
+     * 
+     * @param s A {@link String} representing the pathname of the
+     *        directory where the test suite files will be written.
+     * @throws NullPointerException if {@code s == null}.
+     */
+    public void setJUnitTestSuiteDirectoryName(String s) {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        this.junitTestSuiteDirectoryName = s;
+    }
+    
+    /**
+     * Instructs to emit the JUnit test suite to the output,
+     * cancelling any previous invocation of the 
+     * {@link #setJUnitTestSuiteDirectoryName(String)} method.
+     * This is the default behaviour.
+     */
+    public void setJUnitTestSuiteDirectoryNone() {
+        this.junitTestSuiteDirectoryName = null;
+    }
+    
+    /**
+     * Returns the directory where the JUnit test suite is streamed.
+     * 
+     * @return a {@link String} representing the pathname of the
+     *         directory, or {@code null} if the test suite is 
+     *         emitted to the output.
+     */
+    public String getJUnitTestSuiteDirectoryName() {
+        return this.junitTestSuiteDirectoryName;
+    }
+    
+    /**
+     * Sets the maximum number of test cases in a JUnit test suite
+     * file. If it is positive, the streamed test suite is split 
+     * into the files {@code TestSuite_1.java}, {@code TestSuite_2.java}...
+     * 
+     * @param junitTestSuiteTestsPerFile an {@code int}, the maximum
+     *        number of test cases per file; {@code 0} means unlimited
+     *        (the default).
+     * @throws IllegalArgumentException if {@code junitTestSuiteTestsPerFile < 0}.
+     */
+    public void setJUnitTestSuiteTestsPerFile(int junitTestSuiteTestsPerFile) {
+        if (junitTestSuiteTestsPerFile < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.junitTestSuiteTestsPerFile = junitTestSuiteTestsPerFile;
+    }
+    
+    /**
+     * Gets the maximum number of test cases in a JUnit test suite file.
+     * 
+     * @return an {@code int}, {@code 0} meaning unlimited.
+     */
+    public int getJUnitTestSuiteTestsPerFile() {
+        return this.junitTestSuiteTestsPerFile;
+    }
+    
     /**
      * Sets the path of the source files.
      * 
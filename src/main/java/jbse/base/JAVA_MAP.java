@@ -15,6 +15,17 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 
+/**
+ * A model of {@link java.util.HashMap} that is friendlier to 
+ * symbolic execution. The key/value pairs whose keys are 
+ * concrete and have a concrete hash code are stored in a 
+ * table of hashed buckets, so finding them does not require 
+ * to compare the searched key with all the keys in the map. 
+ * The key/value pairs whose keys are symbolic, or have a 
+ * symbolic hash code, are stored in a separate list that 
+ * must be scanned, and that is where the case splits on 
+ * the equality of keys happen.
+ */
 public class JAVA_MAP<K, V>  extends AbstractMap<K,V>
 implements Map<K,V>, Cloneable, Serializable {
 
@@ -26,6 +37,15 @@ implements Map<K,V>, Cloneable, Serializable {
 		KK key;
 		VV value;
 		Node next;
+		
+		/** 
+		 * Whether the pair is in the table of 
+		 * buckets (true) or in root.(next)* (false). 
+		 */
+		boolean hashed;
+		
+		/** Used only when hashed == true; the hash of key. */
+		int hash;
 
 		public int pairHashCode() {
 			return (this.key == null ? 0 : this.key.hashCode()) ^
@@ -73,14 +93,33 @@ implements Map<K,V>, Cloneable, Serializable {
 	private int size;
 
 	/**
-	 * The list of key/value pairs in the map, 
-	 * either added (noninitial map) or assumed (initial map).
+	 * The table of the buckets of the key/value pairs in the map
+	 * whose keys are concretely hashed, either added (noninitial map) 
+	 * or assumed (initial map). Each bucket is a list 
+	 * table[i].(next)*; its length is a power of two.
+	 */
+	private Node[] table;
+
+	/**
+	 * The load factor of this.table.
+	 */
+	private float loadFactor;
+
+	/** 
+	 * The number of nodes in this.table.
+	 */
+	private int numHashedNodes;
+
+	/**
+	 * The list of key/value pairs in the map whose keys are not
+	 * concretely hashed, either added (noninitial map) or assumed 
+	 * (initial map).
 	 */
 	private Node root;
 
 	/** 
-	 * The number of nodes in root.(next)*, excluded the
-	 * final NodeEmpty.
+	 * The number of nodes in this.table and in root.(next)*, 
+	 * excluded the final NodeEmpty.
 	 */
 	private int numNodes;
 
@@ -106,6 +145,9 @@ implements Map<K,V>, Cloneable, Serializable {
 		this.absentValues = null;
 		this.initialMap = null;
 		this.size = 0;
+		this.table = new Node[tableSizeFor(initialCapacity)];
+		this.loadFactor = loadFactor;
+		this.numHashedNodes = 0;
 		this.root = new NodeEmpty();
 		this.numNodes = 0;
 	}
@@ -134,7 +176,6 @@ implements Map<K,V>, Cloneable, Serializable {
 	public boolean isEmpty() {
 		return (size() == 0);
 	}
-
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean containsKey(Object key) {
@@ -144,27 +185,15 @@ implements Map<K,V>, Cloneable, Serializable {
 		}
 
 		//if not absent, checks in the nodes
-		if (key == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.key == null) {
-					return true;
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (key.equals(np.key)) {
-					return true;
-				}
-			}
+		if (findNode(key) != null) {
+			return true;
 		}
 
 		//if not in the nodes, there are three cases 
 		//1- the map is initial: branch and recheck 
 		if (this.isInitial) {
 			refineOnKeyAndBranch((K) key);
-			return containsKey(key); //after refinement it will be either in this.absentKeys or in this.root.(next)*
+			return containsKey(key); //after refinement it will be either in this.absentKeys or in the nodes
 		}
 		//2- the map is not initial and is backed by an initial
 		//   map (it is symbolic): search in the initial map
@@ -184,27 +213,15 @@ implements Map<K,V>, Cloneable, Serializable {
 		}
 
 		//if not absent, checks in the nodes
-		if (value == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.value == null) {
-					return true;
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (value.equals(np.value)) {
-					return true;
-				}
-			}
+		if (findNodeByValue(value) != null) {
+			return true;
 		}
 
 		//if not in the nodes there are three possible cases: 
 		//1- the map is initial: branches and rechecks
 		if (this.isInitial) {
 			refineOnValueAndBranch((V) value);
-			return containsValue(value); //after refinement it will be either in this.absentValues or in this.root.(next)*
+			return containsValue(value); //after refinement it will be either in this.absentValues or in the nodes
 		}
 		//2- the map is not initial and is backed by an initial
 		//   map (it is symbolic): search in the initial map
@@ -224,27 +241,16 @@ implements Map<K,V>, Cloneable, Serializable {
 		}
 
 		//if not absent, checks in the nodes
-		if (key == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.key == null) {
-					return np.value;
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (key.equals(np.key)) {
-					return np.value;
-				}
-			}
+		final NodePair<K, V> np = findNode(key);
+		if (np != null) {
+			return np.value;
 		}
 
 		//if not in the nodes there are three cases: 
 		//1- the map is initial: branches and rechecks
 		if (this.isInitial) {
 			refineOnKeyAndBranch((K) key);
-			return get(key); //after refinement it will be either in this.absentKeys or in this.root.(next)*
+			return get(key); //after refinement it will be either in this.absentKeys or in the nodes
 		}
 		//2- the map is not initial and is backed by an initial
 		//   map (it is symbolic): search in the initial map
@@ -255,17 +261,6 @@ implements Map<K,V>, Cloneable, Serializable {
 		return null;
 	}
 
-	private void addNode(K key, V value) {
-		this.absentKeys.remove(key);
-		final NodePair<K, V> np = new NodePair<>();
-		np.key = key;
-		np.value = value;
-		np.next = this.root;
-		this.root = np;
-		++this.numNodes;
-	}
-
-	@SuppressWarnings("unchecked")
 	@Override
 	public V put(K key, V value) {
 		if (this.isInitial) {
@@ -273,25 +268,8 @@ implements Map<K,V>, Cloneable, Serializable {
 			metaThrowUnexpectedInternalException("Tried to put a value in an initial map.");
 		}
 
-		//looks for a matching NodePair in this.root.(next)*
-		NodePair<K, V> matchingPair = null;
-		if (key == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.key == null) {
-					matchingPair = np;
-					break;
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (key.equals(np.key)) {
-					matchingPair = np;
-					break;
-				}
-			}
-		}
+		//looks for a matching NodePair in the nodes
+		final NodePair<K, V> matchingPair = findNode(key);
 
 		//no matching NodePair
 		if (matchingPair == null) {
@@ -317,26 +295,20 @@ implements Map<K,V>, Cloneable, Serializable {
 
 				//if the key surely is in the initial map, add the new mapping and 
 				//return the value it had in the initial map
-				if (key == null) {
-					for (Node nInitial = this.initialMap.root; nInitial instanceof JAVA_MAP.NodePair; nInitial = ((JAVA_MAP.NodePair<K, V>) nInitial).next) {
-						final NodePair<K, V> npInitial = (JAVA_MAP.NodePair<K, V>) nInitial;
-						if (npInitial.key == null) {
-							addNode(key, value);
-							return npInitial.value;
-						}
-					}
-				} else {
-					for (Node nInitial = this.initialMap.root; nInitial instanceof JAVA_MAP.NodePair; nInitial = ((JAVA_MAP.NodePair<K, V>) nInitial).next) {
-						final NodePair<K, V> npInitial = (JAVA_MAP.NodePair<K, V>) nInitial;
-						if (key.equals(npInitial.key)) {
-							addNode(key, value);
-							return npInitial.value;
-						}
+				final NodePair<K, V> npInitial = this.initialMap.findNode(key);
+				if (npInitial != null) {
+					//if the key was removed it is not in the map
+					final boolean wasRemoved = this.absentKeys.remove(key);
+					addNode(key, value);
+					if (wasRemoved) {
+						++this.size;
+						return null;
 					}
+					return npInitial.value;
 				}
 
 				//else, branch and repeat put operation
-				this.initialMap.refineOnKeyAndBranch((K) key);
+				this.initialMap.refineOnKeyAndBranch(key);
 				return put(key, value);
 			}
 		} else {
@@ -361,27 +333,8 @@ implements Map<K,V>, Cloneable, Serializable {
 			return null;
 		}
 
-		//looks for a matching NodePair in this.root.(next)*
-		NodePair<K, V> matchingPairPrev = null, matchingPair = null;
-		if (key == null) {
-			for (Node nPrev = null, n = this.root; n instanceof JAVA_MAP.NodePair; nPrev = n, n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.key == null) {
-					matchingPairPrev = (JAVA_MAP.NodePair<K, V>) nPrev;
-					matchingPair = np;
-					break;
-				}
-			}
-		} else {
-			for (Node nPrev = null, n = this.root; n instanceof JAVA_MAP.NodePair; nPrev = n, n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (key.equals(np.key)) {
-					matchingPairPrev = (JAVA_MAP.NodePair<K, V>) nPrev;
-					matchingPair = np;
-					break;
-				}
-			}
-		}
+		//looks for a matching NodePair in the nodes
+		final NodePair<K, V> matchingPair = findNode(key);
 
 		//no matching NodePair
 		if (matchingPair == null) {
@@ -401,24 +354,11 @@ implements Map<K,V>, Cloneable, Serializable {
 
 				//if the key surely is in the initial map, adjust size and
 				//return the associated value
-				if (key == null) {
-					for (Node nInitial = this.initialMap.root; nInitial instanceof JAVA_MAP.NodePair; nInitial = ((JAVA_MAP.NodePair<K, V>) nInitial).next) {
-						final NodePair<K, V> npInitial = (JAVA_MAP.NodePair<K, V>) nInitial;
-						if (npInitial.key == null) {
-							this.absentKeys.add((K) key);						
-							--this.size;
-							return npInitial.value;
-						}
-					}
-				} else {
-					for (Node nInitial = this.initialMap.root; nInitial instanceof JAVA_MAP.NodePair; nInitial = ((JAVA_MAP.NodePair<K, V>) nInitial).next) {
-						final NodePair<K, V> npInitial = (JAVA_MAP.NodePair<K, V>) nInitial;
-						if (key.equals(npInitial.key)) {
-							this.absentKeys.add((K) key);						
-							--this.size;
-							return npInitial.value;
-						}
-					}
+				final NodePair<K, V> npInitial = this.initialMap.findNode(key);
+				if (npInitial != null) {
+					this.absentKeys.add((K) key);						
+					--this.size;
+					return npInitial.value;
 				}
 
 				//else, branch and repeat remove operation
@@ -427,14 +367,13 @@ implements Map<K,V>, Cloneable, Serializable {
 			}
 		} else {
 			//matching NodePair found: remove it, adjust
-			//size and return the value
-			this.absentKeys.add((K) key);						
-			if (matchingPairPrev == null) {
-				this.root = matchingPair.next;
-			} else {
-				matchingPairPrev.next = matchingPair.next;
+			//size and return the value; the key must be
+			//recorded as absent only if it could be in the 
+			//initial map
+			if (this.initialMap != null) {
+				this.absentKeys.add((K) key);
 			}
-			--this.numNodes;
+			removeNode(matchingPair);
 			--this.size;
 			return matchingPair.value;
 		}
@@ -461,12 +400,40 @@ implements Map<K,V>, Cloneable, Serializable {
 			//initial maps are immutable
 			metaThrowUnexpectedInternalException("Tried to clear an initial map.");
 		}
+		this.absentKeys.clear();
 		this.size = 0;
+		this.table = new Node[this.table.length];
+		this.numHashedNodes = 0;
 		this.root = new NodeEmpty();
 		this.numNodes = 0;
 		this.initialMap = null; //my, that's rough! But it works.
 	}
 
+	// Cloning
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object clone() {
+		final JAVA_MAP<K, V> retVal;
+		try {
+			retVal = (JAVA_MAP<K, V>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			//this should never happen
+			throw new InternalError(e);
+		}
+		//the initial map is immutable and is shared
+		retVal.absentKeys = new ArrayList<>(this.absentKeys);
+		retVal.table = new Node[this.table.length];
+		retVal.numHashedNodes = 0;
+		retVal.root = new NodeEmpty();
+		retVal.numNodes = 0;
+		final ArrayList<NodePair<K, V>> pairs = new ArrayList<>(this.numNodes);
+		collectNodes(pairs);
+		for (NodePair<K, V> np : pairs) {
+			retVal.addNode(np.key, np.value);
+		}
+		return retVal;
+	}
 
 	// Views
 
@@ -788,22 +755,36 @@ implements Map<K,V>, Cloneable, Serializable {
 
 		@Override
 		public Iterator<Map.Entry<K, V>> iterator() {
+			//collects the pairs to iterate: first the ones in this map,
+			//then the ones in the initial map (if present) that are 
+			//not overridden by the former, nor removed
+			final ArrayList<NodePair<K, V>> pairs = new ArrayList<>(JAVA_MAP.this.numNodes);
+			JAVA_MAP.this.collectNodes(pairs);
+			if (JAVA_MAP.this.initialMap != null) {
+				final ArrayList<NodePair<K, V>> pairsInitial = new ArrayList<>(JAVA_MAP.this.initialMap.numNodes);
+				JAVA_MAP.this.initialMap.collectNodes(pairsInitial);
+				for (NodePair<K, V> npInitial : pairsInitial) {
+					if (!JAVA_MAP.this.absentKeys.contains(npInitial.key) && JAVA_MAP.this.findNode(npInitial.key) == null) {
+						pairs.add(npInitial);
+					}
+				}
+			}
+			
 			return new Iterator<Map.Entry<K,V>>() {
-				private boolean scanningInitialMap = false;
-				private Node current = JAVA_MAP.this.root;
+				private int next = 0;
+				private NodePair<K, V> last = null;
 
 				@Override
 				public boolean hasNext() {
-					return (this.current instanceof JAVA_MAP.NodePair);
+					return (this.next < pairs.size());
 				}
 
-				@SuppressWarnings("unchecked")
 				@Override
 				public Entry<K, V> next() {
 					if (!hasNext()) {
 						throw new NoSuchElementException();
 					}
-					final NodePair<K, V> currentPair = (JAVA_MAP.NodePair<K, V>) this.current;
+					final NodePair<K, V> currentPair = pairs.get(this.next);
 					final K key = currentPair.key;
 					final V value = currentPair.value;
 					final Entry<K, V> retVal = new Map.Entry<K, V>() {
@@ -818,10 +799,11 @@ implements Map<K,V>, Cloneable, Serializable {
 						}
 
 						@Override
-						public Object setValue(Object value) {
-							final Object retVal = currentPair.value;
-							currentPair.value = (V) value;
-							return retVal;
+						public V setValue(V value) {
+							//if the pair is in the initial map, puts
+							//the value in this map (the initial map 
+							//is immutable)
+							return JAVA_MAP.this.put(key, value);
 						}
 
 						@Override
@@ -847,65 +829,19 @@ implements Map<K,V>, Cloneable, Serializable {
 					};
 
 					//move forward by one
-					this.current = currentPair.next;
-
-					if (this.scanningInitialMap) {
-						//if we are in the initial map, we must also skip all entries that are overridden
-						//by other (already emitted) ones - i.e., by the entries in JAVA_MAP.this.root.(next)*
-						scanForNotAlreadyEmitted:
-							while (this.current instanceof JAVA_MAP.NodePair) {
-								final NodePair<K, V> npCurrent = (JAVA_MAP.NodePair<K, V>) this.current;
-								final K keyCurrent = npCurrent.key;
-								if (keyCurrent == null) {
-									for (Node n = JAVA_MAP.this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-										final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-										if (np.key == null) {
-											this.current = npCurrent.next;
-											continue scanForNotAlreadyEmitted;
-										}
-									}
-								} else {
-									for (Node n = JAVA_MAP.this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-										final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-										if (keyCurrent.equals(np.key)) {
-											this.current = npCurrent.next;
-											continue scanForNotAlreadyEmitted;
-										}
-									}
-								}
-								break;
-							}
-					} else if (this.current instanceof JAVA_MAP.NodeEmpty && JAVA_MAP.this.initialMap != null) {
-						//if we are at the end of JAVA_MAP.this.root.(next)*, continue 
-						//with the initial map (if present)
-						this.current = JAVA_MAP.this.initialMap.root;
-						this.scanningInitialMap = true;
-					}
+					++this.next;
+					this.last = currentPair;
 
 					return retVal;
 				}
 
-				@SuppressWarnings("unchecked")
 				@Override
 				public void remove() {
-					if (!hasNext()) {
+					if (this.last == null) {
 						throw new IllegalStateException();
 					}
-					final NodePair<K, V> currentBeforeRemovalPair = (JAVA_MAP.NodePair<K, V>) this.current;
-					final K key = currentBeforeRemovalPair.key;
-					JAVA_MAP.this.remove(key);
-					if (!this.scanningInitialMap) {
-						//check if currentBeforeRemovalPair is still there
-						for (Node n = JAVA_MAP.this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-							if (n == currentBeforeRemovalPair) {
-								//still present
-								return;
-							}
-						}
-
-						//otherwise, skips the iterator by one
-						this.current = currentBeforeRemovalPair.next;
-					}
+					JAVA_MAP.this.remove(this.last.key);
+					this.last = null;
 				}
 			};
 		}
@@ -1012,11 +948,24 @@ implements Map<K,V>, Cloneable, Serializable {
 			return false;
 		}
 		final Map<?, ?> m = (Map<?, ?>) o;
-		//TODO find a lazier implementation; this is taken from the comments of Map.equals
-		return entrySet().equals(m.entrySet());
+		//TODO find a lazier implementation; this is taken from AbstractMap.equals
+		if (m.size() != size()) {
+			return false;
+		}
+		for (Map.Entry<K, V> e : entrySet()) {
+			final K key = e.getKey();
+			final V value = e.getValue();
+			if (value == null) {
+				if (!(m.get(key) == null && m.containsKey(key))) {
+					return false;
+				}
+			} else if (!value.equals(m.get(key))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public int hashCode() {
 		if (this.isInitial) {
@@ -1025,9 +974,10 @@ implements Map<K,V>, Cloneable, Serializable {
 
 		//calculates the hash code for the entries added
 		//after the start of the symbolic execution
+		final ArrayList<NodePair<K, V>> pairs = new ArrayList<>(this.numNodes);
+		collectNodes(pairs);
 		int hashCode = 0;
-		for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-			final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
+		for (NodePair<K, V> np : pairs) {
 			hashCode += np.pairHashCode();
 		}
 
@@ -1040,52 +990,41 @@ implements Map<K,V>, Cloneable, Serializable {
 		hashCode += this.initialMap.initialHashCode;
 
 		//...and subtract the hash codes of all the entries 
-		//in the initial map that have been replaced after
-		//the start of symbolic execution (this is the hard part).
+		//in the initial map that have been replaced or removed 
+		//after the start of symbolic execution (this is the hard part).
 		//The idea is to specialize the backing initial map so 
-		//we can determine, for all the keys in the node list, whether 
+		//we can determine, for all the keys in the nodes, whether 
 		//they are or not in the initial map: then, subtract the hash
 		//values for the entries that are present.
 
 		//first, statically determine if there are any
-		//keys in this.root.(next)* that are not refined in
+		//keys in the nodes that are not refined in
 		//the initial map
 		final ArrayList<K> notRefined = new ArrayList<>();
-		findNotRefinedNodes:
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (this.initialMap.absentKeys.contains(np.key)) {
-					continue findNotRefinedNodes;
-				}
-				if (np.key == null) {
-					for (Node nRefinement = this.initialMap.root; nRefinement instanceof JAVA_MAP.NodePair; nRefinement = ((JAVA_MAP.NodePair<K, V>) nRefinement).next) {
-						final NodePair<K, V> npRefinement = (JAVA_MAP.NodePair<K, V>) nRefinement;
-						if (npRefinement.key == null) {
-							continue findNotRefinedNodes;
-						}
-					}
-				} else {
-					for (Node nRefinement = this.initialMap.root; nRefinement instanceof JAVA_MAP.NodePair; nRefinement = ((JAVA_MAP.NodePair<K, V>) nRefinement).next) {
-						final NodePair<K, V> npRefinement = (JAVA_MAP.NodePair<K, V>) nRefinement;
-						if (np.key.equals(npRefinement.key)) {
-							continue findNotRefinedNodes;
-						}
-					}
-				}
-				notRefined.add(np.key);
+		for (NodePair<K, V> np : pairs) {
+			if (this.initialMap.absentKeys.contains(np.key)) {
+				continue;
+			}
+			if (this.initialMap.findNode(np.key) != null) {
+				continue;
 			}
+			notRefined.add(np.key);
+		}
 
 		//if there are any, then refine (for n keys generates 2^n branches!!!)
 		if (notRefined.size() > 0) {
 			//TODO does this ever happen??? Apparently either a map is concrete (no initial map) or is symbolic, and in this case every operation (get, put) that introduces a key also introduces a refinement on it in the initial map
-			refineOnKeyCombinationsAndBranch(notRefined.toArray());
+			this.initialMap.refineOnKeyCombinationsAndBranch(notRefined.toArray());
 		}
 
 		//finally, subtract from the hash code all the hashes of pairs
-		//in the initial map
-		for (Node nRefinement = this.initialMap.root; nRefinement instanceof JAVA_MAP.NodePair; nRefinement = ((JAVA_MAP.NodePair<K, V>) nRefinement).next) {
-			final NodePair<K, V> npRefinement = (JAVA_MAP.NodePair<K, V>) nRefinement;
-			hashCode -= npRefinement.pairHashCode();
+		//in the initial map that are overridden or removed
+		final ArrayList<NodePair<K, V>> pairsInitial = new ArrayList<>(this.initialMap.numNodes);
+		this.initialMap.collectNodes(pairsInitial);
+		for (NodePair<K, V> npInitial : pairsInitial) {
+			if (this.absentKeys.contains(npInitial.key) || findNode(npInitial.key) != null) {
+				hashCode -= npInitial.pairHashCode();
+			}
 		}
 
 		return hashCode;
@@ -1099,6 +1038,231 @@ implements Map<K,V>, Cloneable, Serializable {
 
 	private static final Object[] OBJECT_ARRAY = new Object[0];
 
+	/**
+	 * Returns the size of the table for a given 
+	 * initial capacity.
+	 * 
+	 * @param initialCapacity an {@code int}, the initial
+	 *        capacity.
+	 * @return the smallest power of two greater or
+	 *         equal to {@code initialCapacity}.
+	 */
+	private static int tableSizeFor(int initialCapacity) {
+		int n = 1;
+		while (n < initialCapacity && n < MAXIMUM_CAPACITY) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the hash of a key, as {@link java.util.HashMap}
+	 * calculates it. 
+	 * 
+	 * @param key the key. It must be concretely hashed
+	 *        (see {@link #isConcretelyHashed(Object)}).
+	 * @return an {@code int}, the hash of {@code key}.
+	 */
+	private static int hash(Object key) {
+		if (key == null) {
+			return 0;
+		}
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Checks whether a key is concretely hashed.
+	 * 
+	 * @param key the key.
+	 * @return {@code true} iff {@code key} is {@code null}, 
+	 *         or it is concrete and has a concrete hash code. 
+	 */
+	private static boolean isConcretelyHashed(Object key) {
+		if (key == null) {
+			return true;
+		}
+		if (isSymbolic(key)) {
+			return false;
+		}
+		return !isSymbolic(key.hashCode());
+	}
+
+	/**
+	 * Searches a key in a list of nodes.
+	 * 
+	 * @param n the first {@link Node} of the list.
+	 * @param key the key.
+	 * @return the {@link NodePair} in n.(next)* with 
+	 *         key equal to {@code key}, or {@code null} 
+	 *         if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <KK, VV> NodePair<KK, VV> findNodeInList(Node n, Object key) {
+		if (key == null) {
+			for (; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<KK, VV>) n).next) {
+				final NodePair<KK, VV> np = (JAVA_MAP.NodePair<KK, VV>) n;
+				if (np.key == null) {
+					return np;
+				}
+			}
+		} else {
+			for (; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<KK, VV>) n).next) {
+				final NodePair<KK, VV> np = (JAVA_MAP.NodePair<KK, VV>) n;
+				if (key.equals(np.key)) {
+					return np;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Searches a key in the nodes of this map (not
+	 * in its initial map). If the key is concretely 
+	 * hashed only its bucket and root.(next)* are scanned, 
+	 * otherwise all the nodes are.
+	 * 
+	 * @param key the key.
+	 * @return the {@link NodePair} with key equal to 
+	 *         {@code key}, or {@code null} if there is none.
+	 */
+	private NodePair<K, V> findNode(Object key) {
+		if (isConcretelyHashed(key)) {
+			final NodePair<K, V> np = findNodeInList(this.table[hash(key) & (this.table.length - 1)], key);
+			if (np != null) {
+				return np;
+			}
+		} else if (this.numHashedNodes > 0) {
+			for (Node bucket : this.table) {
+				final NodePair<K, V> np = findNodeInList(bucket, key);
+				if (np != null) {
+					return np;
+				}
+			}
+		}
+		return findNodeInList(this.root, key);
+	}
+
+	/**
+	 * Searches a value in the nodes of this map (not
+	 * in its initial map).
+	 * 
+	 * @param value the value.
+	 * @return a {@link NodePair} with value equal to 
+	 *         {@code value}, or {@code null} if there is none.
+	 */
+	private NodePair<K, V> findNodeByValue(Object value) {
+		final ArrayList<NodePair<K, V>> pairs = new ArrayList<>(this.numNodes);
+		collectNodes(pairs);
+		for (NodePair<K, V> np : pairs) {
+			if (value == null ? np.value == null : value.equals(np.value)) {
+				return np;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds all the nodes of this map (not of its
+	 * initial map) to a list, first the ones in 
+	 * this.table and then the ones in root.(next)*.
+	 * 
+	 * @param pairs an {@link ArrayList} where the 
+	 *        {@link NodePair}s are added.
+	 */
+	@SuppressWarnings("unchecked")
+	private void collectNodes(ArrayList<NodePair<K, V>> pairs) {
+		if (this.numHashedNodes > 0) {
+			for (Node bucket : this.table) {
+				for (Node n = bucket; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
+					pairs.add((JAVA_MAP.NodePair<K, V>) n);
+				}
+			}
+		}
+		for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
+			pairs.add((JAVA_MAP.NodePair<K, V>) n);
+		}
+	}
+
+	/**
+	 * Adds a node to this map, either in this.table
+	 * (if its key is concretely hashed) or in 
+	 * root.(next)*. Does not check whether there is
+	 * already a node with the same key, nor adjusts 
+	 * the size of the map.
+	 * 
+	 * @param key the key.
+	 * @param value the value.
+	 */
+	private void addNode(K key, V value) {
+		final NodePair<K, V> np = new NodePair<>();
+		np.key = key;
+		np.value = value;
+		if (isConcretelyHashed(key)) {
+			if (this.numHashedNodes + 1 > this.table.length * this.loadFactor && this.table.length < MAXIMUM_CAPACITY) {
+				resize();
+			}
+			np.hashed = true;
+			np.hash = hash(key);
+			final int index = np.hash & (this.table.length - 1);
+			np.next = this.table[index];
+			this.table[index] = np;
+			++this.numHashedNodes;
+		} else {
+			np.hashed = false;
+			np.next = this.root;
+			this.root = np;
+		}
+		++this.numNodes;
+	}
+
+	/**
+	 * Removes a node from this map.
+	 * 
+	 * @param np the {@link NodePair} to remove. It must 
+	 *        be in this map.
+	 */
+	@SuppressWarnings("unchecked")
+	private void removeNode(NodePair<K, V> np) {
+		final int index = np.hash & (this.table.length - 1);
+		NodePair<K, V> nPrev = null;
+		for (Node n = (np.hashed ? this.table[index] : this.root); n != np; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
+			nPrev = (JAVA_MAP.NodePair<K, V>) n;
+		}
+		if (nPrev != null) {
+			nPrev.next = np.next;
+		} else if (np.hashed) {
+			this.table[index] = np.next;
+		} else {
+			this.root = np.next;
+		}
+		if (np.hashed) {
+			--this.numHashedNodes;
+		}
+		--this.numNodes;
+	}
+
+	/**
+	 * Doubles the size of this.table and 
+	 * redistributes its nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize() {
+		final Node[] tableOld = this.table;
+		this.table = new Node[tableOld.length << 1];
+		for (Node bucket : tableOld) {
+			Node n = bucket;
+			while (n instanceof JAVA_MAP.NodePair) {
+				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
+				n = np.next;
+				final int index = np.hash & (this.table.length - 1);
+				np.next = this.table[index];
+				this.table[index] = np;
+			}
+		}
+	}
+
 	/**
 	 * Causes JBSE to internally throw an unexpected internal exception.
 	 * 
@@ -1134,6 +1298,9 @@ implements Map<K,V>, Cloneable, Serializable {
 		//this.absentValues: doesn't care
 		//this.initialMap: OK the symbolic value it already has
 		tthis.size = tthis.initialMap.size;
+		tthis.table = new Node[DEFAULT_INITIAL_CAPACITY];
+		tthis.loadFactor = DEFAULT_LOAD_FACTOR;
+		tthis.numHashedNodes = 0;
 		tthis.root = new NodeEmpty();
 		tthis.numNodes = 0;
 
@@ -1145,6 +1312,9 @@ implements Map<K,V>, Cloneable, Serializable {
 		tthis.initialMap.initialMap = null;
 		//this.initialMap.size: OK the symbolic value it already has
 		assume(tthis.initialMap.size >= 0);
+		tthis.initialMap.table = new Node[DEFAULT_INITIAL_CAPACITY];
+		tthis.initialMap.loadFactor = DEFAULT_LOAD_FACTOR;
+		tthis.initialMap.numHashedNodes = 0;
 		tthis.initialMap.root = new NodeEmpty();
 		tthis.initialMap.numNodes = 0;
 	}
@@ -1201,12 +1371,7 @@ implements Map<K,V>, Cloneable, Serializable {
 			ignore(); //contradiction found
 		}
 
-		final NodePair<K, V> p = new NodePair<K, V>();
-		p.key = key;
-		p.value = value;
-		p.next = this.root;
-		this.root = p;
-		++this.numNodes;
+		addNode(key, value);
 		assume(this.size >= this.numNodes);
 	}
 
@@ -1218,25 +1383,12 @@ implements Map<K,V>, Cloneable, Serializable {
 	 * 
 	 * @param key the key.
 	 */
-	@SuppressWarnings("unchecked")
 	private void refineOutKey(K key) {
 		if (!this.isInitial) {
 			metaThrowUnexpectedInternalException("Tried to refine a JAVA_MAP that is not initial.");
 		}
-		if (key == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.key == null) {
-					ignore(); //contradiction found
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (key.equals(np.key)) {
-					ignore(); //contradiction found
-				}
-			}
+		if (findNode(key) != null) {
+			ignore(); //contradiction found
 		}
 
 		this.absentKeys.add(key);
@@ -1249,25 +1401,12 @@ implements Map<K,V>, Cloneable, Serializable {
 	 * 
 	 * @param value the value.
 	 */
-	@SuppressWarnings("unchecked")
 	private void refineOutValue(V value) {
 		if (!this.isInitial) {
 			metaThrowUnexpectedInternalException("Tried to refine a JAVA_MAP that is not initial.");
 		}
-		if (value == null) {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (np.value == null) {
-					ignore(); //contradiction found
-				}
-			}
-		} else {
-			for (Node n = this.root; n instanceof JAVA_MAP.NodePair; n = ((JAVA_MAP.NodePair<K, V>) n).next) {
-				final NodePair<K, V> np = (JAVA_MAP.NodePair<K, V>) n;
-				if (value.equals(np.value)) {
-					ignore(); //contradiction found
-				}
-			}
+		if (findNodeByValue(value) != null) {
+			ignore(); //contradiction found
 		}
 
 		this.absentValues.add(value);
@@ -0,0 +1,112 @@
+package jbse.base;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * A model of {@link java.util.HashSet} that is friendlier to
+ * symbolic execution. It is backed by a {@link HashMap} that,
+ * when this class replaces {@link java.util.HashSet}, is in
+ * turn replaced by {@link JAVA_MAP}, so the elements that are
+ * concrete and have a concrete hash code are stored in hashed
+ * buckets, and only the symbolic ones require case splits.
+ */
+public class JAVA_SET<E> extends AbstractSet<E>
+implements Set<E>, Cloneable, Serializable {
+
+	private static final long serialVersionUID = -5024744406713321676L; //same as HashSet
+
+	/** The value associated to all the elements in this.map. */
+	private static final Object PRESENT = new Object();
+
+	/**
+	 * The map whose keys are the elements of the set.
+	 */
+	private HashMap<E, Object> map;
+
+	// Constructors
+
+	public JAVA_SET() {
+		this.map = new HashMap<>();
+	}
+
+	public JAVA_SET(Collection<? extends E> c) {
+		this.map = new HashMap<>(Math.max((int) (c.size() / .75f) + 1, 16));
+		addAll(c);
+	}
+
+	public JAVA_SET(int initialCapacity, float loadFactor) {
+		this.map = new HashMap<>(initialCapacity, loadFactor);
+	}
+
+	public JAVA_SET(int initialCapacity) {
+		this.map = new HashMap<>(initialCapacity);
+	}
+
+	/**
+	 * Used by {@link java.util.LinkedHashSet}.
+	 */
+	JAVA_SET(int initialCapacity, float loadFactor, boolean dummy) {
+		this.map = new LinkedHashMap<>(initialCapacity, loadFactor);
+	}
+
+	// Query Operations
+
+	@Override
+	public Iterator<E> iterator() {
+		return this.map.keySet().iterator();
+	}
+
+	@Override
+	public int size() {
+		return this.map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.map.isEmpty();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return this.map.containsKey(o);
+	}
+
+	// Modification Operations
+
+	@Override
+	public boolean add(E e) {
+		return (this.map.put(e, PRESENT) == null);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return (this.map.remove(o) == PRESENT);
+	}
+
+	@Override
+	public void clear() {
+		this.map.clear();
+	}
+
+	// Cloning
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object clone() {
+		final JAVA_SET<E> retVal;
+		try {
+			retVal = (JAVA_SET<E>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			//this should never happen
+			throw new InternalError(e);
+		}
+		retVal.map = (HashMap<E, Object>) this.map.clone();
+		return retVal;
+	}
+}
@@ -6,7 +6,6 @@ import static jbse.common.Type.REFERENCE;
 import static jbse.common.Type.TYPEEND;
 import static jbse.common.Type.className;
 import static jbse.common.Type.isCat_1;
-import static jbse.common.Type.splitParametersDescriptors;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +43,12 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     
     protected static final String JAR_FILE_EXTENSION = ".jar";
     
+    /** 
+     * Caches the layout of the fields of the objects of 
+     * this class, or {@code null} if not yet computed. 
+     */
+    private volatile FieldLayout fieldLayout = null;
+    
     /**
      * Returns the content of the binary file for this class.
      * 
@@ -914,20 +919,44 @@ public abstract class ClassFile implements Comparable<ClassFile> {
      *         fields of the superclass, the superclass' superclass, etc.
      */	
     public final Signature[] getAllFields() {
-    	final ArrayList<Signature> signatures = new ArrayList<>(0);
-    	boolean isStartClass = true;
-    	for (ClassFile c : superclasses()) {
-    		if (isStartClass) {
-    			signatures.addAll(Arrays.asList(c.getDeclaredFieldsStatic()));
-    			isStartClass = false;
-    		}
-    		final Signature[] fields = c.getDeclaredFieldsNonStatic();
-    		signatures.addAll(Arrays.asList(fields));
-    	}
-        final Signature[] retVal = signatures.toArray(SIGNATURE_ARRAY);
+        return getFieldLayout().toArray();
+    }
+    
+    /**
+     * Returns the layout of the fields of the objects of 
+     * this class. It is computed once and cached.
+     * 
+     * @return a {@link FieldLayout} whose fields are, by slot, 
+     *         the fields returned by {@link #getAllFields()}.
+     */
+    public final FieldLayout getFieldLayout() {
+        FieldLayout retVal = this.fieldLayout;
+        if (retVal == null) {
+            final ArrayList<Signature> signatures = new ArrayList<>(0);
+            boolean isStartClass = true;
+            for (ClassFile c : superclasses()) {
+                if (isStartClass) {
+                    signatures.addAll(Arrays.asList(c.getDeclaredFieldsStatic()));
+                    isStartClass = false;
+                }
+                final Signature[] fields = c.getDeclaredFieldsNonStatic();
+                signatures.addAll(Arrays.asList(fields));
+            }
+            retVal = new FieldLayout(numOfStaticFields(), signatures.toArray(SIGNATURE_ARRAY));
+            this.fieldLayout = retVal;
+        }
         return retVal;
     }
     
+    /**
+     * Discards the cached layout of the fields of the objects 
+     * of this class. Must be invoked by the subclasses when 
+     * the signatures of the fields change.
+     */
+    protected final void invalidateFieldLayout() {
+        this.fieldLayout = null;
+    }
+    
     /**
      * Gets the offset of a field.
      * 
@@ -938,13 +967,9 @@ public abstract class ClassFile implements Comparable<ClassFile> {
      *         {@code fieldSignature}.
      */
     public final int getFieldOffset(Signature fieldSignature) {
-        final Signature[] allFields = getAllFields();
-        for (int _ofst = 0; _ofst < allFields.length; ++_ofst) {
-            if (allFields[allFields.length - 1 - _ofst].equals(fieldSignature)) {
-            	return _ofst;
-            }
-        }
-        return -1;
+        final FieldLayout layout = getFieldLayout();
+        final int slot = layout.slot(fieldSignature);
+        return (slot < 0 ? -1 : layout.size() - 1 - slot);
     }
 
     private static final Signature[] SIGNATURE_ARRAY = new Signature[0];
@@ -1272,6 +1297,21 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     public abstract int getLocalVariableLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException;
 
+    /**
+     * Returns the maximum depth of the operand stack of a method.
+     * 
+     * @param methodSignature a method's {@link Signature}.
+     * @return a {@code int} representing the maximum depth of
+     *         the operand stack of the method with signature 
+     *         {@code methodSignature}, in the case such method exists 
+     *         in the class and has code.
+     * @throws MethodNotFoundException iff the method does not exist in the class.
+     * @throws MethodCodeNotFoundException iff the method has not the 
+     *         Code attribute.
+     */
+    public abstract int getMaxStack(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException;
+
     /**
      * Returns the length of the bytecode of a method.
      * 
@@ -1301,7 +1341,7 @@ public abstract class ClassFile implements Comparable<ClassFile> {
         //if no LocalVariableTable attribute is found, tries to create the local 
         //variable table from information on the method's signature
         boolean isStatic = isMethodStatic(methodSignature);
-        final String[] parDescList = splitParametersDescriptors(methodSignature.getDescriptor());
+        final String[] parDescList = methodSignature.getMethodDescriptor().getParameterTypes();
         final LocalVariableTable lvt = new LocalVariableTable(getLocalVariableLength(methodSignature));
         int i = 0;
         short slot = 0;
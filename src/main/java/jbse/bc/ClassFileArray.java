@@ -258,6 +258,15 @@ public final class ClassFileArray extends ClassFile {
         throw new MethodNotFoundException(methodSignature.toString());
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        if (isMethodClone(methodSignature)) {
+            return 1;
+        }
+        throw new MethodNotFoundException(methodSignature.toString());
+    }
+
     @Override
     public LocalVariableTable getLocalVariableTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
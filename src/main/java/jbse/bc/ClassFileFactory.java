@@ -1,5 +1,8 @@
 package jbse.bc;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import jbse.bc.exc.ClassFileIllFormedException;
 import jbse.common.Type;
 import jbse.common.exc.InvalidInputException;
@@ -13,6 +16,34 @@ public abstract class ClassFileFactory implements Cloneable {
     protected abstract ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
     throws InvalidInputException, ClassFileIllFormedException;
     
+    /**
+     * Parses ahead of time the bytecode of a class, so that a 
+     * subsequent invocation of {@link #newClassFileClass(int, String, byte[], ClassFile, ClassFile[]) newClassFileClass}
+     * with the same {@code bytecode} array is faster. It may be 
+     * invoked concurrently by many threads. The default implementation
+     * does nothing.
+     * 
+     * @param bytecode a {@code byte[]}, the bytecode of a class. 
+     *        It must not be modified after the invocation.
+     */
+    protected void preparse(byte[] bytecode) {
+        //nothing to do
+    }
+    
+    /**
+     * Returns the names of the classes referred by the constant 
+     * pool of a classfile. It may be invoked concurrently by many 
+     * threads. The default implementation returns no name.
+     * 
+     * @param bytecode a {@code byte[]}, the bytecode of a class.
+     * @return a {@link Collection}{@code <}{@link String}{@code >} 
+     *         of class names, possibly including array class names. 
+     *         It is empty if {@code bytecode} is ill-formed.
+     */
+    protected Collection<String> referredClassNames(byte[] bytecode) {
+        return Collections.emptyList();
+    }
+    
     protected abstract ClassFile newClassFileAnonymous(byte[] bytecode, ClassFile cf_JAVA_OBJECT, ConstantPoolValue[] cpPatches, ClassFile hostClass)
     throws InvalidInputException, ClassFileIllFormedException;
 
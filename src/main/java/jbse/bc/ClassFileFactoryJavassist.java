@@ -1,5 +1,15 @@
 package jbse.bc;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import jbse.bc.exc.ClassFileIllFormedException;
 import jbse.common.exc.InvalidInputException;
 
@@ -10,6 +20,56 @@ import jbse.common.exc.InvalidInputException;
  * @author Pietro Braione
  */
 public class ClassFileFactoryJavassist extends ClassFileFactory {
+    /**
+     * Associates the bytecode arrays passed to {@link #preparse(byte[])}
+     * (by identity) to their parses. Each parse is used by exactly one 
+     * {@link ClassFileJavassist}, because {@link ClassFileJavassist}s 
+     * may modify their parses. The keys are weak, so the parses of
+     * a bytecode array that is never used to create a classfile
+     * are dropped with the array.
+     */
+    private final Map<byte[], Queue<javassist.bytecode.ClassFile>> preparsed = Collections.synchronizedMap(new WeakHashMap<>());
+    
+    @Override
+    protected void preparse(byte[] bytecode) {
+        final ConcurrentLinkedQueue<javassist.bytecode.ClassFile> parses = new ConcurrentLinkedQueue<>();
+        try {
+            //a class is created twice from the same bytecode, 
+            //first as a dummy, then completely
+            parses.add(parse(bytecode));
+            parses.add(parse(bytecode));
+        } catch (IOException e) {
+            //ill-formed: newClassFileClass will complain
+            return;
+        }
+        this.preparsed.putIfAbsent(bytecode, parses);
+    }
+    
+    @Override
+    protected Collection<String> referredClassNames(byte[] bytecode) {
+        try {
+            return parse(bytecode).getConstPool().getClassNames();
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+    
+    private static javassist.bytecode.ClassFile parse(byte[] bytecode) throws IOException {
+        return new javassist.bytecode.ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode)));
+    }
+    
+    private javassist.bytecode.ClassFile takePreparsed(byte[] bytecode) {
+        final Queue<javassist.bytecode.ClassFile> parses = this.preparsed.get(bytecode);
+        if (parses == null) {
+            return null;
+        }
+        final javassist.bytecode.ClassFile retVal = parses.poll();
+        if (parses.isEmpty()) {
+            this.preparsed.remove(bytecode, parses);
+        }
+        return retVal;
+    }
+    
     @Override
     protected ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
     throws InvalidInputException, ClassFileIllFormedException {
@@ -23,7 +83,7 @@ public class ClassFileFactoryJavassist extends ClassFileFactory {
             throw new InvalidInputException("The bytecode parameter to " + ClassFileFactoryJavassist.class.getName() + ".newClassFileClass method was null.");
         }
         
-        return new ClassFileJavassist(definingClassLoader, className, bytecode, superClass, superInterfaces);
+        return new ClassFileJavassist(definingClassLoader, className, bytecode, takePreparsed(bytecode), superClass, superInterfaces);
     }
     
     @Override
@@ -93,6 +93,9 @@ public class ClassFileJavassist extends ClassFile {
      * @param className a {@code String}, the name of the class (used only for
      *        error reporting).
      * @param bytecode a {@code byte[]}, the bytecode of the class.
+     * @param parsed a {@link javassist.bytecode.ClassFile}, the result 
+     *        of parsing {@code bytecode} if available, otherwise {@code null}.
+     *        It must not be used elsewhere.
      * @param superClass a {@link ClassFile}, the superclass. It must be {@code null} for
      *        <em>dummy</em>, i.e., incomplete, classfiles that are created to access
      *        the bytecode conveniently.
@@ -106,7 +109,7 @@ public class ClassFileJavassist extends ClassFile {
      *         {@code superInterfaces} do not agree with {@code bytecode},
      *         or {@code bytecode == null}.
      */
-    ClassFileJavassist(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) 
+    ClassFileJavassist(int definingClassLoader, String className, byte[] bytecode, javassist.bytecode.ClassFile parsed, ClassFile superClass, ClassFile[] superInterfaces) 
     throws ClassFileIllFormedException, InvalidInputException {
         try {
             //checks
@@ -115,7 +118,7 @@ public class ClassFileJavassist extends ClassFile {
             }
             
             //reads the bytecode
-            this.cf = new javassist.bytecode.ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode)));
+            this.cf = (parsed == null ? new javassist.bytecode.ClassFile(new DataInputStream(new ByteArrayInputStream(bytecode))) : parsed);
             
             //checks
             if (superClass != null && !superClass.getClassName().equals(getSuperclassName())) {
@@ -414,6 +417,7 @@ public class ClassFileJavassist extends ClassFile {
 			throw new UnexpectedInternalException(e);
 		}
         this.bytecode = baos.toByteArray();
+        invalidateFieldLayout();
     }
     
     @Override
@@ -707,6 +711,12 @@ public class ClassFileJavassist extends ClassFile {
         return getMethodCodeAttribute(methodSignature).getMaxLocals();
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return getMethodCodeAttribute(methodSignature).getMaxStack();
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature) throws MethodNotFoundException, MethodCodeNotFoundException {
         return getMethodCodeAttribute(methodSignature).getCodeLength();
@@ -0,0 +1,182 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static jbse.bc.ClassLoaders.CLASSLOADER_BOOT;
+import static jbse.common.Type.isArray;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads and parses ahead of time, on a pool of background threads,
+ * the classfiles that are likely to be loaded soon, i.e., the classes
+ * referred by the constant pools of the loaded classes, and the classes
+ * in a set of hot packages. The bytecode read ahead is kept by the
+ * {@link ClasspathIndex}es, and the parses by the {@link ClassFileFactory},
+ * until the classes are actually loaded. This class is thread-safe.
+ */
+final class ClassFilePrefetcher {
+    /**
+     * The maximum number of classes that are read ahead,
+     * that bounds the memory used for unloaded classes.
+     */
+    private static final int MAX_REQUESTED = 8192;
+
+    /**
+     * The number of seconds an idle thread waits before
+     * terminating.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 1L;
+
+    /**
+     * The maximum number of seconds {@link #shutdown()} 
+     * waits for the running reads to complete.
+     */
+    private static final long SHUTDOWN_WAIT_SECONDS = 10L;
+
+    /**
+     * Reads ahead the bytecode of a class.
+     */
+    @FunctionalInterface
+    interface BytecodeReader {
+        /**
+         * Reads ahead the bytecode of a class.
+         *
+         * @param className a {@link String}, the name of the class.
+         * @param definingLoader an {@code int}, the identifier of the
+         *        classloader whose classpath must be searched.
+         * @param beforePublishing a {@link Consumer}{@code <byte[]>}
+         *        that must be invoked on the bytecode after it is read
+         *        and before it is made available to the loading of 
+         *        the class.
+         * @return the {@link ClassHierarchy.FindBytecodeResult} read,
+         *         or {@code null} if the classpath of {@code definingLoader}
+         *         does not contain {@code className}.
+         */
+        ClassHierarchy.FindBytecodeResult prefetch(String className, int definingLoader, Consumer<byte[]> beforePublishing);
+    }
+
+    /** The {@link ClassFileFactory} that parses the classes. */
+    private final ClassFileFactory f;
+
+    /** The {@link BytecodeReader} that reads ahead the classes. */
+    private final BytecodeReader reader;
+
+    /** The background threads. */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The (initiating loader, class name) pairs already
+     * requested, as strings.
+     */
+    private final Set<String> requested = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The (initiating loader, class name) pairs of the
+     * loaded classes, as strings. They are kept apart 
+     * from {@link #requested} so they do not count
+     * towards {@link #MAX_REQUESTED}.
+     */
+    private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param f the {@link ClassFileFactory} that parses the classes.
+     * @param reader the {@link BytecodeReader} that reads ahead the classes.
+     * @param numThreads an {@code int}, the number of background threads.
+     *        It must be positive.
+     */
+    ClassFilePrefetcher(ClassFileFactory f, BytecodeReader reader, int numThreads) {
+        this.f = f;
+        this.reader = reader;
+        this.executor = new ThreadPoolExecutor(numThreads, numThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread t = new Thread(r, "jbse-classfile-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Reads ahead in background the classes referred by
+     * the constant pool of a loaded class.
+     *
+     * @param definingLoader an {@code int}, the identifier of
+     *        the defining classloader of the loaded class.
+     * @param className a {@link String}, the name of the 
+     *        loaded class.
+     * @param bytecode a {@code byte[]}, the bytecode of the
+     *        loaded class.
+     */
+    void prefetchReferred(int definingLoader, String className, byte[] bytecode) {
+        if (definingLoader > CLASSLOADER_APP) {
+            return;
+        }
+        
+        //the loaded class must not be read ahead
+        for (int initiatingLoader = definingLoader; initiatingLoader <= CLASSLOADER_APP; ++initiatingLoader) {
+            this.loaded.add(initiatingLoader + " " + className);
+        }
+        if (this.requested.size() >= MAX_REQUESTED) {
+            return;
+        }
+        submit(() -> {
+            for (String referredClassName : this.f.referredClassNames(bytecode)) {
+                if (!isArray(referredClassName)) {
+                    prefetch(definingLoader, referredClassName);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads ahead in background a class.
+     *
+     * @param initiatingLoader an {@code int}, the identifier of
+     *        the initiating classloader of the class.
+     * @param className a {@link String}, the name of the class.
+     */
+    void prefetch(int initiatingLoader, String className) {
+        final String key = initiatingLoader + " " + className;
+        if (this.loaded.contains(key) || this.requested.size() >= MAX_REQUESTED || !this.requested.add(key)) {
+            return;
+        }
+        submit(() -> {
+            //follows the delegation chain, as the loading does
+            for (int definingLoader = CLASSLOADER_BOOT; definingLoader <= initiatingLoader; ++definingLoader) {
+                //parses before publishing, so the loading finds the parses
+                if (this.reader.prefetch(className, definingLoader, this.f::preparse) != null) {
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops reading ahead. Waits for the running reads to 
+     * complete, and drops the pending ones. Afterwards, the 
+     * requests to read ahead are ignored.
+     */
+    void shutdown() {
+        this.executor.shutdownNow();
+        try {
+            this.executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            //shut down: nothing to do
+        }
+    }
+}
@@ -21,13 +21,9 @@ import static jbse.common.Type.splitReturnValueDescriptor;
 import static jbse.common.Type.toPrimitiveOrVoidCanonicalName;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -36,8 +32,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -57,9 +52,10 @@ import jbse.bc.exc.MethodNotFoundException;
 import jbse.bc.exc.PleaseLoadClassException;
 import jbse.bc.exc.RenameUnsupportedException;
 import jbse.bc.exc.WrongClassNameException;
-import jbse.common.Util;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.instrumentation.ClassLoadEvent;
+import jbse.instrumentation.Instrumentation;
 
 /**
  * Class handling a hierarchy of Java classes as specified 
@@ -110,11 +106,26 @@ public final class ClassHierarchy implements Cloneable {
      */
     private HashMap<String, Path> systemPackages;
     
-    private static class FindBytecodeResult {
+    /** 
+     * The {@link ClasspathIndex}es for the bootstrap, extensions, 
+     * user and implementation classpaths. They are shared by all 
+     * the clones.
+     */
+    private final ClasspathIndex bootClassPathIndex, extClassPathIndex, userClassPathIndex, implementationClassPathIndex;
+    
+    /**
+     * The {@link ClassFilePrefetcher} that reads ahead the classes,
+     * or {@code null} if classes are not read ahead. It is shared 
+     * by all the clones. Not final because set by 
+     * {@link #startPrefetching(int, Iterable)}.
+     */
+    private ClassFilePrefetcher prefetcher = null;
+    
+    static final class FindBytecodeResult {
         final byte[] bytecode;
         final Path loadedFrom;
         
-        public FindBytecodeResult(byte[] bytecode, Path loadedFrom) {
+        FindBytecodeResult(byte[] bytecode, Path loadedFrom) {
             this.bytecode = bytecode;
             this.loadedFrom = loadedFrom;
         }
@@ -161,6 +172,10 @@ public final class ClassHierarchy implements Cloneable {
 				throw new UnexpectedInternalException(e);
 			}
         }
+        this.bootClassPathIndex = new ClasspathIndex(this.cp.bootClassPath());
+        this.extClassPathIndex = new ClasspathIndex(this.cp.extClassPath());
+        this.userClassPathIndex = new ClasspathIndex(this.cp.userClassPath());
+        this.implementationClassPathIndex = new ClasspathIndex(this.implementationClassPath);
         try {
             this.f = factoryClass.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
@@ -641,12 +656,17 @@ public final class ClassHierarchy implements Cloneable {
                 } else if (initiatingLoader == CLASSLOADER_BOOT || bypassStandardLoading) {
                     //JVMS v8, section 5.3.1: the JVM loads a ClassFile from the classpath
 
+                    final ClassLoadEvent event = (Instrumentation.isEnabled() ? new ClassLoadEvent() : null);
+                    if (event != null) {
+                        event.begin();
+                    }
+
                     //first, looks for the bytecode in the filesystem and determines
                     //the defining classloader based on where it finds the bytecode
                     FindBytecodeResult findBytecodeResult = null;
                     int definingClassLoader;
                     for (definingClassLoader = CLASSLOADER_BOOT; definingClassLoader <= initiatingLoader; ++definingClassLoader) {
-                        findBytecodeResult = findBytecode(classSignature, definingClassLoader);
+                        findBytecodeResult = findBytecode(classSignature, definingClassLoader, null);
                         if (findBytecodeResult != null) {
                             break;
                         }
@@ -664,6 +684,9 @@ public final class ClassHierarchy implements Cloneable {
                         //loaded class cache, registering it with all the compatible 
                         //initiating loaders through the delegation chain
                         accessed = defineClass(definingClassLoader, classSignature, findBytecodeResult.bytecode, bypassStandardLoading, true);
+                        if (this.prefetcher != null) {
+                            this.prefetcher.prefetchReferred(definingClassLoader, classSignature, findBytecodeResult.bytecode);
+                        }
                         for (int i = definingClassLoader; i <= initiatingLoader; ++i) {
                             addClassFileClassArray(i, accessed);
                         }
@@ -673,6 +696,13 @@ public final class ClassHierarchy implements Cloneable {
                         if (definingClassLoader == CLASSLOADER_BOOT) {
                             registerSystemPackage(classSignature, findBytecodeResult.loadedFrom);
                         }
+                        
+                        if (event != null) {
+                            event.end();
+                            if (event.shouldCommit()) {
+                                event.commit(classSignature, definingClassLoader, findBytecodeResult.bytecode.length);
+                            }
+                        }
                     } //TODO else throw LinkageError???
                 } else { //the initiating loader is a user-defined classloader and we do not bypass standard loading
                     //JVMS v8, section 5.3.1: the JVM invokes the loadClass method of the classloader.
@@ -818,17 +848,69 @@ public final class ClassHierarchy implements Cloneable {
         //(function ClassLoader::add_package).
     }
     
+    /**
+     * Starts reading and parsing ahead of time, on background 
+     * threads, the classes that are likely to be loaded soon, 
+     * i.e., the classes referred by the classes that are loaded 
+     * from the classpath from now on, and the classes in a set 
+     * of packages. Must be invoked before cloning this
+     * {@link ClassHierarchy}.
+     * 
+     * @param numThreads an {@code int}, the number of background
+     *        threads. If it is not positive, this method does nothing.
+     * @param packageNames an {@link Iterable}{@code <}{@link String}{@code >},
+     *        the names of the packages whose classes must be read ahead, 
+     *        with slashes as separators (e.g., {@code "java/util"}).
+     * @throws InvalidInputException if {@code packageNames == null}.
+     */
+    public void startPrefetching(int numThreads, Iterable<String> packageNames) throws InvalidInputException {
+        if (packageNames == null) {
+            throw new InvalidInputException("Invoked " + this.getClass().getName() + ".startPrefetching with null packageNames.");
+        }
+        if (numThreads <= 0 || this.prefetcher != null) {
+            return;
+        }
+        this.prefetcher = new ClassFilePrefetcher(this.f, (className, definingLoader, beforePublishing) -> findBytecode(className, definingLoader, beforePublishing), numThreads);
+        for (String packageName : packageNames) {
+            for (ClasspathIndex index : new ClasspathIndex[] { this.bootClassPathIndex, this.extClassPathIndex, this.userClassPathIndex }) {
+                for (String fileName : index.classFilesInPackage(packageName)) {
+                    this.prefetcher.prefetch(CLASSLOADER_APP, fileName.substring(0, fileName.length() - ".class".length()));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops reading classes ahead and closes the jar files
+     * of the classpath. Since these resources are shared by 
+     * all the clones, it should be invoked when no clone is
+     * used anymore. Classes can still be loaded afterwards,
+     * but they are not read ahead, and the jar files are 
+     * opened again.
+     */
+    public void close() {
+        if (this.prefetcher != null) {
+            this.prefetcher.shutdown();
+        }
+        this.bootClassPathIndex.close();
+        this.extClassPathIndex.close();
+        this.userClassPathIndex.close();
+        this.implementationClassPathIndex.close();
+    }
+    
     /**
      * Returns the bytecode of a class file by searching the 
-     * class file on the filesystem.
+     * class file on the filesystem. It is thread-safe.
      * 
      * @param className a {@link String}, the name of the class.
      * @param initatingLoader an {@code int}; It must be either {@link ClassLoaders#CLASSLOADER_BOOT}, 
      *        or {@link ClassLoaders#CLASSLOADER_EXT}, or {@link ClassLoaders#CLASSLOADER_APP}.
+     * @param beforePublishing a {@link Consumer}{@code <byte[]>}; if it is not {@code null} 
+     *        the bytecode is read ahead (see {@link ClasspathIndex#prefetch(String, Consumer)}).
      * @return a {@link FindBytecodeResult} or {@code null} if there is no class for {@code classSignature}
      *         in {@code paths}.
      */
-    private FindBytecodeResult findBytecode(String className, int initiatingLoader) {
+    private FindBytecodeResult findBytecode(String className, int initiatingLoader, Consumer<byte[]> beforePublishing) {
     	final String sourceContainer = classNameContainer(className);
     	final boolean toSubstitute = this.modelClassSubstitutions.containsKey(sourceContainer);
     	final String targetClassName;
@@ -838,36 +920,12 @@ public final class ClassHierarchy implements Cloneable {
     	} else {
     		targetClassName = className;
     	}
-        final Iterable<Path> paths = (toSubstitute ? this.implementationClassPath :
-                                      initiatingLoader == CLASSLOADER_BOOT ? this.cp.bootClassPath() :
-                                      initiatingLoader == CLASSLOADER_EXT ? this.cp.extClassPath() :
-                                      this.cp.userClassPath());
-        for (Path path : paths) {
-            try {
-                if (Files.isDirectory(path)) {
-                    final Path pathOfClass = path.resolve(targetClassName + ".class");
-                    return new FindBytecodeResult(Files.readAllBytes(pathOfClass), path);
-                } else if (Util.isJarFile(path)) {
-                    try (final JarFile f = new JarFile(path.toFile())) {
-                        final JarEntry e = f.getJarEntry(targetClassName + ".class");
-                        if (e == null) {
-                            continue;
-                        }
-                        final InputStream inStr = f.getInputStream(e);
-                        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-                        final byte[] buf = new byte[2048];
-                        int nbytes;
-                        while ((nbytes = inStr.read(buf)) != -1) {
-                            outStr.write(buf, 0, nbytes);
-                        }
-                        return new FindBytecodeResult(outStr.toByteArray(), path);
-                    }
-                } //else do nothing
-            } catch (IOException e) {
-                continue;
-            }
-        }
-        return null;
+        final ClasspathIndex index = (toSubstitute ? this.implementationClassPathIndex :
+                                      initiatingLoader == CLASSLOADER_BOOT ? this.bootClassPathIndex :
+                                      initiatingLoader == CLASSLOADER_EXT ? this.extClassPathIndex :
+                                      this.userClassPathIndex);
+        final String fileName = targetClassName + ".class";
+        return (beforePublishing == null ? index.find(fileName) : index.prefetch(fileName, beforePublishing));
     }
     
     /**
@@ -1920,7 +1978,7 @@ public final class ClassHierarchy implements Cloneable {
             throw new InternalError(e);
         }
         
-        //cp, expansionBackdoor and allFieldsOf may be shared;
+        //cp, the classpath indices, expansionBackdoor and allFieldsOf may be shared;
         //in a future, expansionBackdoor may possibly be cloned
         
         o.cfs = o.cfs.clone();
@@ -0,0 +1,276 @@
+package jbse.bc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import jbse.common.Util;
+
+/**
+ * An index of the files in a sequence of classpath entries
+ * (jar files or directories). The first time a file is looked
+ * up, all the jar files are opened and the names of their entries
+ * are indexed, so a later lookup needs no access to the jar files
+ * that do not contain the file. The jar files are kept open
+ * until the index is closed by {@link #close()}, and are opened
+ * again by the next lookup. Directories are not indexed,
+ * and their files are looked up in the file system.
+ * Files can also be read ahead of time with {@link #prefetch(String, Consumer)},
+ * and are kept in memory until they are looked up.
+ * This class is thread-safe.
+ */
+final class ClasspathIndex {
+    /** The classpath entries. */
+    private final ArrayList<Path> paths = new ArrayList<>();
+
+    /**
+     * The open jar files, in the same positions of the corresponding
+     * entries in {@link #paths}, {@code null} for directories and
+     * for the jar files that could not be opened. Set by {@link #build()}.
+     */
+    private JarFile[] jars;
+
+    /**
+     * Maps the names of the jar files' entries to the position
+     * in {@link #paths} of the first jar file containing them.
+     * Set by {@link #build()}.
+     */
+    private HashMap<String, Integer> firstJar;
+
+    /**
+     * The files read ahead of time by {@link #prefetch(String, Consumer)}
+     * and not yet looked up by {@link #find(String)}.
+     */
+    private final ConcurrentHashMap<String, ClassHierarchy.FindBytecodeResult> prefetched = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the files already looked up by {@link #find(String)}.
+     * A file read ahead after it was looked up is not kept, since
+     * nobody would look it up again.
+     */
+    private final Set<String> found = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor. It does not access the file system.
+     *
+     * @param paths an {@link Iterable}{@code <}{@link Path}{@code >},
+     *        the classpath entries.
+     */
+    ClasspathIndex(Iterable<Path> paths) {
+        for (Path path : paths) {
+            this.paths.add(path);
+        }
+    }
+
+    private synchronized void build() {
+        if (this.firstJar != null) {
+            return;
+        }
+        final JarFile[] jars = new JarFile[this.paths.size()];
+        final HashMap<String, Integer> firstJar = new HashMap<>();
+        for (int i = 0; i < jars.length; ++i) {
+            final Path path = this.paths.get(i);
+            if (!Util.isJarFile(path)) {
+                continue;
+            }
+            try {
+                jars[i] = new JarFile(path.toFile());
+            } catch (IOException e) {
+                continue;
+            }
+            final Enumeration<JarEntry> entries = jars[i].entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    firstJar.putIfAbsent(entry.getName(), i);
+                }
+            }
+        }
+        this.jars = jars;
+        this.firstJar = firstJar;
+    }
+
+    /**
+     * Closes the jar files and drops the files read ahead.
+     * It must not be invoked concurrently with the lookups.
+     */
+    synchronized void close() {
+        if (this.jars == null) {
+            return;
+        }
+        for (JarFile jar : this.jars) {
+            if (jar != null) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    //nothing to do
+                }
+            }
+        }
+        this.jars = null;
+        this.firstJar = null;
+        this.prefetched.clear();
+    }
+
+    /**
+     * Finds a file in the classpath and reads its content.
+     *
+     * @param fileName a {@link String}, the name of the file
+     *        relative to the classpath entries, with slashes
+     *        as separators (e.g., {@code "java/lang/Object.class"}).
+     * @return a {@link ClassHierarchy.FindBytecodeResult} with the
+     *         content of the file in the first classpath entry that
+     *         contains it, or {@code null} if no classpath entry
+     *         contains it.
+     */
+    ClassHierarchy.FindBytecodeResult find(String fileName) {
+        this.found.add(fileName);
+        final ClassHierarchy.FindBytecodeResult retVal = this.prefetched.remove(fileName);
+        return (retVal == null ? read(fileName) : retVal);
+    }
+
+    /**
+     * Finds a file in the classpath, reads its content and 
+     * keeps it in memory until a subsequent invocation of 
+     * {@link #find(String)} for the same file. The file is
+     * not kept if it was already looked up by {@link #find(String)}.
+     *
+     * @param fileName a {@link String}, the name of the file
+     *        relative to the classpath entries, with slashes
+     *        as separators.
+     * @param beforePublishing a {@link Consumer}{@code <byte[]>}. It is
+     *        invoked on the content of the file after it is read and 
+     *        before it is made available to {@link #find(String) find}.
+     *        It is not invoked if the file was already read ahead. 
+     * @return a {@link ClassHierarchy.FindBytecodeResult} with the
+     *         content of the file, or {@code null} if no classpath 
+     *         entry contains it.
+     */
+    ClassHierarchy.FindBytecodeResult prefetch(String fileName, Consumer<byte[]> beforePublishing) {
+        final ClassHierarchy.FindBytecodeResult alreadyRead = this.prefetched.get(fileName);
+        if (alreadyRead != null) {
+            return alreadyRead;
+        }
+        final ClassHierarchy.FindBytecodeResult read = read(fileName);
+        if (read == null) {
+            return null;
+        }
+        beforePublishing.accept(read.bytecode);
+        final ClassHierarchy.FindBytecodeResult previous = this.prefetched.putIfAbsent(fileName, read);
+        if (previous != null) {
+            return previous;
+        }
+        if (this.found.contains(fileName)) {
+            //looked up while it was read: drops it
+            this.prefetched.remove(fileName, read);
+        }
+        return read;
+    }
+
+    /**
+     * Returns the names of the class files in a package.
+     *
+     * @param packageName a {@link String}, the name of a package
+     *        with slashes as separators (e.g., {@code "java/util"}).
+     * @return an {@link Iterable}{@code <}{@link String}{@code >} of
+     *         the names of the class files in the package, relative
+     *         to the classpath entries (e.g., {@code "java/util/List.class"}).
+     */
+    Iterable<String> classFilesInPackage(String packageName) {
+        build();
+        final String prefix = (packageName.isEmpty() || packageName.endsWith("/") ? packageName : packageName + "/");
+        final LinkedHashSet<String> retVal = new LinkedHashSet<>();
+        for (int i = 0; i < this.jars.length; ++i) {
+            final Path path = this.paths.get(i);
+            if (this.jars[i] == null && Files.isDirectory(path)) {
+                try (final Stream<Path> files = Files.list(path.resolve(prefix))) {
+                    files.map(file -> prefix + file.getFileName().toString())
+                    .filter(ClasspathIndex::isClassFile).forEach(retVal::add);
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+        }
+        for (String fileName : this.firstJar.keySet()) {
+            if (fileName.startsWith(prefix) && fileName.indexOf('/', prefix.length()) < 0 && isClassFile(fileName)) {
+                retVal.add(fileName);
+            }
+        }
+        return retVal;
+    }
+
+    private static boolean isClassFile(String fileName) {
+        return fileName.endsWith(".class");
+    }
+
+    private ClassHierarchy.FindBytecodeResult read(String fileName) {
+        build();
+
+        //looks up the directories that precede the
+        //first jar file containing the file
+        final Integer first = this.firstJar.get(fileName);
+        final int upTo = (first == null ? this.paths.size() : first.intValue());
+        for (int i = 0; i < upTo; ++i) {
+            final Path path = this.paths.get(i);
+            if (this.jars[i] == null && Files.isDirectory(path)) {
+                try {
+                    return new ClassHierarchy.FindBytecodeResult(Files.readAllBytes(path.resolve(fileName)), path);
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+        }
+        if (first == null) {
+            return null;
+        }
+
+        //reads from the jar file
+        final JarFile jar = this.jars[first];
+        try {
+            final JarEntry entry = jar.getJarEntry(fileName);
+            if (entry == null) {
+                return null;
+            }
+            try (final InputStream inStr = jar.getInputStream(entry)) {
+                return new ClassHierarchy.FindBytecodeResult(readAll(inStr, entry.getSize()), this.paths.get(first));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] readAll(InputStream inStr, long size) throws IOException {
+        if (size >= 0 && size <= Integer.MAX_VALUE) {
+            //the size is known: reads directly in the result
+            final byte[] retVal = new byte[(int) size];
+            int offset = 0;
+            while (offset < retVal.length) {
+                final int nbytes = inStr.read(retVal, offset, retVal.length - offset);
+                if (nbytes == -1) {
+                    throw new IOException("Unexpected end of jar file entry.");
+                }
+                offset += nbytes;
+            }
+            return retVal;
+        }
+        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
+        final byte[] buf = new byte[8192];
+        int nbytes;
+        while ((nbytes = inStr.read(buf)) != -1) {
+            outStr.write(buf, 0, nbytes);
+        }
+        return outStr.toByteArray();
+    }
+}
@@ -0,0 +1,142 @@
+package jbse.bc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The layout of the fields of the objects of a class. It assigns
+ * to each field known to an object of the class (the static
+ * fields of the class, followed by the nonstatic fields of the
+ * class and of its superclasses) a dense slot number, starting
+ * from 0. The slot of a field determines its offset number as used
+ * by {@code sun.misc.Unsafe} methods: The last field has offset 0.
+ * It is immutable.
+ */
+public final class FieldLayout {
+    /** The signatures of the fields, by slot. */
+    private final Signature[] fieldSignatures;
+
+    /** The number of static fields, that take the first slots. */
+    private final int numOfStaticFields;
+
+    /** Maps the signatures of the fields to their slots. */
+    private final HashMap<Signature, Integer> slots;
+
+    /**
+     * Constructor.
+     *
+     * @param numOfStaticFields an {@code int}, the number of static fields.
+     * @param fieldSignatures varargs of field {@link Signature}s, all the
+     *        fields an object knows, static fields first.
+     * @throws IllegalArgumentException if {@code numOfStaticFields} is
+     *         negative or greater than the number of fields.
+     */
+    public FieldLayout(int numOfStaticFields, Signature... fieldSignatures) {
+        if (numOfStaticFields < 0 || numOfStaticFields > fieldSignatures.length) {
+            throw new IllegalArgumentException("Invalid number of static fields " + numOfStaticFields + ".");
+        }
+        this.fieldSignatures = fieldSignatures.clone(); //safety copy
+        this.numOfStaticFields = numOfStaticFields;
+        this.slots = new HashMap<>();
+        for (int slot = this.fieldSignatures.length - 1; slot >= 0; --slot) {
+            this.slots.put(this.fieldSignatures[slot], slot); //the first slot wins
+        }
+    }
+
+    /**
+     * Returns the number of fields.
+     *
+     * @return an {@code int}, the total number of slots.
+     */
+    public int size() {
+        return this.fieldSignatures.length;
+    }
+
+    /**
+     * Returns the number of static fields.
+     *
+     * @return an {@code int}. The static fields take the
+     *         slots from {@code 0} to {@code numOfStaticFields() - 1}.
+     */
+    public int numOfStaticFields() {
+        return this.numOfStaticFields;
+    }
+
+    /**
+     * Returns the signature of the field in a slot.
+     *
+     * @param slot an {@code int}.
+     * @return the {@link Signature} of the field in {@code slot}.
+     * @throws ArrayIndexOutOfBoundsException if {@code slot}
+     *         is not between {@code 0} and {@link #size()}{@code - 1}.
+     */
+    public Signature get(int slot) {
+        return this.fieldSignatures[slot];
+    }
+
+    /**
+     * Returns the slot of a field.
+     *
+     * @param fieldSignature a {@link Signature}.
+     * @return the slot of the field with signature {@code fieldSignature},
+     *         or {@code -1} if there is no such field.
+     */
+    public int slot(Signature fieldSignature) {
+        final Integer retVal = this.slots.get(fieldSignature);
+        return (retVal == null ? -1 : retVal.intValue());
+    }
+
+    /**
+     * Returns the slot of a field.
+     *
+     * @param fieldName a {@link String}, the name of the field.
+     * @param fieldClass a {@link String}, the name of the class
+     *        that declares the field.
+     * @return the slot of the first field with name {@code fieldName}
+     *         declared in {@code fieldClass}, or {@code -1} if there
+     *         is no such field.
+     */
+    public int slot(String fieldName, String fieldClass) {
+        for (int slot = 0; slot < this.fieldSignatures.length; ++slot) {
+            final Signature sig = this.fieldSignatures[slot];
+            if (sig.getName().equals(fieldName) && sig.getClassName().equals(fieldClass)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts an offset to a slot.
+     *
+     * @param ofst an {@code int}, the offset number of a field
+     *        (as returned by {@code sun.misc.Unsafe} methods).
+     * @return an {@code int}, the slot of the field, that may
+     *         be out of range if {@code ofst} is.
+     */
+    public int offsetToSlot(int ofst) {
+        return this.fieldSignatures.length - 1 - ofst;
+    }
+
+    /**
+     * Returns the signatures of all the fields.
+     *
+     * @return an unmodifiable {@link List}{@code <}{@link Signature}{@code >},
+     *         the signatures of the fields by slot.
+     */
+    public List<Signature> fieldSignatures() {
+        return Collections.unmodifiableList(Arrays.asList(this.fieldSignatures));
+    }
+
+    /**
+     * Returns the signatures of all the fields.
+     *
+     * @return a fresh {@link Signature}{@code []}, the
+     *         signatures of the fields by slot.
+     */
+    public Signature[] toArray() {
+        return this.fieldSignatures.clone();
+    }
+}
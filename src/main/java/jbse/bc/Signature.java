@@ -1,5 +1,7 @@
 package jbse.bc;
 
+import jbse.common.MethodDescriptor;
+
 /**
  * Class that represents the signature of a method or a field.
  * It is immutable.
@@ -11,6 +13,13 @@ public class Signature {
     private final String descriptor;
     private final String name;
     private final int hashCode;
+    
+    /** 
+     * The parsed {@link #descriptor}, lazily initialized.
+     * Racy initialization is harmless because 
+     * {@link MethodDescriptor}s are immutable. 
+     */
+    private MethodDescriptor methodDescriptor;
 
     /**
      * Constructor; given the class, the descriptor and the name of a 
@@ -50,6 +59,20 @@ public class Signature {
         return this.descriptor;
     }
 
+    /**
+     * Returns the parsed descriptor of a method.
+     * 
+     * @return the {@link MethodDescriptor} for the descriptor, 
+     *         or {@code null} if this is not the signature 
+     *         of a method.
+     */
+    public MethodDescriptor getMethodDescriptor() {
+        if (this.methodDescriptor == null && this.descriptor != null && this.descriptor.indexOf(')') != -1) {
+            this.methodDescriptor = MethodDescriptor.of(this.descriptor);
+        }
+        return this.methodDescriptor;
+    }
+
     /**
      * Returns the name.
      * 
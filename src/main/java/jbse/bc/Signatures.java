@@ -173,6 +173,7 @@ public final class Signatures {
     public static final String NEGATIVE_ARRAY_SIZE_EXCEPTION       = "java/lang/NegativeArraySizeException";
     public static final String NULL_POINTER_EXCEPTION              = "java/lang/NullPointerException";
     public static final String RUNTIME_EXCEPTION                   = "java/lang/RuntimeException";
+    public static final String STRING_INDEX_OUT_OF_BOUNDS_EXCEPTION = "java/lang/StringIndexOutOfBoundsException";
     
     //errors
     public static final String ABSTRACT_METHOD_ERROR               = "java/lang/AbstractMethodError";
@@ -440,12 +441,18 @@ public final class Signatures {
         new Signature(JAVA_STRICTMATH, "(" + DOUBLE + ")" + DOUBLE, "tan");
     public static final Signature JAVA_STRICTMATH_TANH = 
         new Signature(JAVA_STRICTMATH, "(" + DOUBLE + ")" + DOUBLE, "tanh");
+    public static final Signature JAVA_STRING_CHARAT = 
+        new Signature(JAVA_STRING, "(" + INT + ")" + CHAR, "charAt");
     public static final Signature JAVA_STRING_EQUALS = 
         new Signature(JAVA_STRING, "(" + REFERENCE + JAVA_OBJECT + TYPEEND + ")" + BOOLEAN, "equals");
     public static final Signature JAVA_STRING_HASHCODE = 
         new Signature(JAVA_STRING, "()" + INT, "hashCode");
+    public static final Signature JAVA_STRING_INDEXOF = 
+        new Signature(JAVA_STRING, "(" + INT + INT + ")" + INT, "indexOf");
     public static final Signature JAVA_STRING_INTERN =
         new Signature(JAVA_STRING, "()" + REFERENCE + JAVA_STRING + TYPEEND, "intern");
+    public static final Signature JAVA_STRING_STARTSWITH =
+        new Signature(JAVA_STRING, "(" + REFERENCE + JAVA_STRING + TYPEEND + INT + ")" + BOOLEAN, "startsWith");
     public static final Signature JAVA_STRINGBUILDER_APPEND_BOOLEAN =
         new Signature(JAVA_STRINGBUILDER, "(" + BOOLEAN + ")" + REFERENCE + JAVA_STRINGBUILDER + TYPEEND, "append");
     public static final Signature JAVA_STRINGBUILDER_APPEND_CHAR =
@@ -0,0 +1,177 @@
+package jbse.common;
+
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.REFERENCE;
+import static jbse.common.Type.TYPEEND;
+import static jbse.common.Type.isCat_1;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A parsed method descriptor, with the descriptors of the
+ * method's parameters and return value already split.
+ * The {@link MethodDescriptor}s are cached, so a descriptor
+ * is usually parsed only once. It is immutable.
+ */
+public final class MethodDescriptor {
+    /** The maximum number of {@link MethodDescriptor}s in {@link #CACHE}. */
+    static final int CACHE_CAPACITY = 8192;
+
+    /** The cache of the {@link MethodDescriptor}s. */
+    private static final ConcurrentHashMap<String, MethodDescriptor> CACHE = new ConcurrentHashMap<>();
+
+    private static final String[] EMPTY_STRING_ARRAY = new String[0];
+
+    /** The method descriptor. */
+    private final String descriptor;
+
+    /** The descriptors of the parameters. */
+    private final String[] parameterTypes;
+
+    /** The number of local variable slots taken by the parameters. */
+    private final int parameterSlots;
+
+    /** The descriptor of the return value. */
+    private final String returnType;
+
+    private MethodDescriptor(String descriptor) {
+        this.descriptor = descriptor;
+        final ArrayList<String> parameterTypes = new ArrayList<>();
+        int parameterSlots = 0;
+        final int end = descriptor.lastIndexOf(')');
+        for (int j = 1; j < end; ++j) {
+            final int z = j;
+            while (descriptor.charAt(j) == ARRAYOF) {
+                ++j;
+            }
+            if (descriptor.charAt(j) == REFERENCE) {
+                while (descriptor.charAt(j) != TYPEEND) {
+                    ++j;
+                }
+            }
+            final String parameterType = descriptor.substring(z, j + 1);
+            parameterTypes.add(parameterType);
+            parameterSlots += (isCat_1(parameterType.charAt(0)) ? 1 : 2);
+        }
+        this.parameterTypes = parameterTypes.toArray(EMPTY_STRING_ARRAY);
+        this.parameterSlots = parameterSlots;
+        this.returnType = descriptor.substring(end + 1);
+    }
+
+    /**
+     * Returns the {@link MethodDescriptor} for a method descriptor.
+     *
+     * @param descriptor a {@link String}, the descriptor of a method
+     *        (e.g., {@code "(I[Ljava/lang/String;)V"}).
+     *        It must not be {@code null}.
+     * @return the {@link MethodDescriptor} for {@code descriptor}.
+     */
+    public static MethodDescriptor of(String descriptor) {
+        final MethodDescriptor retVal = CACHE.get(descriptor);
+        if (retVal != null) {
+            return retVal;
+        }
+        if (CACHE.size() >= CACHE_CAPACITY) {
+            //the cache is shared by all the classpaths analyzed in the
+            //same JVM; descriptors are cheap to parse again, so rather 
+            //than tracking their usage the cache is just emptied
+            CACHE.clear();
+        }
+        return CACHE.computeIfAbsent(descriptor, MethodDescriptor::new);
+    }
+
+    /**
+     * Returns the method descriptor.
+     *
+     * @return a {@link String}.
+     */
+    public String getDescriptor() {
+        return this.descriptor;
+    }
+
+    /**
+     * Returns the number of the declared parameters.
+     *
+     * @return an {@code int}.
+     */
+    public int getNumberOfParameters() {
+        return this.parameterTypes.length;
+    }
+
+    /**
+     * Returns the descriptor of a parameter.
+     *
+     * @param i an {@code int}, the position of the parameter.
+     * @return a {@link String}, the descriptor of the
+     *         method's i-th parameter.
+     * @throws ArrayIndexOutOfBoundsException if {@code i} is
+     *         not a valid position.
+     */
+    public String getParameterType(int i) {
+        return this.parameterTypes[i];
+    }
+
+    /**
+     * Returns the descriptors of the parameters.
+     *
+     * @return a {@link String}{@code []}, whose i-th
+     *         element is the descriptor of the method's i-th
+     *         parameter. It is a fresh copy.
+     */
+    public String[] getParameterTypes() {
+        return this.parameterTypes.clone();
+    }
+
+    /**
+     * Returns the number of effective parameters.
+     *
+     * @param isStatic a {@code boolean}, {@code true} iff the method is static.
+     * @return an {@code int}, the number of the declared parameters,
+     *         plus one if the method is not static.
+     */
+    public int parametersNumber(boolean isStatic) {
+        return (isStatic ? this.parameterTypes.length : this.parameterTypes.length + 1);
+    }
+
+    /**
+     * Returns the number of local variable slots taken
+     * by the effective parameters.
+     *
+     * @param isStatic a {@code boolean}, {@code true} iff the method is static.
+     * @return an {@code int}.
+     */
+    public int parametersSlots(boolean isStatic) {
+        return (isStatic ? this.parameterSlots : this.parameterSlots + 1);
+    }
+
+    /**
+     * Returns the descriptor of the return value.
+     *
+     * @return a {@link String}.
+     */
+    public String getReturnType() {
+        return this.returnType;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.descriptor.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return this.descriptor.equals(((MethodDescriptor) obj).descriptor);
+    }
+
+    @Override
+    public String toString() {
+        return this.descriptor;
+    }
+}
@@ -489,32 +489,10 @@ public final class Type {
      * @return a {@link String}{@code []}, whose i-th
      *         element is the descriptor of the method's i-th
      *         parameter.
+     * @see MethodDescriptor#getParameterTypes()
      */
     public static String[] splitParametersDescriptors(String methodDescriptor) {
-        final ArrayList<String> myVector = new ArrayList<>();
-        for (int j = 1; j < methodDescriptor.lastIndexOf(')'); ++j) {
-            if (methodDescriptor.charAt(j) == REFERENCE) {
-                final int z = j;
-                while (methodDescriptor.charAt(j) != TYPEEND) {
-                    ++j;
-                }
-                myVector.add(methodDescriptor.substring(z, j + 1));
-            } else if (methodDescriptor.charAt(j) == ARRAYOF) {
-                final int z = j;
-                while (methodDescriptor.charAt(j) == ARRAYOF) {
-                    ++j;
-                }
-                if (methodDescriptor.charAt(j) == REFERENCE) {
-                    while (methodDescriptor.charAt(j) != TYPEEND) {
-                        ++j;
-                    }
-                }
-                myVector.add(methodDescriptor.substring(z, j + 1));
-            } else {
-                myVector.add("" + methodDescriptor.charAt(j));
-            }
-        }
-        return myVector.toArray(EMPTY_STRING_ARRAY);
+        return MethodDescriptor.of(methodDescriptor).getParameterTypes();
     }
     
     /**
@@ -757,8 +735,7 @@ public final class Type {
      * @return an {@code int}.
      */
     public static int parametersNumber(String methodDescriptor, boolean isStatic) {
-        final String[] paramsDescriptors = splitParametersDescriptors(methodDescriptor);
-        return (isStatic ? paramsDescriptors.length : paramsDescriptors.length + 1);
+        return MethodDescriptor.of(methodDescriptor).parametersNumber(isStatic);
     }
 
     /**
@@ -770,11 +747,10 @@ public final class Type {
      * @return a {@link String}.
      */
     public static String splitReturnValueDescriptor(String methodDescriptor) {
-        final int index = methodDescriptor.lastIndexOf(')') + 1;
-        if (index == 0) {
+        if (methodDescriptor.lastIndexOf(')') == -1) {
             return null;
         } else {
-            return methodDescriptor.substring(index);
+            return MethodDescriptor.of(methodDescriptor).getReturnType();
         }
     }
 
@@ -255,6 +255,19 @@ public interface DecisionProcedure extends AutoCloseable {
         return p; //no simplification by default
     }
 
+    /**
+     * Checks whether this {@link DecisionProcedure} may deem
+     * unsatisfiable some satisfiable clauses, e.g., because it 
+     * follows a concrete execution. In such case the paths
+     * it explores do not cover all the possible behaviors.
+     * 
+     * @return {@code true} iff this {@link DecisionProcedure}
+     *         may prune satisfiable clauses.
+     */
+    default boolean mayPruneSatisfiable() {
+        return false;
+    }
+
     /**
      * Releases the resources of the {@link DecisionProcedure}. After 
      * invocation of this method the {@link DecisionProcedure} cannot be
@@ -462,7 +462,7 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
             return ((Simplex) expSimpl).surelyTrue();
         } else { // (expSimpl instanceof Expression)
             final boolean localDecidesSat = isSatLocal(expression, (Expression) expSimpl);
-            if (localDecidesSat && hasNext()) {
+            if (localDecidesSat && hasNext() && !isSatLocalConclusive()) {
                 //tries the delegate, that could have a more restrictive answer
                 return delegateIsSat(expression);  //TODO shouldn't we pass expSimpl instead? do we really need to pass the original exp to the next in chain?
             }
@@ -489,6 +489,24 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         return true;
     }
 
+    /**
+     * Must be overridden by subclasses whose {@link #isSatLocal(Expression, Expression)}
+     * is able, at least in some cases, to conclusively answer that an 
+     * {@link Expression} is satisfiable. It is invoked right after 
+     * {@link #isSatLocal(Expression, Expression)}, and only when it 
+     * returns {@code true}. When it returns {@code true} the query 
+     * is not delegated to the next decision procedure in the chain.
+     * The default implementation returns {@code false}.
+     * 
+     * @return {@code true} iff the last invocation of 
+     *         {@link #isSatLocal(Expression, Expression)} proved 
+     *         that its argument is satisfiable under the 
+     *         current assumptions.
+     */
+    protected boolean isSatLocalConclusive() {
+        return false;
+    }
+
     /**
      * Queries the next decision procedure in the chain for 
      * satisfiability of an {@link Expression}.
@@ -129,6 +129,11 @@ public class DecisionProcedureDecorator implements DecisionProcedure {
         return this.component.simplify(c);
     }
 
+    @Override
+    public boolean mayPruneSatisfiable() {
+        return this.component.mayPruneSatisfiable();
+    }
+
     @Override
     public void close() 
     throws DecisionException {
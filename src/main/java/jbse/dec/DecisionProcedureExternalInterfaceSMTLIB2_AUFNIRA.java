@@ -18,6 +18,8 @@ import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.ExternalProtocolInterfaceException;
 import jbse.dec.exc.NoModelException;
+import jbse.instrumentation.Instrumentation;
+import jbse.instrumentation.SolverQueryEvent;
 import jbse.mem.Objekt;
 import jbse.val.Any;
 import jbse.val.Calculator;
@@ -71,6 +73,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
 
     private final Calculator calc;
     private final ExpressionMangler m;
+    private final String solverName;
     private boolean working;
     private Process solver;
     private BufferedReader solverIn;
@@ -95,6 +98,7 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     throws ExternalProtocolInterfaceException, IOException {
         this.calc = calc;
         this.m = new ExpressionMangler("X", "", calc);
+        this.solverName = String.join(" ", solverCommandLine);
         this.working = true;
         final ProcessBuilder pb = new ProcessBuilder(solverCommandLine);
         pb.redirectErrorStream(true);
@@ -229,9 +233,19 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
         if (smtlib2Query == null) {
             return true;
         }
+        final SolverQueryEvent event = (Instrumentation.isEnabled() ? new SolverQueryEvent() : null);
+        if (event != null) {
+            event.begin();
+        }
         sendAndCheckAnswer(smtlib2Query);
         final boolean isSat = sendAndCheckAnswerChecksat();
         sendAndCheckAnswer(POP_1);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit(this.solverName, smtlib2Query.length(), isSat);
+            }
+        }
         return isSat;
     }
     
@@ -733,6 +747,13 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
             } else if (x.getType() != Type.BOOLEAN && this.isBooleanExpression) {
                 throw new UnexpectedInternalException("error while parsing expression (expected a numeric expression but it is not): " + x.toString());
             }
+            if (PrimitiveSymbolicApply.ARRAY_SELECT.equals(x.getOperator())) {
+                final Value[] args = x.getArgs();
+                ((Primitive) args[1]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                final String index = this.clauseStack.pop();
+                this.clauseStack.push(translateSelect((PrimitiveSymbolicApply) args[0], index));
+                return;
+            }
             boolean allArgsPrimitive = true;
             for (Value v : x.getArgs()) {
                 if (!(v instanceof Primitive)) {
@@ -787,6 +808,92 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
             }
         }
 
+        /**
+         * Translates an array content (a term of the theory of 
+         * arrays built by {@link jbse.mem.ArrayImpl}) to a SMTLIB2
+         * array.
+         * 
+         * @param contents a {@link PrimitiveSymbolicApply} with operator 
+         *        {@link PrimitiveSymbolicApply#ARRAY_CONST ARRAY_CONST}, 
+         *        {@link PrimitiveSymbolicApply#ARRAY_INITIAL ARRAY_INITIAL},
+         *        {@link PrimitiveSymbolicApply#ARRAY_STORE ARRAY_STORE} or 
+         *        {@link PrimitiveSymbolicApply#ARRAY_COPY ARRAY_COPY}.
+         * @return a {@link String}, the SMTLIB2 array, or {@code null}
+         *         if {@code contents} contains an {@link PrimitiveSymbolicApply#ARRAY_COPY ARRAY_COPY}, 
+         *         that has no corresponding SMTLIB2 array operator. 
+         * @throws Exception if the visit of some member fails.
+         */
+        private String translateArray(PrimitiveSymbolicApply contents) throws Exception {
+            final String operator = contents.getOperator();
+            final Value[] args = contents.getArgs();
+            final String sort = "(Array Int " + toSMTLIB2Type(contents.getType()) + ")";
+            if (PrimitiveSymbolicApply.ARRAY_CONST.equals(operator)) {
+                ((Primitive) args[0]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                return "((as const " + sort + ") " + this.clauseStack.pop() + ")";
+            } else if (PrimitiveSymbolicApply.ARRAY_INITIAL.equals(operator)) {
+                final String smtlib2Array = "|ARRAY:" + ((ReferenceSymbolic) args[0]).asOriginString().replace('|', '_') + "|"; //quoted symbols cannot contain |
+                if (!this.smtlib2DeclaredSymbols.contains(smtlib2Array)) {
+                    this.smtlib2DeclaredSymbols.add(smtlib2Array);
+                    //not added to smtlib2VarsToJBSESymbols, no model for arrays
+                    this.queryDeclarations.append("(declare-fun " + smtlib2Array + " () " + sort + ")\n");
+                    ++nSymCurrent;
+                    ++nTotalSymbols;
+                }
+                return smtlib2Array;
+            } else if (PrimitiveSymbolicApply.ARRAY_STORE.equals(operator)) {
+                final String array = translateArray((PrimitiveSymbolicApply) args[0]);
+                if (array == null) {
+                    return null;
+                }
+                ((Primitive) args[1]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                ((Primitive) args[2]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                final String value = this.clauseStack.pop();
+                final String index = this.clauseStack.pop();
+                return "(store " + array + " " + index + " " + value + ")";
+            } else { //ARRAY_COPY
+                return null;
+            }
+        }
+        
+        /**
+         * Translates the selection of a member of an array content
+         * to SMTLIB2.
+         * 
+         * @param contents a {@link PrimitiveSymbolicApply}, the array content
+         *        (see {@link #translateArray(PrimitiveSymbolicApply)}).
+         * @param index a {@link String}, the SMTLIB2 translation of the
+         *        selection index.
+         * @return a {@link String}, the SMTLIB2 translation of the member
+         *         of {@code contents} at {@code index}.
+         * @throws Exception if the visit of some member fails.
+         */
+        private String translateSelect(PrimitiveSymbolicApply contents, String index) throws Exception {
+            final String array = translateArray(contents);
+            if (array != null) {
+                return "(select " + array + " " + index + ")";
+            }
+            //contents contains an ARRAY_COPY: translates to an if-then-else chain
+            final String operator = contents.getOperator();
+            final Value[] args = contents.getArgs();
+            if (PrimitiveSymbolicApply.ARRAY_STORE.equals(operator)) {
+                ((Primitive) args[1]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                ((Primitive) args[2]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                final String value = this.clauseStack.pop();
+                final String storeIndex = this.clauseStack.pop();
+                return "(ite (= " + index + " " + storeIndex + ") " + value + " " + translateSelect((PrimitiveSymbolicApply) args[0], index) + ")";
+            } else { //ARRAY_COPY
+                ((Primitive) args[2]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                ((Primitive) args[3]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                ((Primitive) args[4]).accept(new SMTLIB2ExpressionVisitor(this, false));
+                final String length = this.clauseStack.pop();
+                final String destPos = this.clauseStack.pop();
+                final String srcPos = this.clauseStack.pop();
+                final String inCopyRange = "(and (<= " + destPos + " " + index + ") (< " + index + " (+ " + destPos + " " + length + ")))";
+                final String srcIndex = "(+ (- " + index + " " + destPos + ") " + srcPos + ")";
+                return "(ite " + inCopyRange + " " + translateSelect((PrimitiveSymbolicApply) args[1], srcIndex) + " " + translateSelect((PrimitiveSymbolicApply) args[0], index) + ")";
+            }
+        }
+
         @Override
         public void visitWideningConversion(WideningConversion x) throws Exception {
             if (x.getType() == Type.BOOLEAN && !this.isBooleanExpression) {
@@ -796,6 +903,10 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
             }
             final Primitive arg = x.getArg();
             arg.accept(new SMTLIB2ExpressionVisitor(this, arg.getType() == Type.BOOLEAN));
+            if (arg.getType() == Type.BOOLEAN && x.getType() != Type.BOOLEAN) {
+                //a boolean widened to a number is either 1 or 0
+                this.clauseStack.push("(ite " + this.clauseStack.pop() + " 1 0)");
+            }
             if (Type.isPrimitiveIntegral(x.getType()) != Type.isPrimitiveIntegral(arg.getType())) {
                 this.clauseStack.push("(to_real " + this.clauseStack.pop() + ")");
             }
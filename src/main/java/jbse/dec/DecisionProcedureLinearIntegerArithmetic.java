@@ -0,0 +1,431 @@
+package jbse.dec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.dec.SolverLinearIntegerArithmetic.Constraint;
+import jbse.dec.SolverLinearIntegerArithmetic.Kind;
+import jbse.dec.SolverLinearIntegerArithmetic.Outcome;
+import jbse.dec.exc.DecisionException;
+import jbse.dec.exc.NoModelException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.Monomial;
+import jbse.rewr.Polynomial;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Operator;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolic;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.Value;
+import jbse.val.WideningConversion;
+
+/**
+ * Decides conjunctions of linear constraints over integral
+ * symbols ({@code byte}, {@code short}, {@code char}, {@code int}
+ * and {@code long}), with the same semantics of the external
+ * decision procedures (unbounded integers). Assumptions and
+ * queries are normalized by means of {@link Polynomial}s and
+ * decided in-process by a {@link SolverLinearIntegerArithmetic},
+ * only on the assumptions that share symbols with the query.
+ * When the assumptions that are relevant to a query are all
+ * linear this decision procedure answers conclusively, and does
+ * not delegate to the next in the chain; otherwise (nonlinear,
+ * floating point, or mixed queries) it only detects
+ * unsatisfiability and delegates the rest.
+ */
+public final class DecisionProcedureLinearIntegerArithmetic extends DecisionProcedureChainOfResponsibility {
+	/**
+	 * The maximum number of constraints the solver may generate
+	 * for a query before giving up.
+	 */
+	private static final int MAX_CONSTRAINTS = 512;
+
+	/**
+	 * The local assumptions, one for each {@link Clause} pushed:
+	 * Assumptions that are not {@link ClauseAssume}s
+	 * are on references and are irrelevant to this decision
+	 * procedure, and are stored as empty {@link Assumption}s.
+	 */
+	private final ArrayList<Assumption> assumptions = new ArrayList<>();
+
+	/**
+	 * The {@link CalculatorRewriting} used for building
+	 * {@link Polynomial}s.
+	 */
+	private final CalculatorRewriting calcPolynomials;
+
+	/** Whether the last call to {@link #isSatLocal} was conclusive. */
+	private boolean lastIsSatConclusive = false;
+
+	/**
+	 * A local assumption, either a conjunction of linear
+	 * {@link Constraint}s or an opaque condition.
+	 */
+	private static final class Assumption {
+		/** The {@link Constraint}s; {@code null} iff the assumption is opaque. */
+		final List<Constraint<Primitive>> constraints;
+
+		/**
+		 * All the symbols occurring in the assumption,
+		 * only for opaque assumptions.
+		 */
+		final Set<Primitive> symbols;
+
+		Assumption(List<Constraint<Primitive>> constraints, Set<Primitive> symbols) {
+			this.constraints = constraints;
+			this.symbols = symbols;
+		}
+
+		boolean isOpaque() {
+			return this.constraints == null;
+		}
+	}
+
+	public DecisionProcedureLinearIntegerArithmetic(DecisionProcedure next)
+	throws InvalidInputException {
+		super(next);
+		this.calcPolynomials = new CalculatorRewriting();
+		this.calcPolynomials.addRewriter(new RewriterOperationOnSimplex());
+	}
+
+	@Override
+	protected void pushAssumptionLocal(Clause cSimpl) throws DecisionException {
+		if (cSimpl instanceof ClauseAssume) {
+			this.assumptions.add(makeAssumption(((ClauseAssume) cSimpl).getCondition()));
+		} else {
+			this.assumptions.add(new Assumption(Collections.emptyList(), null));
+		}
+	}
+
+	@Override
+	protected void clearAssumptionsLocal() {
+		this.assumptions.clear();
+	}
+
+	@Override
+	protected boolean canPopAssumptions() {
+		return true;
+	}
+
+	@Override
+	protected void popAssumptionLocal() {
+		this.assumptions.remove(this.assumptions.size() - 1);
+	}
+
+	@Override
+	protected boolean isSatLocal(Expression exp, Expression expSimpl)
+	throws DecisionException {
+		this.lastIsSatConclusive = false;
+		final List<Constraint<Primitive>> query = translate(expSimpl);
+		if (query == null) {
+			return true; //out of the theory
+		}
+
+		//selects the relevant assumptions
+		final HashSet<Primitive> variables = new HashSet<>();
+		for (Constraint<Primitive> c : query) {
+			variables.addAll(c.variables());
+		}
+		final ArrayList<Constraint<Primitive>> constraints = new ArrayList<>();
+		for (Assumption a : this.assumptions) {
+			if (!a.isOpaque()) {
+				constraints.addAll(a.constraints);
+			}
+		}
+		final List<Constraint<Primitive>> relevant = SolverLinearIntegerArithmetic.slice(constraints, variables);
+		relevant.addAll(query);
+
+		//solves
+		final SolverLinearIntegerArithmetic<Primitive> solver = new SolverLinearIntegerArithmetic<>(relevant, MAX_CONSTRAINTS);
+		final Outcome outcome = solver.solve();
+		if (outcome == Outcome.UNSAT) {
+			return false;
+		} else if (outcome == Outcome.SAT) {
+			this.lastIsSatConclusive = !touchesOpaqueAssumptions(variables);
+		}
+		return true;
+	}
+
+	@Override
+	protected boolean isSatLocalConclusive() {
+		return this.lastIsSatConclusive;
+	}
+
+	@Override
+	protected Map<PrimitiveSymbolic, Simplex> getModelLocal()
+	throws DecisionException {
+		final ArrayList<Constraint<Primitive>> constraints = new ArrayList<>();
+		for (Assumption a : this.assumptions) {
+			if (a.isOpaque()) {
+				throw new NoModelException();
+			}
+			constraints.addAll(a.constraints);
+		}
+		final SolverLinearIntegerArithmetic<Primitive> solver = new SolverLinearIntegerArithmetic<>(constraints, MAX_CONSTRAINTS);
+		if (solver.solve() != Outcome.SAT) {
+			throw new NoModelException();
+		}
+		final HashMap<PrimitiveSymbolic, Simplex> retVal = new HashMap<>();
+		for (Entry<Primitive, BigInteger> e : solver.getModel().entrySet()) {
+			if (e.getKey() instanceof PrimitiveSymbolic) {
+				retVal.put((PrimitiveSymbolic) e.getKey(), toSimplex(e.getKey().getType(), e.getValue()));
+			}
+		}
+		return retVal;
+	}
+
+	private boolean touchesOpaqueAssumptions(Set<Primitive> variables) {
+		for (Assumption a : this.assumptions) {
+			if (a.isOpaque() && !Collections.disjoint(a.symbols, variables)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Assumption makeAssumption(Primitive condition) {
+		final List<Constraint<Primitive>> constraints = translate(condition);
+		if (constraints == null) {
+			final SymbolsCollector collector = new SymbolsCollector();
+			try {
+				condition.accept(collector);
+			} catch (Exception e) {
+				//this should never happen
+				throw new UnexpectedInternalException(e);
+			}
+			return new Assumption(null, collector.symbols);
+		}
+		return new Assumption(constraints, null);
+	}
+
+	/**
+	 * Translates a boolean {@link Primitive} to a conjunction
+	 * of {@link Constraint}s.
+	 *
+	 * @param p a {@link Primitive}.
+	 * @return a {@link List}{@code <}{@link Constraint}{@code >}, or
+	 *         {@code null} if {@code p} is not a conjunction of
+	 *         linear integer constraints.
+	 */
+	private List<Constraint<Primitive>> translate(Primitive p) {
+		if (p instanceof Simplex) {
+			if (((Simplex) p).surelyTrue()) {
+				return new ArrayList<>();
+			} else {
+				final ArrayList<Constraint<Primitive>> retVal = new ArrayList<>();
+				retVal.add(new Constraint<>(Collections.emptyMap(), BigInteger.ONE, Kind.LE));
+				return retVal;
+			}
+		}
+		if (!(p instanceof Expression)) {
+			return null;
+		}
+		final Expression e = (Expression) p;
+		final Operator operator = e.getOperator();
+		if (operator == Operator.AND) {
+			final List<Constraint<Primitive>> first = translate(e.getFirstOperand());
+			final List<Constraint<Primitive>> second = translate(e.getSecondOperand());
+			if (first == null || second == null) {
+				return null;
+			}
+			first.addAll(second);
+			return first;
+		} else if (operator == Operator.NOT) {
+			final List<Constraint<Primitive>> operand = translate(e.getOperand());
+			if (operand == null || operand.size() != 1) {
+				return null; //the negation of a conjunction is not a conjunction
+			}
+			final ArrayList<Constraint<Primitive>> retVal = new ArrayList<>();
+			retVal.add(operand.get(0).negate());
+			return retVal;
+		} else if (operator == Operator.EQ || operator == Operator.NE ||
+		operator == Operator.LT || operator == Operator.LE ||
+		operator == Operator.GT || operator == Operator.GE) {
+			final Primitive first = e.getFirstOperand();
+			final Primitive second = e.getSecondOperand();
+			if (!isIntegral(first.getType()) || !isIntegral(second.getType())) {
+				return null;
+			}
+			final HashMap<Primitive, BigInteger> coefficients = new HashMap<>();
+			final BigInteger[] constant = { BigInteger.ZERO };
+			if (!linearize(first, BigInteger.ONE, coefficients, constant) ||
+			!linearize(second, BigInteger.ONE.negate(), coefficients, constant)) {
+				return null;
+			}
+			//first - second R 0
+			final Constraint<Primitive> c;
+			if (operator == Operator.EQ) {
+				c = new Constraint<>(coefficients, constant[0], Kind.EQ);
+			} else if (operator == Operator.NE) {
+				c = new Constraint<>(coefficients, constant[0], Kind.NE);
+			} else if (operator == Operator.LE) {
+				c = new Constraint<>(coefficients, constant[0], Kind.LE);
+			} else if (operator == Operator.LT) {
+				//first - second + 1 <= 0
+				c = new Constraint<>(coefficients, constant[0].add(BigInteger.ONE), Kind.LE);
+			} else if (operator == Operator.GT) {
+				//!(first - second <= 0)
+				c = new Constraint<>(coefficients, constant[0], Kind.LE).negate();
+			} else { //operator == Operator.GE
+				//!(first - second + 1 <= 0)
+				c = new Constraint<>(coefficients, constant[0].add(BigInteger.ONE), Kind.LE).negate();
+			}
+			final ArrayList<Constraint<Primitive>> retVal = new ArrayList<>();
+			retVal.add(c);
+			return retVal;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Adds to a linear form the linear form of an integral
+	 * {@link Primitive}, scaled by a factor.
+	 *
+	 * @param p a {@link Primitive} with integral type.
+	 * @param factor a {@link BigInteger}, the factor.
+	 * @param coefficients the coefficients of the linear form,
+	 *        that will be updated.
+	 * @param constant a one-element array containing the constant
+	 *        term of the linear form, that will be updated.
+	 * @return {@code false} iff {@code p} is not linear. In this
+	 *         case {@code coefficients} and {@code constant} might
+	 *         have been partially updated.
+	 */
+	private boolean linearize(Primitive p, BigInteger factor, Map<Primitive, BigInteger> coefficients, BigInteger[] constant) {
+		final Polynomial polynomial = Polynomial.of(this.calcPolynomials, p);
+		for (Entry<Monomial, Simplex> e : polynomial.representation().entrySet()) {
+			final Monomial base = e.getKey();
+			final BigInteger multiplier = toBigInteger(e.getValue()).multiply(factor);
+			if (base.isNumber()) {
+				constant[0] = constant[0].add(multiplier);
+				continue;
+			}
+			final Map<Primitive, Integer> rep = base.representation();
+			if (rep.size() != 1) {
+				return false;
+			}
+			final Entry<Primitive, Integer> power = rep.entrySet().iterator().next();
+			if (power.getValue() != 1) {
+				return false;
+			}
+			final Primitive atom = power.getKey();
+			if (isVariable(atom)) {
+				coefficients.merge(atom, multiplier, BigInteger::add);
+			} else if (atom instanceof WideningConversion && isIntegral(((WideningConversion) atom).getArg().getType())) {
+				//integral widenings preserve the value
+				if (!linearize(((WideningConversion) atom).getArg(), multiplier, coefficients, constant)) {
+					return false;
+				}
+			} else {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isVariable(Primitive p) {
+		return (p instanceof PrimitiveSymbolicAtomic || p instanceof Term) && isIntegral(p.getType());
+	}
+
+	private static boolean isIntegral(char type) {
+		return Type.isPrimitiveIntegral(type) && type != Type.BOOLEAN;
+	}
+
+	private static BigInteger toBigInteger(Simplex s) {
+		final Object value = s.getActualValue();
+		if (value instanceof Character) {
+			return BigInteger.valueOf(((Character) value).charValue());
+		}
+		return BigInteger.valueOf(((Number) value).longValue());
+	}
+
+	private Simplex toSimplex(char type, BigInteger value) throws NoModelException {
+		if (type == Type.LONG && value.bitLength() < 64) {
+			return this.calc.valLong(value.longValue());
+		} else if (type == Type.INT && value.bitLength() < 32) {
+			return this.calc.valInt(value.intValue());
+		} else if (type == Type.SHORT && value.bitLength() < 16) {
+			return this.calc.valShort(value.shortValue());
+		} else if (type == Type.BYTE && value.bitLength() < 8) {
+			return this.calc.valByte(value.byteValue());
+		} else if (type == Type.CHAR && value.signum() >= 0 && value.bitLength() <= 16) {
+			return this.calc.valChar((char) value.intValue());
+		} else {
+			//the value does not fit the type
+			throw new NoModelException();
+		}
+	}
+
+	/**
+	 * Collects all the symbols (and terms) occurring
+	 * in a {@link Primitive}.
+	 */
+	private static final class SymbolsCollector implements PrimitiveVisitor {
+		final HashSet<Primitive> symbols = new HashSet<>();
+
+		@Override
+		public void visitAny(Any x) { }
+
+		@Override
+		public void visitExpression(Expression e) throws Exception {
+			if (e.isUnary()) {
+				e.getOperand().accept(this);
+			} else {
+				e.getFirstOperand().accept(this);
+				e.getSecondOperand().accept(this);
+			}
+		}
+
+		@Override
+		public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) throws Exception {
+			for (Value arg : x.getArgs()) {
+				if (arg instanceof Primitive) {
+					((Primitive) arg).accept(this);
+				}
+			}
+		}
+
+		@Override
+		public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+			this.symbols.add(s);
+		}
+
+		@Override
+		public void visitSimplex(Simplex x) { }
+
+		@Override
+		public void visitTerm(Term x) {
+			this.symbols.add(x);
+		}
+
+		@Override
+		public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+			x.getArg().accept(this);
+		}
+
+		@Override
+		public void visitWideningConversion(WideningConversion x) throws Exception {
+			x.getArg().accept(this);
+		}
+	}
+}
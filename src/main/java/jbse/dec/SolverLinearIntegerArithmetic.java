@@ -0,0 +1,650 @@
+package jbse.dec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * A solver for conjunctions of linear constraints over
+ * (unbounded) integer variables. Equalities with a unit
+ * coefficient are eliminated by substitution, the remaining
+ * inequalities by Fourier-Motzkin elimination with integer
+ * tightening of the derived constraints. The solver is
+ * sound but incomplete: It answers {@link Outcome#UNSAT}
+ * only when the constraints have no integer solution, and
+ * {@link Outcome#SAT} only when it is able to build an integer
+ * model and to check it against all the input constraints. In
+ * all the other cases it answers {@link Outcome#UNKNOWN}.
+ *
+ * @param <V> the type of the variables.
+ */
+final class SolverLinearIntegerArithmetic<V> {
+	/** The possible outcomes of {@link #solve()}. */
+	enum Outcome { SAT, UNSAT, UNKNOWN }
+
+	/** The kinds of {@link Constraint}. */
+	enum Kind {
+		/** {@code sum + constant <= 0} */
+		LE,
+
+		/** {@code sum + constant == 0} */
+		EQ,
+
+		/** {@code sum + constant != 0} */
+		NE
+	}
+
+	/**
+	 * A linear constraint {@code a_1 * x_1 + ... + a_n * x_n + c R 0},
+	 * where {@code R} is one of {@code <=}, {@code ==} or {@code !=}
+	 * (see {@link Kind}). Immutable.
+	 *
+	 * @param <V> the type of the variables.
+	 */
+	static final class Constraint<V> {
+		private final Map<V, BigInteger> coefficients;
+		private final BigInteger constant;
+		private final Kind kind;
+		private final int hashCode;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param coefficients a {@link Map}{@code <V, }{@link BigInteger}{@code >}
+		 *        associating variables to their coefficients. Zero
+		 *        coefficients are dropped. It is copied.
+		 * @param constant a {@link BigInteger}, the constant term.
+		 * @param kind a {@link Kind}.
+		 */
+		Constraint(Map<V, BigInteger> coefficients, BigInteger constant, Kind kind) {
+			final LinkedHashMap<V, BigInteger> coefficientsNonZero = new LinkedHashMap<>();
+			for (Entry<V, BigInteger> e : coefficients.entrySet()) {
+				if (e.getValue().signum() != 0) {
+					coefficientsNonZero.put(e.getKey(), e.getValue());
+				}
+			}
+			this.coefficients = Collections.unmodifiableMap(coefficientsNonZero);
+			this.constant = constant;
+			this.kind = kind;
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + this.coefficients.hashCode();
+			result = prime * result + this.constant.hashCode();
+			result = prime * result + this.kind.hashCode();
+			this.hashCode = result;
+		}
+
+		Map<V, BigInteger> getCoefficients() {
+			return this.coefficients;
+		}
+
+		BigInteger getCoefficient(V variable) {
+			final BigInteger retVal = this.coefficients.get(variable);
+			return (retVal == null ? BigInteger.ZERO : retVal);
+		}
+
+		BigInteger getConstant() {
+			return this.constant;
+		}
+
+		Kind getKind() {
+			return this.kind;
+		}
+
+		Set<V> variables() {
+			return this.coefficients.keySet();
+		}
+
+		boolean isGround() {
+			return this.coefficients.isEmpty();
+		}
+
+		/**
+		 * Returns the logical negation of this constraint
+		 * (over the integers).
+		 *
+		 * @return a {@link Constraint}.
+		 */
+		Constraint<V> negate() {
+			if (this.kind == Kind.LE) {
+				//!(sum + c <= 0) <=> -sum - c + 1 <= 0
+				return new Constraint<>(scale(this.coefficients, BigInteger.ONE.negate()), this.constant.negate().add(BigInteger.ONE), Kind.LE);
+			} else if (this.kind == Kind.NE) {
+				return new Constraint<>(this.coefficients, this.constant, Kind.EQ);
+			} else { //this.kind == Kind.EQ
+				return new Constraint<>(this.coefficients, this.constant, Kind.NE);
+			}
+		}
+
+		/**
+		 * Evaluates the linear form of this constraint.
+		 *
+		 * @param model a {@link Map}{@code <V, }{@link BigInteger}{@code >}.
+		 * @return a {@link BigInteger}, or {@code null} if some variable
+		 *         of this constraint has no value in {@code model}.
+		 */
+		BigInteger evaluate(Map<V, BigInteger> model) {
+			BigInteger retVal = this.constant;
+			for (Entry<V, BigInteger> e : this.coefficients.entrySet()) {
+				final BigInteger value = model.get(e.getKey());
+				if (value == null) {
+					return null;
+				}
+				retVal = retVal.add(e.getValue().multiply(value));
+			}
+			return retVal;
+		}
+
+		/**
+		 * Checks whether a model satisfies this constraint.
+		 *
+		 * @param model a {@link Map}{@code <V, }{@link BigInteger}{@code >}.
+		 * @return {@code true} iff all the variables of this constraint
+		 *         have a value in {@code model} and the constraint
+		 *         holds.
+		 */
+		boolean satisfiedBy(Map<V, BigInteger> model) {
+			final BigInteger value = evaluate(model);
+			if (value == null) {
+				return false;
+			}
+			return holds(value.signum());
+		}
+
+		private boolean holds(int signum) {
+			return (this.kind == Kind.LE ? signum <= 0 : this.kind == Kind.EQ ? signum == 0 : signum != 0);
+		}
+
+		/**
+		 * Divides the coefficients by their greatest common divisor
+		 * and, for inequalities, rounds the constant exploiting the
+		 * fact that all the variables are integer.
+		 *
+		 * @return a {@link Constraint} that has the same integer
+		 *         solutions of this constraint, or {@code null}
+		 *         if this is an equality with no integer solutions.
+		 */
+		Constraint<V> tighten() {
+			BigInteger gcd = BigInteger.ZERO;
+			for (BigInteger a : this.coefficients.values()) {
+				gcd = gcd.gcd(a);
+			}
+			if (gcd.signum() == 0 || gcd.equals(BigInteger.ONE)) {
+				return this;
+			}
+			final BigInteger[] qr = this.constant.divideAndRemainder(gcd);
+			final BigInteger constantNew;
+			if (qr[1].signum() == 0) {
+				constantNew = qr[0];
+			} else if (this.kind == Kind.LE) {
+				//sum/g <= -c/g, rounded down, i.e., sum/g + ceil(c/g) <= 0
+				constantNew = ceilDiv(this.constant, gcd);
+			} else if (this.kind == Kind.EQ) {
+				return null;
+			} else { //this.kind == Kind.NE, and is always satisfied
+				return this;
+			}
+			return new Constraint<>(divide(this.coefficients, gcd), constantNew, this.kind);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			final Constraint<?> other = (Constraint<?>) obj;
+			return this.kind == other.kind && this.constant.equals(other.constant) && this.coefficients.equals(other.coefficients);
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder sb = new StringBuilder();
+			for (Entry<V, BigInteger> e : this.coefficients.entrySet()) {
+				sb.append(e.getValue());
+				sb.append("*");
+				sb.append(e.getKey());
+				sb.append(" + ");
+			}
+			sb.append(this.constant);
+			sb.append(this.kind == Kind.LE ? " <= 0" : this.kind == Kind.EQ ? " == 0" : " != 0");
+			return sb.toString();
+		}
+	}
+
+	/** The maximum number of constraints Fourier-Motzkin elimination may generate. */
+	private final int maxConstraints;
+
+	/** The input constraints. */
+	private final List<Constraint<V>> constraints;
+
+	/** The model, set by {@link #solve()} when it returns {@link Outcome#SAT}. */
+	private Map<V, BigInteger> model = null;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param constraints a {@link Collection}{@code <}{@link Constraint}{@code <V>>},
+	 *        the conjunction of constraints to solve.
+	 * @param maxConstraints an {@code int}, the maximum number of constraints
+	 *        the solver may generate during elimination before giving up.
+	 */
+	SolverLinearIntegerArithmetic(Collection<Constraint<V>> constraints, int maxConstraints) {
+		this.constraints = new ArrayList<>(constraints);
+		this.maxConstraints = maxConstraints;
+	}
+
+	/**
+	 * Returns the model found by the last invocation of {@link #solve()}.
+	 *
+	 * @return a {@link Map}{@code <V, }{@link BigInteger}{@code >},
+	 *         or {@code null} if the last invocation of {@link #solve()}
+	 *         did not return {@link Outcome#SAT}. The map associates
+	 *         a value to all the variables in the input constraints.
+	 */
+	Map<V, BigInteger> getModel() {
+		return this.model;
+	}
+
+	/**
+	 * Solves the input constraints.
+	 *
+	 * @return an {@link Outcome}.
+	 */
+	Outcome solve() {
+		this.model = null;
+
+		//splits the constraints by kind, and tightens them
+		final ArrayList<Constraint<V>> equalities = new ArrayList<>();
+		final LinkedHashSet<Constraint<V>> inequalities = new LinkedHashSet<>();
+		final ArrayList<Constraint<V>> disequalities = new ArrayList<>();
+		for (Constraint<V> c : this.constraints) {
+			final Constraint<V> cTight = c.tighten();
+			if (cTight == null) {
+				return Outcome.UNSAT;
+			}
+			if (cTight.isGround()) {
+				if (!cTight.holds(cTight.getConstant().signum())) {
+					return Outcome.UNSAT;
+				}
+				continue;
+			}
+			if (cTight.getKind() == Kind.EQ) {
+				equalities.add(cTight);
+			} else if (cTight.getKind() == Kind.LE) {
+				inequalities.add(cTight);
+			} else {
+				disequalities.add(cTight);
+			}
+		}
+
+		//eliminates the equalities
+		final ArrayList<V> substitutedVariables = new ArrayList<>();
+		final ArrayList<Constraint<V>> substitutedDefinitions = new ArrayList<>();
+		while (!equalities.isEmpty()) {
+			final Constraint<V> eq = equalities.remove(equalities.size() - 1);
+			V pivot = null;
+			for (Entry<V, BigInteger> e : eq.getCoefficients().entrySet()) {
+				if (e.getValue().abs().equals(BigInteger.ONE)) {
+					pivot = e.getKey();
+					break;
+				}
+			}
+			if (pivot == null) {
+				//no unit coefficient: splits in two inequalities
+				inequalities.add(new Constraint<>(eq.getCoefficients(), eq.getConstant(), Kind.LE));
+				inequalities.add(new Constraint<>(scale(eq.getCoefficients(), BigInteger.ONE.negate()), eq.getConstant().negate(), Kind.LE));
+				continue;
+			}
+			substitutedVariables.add(pivot);
+			substitutedDefinitions.add(eq);
+			for (int i = 0; i < equalities.size(); ++i) {
+				final Constraint<V> c = substitute(equalities.get(i), pivot, eq).tighten();
+				if (c == null || (c.isGround() && c.getConstant().signum() != 0)) {
+					return Outcome.UNSAT;
+				}
+				equalities.set(i, c);
+			}
+			equalities.removeIf(Constraint::isGround);
+			final ArrayList<Constraint<V>> inequalitiesNew = new ArrayList<>();
+			for (Constraint<V> c : inequalities) {
+				inequalitiesNew.add(substitute(c, pivot, eq).tighten());
+			}
+			inequalities.clear();
+			for (Constraint<V> c : inequalitiesNew) {
+				if (c.isGround()) {
+					if (c.getConstant().signum() > 0) {
+						return Outcome.UNSAT;
+					}
+				} else {
+					inequalities.add(c);
+				}
+			}
+			for (int i = 0; i < disequalities.size(); ++i) {
+				final Constraint<V> c = substitute(disequalities.get(i), pivot, eq);
+				if (c.isGround() && c.getConstant().signum() == 0) {
+					return Outcome.UNSAT;
+				}
+				disequalities.set(i, c);
+			}
+		}
+
+		//eliminates the variables in the inequalities
+		final ArrayList<V> eliminatedVariables = new ArrayList<>();
+		final ArrayList<List<Constraint<V>>> eliminationBounds = new ArrayList<>();
+		Set<Constraint<V>> current = inequalities;
+		while (!current.isEmpty()) {
+			final V variable = chooseVariable(current);
+			final ArrayList<Constraint<V>> lower = new ArrayList<>();
+			final ArrayList<Constraint<V>> upper = new ArrayList<>();
+			final LinkedHashSet<Constraint<V>> next = new LinkedHashSet<>();
+			for (Constraint<V> c : current) {
+				final int sign = c.getCoefficient(variable).signum();
+				if (sign > 0) {
+					upper.add(c);
+				} else if (sign < 0) {
+					lower.add(c);
+				} else {
+					next.add(c);
+				}
+			}
+			for (Constraint<V> l : lower) {
+				for (Constraint<V> u : upper) {
+					final Constraint<V> c = combine(l, u, variable).tighten();
+					if (c.isGround()) {
+						if (c.getConstant().signum() > 0) {
+							return Outcome.UNSAT;
+						}
+					} else {
+						next.add(c);
+					}
+				}
+				if (next.size() > this.maxConstraints) {
+					return Outcome.UNKNOWN;
+				}
+			}
+			final ArrayList<Constraint<V>> bounds = new ArrayList<>(lower);
+			bounds.addAll(upper);
+			eliminatedVariables.add(variable);
+			eliminationBounds.add(bounds);
+			current = next;
+		}
+
+		//the constraints have a rational solution; tries to
+		//build an integer one by back substitution
+		final HashMap<V, BigInteger> candidate = new HashMap<>();
+		for (int i = eliminatedVariables.size() - 1; i >= 0; --i) {
+			final V variable = eliminatedVariables.get(i);
+			BigInteger lo = null, hi = null;
+			for (Constraint<V> c : eliminationBounds.get(i)) {
+				final BigInteger a = c.getCoefficient(variable);
+				final BigInteger rest = evaluateExcept(c, candidate, variable);
+				if (rest == null) {
+					return Outcome.UNKNOWN; //should not happen
+				}
+				if (a.signum() > 0) {
+					//a * x + rest <= 0 => x <= floor(-rest / a)
+					final BigInteger bound = floorDiv(rest.negate(), a);
+					hi = (hi == null ? bound : hi.min(bound));
+				} else {
+					//a * x + rest <= 0 => x >= ceil(rest / -a)
+					final BigInteger bound = ceilDiv(rest, a.negate());
+					lo = (lo == null ? bound : lo.max(bound));
+				}
+			}
+			final BigInteger value = pickValue(variable, lo, hi, disequalities, candidate);
+			if (value == null) {
+				return Outcome.UNKNOWN;
+			}
+			candidate.put(variable, value);
+		}
+
+		//assigns the variables that occur only in disequalities
+		for (Constraint<V> c : disequalities) {
+			for (V variable : c.variables()) {
+				if (!candidate.containsKey(variable) && !substitutedVariables.contains(variable)) {
+					final BigInteger value = pickValue(variable, null, null, disequalities, candidate);
+					if (value == null) {
+						return Outcome.UNKNOWN;
+					}
+					candidate.put(variable, value);
+				}
+			}
+		}
+
+		//assigns the substituted variables, in reverse order
+		//of substitution
+		for (int i = substitutedVariables.size() - 1; i >= 0; --i) {
+			final V variable = substitutedVariables.get(i);
+			final Constraint<V> definition = substitutedDefinitions.get(i);
+			for (V other : definition.variables()) {
+				if (!other.equals(variable) && !candidate.containsKey(other) && !substitutedVariables.contains(other)) {
+					candidate.put(other, BigInteger.ZERO);
+				}
+			}
+			//a * x + rest == 0, with a == 1 or a == -1 => x == -rest * a
+			final BigInteger a = definition.getCoefficient(variable);
+			final BigInteger rest = evaluateExcept(definition, candidate, variable);
+			if (rest == null) {
+				return Outcome.UNKNOWN; //should not happen
+			}
+			candidate.put(variable, rest.negate().multiply(a));
+		}
+
+		//checks the candidate model against all the input constraints
+		for (Constraint<V> c : this.constraints) {
+			for (V variable : c.variables()) {
+				if (!candidate.containsKey(variable)) {
+					candidate.put(variable, BigInteger.ZERO);
+				}
+			}
+			if (!c.satisfiedBy(candidate)) {
+				return Outcome.UNKNOWN;
+			}
+		}
+		this.model = candidate;
+		return Outcome.SAT;
+	}
+
+	/**
+	 * Chooses a value for a variable in an interval, trying to
+	 * satisfy the disequalities where the variable is the only
+	 * one unassigned. Prefers values close to zero.
+	 */
+	private static <V> BigInteger pickValue(V variable, BigInteger lo, BigInteger hi, List<Constraint<V>> disequalities, Map<V, BigInteger> candidate) {
+		if (lo != null && hi != null && lo.compareTo(hi) > 0) {
+			return null;
+		}
+		BigInteger start = BigInteger.ZERO;
+		if (lo != null) {
+			start = start.max(lo);
+		}
+		if (hi != null) {
+			start = start.min(hi);
+		}
+		final ArrayList<Constraint<V>> relevant = new ArrayList<>();
+		for (Constraint<V> c : disequalities) {
+			if (c.variables().contains(variable) && c.variables().stream().allMatch(v -> v.equals(variable) || candidate.containsKey(v))) {
+				relevant.add(c);
+			}
+		}
+		//each disequality forbids at most one value, so
+		//relevant.size() + 1 attempts in each direction suffice
+		for (int i = 0; i <= relevant.size(); ++i) {
+			for (int sign = 1; sign >= -1; sign -= 2) {
+				final BigInteger value = start.add(BigInteger.valueOf(sign * i));
+				if ((lo != null && value.compareTo(lo) < 0) || (hi != null && value.compareTo(hi) > 0)) {
+					continue;
+				}
+				candidate.put(variable, value);
+				boolean allSatisfied = true;
+				for (Constraint<V> c : relevant) {
+					if (!c.satisfiedBy(candidate)) {
+						allSatisfied = false;
+						break;
+					}
+				}
+				candidate.remove(variable);
+				if (allSatisfied) {
+					return value;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Chooses the variable whose elimination generates the
+	 * least number of new constraints.
+	 */
+	private static <V> V chooseVariable(Set<Constraint<V>> constraints) {
+		final HashMap<V, long[]> counts = new HashMap<>();
+		for (Constraint<V> c : constraints) {
+			for (Entry<V, BigInteger> e : c.getCoefficients().entrySet()) {
+				final long[] count = counts.computeIfAbsent(e.getKey(), k -> new long[2]);
+				++count[e.getValue().signum() > 0 ? 0 : 1];
+			}
+		}
+		V retVal = null;
+		long best = Long.MAX_VALUE;
+		for (Entry<V, long[]> e : counts.entrySet()) {
+			final long[] count = e.getValue();
+			final long cost = count[0] * count[1] - count[0] - count[1];
+			if (cost < best) {
+				best = cost;
+				retVal = e.getKey();
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Combines a lower and an upper bound constraint on a
+	 * variable so that the variable is eliminated.
+	 */
+	private static <V> Constraint<V> combine(Constraint<V> lower, Constraint<V> upper, V variable) {
+		final BigInteger aLower = lower.getCoefficient(variable).negate(); //positive
+		final BigInteger aUpper = upper.getCoefficient(variable); //positive
+		final HashMap<V, BigInteger> coefficients = new HashMap<>(scale(lower.getCoefficients(), aUpper));
+		for (Entry<V, BigInteger> e : upper.getCoefficients().entrySet()) {
+			coefficients.merge(e.getKey(), e.getValue().multiply(aLower), BigInteger::add);
+		}
+		coefficients.remove(variable);
+		final BigInteger constant = lower.getConstant().multiply(aUpper).add(upper.getConstant().multiply(aLower));
+		return new Constraint<>(coefficients, constant, Kind.LE);
+	}
+
+	/**
+	 * Substitutes a variable in a constraint with its
+	 * definition, given by an equality where the variable
+	 * has coefficient 1 or -1.
+	 */
+	private static <V> Constraint<V> substitute(Constraint<V> c, V variable, Constraint<V> definition) {
+		final BigInteger a = c.getCoefficient(variable);
+		if (a.signum() == 0) {
+			return c;
+		}
+		//x == -(rest) * d, where d = coefficient of x in definition
+		final BigInteger factor = a.multiply(definition.getCoefficient(variable)).negate();
+		final HashMap<V, BigInteger> coefficients = new HashMap<>(c.getCoefficients());
+		coefficients.remove(variable);
+		for (Entry<V, BigInteger> e : definition.getCoefficients().entrySet()) {
+			if (!e.getKey().equals(variable)) {
+				coefficients.merge(e.getKey(), e.getValue().multiply(factor), BigInteger::add);
+			}
+		}
+		final BigInteger constant = c.getConstant().add(definition.getConstant().multiply(factor));
+		return new Constraint<>(coefficients, constant, c.getKind());
+	}
+
+	private static <V> BigInteger evaluateExcept(Constraint<V> c, Map<V, BigInteger> model, V variable) {
+		BigInteger retVal = c.getConstant();
+		for (Entry<V, BigInteger> e : c.getCoefficients().entrySet()) {
+			if (e.getKey().equals(variable)) {
+				continue;
+			}
+			final BigInteger value = model.get(e.getKey());
+			if (value == null) {
+				return null;
+			}
+			retVal = retVal.add(e.getValue().multiply(value));
+		}
+		return retVal;
+	}
+
+	private static <V> Map<V, BigInteger> scale(Map<V, BigInteger> coefficients, BigInteger factor) {
+		final LinkedHashMap<V, BigInteger> retVal = new LinkedHashMap<>();
+		for (Entry<V, BigInteger> e : coefficients.entrySet()) {
+			retVal.put(e.getKey(), e.getValue().multiply(factor));
+		}
+		return retVal;
+	}
+
+	private static <V> Map<V, BigInteger> divide(Map<V, BigInteger> coefficients, BigInteger divisor) {
+		final LinkedHashMap<V, BigInteger> retVal = new LinkedHashMap<>();
+		for (Entry<V, BigInteger> e : coefficients.entrySet()) {
+			retVal.put(e.getKey(), e.getValue().divide(divisor));
+		}
+		return retVal;
+	}
+
+	private static BigInteger floorDiv(BigInteger n, BigInteger d) {
+		final BigInteger[] qr = n.divideAndRemainder(d);
+		return (qr[1].signum() != 0 && (qr[1].signum() != d.signum()) ? qr[0].subtract(BigInteger.ONE) : qr[0]);
+	}
+
+	private static BigInteger ceilDiv(BigInteger n, BigInteger d) {
+		return floorDiv(n.negate(), d).negate();
+	}
+
+	/**
+	 * Partitions a set of constraints in the subsets that
+	 * (transitively) share variables with a given set of
+	 * variables.
+	 *
+	 * @param constraints a {@link Collection}{@code <}{@link Constraint}{@code <V>>}.
+	 * @param variables a {@link Set}{@code <V>}. It will be modified
+	 *        by adding all the variables of the returned constraints.
+	 * @return the {@link List}{@code <}{@link Constraint}{@code <V>>} of
+	 *         all the constraints in {@code constraints} that are
+	 *         connected to {@code variables}.
+	 */
+	static <V> List<Constraint<V>> slice(Collection<Constraint<V>> constraints, Set<V> variables) {
+		final ArrayList<Constraint<V>> retVal = new ArrayList<>();
+		final HashSet<Constraint<V>> toVisit = new HashSet<>(constraints);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Constraint<V> c : constraints) {
+				if (!toVisit.contains(c)) {
+					continue;
+				}
+				if (!Collections.disjoint(c.variables(), variables)) {
+					toVisit.remove(c);
+					retVal.add(c);
+					changed = variables.addAll(c.variables()) || changed;
+				}
+			}
+		}
+		return retVal;
+	}
+}
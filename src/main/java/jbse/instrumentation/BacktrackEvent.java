@@ -0,0 +1,45 @@
+package jbse.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event of a backtrack of the runner to the next 
+ * pending state to explore.
+ */
+@Name("jbse.Backtrack")
+@Label("Backtrack")
+@Category({"JBSE", "Engine"})
+@Description("A backtrack to the next pending state to explore")
+public final class BacktrackEvent extends Event {
+    @Label("Branches Popped")
+    @Description("The number of pending states popped, including the ones outside the explored region")
+    int branchesPopped;
+
+    @Label("Found")
+    @Description("Whether a pending state inside the explored region was found")
+    boolean found;
+
+    @Label("Branch Identifier")
+    @Description("The branch identifier of the state the runner backtracked to")
+    String branchIdentifier;
+
+    /**
+     * Sets the fields of this event and commits it.
+     * 
+     * @param branchesPopped an {@code int}, the number of popped pending states.
+     * @param found a {@code boolean}, whether a pending state inside the explored 
+     *        region was found.
+     * @param branchIdentifier a {@link String}, the branch identifier of the 
+     *        state the runner backtracked to, or {@code null}.
+     */
+    public void commit(int branchesPopped, boolean found, String branchIdentifier) {
+        this.branchesPopped = branchesPopped;
+        this.found = found;
+        this.branchIdentifier = branchIdentifier;
+        commit();
+    }
+}
@@ -0,0 +1,45 @@
+package jbse.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event of the loading of a class from the classpath
+ * of the symbolically executed program.
+ */
+@Name("jbse.ClassLoad")
+@Label("Class Load")
+@Category({"JBSE", "Classes"})
+@Description("The loading of a class from the classpath of the symbolically executed program")
+public final class ClassLoadEvent extends Event {
+    @Label("Class Name")
+    String className;
+
+    @Label("Defining Class Loader")
+    @Description("The identifier of the defining class loader")
+    int definingClassLoader;
+
+    @Label("Bytecode Size")
+    @DataAmount
+    int bytecodeSize;
+
+    /**
+     * Sets the fields of this event and commits it.
+     * 
+     * @param className a {@link String}, the name of the class.
+     * @param definingClassLoader an {@code int}, the identifier 
+     *        of the defining class loader.
+     * @param bytecodeSize an {@code int}, the size in bytes of the
+     *        classfile.
+     */
+    public void commit(String className, int definingClassLoader, int bytecodeSize) {
+        this.className = className;
+        this.definingClassLoader = definingClassLoader;
+        this.bytecodeSize = bytecodeSize;
+        commit();
+    }
+}
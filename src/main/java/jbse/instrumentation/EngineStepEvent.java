@@ -0,0 +1,42 @@
+package jbse.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event of a step of the symbolic execution engine.
+ */
+@Name("jbse.EngineStep")
+@Label("Engine Step")
+@Category({"JBSE", "Engine"})
+@Description("A step of the symbolic execution engine")
+public final class EngineStepEvent extends Event {
+    @Label("Opcode")
+    @Description("The mnemonic of the executed bytecode")
+    String opcode;
+
+    @Label("Method")
+    @Description("The signature of the method executing the bytecode")
+    String method;
+
+    @Label("Depth")
+    @Description("The size of the thread stack before the step")
+    int depth;
+
+    /**
+     * Sets the fields of this event and commits it.
+     * 
+     * @param opcode a {@link String}, the mnemonic of the executed bytecode.
+     * @param method a {@link String}, the signature of the method executing the bytecode.
+     * @param depth an {@code int}, the size of the thread stack before the step.
+     */
+    public void commit(String opcode, String method, int depth) {
+        this.opcode = opcode;
+        this.method = method;
+        this.depth = depth;
+        commit();
+    }
+}
@@ -0,0 +1,74 @@
+package jbse.instrumentation;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * The switch of the Java Flight Recorder events that JBSE emits 
+ * (see {@link EngineStepEvent}, {@link StateCloneEvent}, 
+ * {@link SolverQueryEvent}, {@link ClassLoadEvent} and 
+ * {@link BacktrackEvent}). The events are emitted only when 
+ * this switch is on <em>and</em> a flight recording that enables 
+ * them is running, e.g., one started with the 
+ * {@code -XX:StartFlightRecording} JVM option or with 
+ * {@code jcmd <pid> JFR.start}. When the switch is off the 
+ * event classes are never loaded, so JBSE also runs on 
+ * JVMs without the Java Flight Recorder. 
+ */
+public final class Instrumentation {
+    private static volatile boolean enabled = false;
+
+    /**
+     * Checks whether the running JVM supports the 
+     * Java Flight Recorder.
+     * 
+     * @return {@code true} iff the {@code jdk.jfr} 
+     *         API is available.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Instrumentation.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Switches the emission of the events on or off.
+     * 
+     * @param enabled a {@code boolean}, {@code true} to 
+     *        switch the emission on. If the JVM does not
+     *        support the Java Flight Recorder (see 
+     *        {@link #isSupported()}) the switch stays off.
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        if (enabled && !Instrumentation.enabled && isSupported()) {
+            FlightRecorder.register(EngineStepEvent.class);
+            FlightRecorder.register(StateCloneEvent.class);
+            FlightRecorder.register(SolverQueryEvent.class);
+            FlightRecorder.register(ClassLoadEvent.class);
+            FlightRecorder.register(BacktrackEvent.class);
+            Instrumentation.enabled = true;
+        } else if (!enabled) {
+            Instrumentation.enabled = false;
+        }
+    }
+
+    /**
+     * Checks whether the emission of the events is on. The 
+     * code that emits an event must invoke this method before
+     * creating the event.
+     * 
+     * @return {@code true} iff the emission is on.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private Instrumentation() {
+        //nothing to do
+    }
+}
@@ -0,0 +1,47 @@
+package jbse.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event of a satisfiability query to an external
+ * decision procedure.
+ */
+@Name("jbse.SolverQuery")
+@Label("Solver Query")
+@Category({"JBSE", "Decision Procedure"})
+@Description("A satisfiability query to an external decision procedure")
+public final class SolverQueryEvent extends Event {
+    @Label("Solver")
+    @Description("The command that launched the external decision procedure")
+    String solver;
+
+    @Label("Query Size")
+    @Description("The size of the text of the query")
+    @DataAmount
+    int querySize;
+
+    @Label("Satisfiable")
+    @Description("The result of the query")
+    boolean satisfiable;
+
+    /**
+     * Sets the fields of this event and commits it.
+     * 
+     * @param solver a {@link String}, the command that launched
+     *        the external decision procedure.
+     * @param querySize an {@code int}, the size in bytes of the 
+     *        text of the query.
+     * @param satisfiable a {@code boolean}, the result of the query.
+     */
+    public void commit(String solver, int querySize, boolean satisfiable) {
+        this.solver = solver;
+        this.querySize = querySize;
+        this.satisfiable = satisfiable;
+        commit();
+    }
+}
@@ -0,0 +1,49 @@
+package jbse.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The event of the cloning of a state.
+ */
+@Name("jbse.StateClone")
+@Label("State Clone")
+@Category({"JBSE", "Memory"})
+@Description("The cloning of a symbolic state")
+public final class StateCloneEvent extends Event {
+    @Label("Lazy")
+    @Description("Whether the heap and the static area are shared with the cloned state until written")
+    boolean lazy;
+
+    @Label("Frames Copied")
+    @Description("The number of copied thread stack frames")
+    int framesCopied;
+
+    @Label("Heap Objects Copied")
+    @Description("The number of copied heap objects, zero for a lazy clone")
+    int heapObjectsCopied;
+
+    @Label("Path Condition Clauses")
+    @Description("The number of clauses of the path condition")
+    int pathConditionClauses;
+
+    /**
+     * Sets the fields of this event and commits it.
+     * 
+     * @param lazy a {@code boolean}, whether the heap and the 
+     *        static area are shared with the cloned state until written.
+     * @param framesCopied an {@code int}, the number of copied thread stack frames.
+     * @param heapObjectsCopied an {@code int}, the number of copied heap objects.
+     * @param pathConditionClauses an {@code int}, the number of clauses of the path condition.
+     */
+    public void commit(boolean lazy, int framesCopied, int heapObjectsCopied, int pathConditionClauses) {
+        this.lazy = lazy;
+        this.framesCopied = framesCopied;
+        this.heapObjectsCopied = heapObjectsCopied;
+        this.pathConditionClauses = pathConditionClauses;
+        commit();
+    }
+}
@@ -10,6 +10,7 @@ import static jbse.bc.Opcodes.OP_INVOKESTATIC;
 import static jbse.bc.Opcodes.OP_INVOKEVIRTUAL;
 import static jbse.bc.Opcodes.OP_IRETURN;
 import static jbse.bc.Opcodes.OP_RETURN;
+import static jbse.bc.Opcodes.opcodeName;
 
 import java.util.Collection;
 
@@ -19,12 +20,15 @@ import jbse.algo.InterruptException;
 import jbse.algo.Action;
 import jbse.algo.Action_START;
 import jbse.algo.exc.CannotManageStateException;
+import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.ClasspathException;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.instrumentation.EngineStepEvent;
+import jbse.instrumentation.Instrumentation;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
@@ -105,6 +109,9 @@ public class Engine implements AutoCloseable {
      * in current method.
      */
     private int preStepStackSize;
+    
+    /** The number of post-initial steps since the last incremental garbage collection. */
+    private long stepsSinceGcIncremental = 0L;
 
     //Execution statistics
 
@@ -293,11 +300,30 @@ public class Engine implements AutoCloseable {
         	this.preStepSourceRow = (this.preStepStackSize == 0 ? -1 : this.currentState.getSourceRow());
 
         	//steps
+        	final Metrics metrics = this.ctx.getMetrics();
+        	if (metrics != null && !atLastPreInitialState) {
+        		metrics.countStep(this.currentState.getInstruction());
+        	}
+        	final EngineStepEvent stepEvent;
+        	final byte stepOpcode;
+        	final Signature stepMethod;
+        	if (Instrumentation.isEnabled() && !atLastPreInitialState) {
+        		stepEvent = new EngineStepEvent();
+        		stepOpcode = this.currentState.getInstruction();
+        		stepMethod = this.currentState.getCurrentMethodSignature();
+        		stepEvent.begin();
+        	} else {
+        		stepEvent = null;
+        		stepOpcode = 0;
+        		stepMethod = null;
+        	}
         	Action action = (atLastPreInitialState ? 
   				             this.ctx.dispatcher.selectInit() :
   				             this.ctx.dispatcher.select(this.currentState.getInstruction()));
         	boolean hasContinuation;
         	do {
+        		final Action executing = action;
+        		final long executionStart = (metrics == null ? 0L : System.nanoTime());
         		try {
         			action.exec(this.currentState, this.ctx);
         			hasContinuation = false;
@@ -312,8 +338,18 @@ public class Engine implements AutoCloseable {
         				UnexpectedInternalException e) {
         			stopCurrentPath();
         			throw e;
-        		} 
+        		} finally {
+        			if (metrics != null) {
+        				metrics.actionTime(executing.getClass()).record(System.nanoTime() - executionStart);
+        			}
+        		}
         	} while (hasContinuation);
+        	if (stepEvent != null) {
+        		stepEvent.end();
+        		if (stepEvent.shouldCommit()) {
+        			stepEvent.commit(opcodeName(stepOpcode), stepMethod.toString(), this.preStepStackSize);
+        		}
+        	}
 
         	//possibly gets information about symbolic references that were not expanded
         	if (action instanceof Algorithm<?, ?, ?, ?, ?>) {
@@ -349,11 +385,22 @@ public class Engine implements AutoCloseable {
         	}
 
         	//synchronizes the decision procedure with the current path condition
-        	if (this.currentState.areThereNewPathConditionClauses()) {
+        	if (this.currentState.wasPathConditionRewritten()) {
+        		this.ctx.decisionProcedure.setAssumptions(this.currentState.getPathCondition());
+        		this.currentState.resetLastPathConditionClauses();
+        	} else if (this.currentState.areThereNewPathConditionClauses()) {
         		this.ctx.decisionProcedure.addAssumptions(this.currentState.getLastPathConditionPushedClauses());
         		this.currentState.resetLastPathConditionClauses();
         	}
 
+        	//possibly collects the garbage
+        	final long gcIncrementalPeriod = this.ctx.getGcIncrementalPeriod();
+        	if (gcIncrementalPeriod > 0 && this.currentState.phase() == Phase.POST_INITIAL && 
+        	    ++this.stepsSinceGcIncremental >= gcIncrementalPeriod) {
+        		this.currentState.gcIncremental();
+        		this.stepsSinceGcIncremental = 0L;
+        	}
+
         	//notifies observers of variables
         	if (this.currentState.phase() == Phase.POST_INITIAL) {
         		this.vom.notifyObservers(retVal);
@@ -363,6 +410,9 @@ public class Engine implements AutoCloseable {
         	if (this.analyzedStates < Long.MAX_VALUE) { 
         		++this.analyzedStates;
         	}
+        	if (metrics != null) {
+        		metrics.histogram(Metrics.PENDING_STATES).record(this.ctx.stateTree.getNumOfStates());
+        	}
 
         	//returns
         	return retVal;
@@ -467,6 +517,9 @@ public class Engine implements AutoCloseable {
             throw new CannotBacktrackException();
         }
 
+        //the current path is ended
+        this.ctx.methodSummaries.onPathEnd(this.currentState, this.ctx.stateTree.getNumOfStates());
+
         final BranchPoint bp = this.ctx.stateTree.nextBranch();
         final boolean isLast = (getNumOfStatesAtBranch(bp) == 1);
 
@@ -591,12 +644,19 @@ public class Engine implements AutoCloseable {
     }
 
     /**
-     * Cleans up the decision procedure after the usage of the engine.
+     * Cleans up the decision procedure after the usage of the engine,
+     * and closes the class hierarchy of the current state.
      * 
      * @throws DecisionException when clean-up of decision procedure fails.
      */
     @Override
     public void close() throws DecisionException {
-        this.ctx.decisionProcedure.close();
+        try {
+            this.ctx.decisionProcedure.close();
+        } finally {
+            if (this.currentState != null) {
+                this.currentState.getClassHierarchy().close();
+            }
+        }
     }
 }
\ No newline at end of file
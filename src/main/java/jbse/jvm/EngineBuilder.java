@@ -92,6 +92,11 @@ public class EngineBuilder {
 	                               parameters.getStateIdentificationMode().toInternal(), 
 	                               parameters.getBreadthMode().toInternal(),
 	                               parameters.getTriggerRulesRepo());
+	        ctx.setUseArrayTheory(parameters.getUseArrayTheory());
+	        ctx.setGcIncrementalPeriod(parameters.getGcIncrementalPeriod());
+	        ctx.setClassFilePrefetch(parameters.getClassFilePrefetchThreads(), parameters.getClassFilePrefetchPackages());
+	        ctx.setMergeStatesAtLoops(parameters.getMergeStatesAtLoops());
+	        ctx.setMetrics(parameters.getMetrics());
 	
 	        //sets the meta-level directives
 	        setOverrides(ctx, parameters);
@@ -126,6 +131,10 @@ public class EngineBuilder {
                 // TODO manage the situation
 			}
         }
+        
+        for (String[] rule : parameters.getPure()) {
+            ctx.addPure(new Signature(rule[0], rule[1], rule[2]));
+        }
     }
 
     private static void setObservers(VariableObserverManager vom, EngineParameters parameters) {
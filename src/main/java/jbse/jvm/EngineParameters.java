@@ -40,7 +40,8 @@ import jbse.val.Calculator;
  * </ul>
  * </li>
  * <li>The signatures of the methods that must be treated as uninterpreted
- * functions, or for which there is a meta-level overriding implementation;</li>
+ * functions, that are pure and must be summarized, or for which there is 
+ * a meta-level overriding implementation;</li>
  * <li>The signatures of the trigger instrumentation methods plus the 
  * reference resolution events that fire them;</li> 
  * <li>A {@link StateIdentificationMode} and a {@link BreadthMode};</li>
@@ -223,6 +224,9 @@ public final class EngineParameters implements Cloneable {
     /** The methods to be handled as uninterpreted functions (patterns). */
     private ArrayList<String[]> uninterpretedPattern = new ArrayList<>();
 
+    /** The pure methods whose invocations must be summarized. */
+    private ArrayList<String[]> pure = new ArrayList<>();
+
     /**  
      * The signature of the method to be executed; overridden by {@code initialState}'s 
      * current method when {@code initialState != null}.
@@ -248,6 +252,34 @@ public final class EngineParameters implements Cloneable {
      * default JDK implementation of {@code java.util.HashMap}.
      */
     private boolean useHashMapModel = false;
+    
+    /**
+     * Whether the symbolic arrays with primitive members 
+     * must be represented with the theory of arrays.
+     */
+    private boolean useArrayTheory = false;
+    
+    /**
+     * The number of post-initial steps between two incremental
+     * garbage collections, {@code 0} for no incremental garbage 
+     * collection.
+     */
+    private long gcIncrementalPeriod = 0L;
+    
+    /**
+     * The number of background threads that read ahead 
+     * the classfiles, {@code 0} for no read ahead.
+     */
+    private int classFilePrefetchThreads = 0;
+    
+    /** The names of the packages whose classes must be read ahead. */
+    private ArrayList<String> classFilePrefetchPackages = new ArrayList<>();
+    
+    /** Whether the states at loop points must be merged. */
+    private boolean mergeStatesAtLoops = false;
+    
+    /** The {@link Metrics} to be updated, or {@code null}. */
+    private Metrics metrics = null;
 
     /**
      * Constructor.
@@ -968,6 +1000,44 @@ public final class EngineParameters implements Cloneable {
         return new ArrayList<>(this.uninterpretedPattern);
     }
 
+    /**
+     * Specifies that a method is pure, i.e., that its result only 
+     * depends on its parameters and that it has no side effects. 
+     * The paths of the first invocation of the method with symbolic 
+     * parameters are recorded as a summary, that is reused by the 
+     * subsequent invocations. Only static methods with primitive 
+     * parameters and primitive return type are summarized.
+     * 
+     * @param methodClassName the name of the class containing the method.
+     * @param methodDescriptor the descriptor of the method.
+     * @param methodName the name of the method.
+     * @throws NullPointerException if any of the above parameters is {@code null}.
+     */
+    public void addPure(String methodClassName, String methodDescriptor, String methodName) {
+        if (methodClassName == null || methodDescriptor == null || methodName == null) {
+            throw new NullPointerException();
+        }
+        this.pure.add(new String[] { methodClassName, methodDescriptor, methodName });
+    }
+
+    /**
+     * Clears the methods set with {@link #addPure(String, String, String) addPure}.
+     */
+    public void clearPure() {
+        this.pure.clear();
+    }
+
+    /**
+     * Returns the methods that must be treated as pure.
+     * 
+     * @return A {@link List}{@code <}{@link String}{@code []>}, 
+     *         where each array is a triple (method class name, 
+     *         method parameters, method name).
+     */
+    public List<String[]> getPure() {
+        return new ArrayList<>(this.pure);
+    }
+
     /**
      * Sets the signature of the method which must be symbolically executed, 
      * and cancels the effect of any previous call to {@link #setStartingState(State)}.
@@ -1080,7 +1150,9 @@ public final class EngineParameters implements Cloneable {
      * 
      * @param useHashMapModel a {@code boolean}. If {@code true} all
      *        the hash maps will be replaced by a model class that
-     *        is more symbolic-execution-friendly than {@code java.util.HashMap}.
+     *        is more symbolic-execution-friendly than {@code java.util.HashMap}, 
+     *        and all the hash sets will be replaced by a model class
+     *        that is backed by it.
      */
     public void setUseHashMapModel(boolean useHashMapModel) {
     	this.useHashMapModel = useHashMapModel;
@@ -1097,6 +1169,165 @@ public final class EngineParameters implements Cloneable {
     	return this.useHashMapModel;
     }
     
+    /**
+     * Sets whether the arrays with primitive (nonboolean) members
+     * that cannot be granted simple representation (see 
+     * {@link #setMaxSimpleArrayLength(int)}) must be represented
+     * as terms of the theory of arrays, rather than as lists of
+     * guarded entries. With the theory of arrays a load from
+     * the array yields a single {@code select} term, and the 
+     * case analysis on the index is left to the decision procedure, 
+     * that must support the theory of arrays. 
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+    	this.useArrayTheory = useArrayTheory;
+    }
+    
+    /**
+     * Returns whether the arrays with primitive members
+     * that cannot be granted simple representation must
+     * be represented as terms of the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+    	return this.useArrayTheory;
+    }
+    
+    /**
+     * Sets the number of post-initial steps between two 
+     * incremental garbage collections of the current state. 
+     * An incremental garbage collection disposes the unreachable 
+     * concrete objects created after the initial state, and 
+     * keeps all the symbolic objects and the objects in the 
+     * initial state. By default no incremental garbage 
+     * collection is performed.
+     * 
+     * @param gcIncrementalPeriod a {@code long}, {@code 0} 
+     *        (or less) means no incremental garbage collection.
+     */
+    public void setGcIncrementalPeriod(long gcIncrementalPeriod) {
+    	this.gcIncrementalPeriod = gcIncrementalPeriod;
+    }
+    
+    /**
+     * Returns the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * 
+     * @return a {@code long}, {@code 0} (or less) if no  
+     *         incremental garbage collection is performed.
+     */
+    public long getGcIncrementalPeriod() {
+    	return this.gcIncrementalPeriod;
+    }
+    
+    /**
+     * Sets the number of background threads that read and 
+     * parse ahead of time the classfiles that are likely to be 
+     * loaded soon, i.e., the classes referred by the constant 
+     * pools of the loaded classes and the classes in the packages 
+     * set with {@link #addClassFilePrefetchPackages(String...)}. 
+     * By default no classfile is read ahead.
+     * 
+     * @param classFilePrefetchThreads an {@code int}, {@code 0} 
+     *        (or less) means no read ahead.
+     */
+    public void setClassFilePrefetchThreads(int classFilePrefetchThreads) {
+    	this.classFilePrefetchThreads = classFilePrefetchThreads;
+    }
+    
+    /**
+     * Returns the number of background threads that read 
+     * ahead the classfiles.
+     * 
+     * @return an {@code int}, {@code 0} (or less) if no  
+     *         classfile is read ahead.
+     */
+    public int getClassFilePrefetchThreads() {
+    	return this.classFilePrefetchThreads;
+    }
+    
+    /**
+     * Adds packages whose classes must all be read ahead 
+     * when the classfiles are read ahead (see 
+     * {@link #setClassFilePrefetchThreads(int)}).
+     * 
+     * @param packageNames a varargs of {@link String}s, the
+     *        names of the packages with slashes as separators
+     *        (e.g., {@code "java/util"}).
+     * @throws NullPointerException if {@code packageNames == null}.
+     */
+    public void addClassFilePrefetchPackages(String... packageNames) {
+    	Collections.addAll(this.classFilePrefetchPackages, packageNames);
+    }
+    
+    /**
+     * Clears the packages set with {@link #addClassFilePrefetchPackages(String...)}.
+     */
+    public void clearClassFilePrefetchPackages() {
+    	this.classFilePrefetchPackages.clear();
+    }
+    
+    /**
+     * Returns the packages whose classes must all be read ahead.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     */
+    public List<String> getClassFilePrefetchPackages() {
+    	return new ArrayList<>(this.classFilePrefetchPackages);
+    }
+    
+    /**
+     * Sets whether the states at loop points must be merged. 
+     * The loop points are the targets of the backward jumps, 
+     * and the successors of the conditional jumps that are 
+     * either backward or at a loop point. When merging is 
+     * active, the pending states at the same loop point with 
+     * the same heap and frames, that differ only by the values 
+     * of the primitive local variables and operands of the 
+     * current frame and by their last numeric assumptions, are 
+     * merged into a single state. By default states are not merged.
+     * 
+     * @param mergeStatesAtLoops a {@code boolean}.
+     */
+    public void setMergeStatesAtLoops(boolean mergeStatesAtLoops) {
+    	this.mergeStatesAtLoops = mergeStatesAtLoops;
+    }
+    
+    /**
+     * Returns whether the states at loop points must be merged.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getMergeStatesAtLoops() {
+    	return this.mergeStatesAtLoops;
+    }
+    
+    /**
+     * Sets the {@link Metrics} that the engine must update 
+     * during symbolic execution. By default no metrics are
+     * collected. The {@link Metrics} is <em>not</em> cloned 
+     * when these parameters are cloned.
+     * 
+     * @param metrics a {@link Metrics}, or {@code null} 
+     *        for not collecting metrics.
+     */
+    public void setMetrics(Metrics metrics) {
+    	this.metrics = metrics;
+    }
+    
+    /**
+     * Returns the {@link Metrics} that the engine must update.
+     * 
+     * @return a {@link Metrics}, or {@code null} if no 
+     *         metrics must be collected.
+     */
+    public Metrics getMetrics() {
+    	return this.metrics;
+    }
+    
     /**
      * Returns a map of the model class substitutions.
      * 
@@ -1108,6 +1339,7 @@ public final class EngineParameters implements Cloneable {
     	final HashMap<String, String> retVal = new HashMap<>();
     	if (this.useHashMapModel) {
     		retVal.put("java/util/HashMap", "jbse/base/JAVA_MAP");
+    		retVal.put("java/util/HashSet", "jbse/base/JAVA_SET");
     	}
     	return retVal;
     }
@@ -1134,6 +1366,9 @@ public final class EngineParameters implements Cloneable {
         }
         o.metaOverridden = (ArrayList<String[]>) this.metaOverridden.clone();
         o.uninterpreted = (ArrayList<String[]>) this.uninterpreted.clone();
+        o.uninterpretedPattern = (ArrayList<String[]>) this.uninterpretedPattern.clone();
+        o.pure = (ArrayList<String[]>) this.pure.clone();
+        o.classFilePrefetchPackages = (ArrayList<String>) this.classFilePrefetchPackages.clone();
         return o;
     }
 }
@@ -0,0 +1,320 @@
+package jbse.jvm;
+
+import static jbse.bc.Opcodes.opcodeName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * A registry of counters and histograms that measure a symbolic
+ * execution. Counters and histograms are striped, so updating them
+ * is cheap also when many threads do it concurrently, and are
+ * identified by name. The registry also counts the steps performed
+ * for each opcode. The content of the registry can be dumped as JSON.
+ * This class is thread-safe.
+ */
+public final class Metrics {
+    /** Name of the histogram of the pending states after each step. */
+    public static final String PENDING_STATES = "engine.pendingStates";
+
+    /** Name of the histogram of the state clone times, in nanoseconds. */
+    public static final String STATE_CLONE_TIME = "state.clone.nanos";
+
+    /** Prefix of the names of the histograms of the action times, in nanoseconds. */
+    public static final String ACTION_TIME_PREFIX = "action.nanos.";
+
+    /** Prefix of the names of the histograms of the decision procedure stage latencies, in nanoseconds. */
+    public static final String SOLVER_TIME_PREFIX = "solver.nanos.";
+
+    /** Name of the histogram of the rewriting times, in nanoseconds. */
+    public static final String REWRITING_TIME = "rewriter.nanos";
+
+    /**
+     * A monotonic counter.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() { }
+
+        /**
+         * Increments this counter by one.
+         */
+        public void increment() {
+            this.value.increment();
+        }
+
+        /**
+         * Increments this counter.
+         *
+         * @param delta a {@code long}, the increment.
+         */
+        public void add(long delta) {
+            this.value.add(delta);
+        }
+
+        /**
+         * Returns the value of this counter.
+         *
+         * @return a {@code long}.
+         */
+        public long get() {
+            return this.value.sum();
+        }
+    }
+
+    /**
+     * A histogram of nonnegative {@code long} samples, with
+     * exponential buckets: Bucket 0 counts the samples that
+     * are {@code 0}, and bucket i &gt; 0 counts the samples
+     * in the interval [2<sup>i-1</sup>, 2<sup>i</sup>).
+     */
+    public static final class Histogram implements LongConsumer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+
+        private Histogram() {
+            for (int i = 0; i < this.buckets.length; ++i) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records a sample.
+         *
+         * @param sample a {@code long}. Negative samples
+         *        are recorded as {@code 0}.
+         */
+        public void record(long sample) {
+            final long s = Math.max(0L, sample);
+            this.count.increment();
+            this.sum.add(s);
+            this.max.accumulate(s);
+            this.buckets[Long.SIZE - Long.numberOfLeadingZeros(s)].increment();
+        }
+
+        /**
+         * Records a sample. Equivalent to {@link #record(long)}.
+         *
+         * @param sample a {@code long}.
+         */
+        @Override
+        public void accept(long sample) {
+            record(sample);
+        }
+
+        /**
+         * Returns the number of recorded samples.
+         *
+         * @return a {@code long}.
+         */
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        /**
+         * Returns the sum of the recorded samples.
+         *
+         * @return a {@code long}.
+         */
+        public long getSum() {
+            return this.sum.sum();
+        }
+
+        /**
+         * Returns the maximum recorded sample.
+         *
+         * @return a {@code long}, {@code 0} if
+         *         no sample was recorded.
+         */
+        public long getMax() {
+            return this.max.get();
+        }
+
+        private void toJson(StringBuilder sb) {
+            sb.append("{\"count\": ").append(getCount())
+            .append(", \"sum\": ").append(getSum())
+            .append(", \"max\": ").append(getMax())
+            .append(", \"buckets\": {");
+            boolean first = true;
+            for (int i = 0; i < this.buckets.length; ++i) {
+                final long n = this.buckets[i].sum();
+                if (n == 0) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                //the key is the (exclusive) upper bound of the bucket
+                sb.append('"').append(Long.toUnsignedString(1L << i)).append("\": ").append(n);
+            }
+            sb.append("}}");
+        }
+    }
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final LongAdder[] opcodeSteps = new LongAdder[256];
+    private final ClassValue<Histogram> actionTimes = new ClassValue<Histogram>() {
+        @Override
+        protected Histogram computeValue(Class<?> actionClass) {
+            final String simpleName = actionClass.getSimpleName();
+            return histogram(ACTION_TIME_PREFIX + (simpleName.isEmpty() ? actionClass.getName() : simpleName));
+        }
+    };
+
+    /**
+     * Constructor.
+     */
+    public Metrics() {
+        for (int i = 0; i < this.opcodeSteps.length; ++i) {
+            this.opcodeSteps[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns a counter, creating it if it does not exist.
+     *
+     * @param name a {@link String}, the name of the counter.
+     * @return the {@link Counter} with name {@code name}.
+     */
+    public Counter counter(String name) {
+        return this.counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Returns a histogram, creating it if it does not exist.
+     *
+     * @param name a {@link String}, the name of the histogram.
+     * @return the {@link Histogram} with name {@code name}.
+     */
+    public Histogram histogram(String name) {
+        return this.histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    /**
+     * Returns the histogram of the execution times of
+     * a class of actions.
+     *
+     * @param actionClass the {@link Class} of the action.
+     * @return the {@link Histogram} with name
+     *         {@link #ACTION_TIME_PREFIX}{@code  + actionClass.}{@link Class#getSimpleName() getSimpleName}{@code ()}.
+     */
+    public Histogram actionTime(Class<?> actionClass) {
+        return this.actionTimes.get(actionClass);
+    }
+
+    /**
+     * Counts a step.
+     *
+     * @param opcode a {@code byte}, the opcode of the
+     *        executed bytecode.
+     */
+    public void countStep(byte opcode) {
+        this.opcodeSteps[opcode & 0xFF].increment();
+    }
+
+    /**
+     * Returns the number of steps performed for an opcode.
+     *
+     * @param opcode a {@code byte}, an opcode.
+     * @return a {@code long}.
+     */
+    public long getSteps(byte opcode) {
+        return this.opcodeSteps[opcode & 0xFF].sum();
+    }
+
+    /**
+     * Returns the content of this registry as JSON. The
+     * returned object has members {@code "steps"} (the
+     * number of steps for each opcode), {@code "counters"}
+     * and {@code "histograms"}. Each histogram has members
+     * {@code "count"}, {@code "sum"}, {@code "max"} and
+     * {@code "buckets"}; The latter maps the (exclusive) upper
+     * bound of each nonempty bucket to its number of samples.
+     *
+     * @return a {@link String}.
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder("{\n  \"steps\": {");
+        boolean first = true;
+        for (int i = 0; i < this.opcodeSteps.length; ++i) {
+            final long n = this.opcodeSteps[i].sum();
+            if (n == 0) {
+                continue;
+            }
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            final String name = opcodeName((byte) i);
+            appendString(sb, name.startsWith("<") ? name + i : name).append(": ").append(n);
+        }
+        sb.append("\n  },\n  \"counters\": {");
+        first = true;
+        for (Map.Entry<String, Counter> e : new TreeMap<>(this.counters).entrySet()) {
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            appendString(sb, e.getKey()).append(": ").append(e.getValue().get());
+        }
+        sb.append("\n  },\n  \"histograms\": {");
+        first = true;
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(this.histograms).entrySet()) {
+            sb.append(first ? "\n    " : ",\n    ");
+            first = false;
+            appendString(sb, e.getKey()).append(": ");
+            e.getValue().toJson(sb);
+        }
+        sb.append("\n  }\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes the content of this registry as JSON
+     * (see {@link #toJson()}) to a file. The file is
+     * replaced atomically, where the file system allows it,
+     * so it can be read while the execution goes on.
+     *
+     * @param file the {@link Path} of the file.
+     * @throws IOException if writing fails.
+     */
+    public void writeJson(Path file) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        final Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, toJson().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static StringBuilder appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+}
@@ -1,14 +1,14 @@
 package jbse.jvm;
 
-import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_COMPACT;
-import static jbse.val.HistoryPoint.BRANCH_IDENTIFIER_SEPARATOR_LONG;
-
 import java.util.Map;
+import java.util.function.LongSupplier;
 
 import jbse.algo.exc.CannotManageStateException;
 import jbse.common.exc.ClasspathException;
 import jbse.dec.exc.DecisionBacktrackException;
 import jbse.dec.exc.DecisionException;
+import jbse.instrumentation.BacktrackEvent;
+import jbse.instrumentation.Instrumentation;
 import jbse.jvm.exc.CannotBacktrackException;
 import jbse.jvm.exc.EngineStuckException;
 import jbse.jvm.exc.FailureException;
@@ -18,6 +18,7 @@ import jbse.mem.State.Phase;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.tree.StateTree.BranchPoint;
+import jbse.val.HistoryPoint;
 
 /**
  * Class implementing an algorithm for fully running a Java method by suitably 
@@ -26,6 +27,26 @@ import jbse.tree.StateTree.BranchPoint;
  * @author Pietro Braione
  */
 public class Runner {
+    /**
+     * The budgets of a path.
+     */
+    public enum PathBudget {
+        /** The maximum number of steps. */
+        STEPS,
+
+        /** The maximum time. */
+        TIME,
+
+        /** The minimum speed. */
+        SPEED,
+
+        /** The maximum time spent by the decision procedure. */
+        SOLVER_TIME
+    }
+
+    /** The length, in milliseconds, of the windows where the speed of a path is measured. */
+    private static final long PATH_SPEED_WINDOW_MILLIS = 1000L;
+
     /**
      * Class collecting the actions to be performed at specific situations 
      * while a method is run; the actions invoked by a {@link Runner} in the 
@@ -132,6 +153,17 @@ public class Runner {
          */
         public boolean atScopeExhaustionCount() { return false; }
 
+        /**
+         * Invoked by a {@link Runner}'s {@link Runner#run run} method 
+         * whenever after a step the current path exceeds one of its 
+         * budgets, and is thus abandoned.
+         * 
+         * @param budget the exceeded {@link PathBudget}.
+         * @return {@code true} iff the {@link Runner} must stop
+         *         {@link Runner#run run}ning.
+         */
+        public boolean atPathBudgetExhaustion(PathBudget budget) { return false; }
+
         /**
          * Invoked by a {@link Runner}'s {@link Runner#run run} method 
          * whenever execution times out.
@@ -393,6 +425,12 @@ public class Runner {
     /** The identifier of the branch state in the state space subregion we want to explore (null for everything). */
     private String identifierSubregion;
 
+    /** The {@link HistoryPoint} of the last state checked against {@link #identifierSubregion}. */
+    private HistoryPoint lastCheckedHistoryPoint;
+
+    /** Whether {@link #lastCheckedHistoryPoint} is in the subregion. */
+    private boolean lastCheckedInSubregion;
+
     /** The heap scope. */
     private final Map<String, Integer> heapScope;
 
@@ -405,12 +443,51 @@ public class Runner {
     /** The timeout. */
     private long timeout;
 
+    /** The maximum number of steps of a path. */
+    private final long pathStepBudget;
+
+    /** The maximum time of a path. */
+    private final long pathTimeBudget;
+
+    /** The minimum speed of a path, in states per second. */
+    private final long pathMinSpeed;
+
+    /** The maximum time spent by the decision procedure on a path. */
+    private final long pathSolverTimeBudget;
+
+    /** The clock of the decision procedure. */
+    private final LongSupplier solverClock;
+
+    /** Whether some path budget must be checked. */
+    private final boolean checkPathBudgets;
+
+    /** Whether some path budget needs to read the clock. */
+    private final boolean checkPathClock;
+
+    /** The steps of the current path. */
+    private long pathSteps;
+
+    /** The time when the current path started. */
+    private long pathStartTime;
+
+    /** The time when the current speed window of the current path started. */
+    private long pathSpeedWindowStartTime;
+
+    /** The steps of the current path when the current speed window started. */
+    private long pathSpeedWindowStartSteps;
+
+    /** The decision procedure time when the current path started. */
+    private long pathSolverStartTime;
+
     /** Counter for the total number of analyzed paths. */
     private long pathsTot;
 
     /** Counter for the number of analyzed paths stopped because of scope exhaustion. */
     private long pathsOutOfScope;
 
+    /** Counter for the number of analyzed paths abandoned because of budget exhaustion. */
+    private long pathsAbandoned;
+
     /** Stores the start time. */
     private long startTime;
 
@@ -434,6 +511,17 @@ public class Runner {
      *        mapping class names with their respective scopes ({@code <= 0} means unlimited).
      * @param depthScope the depth scope, an {@code int} ({@code <= 0} means unlimited).
      * @param countScope the count scope, an  {@code int}({@code <= 0} means unlimited).
+     * @param pathStepBudget the maximum number of steps of a path, a {@code long}
+     *        ({@code <= 0} means unlimited).
+     * @param pathTimeBudget the maximum time of a path in milliseconds, a {@code long}
+     *        ({@code <= 0} means unlimited).
+     * @param pathMinSpeed the minimum speed of a path in states per second, a {@code long}
+     *        ({@code <= 0} means no minimum).
+     * @param pathSolverTimeBudget the maximum time spent by the decision procedure on a path
+     *        in milliseconds, a {@code long} ({@code <= 0} means unlimited).
+     * @param solverClock a {@link LongSupplier} of the total time spent by the decision
+     *        procedure in milliseconds, or {@code null} (in which case {@code pathSolverTimeBudget}
+     *        is ignored).
      */
     Runner(Engine engine, 
            Actions actions, 
@@ -441,7 +529,12 @@ public class Runner {
            long timeout, 
            Map<String, Integer> heapScope, 
            int depthScope, 
-           int countScope) {
+           int countScope, 
+           long pathStepBudget, 
+           long pathTimeBudget, 
+           long pathMinSpeed, 
+           long pathSolverTimeBudget, 
+           LongSupplier solverClock) {
         this.engine = engine;
         this.actions = actions;
         this.actions.engine = engine;
@@ -450,8 +543,16 @@ public class Runner {
         this.heapScope = heapScope;
         this.depthScope = depthScope;
         this.countScope = countScope;
+        this.pathStepBudget = pathStepBudget;
+        this.pathTimeBudget = pathTimeBudget;
+        this.pathMinSpeed = pathMinSpeed;
+        this.pathSolverTimeBudget = (solverClock == null ? 0 : pathSolverTimeBudget);
+        this.solverClock = solverClock;
+        this.checkPathClock = (this.pathTimeBudget > 0 || this.pathMinSpeed > 0 || this.pathSolverTimeBudget > 0);
+        this.checkPathBudgets = (this.pathStepBudget > 0 || this.checkPathClock);
         this.pathsOutOfScope = 0;
         this.pathsTot = 0;
+        this.pathsAbandoned = 0;
     }
     
     public Engine getEngine() {
@@ -462,13 +563,12 @@ public class Runner {
         if (this.identifierSubregion == null) {
             return true;
         }
-        final String currentRegion = this.engine.getCurrentState().getBranchIdentifier();
-        final boolean retVal = (this.identifierSubregion.equals(currentRegion) ||
-                                currentRegion.startsWith(this.identifierSubregion + BRANCH_IDENTIFIER_SEPARATOR_COMPACT) || 
-                                currentRegion.startsWith(this.identifierSubregion + BRANCH_IDENTIFIER_SEPARATOR_LONG) || 
-                                this.identifierSubregion.startsWith(currentRegion + BRANCH_IDENTIFIER_SEPARATOR_COMPACT) ||
-                                this.identifierSubregion.startsWith(currentRegion + BRANCH_IDENTIFIER_SEPARATOR_LONG));
-        return retVal;
+        final HistoryPoint current = this.engine.getCurrentState().getHistoryPoint();
+        if (this.lastCheckedHistoryPoint == null || !this.lastCheckedHistoryPoint.sameBranch(current)) {
+            this.lastCheckedHistoryPoint = current;
+            this.lastCheckedInSubregion = current.branchPrefixRelated(this.identifierSubregion);
+        }
+        return this.lastCheckedInSubregion;
     }
 
     private boolean outOfScope() {
@@ -496,6 +596,55 @@ public class Runner {
         return retVal;
     }
 
+    private void startPath() {
+        if (!this.checkPathBudgets) {
+            return;
+        }
+        this.pathSteps = 0;
+        if (this.checkPathClock) {
+            this.pathStartTime = this.pathSpeedWindowStartTime = System.currentTimeMillis();
+            this.pathSpeedWindowStartSteps = 0;
+            this.pathSolverStartTime = (this.pathSolverTimeBudget > 0 ? this.solverClock.getAsLong() : 0);
+        }
+    }
+
+    /**
+     * Accounts a step to the current path and checks 
+     * its budgets, unless the path is at its end. 
+     * 
+     * @return the {@link PathBudget} exceeded by the
+     *         current path, or {@code null} if the current
+     *         path exceeded no budget.
+     */
+    private PathBudget exceededPathBudget() {
+        if (!this.checkPathBudgets || !this.engine.canStep() || this.engine.getCurrentState().phase() != Phase.POST_INITIAL) {
+            return null;
+        }
+        ++this.pathSteps;
+        if (this.pathStepBudget > 0 && this.pathSteps > this.pathStepBudget) {
+            return PathBudget.STEPS;
+        }
+        if (!this.checkPathClock) {
+            return null;
+        }
+        final long now = System.currentTimeMillis();
+        if (this.pathTimeBudget > 0 && now - this.pathStartTime > this.pathTimeBudget) {
+            return PathBudget.TIME;
+        }
+        if (this.pathMinSpeed > 0 && now - this.pathSpeedWindowStartTime >= PATH_SPEED_WINDOW_MILLIS) {
+            final long speed = (this.pathSteps - this.pathSpeedWindowStartSteps) * 1000 / (now - this.pathSpeedWindowStartTime);
+            if (speed < this.pathMinSpeed) {
+                return PathBudget.SPEED;
+            }
+            this.pathSpeedWindowStartTime = now;
+            this.pathSpeedWindowStartSteps = this.pathSteps;
+        }
+        if (this.pathSolverTimeBudget > 0 && this.solverClock.getAsLong() - this.pathSolverStartTime > this.pathSolverTimeBudget) {
+            return PathBudget.SOLVER_TIME;
+        }
+        return null;
+    }
+
     /**
      * Runs the method.
      * 
@@ -532,11 +681,13 @@ public class Runner {
         //performs the symbolic execution loop
         while (true) {
             if (this.actions.atPathStart()) { return; }
+            startPath();
 
             //explores the path
             while (this.engine.canStep() && currentStateIsInRunSubregion()) {
                 if (this.engine.atInitialState()) {
                     if (this.actions.atInitial()) { return; }
+                    startPath();
                 }
                 if (this.engine.currentMethodChanged()) {
                     if (this.actions.atMethodPre()) { return; }
@@ -586,6 +737,13 @@ public class Runner {
                     if (outOfScopeCount()) {
                         if (this.actions.atScopeExhaustionCount()) { return; }
                     }
+                } else {
+                    final PathBudget exceeded = exceededPathBudget();
+                    if (exceeded != null) {
+                        ++this.pathsAbandoned;
+                        this.engine.stopCurrentPath();
+                        if (this.actions.atPathBudgetExhaustion(exceeded)) { return; }
+                    }
                 }
 
                 if (this.timeout > 0) {
@@ -618,9 +776,15 @@ public class Runner {
 
                 BranchPoint bp = null;
                 boolean found = false;
+                final BacktrackEvent backtrackEvent = (Instrumentation.isEnabled() ? new BacktrackEvent() : null);
+                int branchesPopped = 0;
+                if (backtrackEvent != null) {
+                    backtrackEvent.begin();
+                }
                 try {
                     do {
                         bp = this.engine.backtrack();
+                        ++branchesPopped;
                         found = currentStateIsInRunSubregion();
                     } while (!found && this.engine.canBacktrack());
                 } catch (DecisionBacktrackException e) {
@@ -628,6 +792,12 @@ public class Runner {
                 } catch (CannotBacktrackException e) {
                     if (this.actions.atCannotBacktrackException(e)) { return; }
                 } finally {
+                    if (backtrackEvent != null) {
+                        backtrackEvent.end();
+                        if (backtrackEvent.shouldCommit()) {
+                            backtrackEvent.commit(branchesPopped, found, (found ? this.engine.getCurrentState().getBranchIdentifier() : null));
+                        }
+                    }
                     if (this.actions.atBacktrackFinally()) { return; }
                 }
                 if (found) {
@@ -684,5 +854,15 @@ public class Runner {
     public long getPathsOutOfScope() {
         return this.pathsOutOfScope;
     }
+
+    /**
+     * Returns the total number of paths abandoned because
+     * they exceeded their budgets until its invocation.
+     * 
+     * @return a {@code long}.
+     */
+    public long getPathsAbandoned() {
+        return this.pathsAbandoned;
+    }
 }
 
@@ -56,7 +56,8 @@ public class RunnerBuilder {
 		this.engine = this.eb.build(parameters.getEngineParameters());
 		return new Runner(this.engine, parameters.getActions(), parameters.getIdentifierSubregion(), 
 				parameters.getTimeout(), parameters.getHeapScope(), parameters.getDepthScope(), 
-				parameters.getCountScope());
+				parameters.getCountScope(), parameters.getPathStepBudget(), parameters.getPathTimeBudget(), 
+				parameters.getPathMinSpeed(), parameters.getPathSolverTimeBudget(), parameters.getSolverClock());
 	}
 	
 	/**
@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
@@ -48,6 +49,21 @@ public final class RunnerParameters implements Cloneable {
     /** The timeout. */
     private long timeout = 0;
 
+    /** The maximum number of steps of a path. */
+    private long pathStepBudget = 0;
+
+    /** The maximum time of a path, in milliseconds. */
+    private long pathTimeBudget = 0;
+
+    /** The minimum speed of a path, in states per second. */
+    private long pathMinSpeed = 0;
+
+    /** The maximum time spent by the decision procedure on a path, in milliseconds. */
+    private long pathSolverTimeBudget = 0;
+
+    /** Supplies the total time spent by the decision procedure, in milliseconds. */
+    private LongSupplier solverClock = null;
+
     /** The depth scope. */
     private int depthScope = 0;
 
@@ -706,6 +722,41 @@ public final class RunnerParameters implements Cloneable {
     	return this.engineParameters.getUninterpretedPattern();
     }
 
+    /**
+     * Specifies that a method is pure, i.e., that its result only 
+     * depends on its parameters and that it has no side effects. 
+     * The paths of the first invocation of the method with symbolic 
+     * parameters are recorded as a summary, that is reused by the 
+     * subsequent invocations. Only static methods with primitive 
+     * parameters and primitive return type are summarized.
+     * 
+     * @param methodClassName the name of the class containing the method.
+     * @param methodDescriptor the descriptor of the method.
+     * @param methodName the name of the method.
+     * @throws NullPointerException if any of the above parameters is {@code null}.
+     */
+    public void addPure(String methodClassName, String methodDescriptor, String methodName) {
+        this.engineParameters.addPure(methodClassName, methodDescriptor, methodName);
+    }
+
+    /**
+     * Clears the methods set with {@link #addPure(String, String, String) addPure}.
+     */
+    public void clearPure() {
+        this.engineParameters.clearPure();
+    }
+
+    /**
+     * Returns the methods that must be treated as pure.
+     * 
+     * @return A {@link List}{@code <}{@link String}{@code []>}, 
+     *         where each array is a triple (method class name, 
+     *         method parameters, method name).
+     */
+    public List<String[]> getPure() {
+        return this.engineParameters.getPure();
+    }
+
     /**
      * Sets the signature of the method which must be symbolically executed, 
      * and cancels the effect of any previous call to {@link #setStartingState(State)}.
@@ -804,7 +855,9 @@ public final class RunnerParameters implements Cloneable {
      * 
      * @param useHashMapModel a {@code boolean}. If {@code true} all
      *        the hash maps will be replaced by a model class that
-     *        is more symbolic-execution-friendly than {@code java.util.HashMap}.
+     *        is more symbolic-execution-friendly than {@code java.util.HashMap}, 
+     *        and all the hash sets will be replaced by a model class
+     *        that is backed by it.
      */
     public void setUseHashMapModel(boolean useHashMapModel) {
     	this.engineParameters.setUseHashMapModel(useHashMapModel);
@@ -820,6 +873,142 @@ public final class RunnerParameters implements Cloneable {
     public boolean getUseHashMapModel() {
     	return this.engineParameters.getUseHashMapModel();
     }
+    
+    /**
+     * Sets whether the arrays with primitive (nonboolean) members
+     * that cannot be granted simple representation must be 
+     * represented as terms of the theory of arrays.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     * @see EngineParameters#setUseArrayTheory(boolean)
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+    	this.engineParameters.setUseArrayTheory(useArrayTheory);
+    }
+    
+    /**
+     * Returns whether the arrays with primitive members
+     * that cannot be granted simple representation must
+     * be represented as terms of the theory of arrays.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getUseArrayTheory() {
+    	return this.engineParameters.getUseArrayTheory();
+    }
+    
+    /**
+     * Sets the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * 
+     * @param gcIncrementalPeriod a {@code long}, {@code 0} 
+     *        (or less) means no incremental garbage collection.
+     * @see EngineParameters#setGcIncrementalPeriod(long)
+     */
+    public void setGcIncrementalPeriod(long gcIncrementalPeriod) {
+    	this.engineParameters.setGcIncrementalPeriod(gcIncrementalPeriod);
+    }
+    
+    /**
+     * Returns the number of post-initial steps between two 
+     * incremental garbage collections of the current state.
+     * 
+     * @return a {@code long}.
+     */
+    public long getGcIncrementalPeriod() {
+    	return this.engineParameters.getGcIncrementalPeriod();
+    }
+    
+    /**
+     * Sets the number of background threads that read and 
+     * parse ahead of time the classfiles that are likely to 
+     * be loaded soon.
+     * 
+     * @param classFilePrefetchThreads an {@code int}, {@code 0} 
+     *        (or less) means no read ahead.
+     * @see EngineParameters#setClassFilePrefetchThreads(int)
+     */
+    public void setClassFilePrefetchThreads(int classFilePrefetchThreads) {
+    	this.engineParameters.setClassFilePrefetchThreads(classFilePrefetchThreads);
+    }
+    
+    /**
+     * Returns the number of background threads that read 
+     * ahead the classfiles.
+     * 
+     * @return an {@code int}.
+     */
+    public int getClassFilePrefetchThreads() {
+    	return this.engineParameters.getClassFilePrefetchThreads();
+    }
+    
+    /**
+     * Adds packages whose classes must all be read ahead.
+     * 
+     * @param packageNames a varargs of {@link String}s, the
+     *        names of the packages with slashes as separators.
+     * @throws NullPointerException if {@code packageNames == null}.
+     * @see EngineParameters#addClassFilePrefetchPackages(String...)
+     */
+    public void addClassFilePrefetchPackages(String... packageNames) {
+    	this.engineParameters.addClassFilePrefetchPackages(packageNames);
+    }
+    
+    /**
+     * Clears the packages set with {@link #addClassFilePrefetchPackages(String...)}.
+     */
+    public void clearClassFilePrefetchPackages() {
+    	this.engineParameters.clearClassFilePrefetchPackages();
+    }
+    
+    /**
+     * Returns the packages whose classes must all be read ahead.
+     * 
+     * @return a {@link List}{@code <}{@link String}{@code >}.
+     */
+    public List<String> getClassFilePrefetchPackages() {
+    	return this.engineParameters.getClassFilePrefetchPackages();
+    }
+    
+    /**
+     * Sets whether the states at loop points must be merged.
+     * 
+     * @param mergeStatesAtLoops a {@code boolean}.
+     * @see EngineParameters#setMergeStatesAtLoops(boolean)
+     */
+    public void setMergeStatesAtLoops(boolean mergeStatesAtLoops) {
+    	this.engineParameters.setMergeStatesAtLoops(mergeStatesAtLoops);
+    }
+    
+    /**
+     * Returns whether the states at loop points must be merged.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean getMergeStatesAtLoops() {
+    	return this.engineParameters.getMergeStatesAtLoops();
+    }
+    
+    /**
+     * Sets the {@link Metrics} that the engine must update 
+     * during symbolic execution.
+     * 
+     * @param metrics a {@link Metrics}, or {@code null} 
+     *        for not collecting metrics.
+     * @see EngineParameters#setMetrics(Metrics)
+     */
+    public void setMetrics(Metrics metrics) {
+    	this.engineParameters.setMetrics(metrics);
+    }
+    
+    /**
+     * Returns the {@link Metrics} that the engine must update.
+     * 
+     * @return a {@link Metrics}, or {@code null}.
+     */
+    public Metrics getMetrics() {
+    	return this.engineParameters.getMetrics();
+    }
 
     /**
      * Sets a timeout for execution.
@@ -848,6 +1037,124 @@ public final class RunnerParameters implements Cloneable {
         return this.timeout;
     }
 
+    /**
+     * Sets the maximum number of steps of a path. The paths
+     * that exceed it are abandoned. Only the steps in the 
+     * post-initial phase, and for the paths resumed by a 
+     * backtrack only the steps after the backtrack, are counted.
+     * 
+     * @param pathStepBudget a {@code long}, the maximum number 
+     *        of steps ({@code <= 0} means unlimited, the default).
+     */
+    public void setPathStepBudget(long pathStepBudget) { 
+        this.pathStepBudget = pathStepBudget;
+    }
+
+    /**
+     * Gets the maximum number of steps of a path.
+     * 
+     * @return a {@code long}, the maximum number of 
+     *         steps ({@code <= 0} means unlimited).
+     */
+    public long getPathStepBudget() {
+        return this.pathStepBudget;
+    }
+
+    /**
+     * Sets the maximum time of a path. The paths that 
+     * exceed it are abandoned. The time is measured as 
+     * the step budget (see {@link #setPathStepBudget(long)}). 
+     * 
+     * @param time a {@code long}, the amount of time 
+     *        ({@code <= 0} means unlimited, the default).
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setPathTimeBudget(long time, TimeUnit timeUnit) { 
+        this.pathTimeBudget = timeUnit.toMillis(time);
+    }
+
+    /**
+     * Gets the maximum time of a path.
+     * 
+     * @return a {@code long}, the time in milliseconds 
+     *         ({@code <= 0} means unlimited).
+     */
+    public long getPathTimeBudget() {
+        return this.pathTimeBudget;
+    }
+
+    /**
+     * Sets the minimum speed of a path. The speed of the 
+     * current path is measured once per second, and the 
+     * path is abandoned if, in the last second, it was 
+     * slower than the minimum. 
+     * 
+     * @param pathMinSpeed a {@code long}, the minimum speed 
+     *        in states per second ({@code <= 0} means no 
+     *        minimum, the default).
+     */
+    public void setPathMinSpeed(long pathMinSpeed) { 
+        this.pathMinSpeed = pathMinSpeed;
+    }
+
+    /**
+     * Gets the minimum speed of a path.
+     * 
+     * @return a {@code long}, the minimum speed in states 
+     *         per second ({@code <= 0} means no minimum).
+     */
+    public long getPathMinSpeed() {
+        return this.pathMinSpeed;
+    }
+
+    /**
+     * Sets the maximum time the decision procedure may spend 
+     * on a path. The paths that exceed it are abandoned. It 
+     * has effect only if a solver clock is set (see
+     * {@link #setSolverClock(LongSupplier)}).
+     * 
+     * @param time a {@code long}, the amount of time 
+     *        ({@code <= 0} means unlimited, the default).
+     * @param timeUnit the {@link TimeUnit} of {@code time}.
+     */
+    public void setPathSolverTimeBudget(long time, TimeUnit timeUnit) { 
+        this.pathSolverTimeBudget = timeUnit.toMillis(time);
+    }
+
+    /**
+     * Gets the maximum time the decision procedure 
+     * may spend on a path.
+     * 
+     * @return a {@code long}, the time in milliseconds 
+     *         ({@code <= 0} means unlimited).
+     */
+    public long getPathSolverTimeBudget() {
+        return this.pathSolverTimeBudget;
+    }
+
+    /**
+     * Sets the clock of the decision procedure, that
+     * is used to enforce the decision procedure time 
+     * budget of the paths.
+     * 
+     * @param solverClock a {@link LongSupplier} that supplies 
+     *        the total time spent by the decision procedure 
+     *        since the start, in milliseconds, or {@code null}.
+     */
+    public void setSolverClock(LongSupplier solverClock) { 
+        this.solverClock = solverClock;
+    }
+
+    /**
+     * Gets the clock of the decision procedure.
+     * 
+     * @return a {@link LongSupplier}, or {@code null}
+     *         if no clock was set.
+     */
+    public LongSupplier getSolverClock() {
+        return this.solverClock;
+    }
+
     /**
      * Sets a limited heap scope for the objects of a given class. 
      * The heap scope is the maximum number of objects of a given class 
@@ -237,6 +237,27 @@ public interface Array extends HeapObjekt {
      */
     boolean hasSimpleRep();
 
+    /**
+     * Checks whether the array content is represented by a 
+     * single term of the theory of arrays.
+     * 
+     * @return {@code true} iff the array has a theory representation.
+     *         In this case {@link #entries()} and {@link #values()}
+     *         are empty, and the content of the array is 
+     *         {@link #getTheoryContents()}.
+     */
+    boolean hasTheoryRep();
+
+    /**
+     * Returns the content of the array when it has a theory 
+     * representation.
+     * 
+     * @return a {@link Primitive}, the term of the theory of 
+     *         arrays representing the array content if 
+     *         {@link #hasTheoryRep()}, otherwise {@code null}.
+     */
+    Primitive getTheoryContents();
+
     /**
      * Checks whether the array is simple.
      * 
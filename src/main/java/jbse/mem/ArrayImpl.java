@@ -1,6 +1,7 @@
 package jbse.mem;
 
 import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.BOOLEAN;
 import static jbse.common.Type.INT;
 import static jbse.common.Type.NULLREF;
 import static jbse.common.Type.REFERENCE;
@@ -13,9 +14,11 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -28,6 +31,7 @@ import jbse.val.Primitive;
 import jbse.val.Reference;
 import jbse.val.ReferenceArrayImmaterial;
 import jbse.val.ReferenceSymbolic;
+import jbse.val.PrimitiveSymbolicApply;
 import jbse.val.Simplex;
 import jbse.val.Term;
 import jbse.val.Value;
@@ -43,6 +47,12 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ArrayImpl extends HeapObjektImpl implements Array {
+    /** 
+     * Caches the layouts of the fields of the arrays (i.e., the 
+     * sole length field), by array class name.
+     */
+    private static final ConcurrentHashMap<String, FieldLayout> LENGTH_LAYOUTS = new ConcurrentHashMap<>();
+    
     /*Fields*/
 
     /** The conventional term used for indicating the array's index. */
@@ -72,6 +82,22 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
      * This is possible only if {@code this.length} is a {@link Simplex}.
      */ 
     private boolean simpleRep;
+    
+    /**
+     * Indicates whether the array has a theory representation, i.e., 
+     * whether its content is represented by a single term of the 
+     * theory of arrays ({@code this.theoryContents}). In this case
+     * {@code this.entries} is empty. 
+     */
+    private boolean theoryRep;
+    
+    /**
+     * The content of the array when it has a theory representation, 
+     * as a {@link PrimitiveSymbolicApply} of one of the 
+     * {@link PrimitiveSymbolicApply#ARRAY_CONST ARRAY_*} operators, 
+     * otherwise {@code null}. 
+     */
+    private Primitive theoryContents;
 
     public abstract class AccessOutcomeImpl implements AccessOutcome {
         /** 
@@ -347,6 +373,10 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
         }
     }
 
+    private static FieldLayout lengthLayout(ClassFile classFile) {
+        return LENGTH_LAYOUTS.computeIfAbsent(classFile.getClassName(), className -> new FieldLayout(0, new Signature(className, "" + INT, "length")));
+    }
+
     /**
      * Constructor.
      * 
@@ -372,12 +402,15 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
      *        the initial state.
      * @param maxSimpleArrayLength an {@code int}, the maximum length an array may have
      *        to be granted simple representation.
+     * @param useArrayTheory a {@code boolean}, {@code true} iff the array, if it
+     *        has primitive (nonboolean) members and is not granted simple 
+     *        representation, must be represented with the theory of arrays.
      * @throws InvalidInputException iff {@code (initSymbolic && !symbolic) || (isInitial && !symbolic)}. 
      * @throws InvalidTypeException iff {@code classFile} is invalid. 
      */
-    public ArrayImpl(Calculator calc, boolean symbolic, boolean initSymbolic, Value initValue, Primitive length, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean isInitial, int maxSimpleArrayLength) 
+    public ArrayImpl(Calculator calc, boolean symbolic, boolean initSymbolic, Value initValue, Primitive length, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean isInitial, int maxSimpleArrayLength, boolean useArrayTheory) 
     throws InvalidInputException, InvalidTypeException {
-        super(calc, symbolic, classFile, origin, epoch, false, 0, new Signature(classFile.getClassName(), "" + INT, "length"));
+        super(calc, symbolic, classFile, origin, epoch, false, lengthLayout(classFile));
         if (initSymbolic && !symbolic) {
         	throw new InvalidInputException("Attempted creation of a concrete array with symbolic initialization.");
         }
@@ -388,7 +421,7 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
             throw new InvalidTypeException("Attempted creation of an array with type " + classFile.getClassName());
         }
         this.isInitial = isInitial;
-        this.lengthSignature = new Signature(classFile.getClassName(), "" + INT, "length");
+        this.lengthSignature = lengthLayout(classFile).get(0);
         try {
             this.indexFormal = calc.valTerm(INT, INDEX_ID);
         } catch (InvalidTypeException e) {
@@ -405,6 +438,17 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
             throw new UnexpectedInternalException(e);
         }
         setEntriesInit(calc, initSymbolic, initValue, maxSimpleArrayLength);
+        final char memberType = getArrayMemberType(classFile.getClassName()).charAt(0);
+        if (useArrayTheory && !this.simpleRep && isPrimitive(memberType) && memberType != BOOLEAN) {
+            this.theoryRep = true;
+            if (initSymbolic) {
+                this.theoryContents = calc.applyFunctionPrimitiveAndPop(memberType, epoch, PrimitiveSymbolicApply.ARRAY_INITIAL, origin);
+            } else {
+                final Value entryValue = (initValue == null ? calc.valDefault(memberType) : initValue);
+                this.theoryContents = calc.applyFunctionPrimitiveAndPop(memberType, epoch, PrimitiveSymbolicApply.ARRAY_CONST, entryValue);
+            }
+            this.entries.clear();
+        }
     }
 
     /**
@@ -420,17 +464,17 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
      * @throws NullPointerException if {@code otherArray == null}.
      */
     public ArrayImpl(Calculator calc, Reference referenceToOtherArray, ArrayImpl otherArray) throws InvalidInputException {
-        super(calc, otherArray.isSymbolic(), otherArray.classFile, otherArray.getOrigin(), otherArray.historyPoint(), false, 0, new Signature(otherArray.classFile.getClassName(), "" + INT, "length"));
+        super(calc, otherArray.isSymbolic(), otherArray.classFile, otherArray.getOrigin(), otherArray.historyPoint(), false, lengthLayout(otherArray.classFile));
         //TODO assert other is an initial symbolic array
         this.isInitial = false;
-        this.lengthSignature = new Signature(this.classFile.getClassName(), "" + INT, "length");
+        this.lengthSignature = lengthLayout(this.classFile).get(0);
         try {
             this.indexFormal = calc.valTerm(INT, INDEX_ID);
         } catch (InvalidTypeException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
         }
-        this.fields.get(this.lengthSignature).setValue(otherArray.getLength());
+        setFieldValue(this.lengthSignature, otherArray.getLength());
         try {
             final Expression indexGreaterEqualZero = (Expression) calc.push(indexFormal).ge(calc.valInt(0)).pop();
             final Expression indexLessThanLength = (Expression) calc.push(indexFormal).lt(getLength()).pop();
@@ -439,8 +483,104 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
             //this should never happen
             throw new UnexpectedInternalException(e);
         }
-        this.entries = new ArrayList<>();
-        this.entries.add(new AccessOutcomeInInitialArrayImpl(calc, this.indexInRange, referenceToOtherArray));
+        if (otherArray.theoryRep) {
+            //the content of the initial array is immutable, so it can be shared
+            this.theoryRep = true;
+            this.theoryContents = otherArray.theoryContents;
+            this.entries = new ArrayList<>();
+        } else {
+            this.entries = new ArrayList<>();
+            this.entries.add(new AccessOutcomeInInitialArrayImpl(calc, this.indexInRange, referenceToOtherArray));
+        }
+    }
+    
+    /**
+     * Selects a member of an array with theory representation.
+     * 
+     * @param calc a {@link Calculator}.
+     * @param contents a {@link Primitive}, a content of this array 
+     *        (either the current one or one of its ancestors).
+     * @param index a {@link Primitive}, the access index.
+     * @return a {@link Primitive}, the member of {@code contents} 
+     *         at {@code index}. It is simplified by skipping the
+     *         updates to {@code contents} that surely do not 
+     *         affect {@code index}, and the updates that surely 
+     *         affect it are resolved.
+     * @throws InvalidTypeException never.
+     * @throws InvalidInputException never.
+     */
+    private Primitive select(Calculator calc, Primitive contents, Primitive index) 
+    throws InvalidInputException, InvalidTypeException {
+        Primitive current = contents;
+        Primitive currentIndex = index;
+        while (true) {
+            final PrimitiveSymbolicApply apply = (PrimitiveSymbolicApply) current;
+            final Value[] args = apply.getArgs();
+            final String operator = apply.getOperator();
+            if (PrimitiveSymbolicApply.ARRAY_CONST.equals(operator)) {
+                return (Primitive) args[0];
+            } else if (PrimitiveSymbolicApply.ARRAY_STORE.equals(operator)) {
+                final Primitive storeIndex = (Primitive) args[1];
+                if (storeIndex.equals(currentIndex)) {
+                    return (Primitive) args[2];
+                } else if (storeIndex instanceof Simplex && currentIndex instanceof Simplex) {
+                    current = (Primitive) args[0];
+                    continue;
+                }
+            } else if (PrimitiveSymbolicApply.ARRAY_COPY.equals(operator)) {
+                final Primitive srcPos = (Primitive) args[2];
+                final Primitive destPos = (Primitive) args[3];
+                final Primitive length = (Primitive) args[4];
+                if (currentIndex instanceof Simplex && destPos instanceof Simplex && length instanceof Simplex) {
+                    final int indexInt = ((Integer) ((Simplex) currentIndex).getActualValue()).intValue();
+                    final int destPosInt = ((Integer) ((Simplex) destPos).getActualValue()).intValue();
+                    final int lengthInt = ((Integer) ((Simplex) length).getActualValue()).intValue();
+                    if (indexInt < destPosInt || indexInt >= destPosInt + lengthInt) {
+                        current = (Primitive) args[0];
+                        continue;
+                    } else if (srcPos instanceof Simplex) {
+                        final int srcPosInt = ((Integer) ((Simplex) srcPos).getActualValue()).intValue();
+                        current = (Primitive) args[1];
+                        currentIndex = calc.valInt(indexInt - destPosInt + srcPosInt);
+                        continue;
+                    }
+                }
+            }
+            //ARRAY_INITIAL, or an update that possibly (but not surely) affects currentIndex
+            return calc.applyFunctionPrimitiveAndPop(apply.getType(), historyPoint(), PrimitiveSymbolicApply.ARRAY_SELECT, current, currentIndex);
+        }
+    }
+    
+    /**
+     * Returns the content of this array as a term of the theory 
+     * of arrays.
+     * 
+     * @param calc a {@link Calculator}.
+     * @return a {@link Primitive}, {@code this.theoryContents} if this
+     *         array has theory representation, otherwise a term built
+     *         from its entries.
+     * @throws InvalidInputException if this array has not theory
+     *         representation, and it has not simple representation 
+     *         or it has some member that is not a known value.
+     * @throws InvalidTypeException never.
+     */
+    private Primitive theoryContents(Calculator calc) throws InvalidInputException, InvalidTypeException {
+        if (this.theoryRep) {
+            return this.theoryContents;
+        }
+        final char memberType = getArrayMemberType(this.classFile.getClassName()).charAt(0);
+        if (!this.simpleRep || !isPrimitive(memberType) || memberType == BOOLEAN) {
+            throw new InvalidInputException("Attempted to represent with the theory of arrays an array that has not simple representation or that has nonprimitive members.");
+        }
+        Primitive retVal = calc.applyFunctionPrimitiveAndPop(memberType, historyPoint(), PrimitiveSymbolicApply.ARRAY_CONST, calc.valDefault(memberType));
+        for (int i = 0; i < this.entries.size(); ++i) {
+            final AccessOutcomeIn e = this.entries.get(i);
+            if (!(e instanceof AccessOutcomeInValue) || ((AccessOutcomeInValue) e).getValue() == null) {
+                throw new InvalidInputException("Attempted to represent with the theory of arrays an array with some unknown member.");
+            }
+            retVal = calc.applyFunctionPrimitiveAndPop(memberType, historyPoint(), PrimitiveSymbolicApply.ARRAY_STORE, retVal, calc.valInt(i), ((AccessOutcomeInValue) e).getValue());
+        }
+        return retVal;
     }
 
     private void setEntriesInit(Calculator calc, boolean initSymbolic, Value initValue, int maxSimpleArrayLength) {
@@ -502,6 +642,16 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
         return this.simpleRep;
     }
 
+    @Override
+    public boolean hasTheoryRep() {
+        return this.theoryRep;
+    }
+
+    @Override
+    public Primitive getTheoryContents() {
+        return this.theoryContents;
+    }
+
     @Override
     public boolean isSimple() {
         if (hasSimpleRep()) {
@@ -547,7 +697,28 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
         final Primitive inRange = inRange(calc, index);
 
         //builds the answer
-        if (hasSimpleRep() && index instanceof Simplex) { 
+        if (this.theoryRep) {
+            //the theory case, there is only one inbound case
+            if (inRange.surelyTrue()) {
+                retVal.add(new AccessOutcomeInValueImpl(select(calc, this.theoryContents, index)));
+                return retVal;
+            } else if (!inRange.surelyFalse()) {
+                retVal.add(new AccessOutcomeInValueImpl(this.indexInRange, select(calc, this.theoryContents, index)));
+            }
+            
+            //manages the out-of-bounds case (same as below)
+            final Primitive outOfRange = outOfRange(calc, index);
+            if (outOfRange.surelyTrue()) {
+                retVal.add(new AccessOutcomeOutImpl());
+            } else if (!outOfRange.surelyFalse()) {
+                try {
+                    retVal.add(new AccessOutcomeOutImpl((Expression) calc.push(this.indexInRange).not().pop()));
+                } catch (InvalidOperandException e) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(e);
+                }
+            }
+        } else if (hasSimpleRep() && index instanceof Simplex) { 
             //the fast case, access this.values directly by index			
             if (inRange.surelyTrue()) {
                 final int indexInt = (Integer) ((Simplex) index).getActualValue();
@@ -661,6 +832,14 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
             throw new InvalidTypeException("Attempted array access with an index with type " + index.getType() + ".");
         }
         checkSetValue(newValue);
+        if (this.theoryRep) {
+            if (newValue == null) {
+                throw new InvalidInputException("Attempted to set an unknown value in an array represented with the theory of arrays.");
+            }
+            final char memberType = this.theoryContents.getType();
+            this.theoryContents = calc.applyFunctionPrimitiveAndPop(memberType, historyPoint(), PrimitiveSymbolicApply.ARRAY_STORE, this.theoryContents, index, newValue);
+            return;
+        }
         this.simpleRep = false;
 		try {
 	        final Expression formalIndexIsActualIndex = (Expression) calc.push(this.indexFormal).eq(index).pop();
@@ -683,6 +862,10 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
         if (calc == null || index == null) {
             throw new InvalidInputException("Attempted array access with null calc or index.");
         }
+        if (this.theoryRep) {
+            //the update is recorded in the content, no entry needs to be constrained 
+            return EMPTY_ITERATOR;
+        }
         return new Iterator<AccessOutcomeIn>() {
             //this iterator filters the relevant members in Array.this.values
             //by wrapping the default iterator to it
@@ -773,6 +956,15 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     	if (!this.classFile.equals(otherImpl.classFile)) {
     		throw new InvalidTypeException("tried to clone entries of a " + otherImpl.classFile + " array into a " + this.classFile + " array");
     	}
+    	if (otherImpl.theoryRep) {
+    		this.theoryRep = true;
+    		this.simpleRep = false;
+    		this.theoryContents = otherImpl.theoryContents;
+    		this.entries.clear();
+    		return;
+    	}
+    	this.theoryRep = false;
+    	this.theoryContents = null;
     	this.entries.clear();
     	for (AccessOutcomeInImpl entry : otherImpl.entries) {
     		final AccessOutcomeInImpl entryClone = entry.clone();
@@ -809,7 +1001,16 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     	final String srcTypeComponent = getArrayMemberType(src.getType().getClassName());
     	final String destTypeComponent = getArrayMemberType(getType().getClassName());
     	try {
-    		if (this.simpleRep && srcImpl.simpleRep && 
+    		if (this.theoryRep || srcImpl.theoryRep) {
+    			//the theory case (arrays with primitive members, so no assignment compatibility check)
+    			final Primitive srcContents = srcImpl.theoryContents(calc);
+    			final Primitive destContents = theoryContents(calc);
+    			this.theoryContents = calc.applyFunctionPrimitiveAndPop(destContents.getType(), historyPoint(), PrimitiveSymbolicApply.ARRAY_COPY, destContents, srcContents, srcPos, destPos, length);
+    			this.theoryRep = true;
+    			this.simpleRep = false;
+    			this.entries.clear();
+    			return EMPTY_ITERATOR;
+    		} else if (this.simpleRep && srcImpl.simpleRep && 
     				srcPos instanceof Simplex && destPos instanceof Simplex && 
     				length instanceof Simplex) {
     			//fast operation
@@ -943,6 +1144,9 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     	String str = "[Type:" + this.classFile + ", Length:" + this.getLength().toString() + ", Elements: {";
     	boolean firstEntryPassed = false;
     	final StringBuilder buf = new StringBuilder();
+    	if (this.theoryRep) {
+    		buf.append(this.theoryContents.toString());
+    	}
     	for (AccessOutcomeIn e : this.entries) {
     		if (firstEntryPassed) {
     			buf.append(", ");
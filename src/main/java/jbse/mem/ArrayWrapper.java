@@ -57,6 +57,16 @@ final class ArrayWrapper extends HeapObjektWrapper<ArrayImpl> implements Array {
         return getDelegate().hasSimpleRep();
     }
 
+    @Override
+    public boolean hasTheoryRep() {
+        return getDelegate().hasTheoryRep();
+    }
+
+    @Override
+    public Primitive getTheoryContents() {
+        return getDelegate().getTheoryContents();
+    }
+
     @Override
     public boolean isSimple() {
         return getDelegate().isSimple();
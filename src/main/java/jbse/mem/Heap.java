@@ -1,5 +1,10 @@
 package jbse.mem;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -142,15 +147,15 @@ final class Heap implements Cloneable {
     }
     
     private TreeSet<Long> filledPositions() {
-    	final TreeSet<Long> retVal = new TreeSet<>();
-    	for (long pos : this.objects.keySet()) {
-    		if (this.objects.get(pos) != null) {
-    			retVal.add(pos);
+    	//a local null masks whatever the delegate stores at the same position
+    	final TreeSet<Long> retVal = (this.delegate == null ? new TreeSet<>() : this.delegate.filledPositions());
+    	for (Map.Entry<Long, HeapObjekt> entry : this.objects.entrySet()) {
+    		if (entry.getValue() == null) {
+    			retVal.remove(entry.getKey());
+    		} else {
+    			retVal.add(entry.getKey());
     		}
     	}
-    	if (this.delegate != null) {
-    		retVal.addAll(this.delegate.filledPositions());
-    	}
     	return retVal;
     }
     
@@ -174,7 +179,13 @@ final class Heap implements Cloneable {
      */
     SortedMap<Long, Objekt> getObjects() {
     	makeAllWrappers();
-        return new TreeMap<>(this.objects);
+    	final TreeMap<Long, Objekt> retVal = new TreeMap<>();
+    	for (Map.Entry<Long, HeapObjekt> entry : this.objects.entrySet()) {
+    		if (entry.getValue() != null) {
+    			retVal.put(entry.getKey(), entry.getValue());
+    		}
+    	}
+        return retVal;
     }    
 
     /**
@@ -189,18 +200,121 @@ final class Heap implements Cloneable {
     /**
      * Deletes objects from this heap.
      * 
-     * @param exceptPos a {@link Set}{@code <}{@link Long}{@code >}.
-     *        The objects at positions in {@code except}
-     *        will not be deleted, all the remaining objects
-     *        will.
+     * @param marked a {@link BitSet}. The objects at the 
+     *        positions whose bits are set in {@code marked}
+     *        will not be deleted.
+     * @param fromPos a {@code long}. The objects at positions
+     *        less than {@code fromPos} will not be deleted.
+     * @param onlyConcrete a {@code boolean}. If {@code true}, 
+     *        the symbolic and the initial objects will not 
+     *        be deleted. 
+     * @return an {@code int}, the number of deleted objects.
      */
-    void disposeExcept(Set<Long> exceptPos) {
-        for (long pos : filledPositions()) {
-            if (exceptPos.contains(pos)) {
+    int disposeUnmarked(BitSet marked, long fromPos, boolean onlyConcrete) {
+        int disposed = 0;
+        for (long pos : filledPositions().tailSet(fromPos)) {
+            if (pos > Integer.MAX_VALUE || marked.get((int) pos)) {
+                //marked, or cannot be marked and thus conservatively kept
                 continue;
             }
+            if (onlyConcrete) {
+                final HeapObjektImpl o = getTheRealThing(pos);
+                if (o.isSymbolic() || o.isInitial()) {
+                    continue;
+                }
+            }
             this.objects.put(pos, null);
+            ++disposed;
+        }
+        return disposed;
+    }
+    
+    /**
+     * Returns the positions of the objects that
+     * {@link #disposeUnmarked(BitSet, long, boolean)} never
+     * disposes, whether they are marked or not.
+     * 
+     * @param fromPos a {@code long}, as in 
+     *        {@link #disposeUnmarked(BitSet, long, boolean)}.
+     * @param onlyConcrete a {@code boolean}, as in 
+     *        {@link #disposeUnmarked(BitSet, long, boolean)}.
+     * @return a {@link List}{@code <}{@link Long}{@code >}.
+     */
+    List<Long> undisposablePositions(long fromPos, boolean onlyConcrete) {
+        final TreeSet<Long> filled = filledPositions();
+        final ArrayList<Long> retVal = new ArrayList<>(filled.headSet(fromPos));
+        if (onlyConcrete) {
+            for (long pos : filled.tailSet(fromPos)) {
+                final HeapObjektImpl o = getTheRealThing(pos);
+                if (o.isSymbolic() || o.isInitial()) {
+                    retVal.add(pos);
+                }
+            }
+        }
+        return retVal;
+    }
+    
+    /**
+     * Returns the position where the next 
+     * new object will be stored.
+     * 
+     * @return a {@code long}.
+     */
+    long getNextPosition() {
+        return this.nextIndex;
+    }
+
+    /**
+     * Checks whether this heap stores the very same objects
+     * at the very same positions as another heap. The
+     * check only inspects the positions that were set by
+     * the two heaps after their last common ancestor in
+     * the delegation chains.
+     *
+     * @param other a {@link Heap}.
+     * @return {@code true} iff {@code this} and {@code other}
+     *         have the same filled positions, and at each of
+     *         them they store the same object (not a copy of
+     *         it). If {@code this} and {@code other} have
+     *         no common ancestor, it conservatively returns
+     *         {@code false}.
+     */
+    boolean sameObjectsAs(Heap other) {
+        if (this.nextIndex != other.nextIndex) {
+            return false;
+        }
+
+        //finds the last common ancestor
+        final Set<Heap> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Heap h = this; h != null; h = h.delegate) {
+            ancestors.add(h);
+        }
+        Heap common = other;
+        while (common != null && !ancestors.contains(common)) {
+            common = common.delegate;
+        }
+        if (common == null) {
+            return false;
+        }
+
+        //compares the positions set after the common ancestor
+        final TreeSet<Long> positions = new TreeSet<>();
+        for (Heap h = this; h != common; h = h.delegate) {
+            positions.addAll(h.objects.keySet());
+        }
+        for (Heap h = other; h != common; h = h.delegate) {
+            positions.addAll(h.objects.keySet());
+        }
+        for (long pos : positions) {
+            final boolean exists = existsAt(pos);
+            if (exists != other.existsAt(pos)) {
+                return false;
+            }
+            if (exists && getTheRealThing(pos) != other.getTheRealThing(pos)) {
+                return false;
+            }
         }
+        return true;
     }
 
     Heap lazyClone() {
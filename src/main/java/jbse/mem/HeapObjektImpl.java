@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.HistoryPoint;
 import jbse.val.ReferenceSymbolic;
@@ -26,12 +26,11 @@ public abstract class HeapObjektImpl extends ObjektImpl implements HeapObjekt {
      * @param staticFields {@code true} if this object stores
      *        the static fields, {@code false} if this object stores
      *        the object (nonstatic) fields.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this object knows.
+     * @param fieldLayout a {@link FieldLayout}, the layout of all
+     *        the fields this object knows.
      */
-    protected HeapObjektImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean staticFields, int numOfStaticFields, Signature... fieldSignatures) {
-    	super(calc, symbolic, classFile, origin, epoch, staticFields, numOfStaticFields, fieldSignatures);
+    protected HeapObjektImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean staticFields, FieldLayout fieldLayout) {
+    	super(calc, symbolic, classFile, origin, epoch, staticFields, fieldLayout);
     }
     
     abstract HeapObjektWrapper<? extends HeapObjektImpl> makeWrapper(Heap destinationHeap, long destinationPosition);
@@ -3,6 +3,7 @@ package jbse.mem;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.val.Calculator;
@@ -31,14 +32,13 @@ public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
      * @param origin the {@link ReferenceSymbolic} providing origin of 
      *        the {@code Instance}, if symbolic, or {@code null}, if concrete.
      * @param epoch the creation {@link HistoryPoint} of this {@link InstanceImpl}. 
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this instance knows.
+     * @param fieldLayout a {@link FieldLayout}, the layout of all
+     *        the fields this instance knows.
      * @throws InvalidTypeException iff {@code classFile} is invalid. 
      */
-    protected InstanceImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, int numOfStaticFields, Signature... fieldSignatures) 
+    protected InstanceImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, FieldLayout fieldLayout) 
     throws InvalidTypeException {
-        super(calc, symbolic, classFile, origin, epoch, false, numOfStaticFields, fieldSignatures);
+        super(calc, symbolic, classFile, origin, epoch, false, fieldLayout);
         if (classFile == null || !classFile.isReference()) {
             throw new InvalidTypeException("Attempted creation of an instance with type " + classFile.getClassName() + ".");
         }
@@ -67,7 +67,7 @@ public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
         buf.append(this.classFile);
         buf.append(", Fields:{");
         boolean isFirst = true;
-        for (Map.Entry<Signature, Variable> e : this.fields.entrySet()) {
+        for (Map.Entry<Signature, Variable> e : fields().entrySet()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -81,9 +81,6 @@ public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
     
     @Override
     public InstanceImpl clone() {
-        final InstanceImpl o = (InstanceImpl) super.clone();
-        o.fields = fieldsDeepCopy();
-        
-        return o;
+        return (InstanceImpl) super.clone();
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.HistoryPoint;
 import jbse.val.ReferenceSymbolic;
@@ -27,14 +27,13 @@ public final class InstanceImpl_DEFAULT extends InstanceImpl {
      * @param origin the {@link ReferenceSymbolic} providing origin of 
      *        the {@code Instance}, if symbolic, or {@code null}, if concrete.
      * @param epoch the creation {@link HistoryPoint} of this {@link InstanceImpl_DEFAULT}. 
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this instance knows.
+     * @param fieldLayout a {@link FieldLayout}, the layout of all
+     *        the fields this instance knows.
      * @throws InvalidTypeException iff {@code classFile} is invalid. 
      */
-    protected InstanceImpl_DEFAULT(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, int numOfStaticFields, Signature... fieldSignatures) 
+    protected InstanceImpl_DEFAULT(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, FieldLayout fieldLayout) 
     throws InvalidTypeException {
-        super(calc, symbolic, classFile, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, symbolic, classFile, origin, epoch, fieldLayout);
     }
 
 	@Override
@@ -44,9 +43,6 @@ public final class InstanceImpl_DEFAULT extends InstanceImpl {
     
     @Override
     public InstanceImpl_DEFAULT clone() {
-        final InstanceImpl_DEFAULT o = (InstanceImpl_DEFAULT) super.clone();
-        o.fields = fieldsDeepCopy();
-        
-        return o;
+        return (InstanceImpl_DEFAULT) super.clone();
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package jbse.mem;
 import static jbse.bc.Signatures.JAVA_CLASS;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.val.Calculator;
@@ -21,9 +22,9 @@ public final class InstanceImpl_JAVA_CLASS extends InstanceImpl implements Insta
     /** The signers of this class. Mutable. */
     private ReferenceConcrete signers;
     
-    protected InstanceImpl_JAVA_CLASS(Calculator calc, ClassFile cf_JAVA_CLASS, ReferenceSymbolic origin, HistoryPoint epoch, ClassFile representedClass, int numOfStaticFields, Signature... fieldSignatures) 
+    protected InstanceImpl_JAVA_CLASS(Calculator calc, ClassFile cf_JAVA_CLASS, ReferenceSymbolic origin, HistoryPoint epoch, ClassFile representedClass, FieldLayout fieldLayout) 
     throws InvalidTypeException {
-        super(calc, false, cf_JAVA_CLASS, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, false, cf_JAVA_CLASS, origin, epoch, fieldLayout);
         if (cf_JAVA_CLASS == null || !JAVA_CLASS.equals(cf_JAVA_CLASS.getClassName())) {
             throw new InvalidTypeException("Attempted creation of an instance of java.lang.Class with type " + classFile.getClassName());
         }
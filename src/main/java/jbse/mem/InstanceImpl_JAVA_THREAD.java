@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.common.exc.InvalidInputException;
 import jbse.val.Calculator;
 import jbse.val.HistoryPoint;
@@ -16,9 +16,9 @@ public final class InstanceImpl_JAVA_THREAD extends InstanceImpl implements Inst
     /** The interruption state of the thread. */
     private boolean interrupted;
     
-    protected InstanceImpl_JAVA_THREAD(Calculator calc, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, int numOfStaticFields, Signature... fieldSignatures) 
+    protected InstanceImpl_JAVA_THREAD(Calculator calc, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, FieldLayout fieldLayout) 
     throws InvalidTypeException {
-        super(calc, false, classFile, origin, epoch, numOfStaticFields, fieldSignatures);
+        super(calc, false, classFile, origin, epoch, fieldLayout);
         if (classFile == null) {
             throw new InvalidTypeException("Attempted creation of an instance of a subclass of java.lang.Thread with type null.");
         }
@@ -1,7 +1,7 @@
 package jbse.mem;
 
 import jbse.bc.ClassFile;
-import jbse.bc.Signature;
+import jbse.bc.FieldLayout;
 import jbse.val.Calculator;
 import jbse.val.HistoryPoint;
 import jbse.val.KlassPseudoReference;
@@ -23,12 +23,11 @@ public final class KlassImpl extends ObjektImpl implements Klass {
      * @param origin a {@link KlassPseudoReference} if this {@link KlassImpl}
      *        exists in the initial state, otherwise {@code null}.
      * @param epoch the creation {@link HistoryPoint} of this {@link KlassImpl}.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this object knows.
+     * @param fieldLayout a {@link FieldLayout}, the layout of all
+     *        the fields this object knows.
      */
-    KlassImpl(Calculator calc, boolean symbolic, KlassPseudoReference origin, HistoryPoint epoch, int numOfStaticFields, Signature... fieldSignatures) {
-        super(calc, symbolic, null, origin, epoch, true, numOfStaticFields, fieldSignatures);
+    KlassImpl(Calculator calc, boolean symbolic, KlassPseudoReference origin, HistoryPoint epoch, FieldLayout fieldLayout) {
+        super(calc, symbolic, null, origin, epoch, true, fieldLayout);
         this.initialized = false;
     }
 
@@ -48,9 +47,6 @@ public final class KlassImpl extends ObjektImpl implements Klass {
 
     @Override
     public KlassImpl clone() {
-        final KlassImpl o = (KlassImpl) super.clone();
-        o.fields = fieldsDeepCopy();
-
-        return o;
+        return (KlassImpl) super.clone();
     }
 }
@@ -12,11 +12,6 @@ import static jbse.common.Type.NULLREF;
 import static jbse.common.Type.TYPEEND;
 import static jbse.common.Type.UNKNOWN;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-
 import jbse.bc.LocalVariableTable;
 import jbse.bc.LocalVariableTable.Row;
 import jbse.mem.exc.InvalidSlotException;
@@ -24,14 +19,19 @@ import jbse.val.DefaultValue;
 import jbse.val.Value;
 
 /**
- * Class representing a local variable memory area.
+ * Class representing a local variable memory area. It is
+ * backed by an array with one element per slot.
  */
 class LocalVariablesArea implements Cloneable {
     /** The local variable table for the method. */
     private final LocalVariableTable lvt;
 
-    /** Values in the memory area, accessible by slot. */
-    private SortedMap<Integer, Value> values = new TreeMap<Integer, Value>();
+    /** 
+     * Values in the memory area, accessible by slot 
+     * ({@code null} for the slots that were not written). 
+     * Not final because of clone().
+     */
+    private Value[] values;
 
     /**
      * Constructor.
@@ -40,6 +40,7 @@ class LocalVariablesArea implements Cloneable {
      */
     LocalVariablesArea(LocalVariableTable lvt) {
         this.lvt = lvt;
+        this.values = new Value[lvt.getSlots()];
         //initializes all the local variables by using args
         //until exhaustion, then DefaultValue
     }
@@ -104,11 +105,11 @@ class LocalVariablesArea implements Cloneable {
         }
 
         if (nslots == 2) {
-            this.values.remove(slot + 1);
+            this.values[slot + 1] = null;
         }
 
         //stores val at slot
-        this.values.put(slot, val);
+        this.values[slot] = val;
     }
     
     private static final String REFERENCE_JAVA_OBJECT       = "" + REFERENCE + JAVA_OBJECT + TYPEEND;
@@ -139,7 +140,7 @@ class LocalVariablesArea implements Cloneable {
      * @throws InvalidSlotException if {@code slot} is not a valid slot number.
      */
     Value get(int slot) throws InvalidSlotException {
-        Value retVal = this.values.get(slot);
+        Value retVal = (slot < 0 || slot >= this.values.length ? null : this.values[slot]);
 
         //the next case denotes, e.g., we wrote a cat2 value at slot x
         //and we try to read at slot x+1. 
@@ -166,14 +167,68 @@ class LocalVariablesArea implements Cloneable {
     }
 
     /**
-     * Returns all the slots of the local variable area.
+     * Replaces the value of a written slot with another 
+     * value with the same type, without checking the 
+     * local variable table.
+     * 
+     * @param slot an {@code int}, the slot of the local variable.
+     *        It must be {@link #isWritten(int) isWritten}{@code (slot)}.
+     * @param val the {@link Value} to be stored. It must have 
+     *        the same type of the value stored at {@code slot}.
+     * @throws InvalidSlotException if {@code slot} was not written.
+     */
+    void replace(int slot, Value val) throws InvalidSlotException {
+        if (!isWritten(slot)) {
+            throw new InvalidSlotException("slot " + slot + " was not written");
+        }
+        this.values[slot] = val;
+    }
+
+    /**
+     * Returns the number of slots of the local variable area.
+     * 
+     * @return an {@code int}; the valid slot numbers are
+     *         between {@code 0} (included) and this
+     *         value (excluded).
+     */
+    int size() {
+        return this.values.length;
+    }
+
+    /**
+     * Checks whether a slot of the local variable area
+     * was written.
      * 
-     * @return a {@link Set}<code>&lt;</code>{@link Integer}<code>&gt;</code> 
-     *         containing all the valid slot numbers of this local variable
-     *         area.
+     * @param slot an {@code int}, the slot of the local variable.
+     * @return {@code true} iff {@code slot} is a valid slot number
+     *         and a value was written in it.
      */
-    Set<Integer> slots() {
-        return this.values.keySet();
+    boolean isWritten(int slot) {
+        return (slot >= 0 && slot < this.values.length && this.values[slot] != null);
+    }
+
+    /**
+     * Returns the value of a local variable by name.
+     * 
+     * @param name a {@link String}, the name of the local variable
+     *        as declared in the debug information of the class.
+     * @param curPC the current program counter.
+     * @return the {@link Value} of the first written local variable 
+     *         with name {@code name} (the name of a variable without
+     *         debug information is {@code __LOCAL[<slot>]}), or 
+     *         {@code null} if there is no such variable.
+     */
+    Value get(String name, int curPC) {
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            if (this.values[slot] == null) {
+                continue;
+            }
+            final String declaredName = getLocalVariableDeclaredName(slot, curPC);
+            if (declaredName == null ? name.equals("__LOCAL[" + slot + "]") : name.equals(declaredName)) {
+                return this.values[slot];
+            }
+        }
+        return null;
     }
 
     /**
@@ -225,8 +280,7 @@ class LocalVariablesArea implements Cloneable {
             throw new InternalError(e);
         }
 
-        final SortedMap<Integer, Value> valuesCopy = new TreeMap<>(this.values);        
-        o.values = valuesCopy;
+        o.values = this.values.clone();
         return o;
     }
 
@@ -234,15 +288,19 @@ class LocalVariablesArea implements Cloneable {
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         buf.append("[");
-        int j = 0;
-        for (Map.Entry<Integer, Value> e : values.entrySet()) {
-            buf.append(e.getKey());
-            buf.append(":");
-            buf.append(e.getValue());
-            if (j < values.size() - 1) {
+        boolean isFirst = true;
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            if (this.values[slot] == null) {
+                continue;
+            }
+            if (isFirst) {
+                isFirst = false;
+            } else {
                 buf.append(", ");
             }
-            ++j;
+            buf.append(slot);
+            buf.append(":");
+            buf.append(this.values[slot]);
         }
         buf.append("]");
         return buf.toString();
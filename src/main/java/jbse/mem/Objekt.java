@@ -157,12 +157,17 @@ public interface Objekt extends Cloneable {
     void setFieldValue(int ofst, Value item);
 
     /**
-     * Returns an immutable view of this 
+     * Returns a snapshot of this 
      * {@link Objekt}'s fields.
      * 
      * @return an immutable 
-     *         {@link Map}{@code <}{@link String}{@code , }{@link Variable}{@code >}
-     *         backed by this {@link Objekt}'s fields map.
+     *         {@link Map}{@code <}{@link Signature}{@code , }{@link Variable}{@code >}
+     *         mapping the signatures of the fields stored by this 
+     *         {@link Objekt} to fresh {@link Variable}s with their 
+     *         current values. Setting the value of the returned 
+     *         {@link Variable}s does not change this {@link Objekt}: 
+     *         Use {@link #setFieldValue(Signature, Value) setFieldValue}
+     *         instead.
      */
     Map<Signature, Variable> fields();
     
@@ -1,13 +1,12 @@
 package jbse.mem;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.val.Calculator;
@@ -36,22 +35,19 @@ public abstract class ObjektImpl implements Objekt {
     private final HistoryPoint epoch;
 
     /** 
-     * {@code true} if the object must store the static fields,
-     * {@code false} if it must store the nonstatic fields.
+     * The layout of all the fields declared by 
+     * this {@link ObjektImpl}'s class (static and nonstatic)
+     * or superclasses (nonstatic). It is shared by all the
+     * objects of the same class and provides the types and 
+     * names of the fields. Immutable. 
      */
-    private final boolean staticFields;
-
-    /** The number of static fields. Immutable. */
-    private final int numOfStaticFields;
+    private final FieldLayout fieldLayout;
 
     /** 
-     * All the signatures of all the fields declared by 
-     * this {@link ObjektImpl}'s class (static and nonstatic)
-     * or superclasses (nonstatic). The position of a field
-     * signature in this list (starting from the end) is 
-     * the field's offset number, as used by sun.misc.Unsafe 
-     * methods. Immutable. */
-    private final List<Signature> fieldSignatures;
+     * The slot in {@link #fieldLayout} of the first field 
+     * stored in {@link #fieldValues}. Immutable. 
+     */
+    private final int firstSlot;
 
     /** 
      * The identity hash code of this {@link ObjektImpl}. Mutable only
@@ -61,13 +57,11 @@ public abstract class ObjektImpl implements Objekt {
     private Primitive identityHashCode;
 
     /** 
-     * The fields as a map of signatures (as strings) to variables.
-     * Immutable for arrays, but mutable otherwise (the map
-     * is by itself immutable but the stored Variables may be 
-     * mutable). 
+     * The values of the stored fields; the value of the field
+     * in slot {@code slot} of {@link #fieldLayout} is 
+     * {@code fieldValues[slot - firstSlot]}. 
      */
-    protected HashMap<Signature, Variable> fields;
-    //TODO once fields was a map from String (the signature toString()) to variables; in old comment it was said it was necessary because type erasure didn't play well. Investigate whether the issue still holds.
+    private Value[] fieldValues;
     
     /**
      * Constructor.
@@ -85,24 +79,18 @@ public abstract class ObjektImpl implements Objekt {
      * @param staticFields {@code true} if this object stores
      *        the static fields, {@code false} if this object stores
      *        the object (nonstatic) fields.
-     * @param numOfStaticFields an {@code int}, the number of static fields.
-     * @param fieldSignatures varargs of field {@link Signature}s, all the
-     *        fields this object knows.
+     * @param fieldLayout a {@link FieldLayout}, the layout of all
+     *        the fields this object knows.
      */
-    protected ObjektImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean staticFields, int numOfStaticFields, Signature... fieldSignatures) {
+    protected ObjektImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean staticFields, FieldLayout fieldLayout) {
     	//TODO (null-)check parameters, throw exceptions
         this.symbolic = symbolic;
-        this.fields = new HashMap<>();
-        this.staticFields = staticFields;
-        this.numOfStaticFields = numOfStaticFields;
-        this.fieldSignatures = Arrays.asList(fieldSignatures.clone()); //safety copy
-        int curSlot = 0;
-        for (Signature fieldSignature : this.fieldSignatures) {
-            if ((staticFields && curSlot < numOfStaticFields) ||
-                (!staticFields && curSlot >= numOfStaticFields)) {
-                this.fields.put(fieldSignature, new Variable(calc, fieldSignature.getDescriptor(), fieldSignature.getName()));
-            }
-            ++curSlot;
+        this.fieldLayout = fieldLayout;
+        this.firstSlot = (staticFields ? 0 : fieldLayout.numOfStaticFields());
+        final int lastSlot = (staticFields ? fieldLayout.numOfStaticFields() : fieldLayout.size());
+        this.fieldValues = new Value[lastSlot - this.firstSlot];
+        for (int slot = this.firstSlot; slot < lastSlot; ++slot) {
+            this.fieldValues[slot - this.firstSlot] = calc.valDefault(fieldLayout.get(slot).getDescriptor().charAt(0));
         }
         this.classFile = classFile;
         this.origin = origin;
@@ -152,91 +140,78 @@ public abstract class ObjektImpl implements Objekt {
 
     @Override
     public final Collection<Signature> getStoredFieldSignatures() {
-        if (this.staticFields) {
-            return Collections.unmodifiableCollection(this.fieldSignatures.subList(0, this.numOfStaticFields));
-        } else {
-            return Collections.unmodifiableCollection(this.fieldSignatures.subList(this.numOfStaticFields, this.fieldSignatures.size()));
-        }
+        return this.fieldLayout.fieldSignatures().subList(this.firstSlot, this.firstSlot + this.fieldValues.length);
     }
     
-    private int ofstToPos(int ofst) {
-        return this.fieldSignatures.size() - 1 - ofst;
+    /**
+     * Converts a slot of {@link #fieldLayout} to a position
+     * in {@link #fieldValues}.
+     * 
+     * @param slot an {@code int}.
+     * @return an {@code int}, the position of the value of
+     *         the field in {@code slot}, or {@code -1} if
+     *         this object does not store such field.
+     */
+    private int slotToPos(int slot) {
+        final int pos = slot - this.firstSlot;
+        return (slot < 0 || pos < 0 || pos >= this.fieldValues.length ? -1 : pos);
     }
 
     //TODO overridden by array, refactor to avoid this
     @Override
     public boolean hasOffset(int ofst) {
-        final int pos = ofstToPos(ofst);
-        if (this.staticFields) {
-            return (0 <= pos && pos < this.numOfStaticFields);
-        } else {
-            return (this.numOfStaticFields <= pos && pos < this.fieldSignatures.size());
-        }
+        return slotToPos(this.fieldLayout.offsetToSlot(ofst)) >= 0;
     }
 
     @Override
     public final Value getFieldValue(Signature sig) {
-        try {
-            return this.fields.get(sig).getValue();
-        } catch (Exception e) {
-            return null;
-        }
+        final int pos = slotToPos(this.fieldLayout.slot(sig));
+        return (pos < 0 ? null : this.fieldValues[pos]);
     }
 
     @Override
     public final Value getFieldValue(String fieldName, String fieldClass) {
-        for (Signature sig: this.fieldSignatures) { //not very efficient but we don't care
-            if (sig.getName().equals(fieldName) && sig.getClassName().equals(fieldClass)) {
-                return getFieldValue(sig);
-            }
-        }
-        return null;
+        final int pos = slotToPos(this.fieldLayout.slot(fieldName, fieldClass));
+        return (pos < 0 ? null : this.fieldValues[pos]);
     }
 
     @Override
     public final Value getFieldValue(int ofst) {
-        try {
-            return getFieldValue(this.fieldSignatures.get(ofstToPos(ofst)));
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
+        final int pos = slotToPos(this.fieldLayout.offsetToSlot(ofst));
+        return (pos < 0 ? null : this.fieldValues[pos]);
     }
 
     @Override
     public final void setFieldValue(Signature field, Value item) {
-        this.fields.get(field).setValue(item);
+        this.fieldValues[slotToPos(this.fieldLayout.slot(field))] = item;
     }
 
     @Override
     public final void setFieldValue(int ofst, Value item) {
-        setFieldValue(this.fieldSignatures.get(ofstToPos(ofst)), item);
+        this.fieldValues[slotToPos(this.fieldLayout.offsetToSlot(ofst))] = item;
     }
 
     @Override
     public final Map<Signature, Variable> fields() {
-        return Collections.unmodifiableMap(this.fields);
-    }
-
-    protected final HashMap<Signature, Variable> fieldsDeepCopy() {
-        final HashMap<Signature, Variable> retVal = new HashMap<>();
-        for (Signature key : this.fields.keySet()) {
-            final Variable variableClone = this.fields.get(key).clone();
-            retVal.put(key, variableClone);
+        final LinkedHashMap<Signature, Variable> retVal = new LinkedHashMap<>();
+        for (int pos = 0; pos < this.fieldValues.length; ++pos) {
+            final Signature sig = this.fieldLayout.get(this.firstSlot + pos);
+            retVal.put(sig, new Variable(sig.getDescriptor(), sig.getName(), this.fieldValues[pos]));
         }
-        return retVal;
+        return Collections.unmodifiableMap(retVal);
     }
 
     @Override
     public ObjektImpl clone() {
+        final ObjektImpl o;
         try {
-            return (ObjektImpl) super.clone();
+            o = (ObjektImpl) super.clone();
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
-        //note that we do not clone this.fields because
-        //it is immutable for arrays and mutable for instances
-        //so the two subclasses may either deep-copy it or share;
-        //note also that the clone will have same
+        o.fieldValues = this.fieldValues.clone();
+        return o;
+        //note that the clone will have same
         //hash code as the original.
     }
 }
\ No newline at end of file
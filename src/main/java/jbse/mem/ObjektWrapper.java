@@ -128,7 +128,6 @@ abstract class ObjektWrapper<T extends ObjektImpl> implements Objekt {
 
 	@Override
 	public final Map<Signature, Variable> fields() {
-		possiblyCloneDelegate(); //the returned Variables are mutable
 		return getDelegate().fields();
 	}
 	
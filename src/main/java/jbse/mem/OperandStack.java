@@ -1,26 +1,50 @@
 package jbse.mem;
 
-import java.util.ArrayDeque;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.val.Value;
 
 /**
- * Class that represent the JVM's operand stack.
+ * Class that represent the JVM's operand stack. It is backed
+ * by an array sized from the method's maximum stack depth;
+ * the array grows when more values are pushed, as happens 
+ * when a wrapping snippet uses the operand stack of its
+ * context.
  */
 //TODO manage stack maps and possibly raise unexpected internal error
 final class OperandStack implements Cloneable {
-    /** Not final because of clone(). */
-    private ArrayDeque<Value> valueStack;
+    /** The default capacity of the operand stack. */
+    private static final int DEFAULT_CAPACITY = 8;
+    
+    /** 
+     * The values in the operand stack, from the bottom
+     * to the top. Not final because of clone(). 
+     */
+    private Value[] valueStack;
+    
+    /** The number of values in the operand stack. */
+    private int size;
     
     /**
      * Constructor of empty operand stack.
      * 
      */
     OperandStack() {
-        this.valueStack = new ArrayDeque<Value>();
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor of empty operand stack.
+     * 
+     * @param maxStack an {@code int}, the expected 
+     *        maximum depth of the operand stack.
+     */
+    OperandStack(int maxStack) {
+        this.valueStack = new Value[Math.max(maxStack, 1)];
+        this.size = 0;
     }
     
     /**
@@ -29,7 +53,13 @@ final class OperandStack implements Cloneable {
      *             of the operand stack.
      */
     void push(Value item) {
-        this.valueStack.push(item);
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        if (this.size == this.valueStack.length) {
+            this.valueStack = Arrays.copyOf(this.valueStack, 2 * this.valueStack.length);
+        }
+        this.valueStack[this.size++] = item;
     }
     
     /**
@@ -39,10 +69,12 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value pop() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-    	return this.valueStack.pop();
+    	final Value retVal = this.valueStack[--this.size];
+    	this.valueStack[this.size] = null;
+    	return retVal;
     }
 
     /**
@@ -54,12 +86,11 @@ final class OperandStack implements Cloneable {
      *         if {@code num} is negative.
      */
     void pop(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        for (int i = 1; i <= num; ++i) {
-            this.valueStack.pop();
-        }
+        Arrays.fill(this.valueStack, this.size - num, this.size, null);
+        this.size -= num;
     }
     
     /**
@@ -69,10 +100,10 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value top() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-        return(this.valueStack.peek());
+        return this.valueStack[this.size - 1];
     }
 
     /**
@@ -88,27 +119,61 @@ final class OperandStack implements Cloneable {
      *         or if {@code num} is negative. 
      */
     Value[] operands(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        final Value[] retVal = new Value[num];
-        int i = num - 1;
-        for (Value v : this.valueStack) {
-            if (i < 0) {
-                break;
-            }
-            retVal[i] = v;
-            --i;
-        }
-        return retVal;
+        return Arrays.copyOfRange(this.valueStack, this.size - num, this.size);
     }
     
     void clear() {
-    	this.valueStack.clear();
+        Arrays.fill(this.valueStack, 0, this.size, null);
+    	this.size = 0;
     }
     
+    /**
+     * Returns an unmodifiable view of the values 
+     * in the operand stack.
+     * 
+     * @return a {@link Collection}{@code <}{@link Value}{@code >}
+     *         of the values in the operand stack, from the 
+     *         topmost to the bottommost.
+     */
     Collection<Value> values() {
-    	return Collections.unmodifiableCollection(this.valueStack);
+    	return new AbstractList<Value>() {
+    	    @Override
+    	    public Value get(int index) {
+    	        if (index < 0 || index >= OperandStack.this.size) {
+    	            throw new IndexOutOfBoundsException();
+    	        }
+    	        return OperandStack.this.valueStack[OperandStack.this.size - 1 - index];
+    	    }
+
+    	    @Override
+    	    public int size() {
+    	        return OperandStack.this.size;
+    	    }
+    	};
+    }
+    
+    /**
+     * Replaces a value in the operand stack.
+     * 
+     * @param index an {@code int}, the position of the value 
+     *        to be replaced, counting from the topmost (as in 
+     *        {@link #values()}).
+     * @param item the {@link Value} that replaces the one 
+     *        at {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is 
+     *         not a valid position.
+     */
+    void replace(int index, Value item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.valueStack[this.size - 1 - index] = item;
     }
     
     /**
@@ -117,14 +182,11 @@ final class OperandStack implements Cloneable {
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         buf.append("{");
-        boolean isFirst = true;
-        for (Value v : this.valueStack) {
-            if (isFirst) {
-                isFirst = false;
-            } else {
+        for (int i = this.size - 1; i >= 0; --i) {
+            buf.append(this.valueStack[i].toString());
+            if (i > 0) {
                 buf.append(", ");
             }
-            buf.append(v.toString());
         }
         buf.append("}");
         return buf.toString();
@@ -138,9 +200,7 @@ final class OperandStack implements Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }        
-        o.valueStack = new ArrayDeque<Value>(this.valueStack);
+        o.valueStack = this.valueStack.clone();
         return o;
     }
-}
-
-
+}
\ No newline at end of file
@@ -135,6 +135,35 @@ final class PathCondition implements Cloneable {
         this.clauses.add(new ClauseAssumeClassNotInitialized(classFile));
     }
 
+    /**
+     * Replaces the last clauses of the path condition with
+     * a single clause over primitive values. The replaced 
+     * clauses must all be {@link ClauseAssume}s.
+     * 
+     * @param from an {@code int}, the position of the first
+     *        clause to be replaced. The clauses at positions
+     *        from {@code from} on are removed.
+     * @param condition the {@link Primitive} condition of the
+     *        clause that replaces them, as in 
+     *        {@link #addClauseAssume(Primitive)}.
+     * @throws InvalidInputException if {@code from} is not a valid 
+     *         position, if some of the replaced clauses is not a 
+     *         {@link ClauseAssume}, or if {@code condition} is not 
+     *         acceptable by {@link #addClauseAssume(Primitive)}.
+     */
+    void replaceClausesAssume(int from, Primitive condition) throws InvalidInputException {
+        if (from < 0 || from > this.clauses.size()) {
+            throw new InvalidInputException("Tried to replace the clauses of a path condition from the invalid position " + from + ".");
+        }
+        for (Clause c : this.clauses.subList(from, this.clauses.size())) {
+            if (!(c instanceof ClauseAssume)) {
+                throw new InvalidInputException("Tried to replace a clause " + c + " that is not a " + ClauseAssume.class.getName() + ".");
+            }
+        }
+        this.clauses.subList(from, this.clauses.size()).clear();
+        addClauseAssume(condition);
+    }
+
     /**
      * Tests whether a symbolic reference is resolved.
      * 
@@ -0,0 +1,331 @@
+package jbse.mem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * An immutable map implemented as a hash array mapped trie.
+ * Adding a mapping yields a new map that shares with the
+ * original one all the structure but the path to the new
+ * mapping, so copying a map costs nothing and adding a
+ * mapping costs time and space logarithmic in the size
+ * of the map. Keys and values must not be {@code null}.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(new Node(0, new Object[0]), 0);
+
+    /** A mapping. */
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** The mappings whose keys have the same hash. */
+    private static final class Collision {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * A node of the trie. Its children are {@link Node}s,
+     * {@link Entry}s or {@link Collision}s, and are stored
+     * compactly: Child i exists iff bit i of the bitmap is set.
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] children;
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @return an empty {@link PersistentMap}.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return an {@code int}.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map contains a mapping for a key.
+     *
+     * @param key an {@link Object}.
+     * @return {@code true} iff this map maps {@code key}.
+     */
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key an {@link Object}.
+     * @return the value mapped to {@code key}, or {@code null}
+     *         if this map does not map {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        final int hash = hash(key);
+        Node node = this.root;
+        for (int shift = 0; ; shift += BITS) {
+            final int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            final Object child = node.children[index(node.bitmap, bit)];
+            if (child instanceof Node) {
+                node = (Node) child;
+            } else if (child instanceof Entry) {
+                final Entry entry = (Entry) child;
+                return (entry.hash == hash && entry.key.equals(key) ? (V) entry.value : null);
+            } else { //child instanceof Collision
+                final Collision collision = (Collision) child;
+                if (collision.hash == hash) {
+                    for (Entry entry : collision.entries) {
+                        if (entry.key.equals(key)) {
+                            return (V) entry.value;
+                        }
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns a map with an additional mapping.
+     *
+     * @param key the key, not {@code null}.
+     * @param value the value, not {@code null}.
+     * @return a {@link PersistentMap} that maps {@code key}
+     *         to {@code value}, and all the other keys as
+     *         {@code this}. {@code this} is not modified.
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        final int hash = hash(key);
+        final boolean[] added = new boolean[1];
+        final Node rootNew = put(this.root, 0, new Entry(hash, key, value), added);
+        return (rootNew == this.root ? this : new PersistentMap<>(rootNew, this.size + (added[0] ? 1 : 0)));
+    }
+
+    private static Node put(Node node, int shift, Entry entry, boolean[] added) {
+        final int bit = bit(entry.hash, shift);
+        final int index = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            final Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, index);
+            children[index] = entry;
+            System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+            return new Node(node.bitmap | bit, children);
+        }
+
+        final Object child = node.children[index];
+        final Object childNew;
+        if (child instanceof Node) {
+            childNew = put((Node) child, shift + BITS, entry, added);
+        } else if (child instanceof Entry) {
+            final Entry old = (Entry) child;
+            if (old.hash == entry.hash && old.key.equals(entry.key)) {
+                childNew = (old.value == entry.value ? old : entry);
+            } else if (old.hash == entry.hash) {
+                added[0] = true;
+                childNew = new Collision(entry.hash, new Entry[] { old, entry });
+            } else {
+                added[0] = true;
+                childNew = merge(old, old.hash, entry, shift + BITS);
+            }
+        } else { //child instanceof Collision
+            final Collision old = (Collision) child;
+            if (old.hash == entry.hash) {
+                childNew = putInCollision(old, entry, added);
+            } else {
+                added[0] = true;
+                childNew = merge(old, old.hash, entry, shift + BITS);
+            }
+        }
+        if (childNew == child) {
+            return node;
+        }
+        final Object[] children = node.children.clone();
+        children[index] = childNew;
+        return new Node(node.bitmap, children);
+    }
+
+    private static Collision putInCollision(Collision collision, Entry entry, boolean[] added) {
+        final Entry[] entries = collision.entries;
+        for (int i = 0; i < entries.length; ++i) {
+            if (entries[i].key.equals(entry.key)) {
+                if (entries[i].value == entry.value) {
+                    return collision;
+                }
+                final Entry[] entriesNew = entries.clone();
+                entriesNew[i] = entry;
+                return new Collision(collision.hash, entriesNew);
+            }
+        }
+        added[0] = true;
+        final Entry[] entriesNew = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, entriesNew, 0, entries.length);
+        entriesNew[entries.length] = entry;
+        return new Collision(collision.hash, entriesNew);
+    }
+
+    /**
+     * Builds the subtrie storing an {@link Entry} or {@link Collision}
+     * and an {@link Entry} with different hashes.
+     */
+    private static Node merge(Object old, int oldHash, Entry entry, int shift) {
+        final int oldBit = bit(oldHash, shift);
+        final int bit = bit(entry.hash, shift);
+        if (oldBit == bit) {
+            return new Node(bit, new Object[] { merge(old, oldHash, entry, shift + BITS) });
+        } else if (Integer.compareUnsigned(oldBit, bit) < 0) {
+            return new Node(oldBit | bit, new Object[] { old, entry });
+        } else {
+            return new Node(oldBit | bit, new Object[] { entry, old });
+        }
+    }
+
+    /**
+     * Checks whether this map and another one have the same mappings.
+     * Since the shape of the trie depends only on the mappings, the
+     * check skips the subtries the two maps share, and is cheap
+     * when one map was derived from the other by few additions.
+     *
+     * @param other a {@link PersistentMap}.
+     * @return {@code true} iff {@code this} and {@code other} map
+     *         the same keys to equal values.
+     */
+    boolean sameMappingsAs(PersistentMap<K, V> other) {
+        return (this.size == other.size && sameMappings(this.root, other.root));
+    }
+
+    private static boolean sameMappings(Object child, Object otherChild) {
+        if (child == otherChild) {
+            return true;
+        }
+        if (child instanceof Node && otherChild instanceof Node) {
+            final Node node = (Node) child;
+            final Node otherNode = (Node) otherChild;
+            if (node.bitmap != otherNode.bitmap) {
+                return false;
+            }
+            for (int i = 0; i < node.children.length; ++i) {
+                if (!sameMappings(node.children[i], otherNode.children[i])) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (child instanceof Entry && otherChild instanceof Entry) {
+            return sameMapping((Entry) child, (Entry) otherChild);
+        } else if (child instanceof Collision && otherChild instanceof Collision) {
+            //the entries of a collision are in insertion order
+            final Collision collision = (Collision) child;
+            final Collision otherCollision = (Collision) otherChild;
+            if (collision.hash != otherCollision.hash || collision.entries.length != otherCollision.entries.length) {
+                return false;
+            }
+            for (Entry entry : collision.entries) {
+                boolean found = false;
+                for (Entry otherEntry : otherCollision.entries) {
+                    if (sameMapping(entry, otherEntry)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private static boolean sameMapping(Entry entry, Entry otherEntry) {
+        return (entry.hash == otherEntry.hash && entry.key.equals(otherEntry.key) && entry.value.equals(otherEntry.value));
+    }
+
+    /**
+     * Returns the values in this map.
+     *
+     * @return an unmodifiable {@link Collection}{@code <V>}
+     *         of all the values in this map.
+     */
+    Collection<V> values() {
+        final ArrayList<V> retVal = new ArrayList<>(this.size);
+        collectValues(this.root, retVal);
+        return Collections.unmodifiableList(retVal);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void collectValues(Node node, ArrayList<V> values) {
+        for (Object child : node.children) {
+            if (child instanceof Node) {
+                collectValues((Node) child, values);
+            } else if (child instanceof Entry) {
+                values.add((V) ((Entry) child).value);
+            } else { //child instanceof Collision
+                for (Entry entry : ((Collision) child).entries) {
+                    values.add((V) entry.value);
+                }
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+}
@@ -1,9 +1,13 @@
 package jbse.mem;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.function.LongPredicate;
 
 import jbse.bc.ClassFile;
 import jbse.bc.Signature;
@@ -48,12 +52,65 @@ public final class ReachableObjectsCollector {
      * @throws FrozenStateException if {@code s} is frozen.
      */
     public Set<Long> reachable(State s, boolean precise) throws FrozenStateException {
+        final HashSet<Long> reachable = new HashSet<>();
+        markReachable(s, precise, Collections.emptyList(), reachable::add);
+        return reachable;
+    }
+    
+    /**
+     * Marks in a {@link BitSet} the heap positions of the 
+     * objects that are reachable from the roots of a 
+     * {@link State}. It is equivalent to {@link #reachable(State, boolean)}, 
+     * but cheaper.
+     * 
+     * @param s a {@link State}. It must not be {@code null}.
+     * @param precise a {@code boolean}, as in {@link #reachable(State, boolean)}.
+     * @return a {@link BitSet} where the bits at the heap positions 
+     *         of the objects reachable from the collection roots 
+     *         are set.
+     * @throws FrozenStateException if {@code s} is frozen.
+     */
+    public BitSet reachableMarks(State s, boolean precise) throws FrozenStateException {
+        return reachableMarks(s, precise, Collections.emptyList());
+    }
+    
+    /**
+     * Marks in a {@link BitSet} the heap positions of the 
+     * objects that are reachable from the roots of a 
+     * {@link State}, or from some additional roots.
+     * 
+     * @param s a {@link State}. It must not be {@code null}.
+     * @param precise a {@code boolean}, as in {@link #reachable(State, boolean)}.
+     * @param moreRoots an {@link Iterable}{@code <}{@link Long}{@code >}, 
+     *        the heap positions of further objects that are 
+     *        considered as roots for collection.
+     * @return a {@link BitSet} where the bits at the heap positions 
+     *         of the objects reachable from the collection roots 
+     *         are set.
+     * @throws FrozenStateException if {@code s} is frozen.
+     */
+    public BitSet reachableMarks(State s, boolean precise, Iterable<Long> moreRoots) throws FrozenStateException {
+        final BitSet reachable = new BitSet();
+        markReachable(s, precise, moreRoots, pos -> {
+            if (pos > Integer.MAX_VALUE) {
+                throw new UnexpectedInternalException("Heap position " + pos + " is too large to be marked.");
+            }
+            if (reachable.get((int) pos)) {
+                return false;
+            }
+            reachable.set((int) pos);
+            return true;
+        });
+        return reachable;
+    }
+    
+    private void markReachable(State s, boolean precise, Iterable<Long> moreRoots, LongPredicate mark) throws FrozenStateException {
         try {
             final boolean emptyStack = s.getStack().isEmpty();
             final Reference rootObjectReference = (emptyStack ? null : s.getRootObjectReference());
             final long rootObjectPosition = (rootObjectReference == null ? -1 : rootObjectReference instanceof ReferenceConcrete ? ((ReferenceConcrete) rootObjectReference).getHeapPosition() : s.getResolution((ReferenceSymbolic) rootObjectReference));
             final ClassFile rootClass = (emptyStack ? null : s.getRootClass());
-            return reachable(s, precise, rootObjectPosition, rootClass);
+            markReachable(s, precise, rootObjectPosition, rootClass, moreRoots, mark);
         } catch (ThreadStackEmptyException e) {
             throw new UnexpectedInternalException(e);
         }
@@ -67,7 +124,8 @@ public final class ReachableObjectsCollector {
      * object and the root class, the string literals, 
      * all the {@link Instance_JAVA_CLASS}, all the 
      * {@link Instance_JAVA_CLASSLOADER}, all the 
-     * {@link Instance}s of {@link java.lang.invoke.MethodType}).
+     * {@link Instance}s of {@link java.lang.invoke.MethodType}), and
+     * marks them.
      * 
      * @param s a {@link State}. It must not be {@code null}.
      * @param precise a {@code boolean}, if {@code true}, 
@@ -82,17 +140,27 @@ public final class ReachableObjectsCollector {
      * @param rootClass a {@link ClassFile}. If {@code rootClass != null}
      *        all the static fields of the root class are also considered 
      *        as roots for collection.
-     * @return a {@link Set}{@code <}{@link Long}{@code >}
-     *         containing all the heap positions of the objects
-     *         reachable from the collection roots.
+     * @param moreRoots an {@link Iterable}{@code <}{@link Long}{@code >}, 
+     *        the heap positions of further objects that are 
+     *        considered as roots for collection.
+     * @param mark a {@link LongPredicate} that marks a heap position, 
+     *        returning {@code true} iff it was not already marked.
      * @throws FrozenStateException if {@code s} is frozen.
      */
-    private Set<Long> reachable(State s, boolean precise, long rootObject, ClassFile rootClass) throws FrozenStateException {
+    private void markReachable(State s, boolean precise, long rootObject, ClassFile rootClass, Iterable<Long> moreRoots, LongPredicate mark) throws FrozenStateException {
         if (s == null) {
             throw new NullPointerException();
         }
         
-        final HashSet<Long> reachable = new HashSet<>();
+        //the positions marked and still to be visited
+        final ArrayDeque<Long> toVisit = new ArrayDeque<>();
+        final LongPredicate reachable = pos -> {
+            if (mark.test(pos)) {
+                toVisit.add(pos);
+                return true;
+            }
+            return false;
+        };
         
         //if the state is stuck, possibly adds the return
         //value and/or the thrown exception
@@ -103,7 +171,7 @@ public final class ReachableObjectsCollector {
         
         //possibly adds the root object and its static fields
         if (rootObject >= 0) {
-            reachable.add(rootObject);
+            reachable.test(rootObject);
             final ClassFile rootObjectClass = s.getObject(new ReferenceConcrete(rootObject)).getType();
             final Klass k = s.getKlass(rootObjectClass);
             final Map<Signature, Variable> fields = k.fields();
@@ -163,7 +231,7 @@ public final class ReachableObjectsCollector {
             s.getStringLiterals().stream()
                 .filter(r -> !s.isNull(r))
                 .map(ReferenceConcrete::getHeapPosition)
-                .forEachOrdered(reachable::add);
+                .forEachOrdered(reachable::test);
         }
         
         //possibly adds the classes
@@ -171,7 +239,7 @@ public final class ReachableObjectsCollector {
             s.getClasses().stream()
                 .filter(r -> !s.isNull(r))
                 .map(ReferenceConcrete::getHeapPosition)
-                .forEachOrdered(reachable::add);
+                .forEachOrdered(reachable::test);
         }
         
         //possibly adds the primitive classes
@@ -179,7 +247,7 @@ public final class ReachableObjectsCollector {
             s.getClassesPrimitive().stream()
                 .filter(r -> !s.isNull(r))
                 .map(ReferenceConcrete::getHeapPosition)
-                .forEachOrdered(reachable::add);
+                .forEachOrdered(reachable::test);
         }
 
         //possibly adds the classloaders
@@ -187,7 +255,7 @@ public final class ReachableObjectsCollector {
             s.getClassLoaders().stream()
                 .filter(r -> !s.isNull(r))
                 .map(ReferenceConcrete::getHeapPosition)
-                .forEachOrdered(reachable::add);
+                .forEachOrdered(reachable::test);
         }
 
         //possibly adds the method types
@@ -195,83 +263,64 @@ public final class ReachableObjectsCollector {
             s.getMethodTypes().stream()
                 .filter(r -> !s.isNull(r))
                 .map(ReferenceConcrete::getHeapPosition)
-                .forEachOrdered(reachable::add);
+                .forEachOrdered(reachable::test);
         }
         
         //possibly adds the main thread and thread group
         if (precise) {
-        	reachable.add(s.getMainThread().getHeapPosition());
-        	reachable.add(s.getMainThreadGroup().getHeapPosition());
+        	reachable.test(s.getMainThread().getHeapPosition());
+        	reachable.test(s.getMainThreadGroup().getHeapPosition());
+        }
+
+        //possibly adds the linked invokers and appendices
+        if (precise) {
+            s.getLinkInvokersAndAppendices().stream()
+                .filter(r -> !s.isNull(r))
+                .map(ReferenceConcrete::getHeapPosition)
+                .forEachOrdered(reachable::test);
+        }
+
+        //the further roots
+        for (long pos : moreRoots) {
+            reachable.test(pos);
         }
 
         //closes reachable
-        HashSet<Long> toVisit = new HashSet<>(reachable);
-        while (true) {
-            final HashSet<Long> toVisitNext = new HashSet<>();
-            for (long nextObject : toVisit) {
-                final Objekt o = s.getObject(new ReferenceConcrete(nextObject));
-                final Map<Signature, Variable> fields = o.fields();
-                for (Variable var : fields.values()) {
-                    final Value v = var.getValue();
-                    addIfReferenceAndMarkNext(reachable, toVisitNext, s, v);
-                }
-                if (o instanceof Array) {
-                    final Array a = (Array) o;
-                    for (Array.AccessOutcomeIn entry : a.values()) {
-                        final Value v;
-                        if (entry instanceof Array.AccessOutcomeInInitialArray) {
-                            v = ((Array.AccessOutcomeInInitialArray) entry).getInitialArray();
-                        } else { //(entry instanceof Array.AccessOutcomeInValue) 
-                            v = ((Array.AccessOutcomeInValue) entry).getValue();
-                        }
-                        addIfReferenceAndMarkNext(reachable, toVisitNext, s, v);
+        while (!toVisit.isEmpty()) {
+            final long nextObject = toVisit.remove();
+            final Objekt o = s.getObject(new ReferenceConcrete(nextObject));
+            final Map<Signature, Variable> fields = o.fields();
+            for (Variable var : fields.values()) {
+                final Value v = var.getValue();
+                addIfReference(reachable, s, v);
+            }
+            if (o instanceof Array) {
+                final Array a = (Array) o;
+                for (Array.AccessOutcomeIn entry : a.values()) {
+                    final Value v;
+                    if (entry instanceof Array.AccessOutcomeInInitialArray) {
+                        v = ((Array.AccessOutcomeInInitialArray) entry).getInitialArray();
+                    } else { //(entry instanceof Array.AccessOutcomeInValue) 
+                        v = ((Array.AccessOutcomeInValue) entry).getValue();
                     }
+                    addIfReference(reachable, s, v);
                 }
             }
-            if (toVisitNext.isEmpty()) {
-                break;
-            } else {
-                toVisit = toVisitNext;
-            }
-        }
-        
-        return reachable;
-    }
-    
-    private void addIfReference(Set<Long> set, State s, Value v) {
-        if (v instanceof Reference) {
-            final Reference ref = (Reference) v;
-            if (s.isNull(ref)) {
-                return;
-            }
-            if (ref instanceof ReferenceConcrete) {
-                set.add(((ReferenceConcrete) ref).getHeapPosition());
-            } else if (s.resolved((ReferenceSymbolic) ref)) {
-                set.add(s.getResolution((ReferenceSymbolic) ref));
-            }
         }
     }
     
-    private void addIfReferenceAndMarkNext(Set<Long> reachable, Set<Long> next, State s, Value v) {
+    private void addIfReference(LongPredicate reachable, State s, Value v) {
         if (v instanceof Reference) {
             final Reference ref = (Reference) v;
             if (s.isNull(ref)) {
                 return;
             }
             if (ref instanceof ReferenceConcrete) {
-                final long heapPosition = ((ReferenceConcrete) ref).getHeapPosition();                
-                if (!reachable.contains(heapPosition)) {
-                    reachable.add(heapPosition);
-                    next.add(heapPosition);
-                }
+                reachable.test(((ReferenceConcrete) ref).getHeapPosition());
             } else if (ref instanceof ReferenceArrayImmaterial) {
             	//do nothing: the reference does not refer (yet) to any object
             } else if (s.resolved((ReferenceSymbolic) ref)) {
-                final long heapPosition = s.getResolution((ReferenceSymbolic) ref);
-                if (!reachable.contains(heapPosition)) {
-                    reachable.add(heapPosition);
-                    next.add(heapPosition);
-                }
+                reachable.test(s.getResolution((ReferenceSymbolic) ref));
             }
         }
     }
@@ -127,6 +127,22 @@ public final class SnippetFrameWrap extends Frame implements Cloneable {
         return o;
     }
 
+    /**
+     * Clones this {@link SnippetFrameWrap}, making the
+     * clone a subcontext of a given frame rather than 
+     * of a clone of its context frame.
+     * 
+     * @param contextFrame a {@link MethodFrame}, the
+     *        activation context of the clone. Typically
+     *        it is a clone of {@link #getContextFrame()}.
+     * @return a {@link SnippetFrameWrap}.
+     */
+    SnippetFrameWrap cloneWithContext(MethodFrame contextFrame) {
+        final SnippetFrameWrap o = (SnippetFrameWrap) super.clone();
+        o.contextFrame = contextFrame;
+        return o;
+    }
+
     @Override
     public String toString(){
         String tmp = "[";
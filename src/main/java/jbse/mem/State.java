@@ -11,7 +11,6 @@ import static jbse.bc.Signatures.JAVA_STRING_VALUE;
 import static jbse.bc.Signatures.JAVA_THREAD;
 import static jbse.bc.Signatures.JAVA_THREADGROUP;
 import static jbse.bc.Signatures.JAVA_THROWABLE;
-import static jbse.common.Type.parametersNumber;
 import static jbse.common.Type.isPrimitive;
 import static jbse.common.Type.isPrimitiveOrVoidCanonicalName;
 import static jbse.common.Util.unsafe;
@@ -28,7 +27,9 @@ import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,6 +41,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jbse.bc.ClassFile;
 import jbse.bc.ClassFileFactory;
@@ -47,6 +50,7 @@ import jbse.bc.ClassHierarchy;
 import jbse.bc.Classpath;
 import jbse.bc.ExceptionTable;
 import jbse.bc.ExceptionTableEntry;
+import jbse.bc.FieldLayout;
 import jbse.bc.Signature;
 import jbse.bc.Snippet;
 import jbse.bc.SnippetFactory;
@@ -63,9 +67,12 @@ import jbse.bc.exc.MethodNotFoundException;
 import jbse.bc.exc.NullMethodReceiverException;
 import jbse.bc.exc.RenameUnsupportedException;
 import jbse.bc.exc.WrongClassNameException;
+import jbse.common.MethodDescriptor;
 import jbse.common.Type;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
+import jbse.instrumentation.Instrumentation;
+import jbse.instrumentation.StateCloneEvent;
 import jbse.mem.exc.CannotAssumeSymbolicObjectException;
 import jbse.mem.exc.CannotRefineException;
 import jbse.mem.exc.ContradictionException;
@@ -101,8 +108,6 @@ public final class State implements Cloneable {
     private static final int ROOT_THIS_SLOT = 0;
     
     //gets reflectively some fields for later access
-    private static final Field FIS_PATH;
-    private static final Field FOS_PATH;
     private static final Field FIS_IN;
     private static final Field FOS_OUT;
     private static final Field FILEDESCRIPTOR_FD;
@@ -113,8 +118,6 @@ public final class State implements Cloneable {
     static {
         //these are always present
         try {
-            FIS_PATH = FileInputStream.class.getDeclaredField("path");
-            FOS_PATH = FileOutputStream.class.getDeclaredField("path");
             FIS_IN = FilterInputStream.class.getDeclaredField("in");
             FOS_OUT = FilterOutputStream.class.getDeclaredField("out");
             FILEDESCRIPTOR_FD = FileDescriptor.class.getDeclaredField("fd");
@@ -134,8 +137,6 @@ public final class State implements Cloneable {
         FILEDESCRIPTOR_HANDLE = fileDescriptorHandle;
         
         //sets all Fields accessible
-    	FIS_PATH.setAccessible(true);
-    	FOS_PATH.setAccessible(true);
         FIS_IN.setAccessible(true);
         FOS_OUT.setAccessible(true);
         FILEDESCRIPTOR_FD.setAccessible(true);
@@ -176,12 +177,68 @@ public final class State implements Cloneable {
         /** The size in bytes of the memory block. */
         final long size;
         
+        /** 
+         * The number of {@link State}s sharing the memory block. 
+         * A state that writes a shared block first copies it.
+         */
+        final AtomicInteger refCount = new AtomicInteger(1);
+        
         MemoryBlock(long address, long size) {
             this.address = address;
             this.size = size;
         }        
     }
     
+    /**
+     * Class that stores the information about an open file
+     * stream, that is shared by all the {@link State}s cloned
+     * from the one that opened it.
+     */
+    private static final class SharedFile {
+        /** The {@link FileInputStream} or {@link FileOutputStream}. */
+        final Object stream;
+        
+        /** The number of {@link State}s sharing the stream. */
+        final AtomicInteger refCount = new AtomicInteger(1);
+        
+        /** 
+         * The {@link VirtualFile} whose position is the current 
+         * position of {@link #stream}, or {@code null}.
+         */
+        VirtualFile owner;
+        
+        SharedFile(Object stream) {
+            this.stream = stream;
+        }
+        
+        FileChannel channel() {
+            return (this.stream instanceof FileInputStream ? 
+                    ((FileInputStream) this.stream).getChannel() : 
+                    ((FileOutputStream) this.stream).getChannel());
+        }
+    }
+    
+    /**
+     * Class that stores the information about an open
+     * file as seen by a {@link State}, i.e., a {@link SharedFile}
+     * and the position of the {@link State} in it.
+     */
+    private static final class VirtualFile {
+        /** The {@link SharedFile}. */
+        final SharedFile shared;
+        
+        /** 
+         * The position in the file, meaningful only when
+         * {@code this} is not the owner of {@link #shared}.
+         */
+        long position;
+        
+        VirtualFile(SharedFile shared, long position) {
+            this.shared = shared;
+            this.position = position;
+        }
+    }
+    
     /**
      * Class that stores information about an open
      * zip file to support {@link java.util.zip.ZipFile}
@@ -208,6 +265,9 @@ public final class State implements Cloneable {
         /** Should we use mmap? */
         final boolean usemmap;
         
+        /** The number of {@link State}s sharing the zip file. */
+        final AtomicInteger refCount = new AtomicInteger(1);
+        
         ZipFile(long jzfile, String name, int mode, long lastModified, boolean usemmap) {
             this.jzfile = jzfile;
             this.name = name;
@@ -240,6 +300,9 @@ public final class State implements Cloneable {
         /** The name of the entry. */
         final byte[] name;
         
+        /** The number of {@link State}s sharing the zip file entry. */
+        final AtomicInteger refCount = new AtomicInteger(1);
+        
         ZipFileEntry(long jzentry, long jzfile, byte[] name) {
             this.jzentry = jzentry;
             this.jzfile = jzfile;
@@ -254,6 +317,13 @@ public final class State implements Cloneable {
         
         final byte[] dictionary;
         
+        /** 
+         * The number of {@link State}s sharing the inflater. 
+         * A state that uses a shared inflater to inflate 
+         * first gets its own copy of it.
+         */
+        final AtomicInteger refCount = new AtomicInteger(1);
+        
         Inflater(long address, boolean nowrap, byte[] dictionary, int off, int len) {
             this.address = address;
             this.nowrap = nowrap;
@@ -297,14 +367,22 @@ public final class State implements Cloneable {
     /** The count of the state, i.e., the number of states from the previous branch point. */
     private int count = 0;
 
+    /** 
+     * The size of the thread stack when the frame of the method 
+     * invocation whose summary is being recorded is on its top, 
+     * {@code 0} if no summary is being recorded, or {@code -1} if 
+     * the frame was popped without returning a value.
+     */
+    private int summaryRecordingStackSize = 0;
+
     /** The string literals. */
-    private HashMap<String, ReferenceConcrete> stringLiterals = new HashMap<>();
+    private PersistentMap<String, ReferenceConcrete> stringLiterals = PersistentMap.empty();
 
     /** The {@link ReferenceConcrete}s to {@link Instance_JAVA_CLASS}es for nonprimitive types. */
-    private HashMap<ClassFile, ReferenceConcrete> classes = new HashMap<>();
+    private PersistentMap<ClassFile, ReferenceConcrete> classes = PersistentMap.empty();
 
     /** The {@link ReferenceConcrete}s to {@link Instance_JAVA_CLASS}es for primitive types. */
-    private HashMap<String, ReferenceConcrete> classesPrimitive = new HashMap<>();
+    private PersistentMap<String, ReferenceConcrete> classesPrimitive = PersistentMap.empty();
     
     /** The identifier of the next {@link Instance_JAVA_CLASSLOADER} to be created. */
     private int nextClassLoaderIdentifier = 1;
@@ -319,10 +397,10 @@ public final class State implements Cloneable {
     private boolean standardClassLoadersNotReady = true;
     
     /** The {@link ReferenceConcrete}s to {@link Instance}s of {@code java.lang.invoke.MethodType}s. */
-    private HashMap<String, ReferenceConcrete> methodTypes = new HashMap<>();
+    private PersistentMap<String, ReferenceConcrete> methodTypes = PersistentMap.empty();
     
     /** Maps file descriptors/handles to (meta-level) open files. */
-    private HashMap<Long, Object> files = new HashMap<>();
+    private HashMap<Long, VirtualFile> files = new HashMap<>();
     
     /** The file descriptor/handle of the (standard) input. */
     private long inFileId; //nonfinal only because initialized outside the constructor, but it is effectively final
@@ -333,8 +411,11 @@ public final class State implements Cloneable {
     /** The file descriptor/handle of the (standard) error. */
     private long errFileId; //nonfinal only because initialized outside the constructor, but it is effectively final
     
-    /** Maps memory addresses to (meta-level) allocated memory blocks. */
-    private HashMap<Long, MemoryBlock> allocatedMemory = new HashMap<>();
+    /** 
+     * Maps (base-level) memory addresses to (meta-level) allocated 
+     * memory blocks, ordered by address. 
+     */
+    private TreeMap<Long, MemoryBlock> allocatedMemory = new TreeMap<>();
     
     /** 
      * Maps (base-level) jzfile C structure addresses to 
@@ -352,13 +433,19 @@ public final class State implements Cloneable {
     private HashMap<Long, Inflater> inflaters = new HashMap<>();
     
     /** The registered performance counters. */
-    private HashSet<String> perfCounters = new HashSet<>();
+    private PersistentMap<String, Boolean> perfCounters = PersistentMap.empty();
 
     /** The JVM stack of the current execution thread. */
     private ThreadStack stack = new ThreadStack();
 
     /** The JVM heap. */
     private Heap heap;
+    
+    /** 
+     * The heap position from where {@link #gcIncremental()} 
+     * may dispose objects. 
+     */
+    private long heapPositionGcIncremental = 0L;
 
     /** 
      * The object that fetches classfiles from the classpath, stores them, 
@@ -397,6 +484,9 @@ public final class State implements Cloneable {
     /** The number of pushed path condition clauses from the last reset. */ 
     private int nPushedClauses = 0;
 
+    /** Whether the path condition was rewritten from the last reset. */ 
+    private boolean wasPathConditionRewritten = false;
+
     /** {@code true} iff the state is stuck. */
     private boolean stuck = false;
 
@@ -423,17 +513,24 @@ public final class State implements Cloneable {
      * (type checking) semantics to their adapter methods, indicated
      * as {@link ReferenceConcrete}s to their respective {@code java.lang.invoke.MemberName}s.
      */
-    private HashMap<Signature, ReferenceConcrete> linkInvokers = new HashMap<>();
+    private PersistentMap<Signature, ReferenceConcrete> linkInvokers = PersistentMap.empty();
     
     /** 
      * Links signature polymorphic methods that have nonintrinsic
      * (type checking) semantics to their invocation appendices, indicated
      * as {@link ReferenceConcrete}s to {@code Object[]}s.
      */
-    private HashMap<Signature, ReferenceConcrete> linkAppendices = new HashMap<>();
+    private PersistentMap<Signature, ReferenceConcrete> linkAppendices = PersistentMap.empty();
     
     /** The maximum length an array may have to be granted simple representation. */
     private final int maxSimpleArrayLength;
+    
+    /** 
+     * Whether the arrays with primitive members that cannot be 
+     * granted simple representation are represented with the
+     * theory of arrays.
+     */
+    private boolean useArrayTheory = false;
 
     /** 
      * The generator for unambiguous symbol identifiers; mutable
@@ -588,6 +685,17 @@ public final class State implements Cloneable {
         }
     }
     
+    /**
+     * Sets whether the arrays with primitive members that 
+     * are created in this state and cannot be granted simple 
+     * representation are represented with the theory of arrays.
+     * 
+     * @param useArrayTheory a {@code boolean}.
+     */
+    public void setUseArrayTheory(boolean useArrayTheory) {
+        this.useArrayTheory = useArrayTheory;
+    }
+    
     /**
      * Freezes this state, making it immutable.
      */
@@ -1126,8 +1234,8 @@ public final class State implements Cloneable {
         if (signature == null || invoker == null || appendix == null) {
             throw new NullPointerException(); //TODO throw better exception
         }
-        this.linkInvokers.put(signature, invoker);
-        this.linkAppendices.put(signature, appendix);
+        this.linkInvokers = this.linkInvokers.put(signature, invoker);
+        this.linkAppendices = this.linkAppendices.put(signature, appendix);
     }
     
     /**
@@ -1170,7 +1278,31 @@ public final class State implements Cloneable {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
-        return this.files.get(Long.valueOf(id));
+        final VirtualFile file = this.files.get(Long.valueOf(id));
+        if (file == null) {
+            return null;
+        }
+        final SharedFile shared = file.shared;
+        if (shared.owner != file && !isStandardFile(id)) {
+            //the stream is shared with other states: moves it 
+            //to the position of this state
+            try {
+                final FileChannel channel = shared.channel();
+                if (shared.owner != null) {
+                    shared.owner.position = channel.position();
+                }
+                channel.position(file.position);
+            } catch (IOException e) {
+                //this should never happen
+                throw new UnexpectedInternalException(e);
+            }
+            shared.owner = file;
+        }
+        return shared.stream;
+    }
+    
+    private boolean isStandardFile(long id) {
+        return (id == this.inFileId || id == this.outFileId || id == this.errFileId);
     }
     
     /**
@@ -1188,7 +1320,10 @@ public final class State implements Cloneable {
     		throw new FrozenStateException();
     	}
         if (fileStream instanceof FileInputStream || fileStream instanceof FileOutputStream) {
-            this.files.put(Long.valueOf(id), fileStream);
+            final SharedFile shared = new SharedFile(fileStream);
+            final VirtualFile file = new VirtualFile(shared, 0L);
+            shared.owner = file;
+            this.files.put(Long.valueOf(id), file);
         }
     }
     
@@ -1198,13 +1333,22 @@ public final class State implements Cloneable {
      * @param id a {@code long}, the identifier of the open file to remove
      *        (if it is not a previously associated open file descriptor
      *        the method does nothing).
+     * @return {@code true} iff the file stream is not used by any
+     *         other {@link State}, and thus must be closed by the caller.
      * @throws FrozenStateException if the state is frozen.
      */
-    public void removeFile(long id) throws FrozenStateException {
+    public boolean removeFile(long id) throws FrozenStateException {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
-        this.files.remove(Long.valueOf(id));
+        final VirtualFile file = this.files.remove(Long.valueOf(id));
+        if (file == null) {
+            return false;
+        }
+        if (file.shared.owner == file) {
+            file.shared.owner = null;
+        }
+        return (file.shared.refCount.decrementAndGet() == 0);
     }
     
     /**
@@ -1246,6 +1390,53 @@ public final class State implements Cloneable {
         return this.allocatedMemory.get(address).address;
     }
 
+    /**
+     * Translates an address in a memory block.
+     * 
+     * @param address a {@code long}, an address as known by this {@link State}
+     *        (base-level address), possibly pointing inside a memory block.
+     * @param forWriting a {@code boolean}, {@code true} iff the caller 
+     *        is going to write at the translated address. In such case, 
+     *        if the memory block containing {@code address} is shared 
+     *        with other {@link State}s, this {@link State} gets its own 
+     *        copy of it.
+     * @return a {@code long}, the true address (meta-level address)
+     *         corresponding to {@code address}, or {@code address} itself
+     *         if it does not point inside any memory block registered by 
+     *         a call to {@link #addMemoryBlock(long, long) addMemoryBlock}.
+     * @throws FrozenStateException if {@code forWriting} and the state is frozen.
+     */
+    public long translateMemoryAddress(long address, boolean forWriting) throws FrozenStateException {
+        if (forWriting && this.frozen) {
+            throw new FrozenStateException();
+        }
+        //the blocks do not overlap, so only the block with 
+        //the greatest base address not above address may contain it
+        final Map.Entry<Long, MemoryBlock> entry = this.allocatedMemory.floorEntry(address);
+        if (entry == null) {
+            return address;
+        }
+        final long baseLevelAddress = entry.getKey();
+        MemoryBlock memoryBlock = entry.getValue();
+        if (address - baseLevelAddress >= memoryBlock.size) {
+            return address;
+        }
+        if (forWriting && memoryBlock.refCount.get() > 1) {
+            final long newMemoryBlockAddress = unsafe().allocateMemory(memoryBlock.size);
+            unsafe().copyMemory(memoryBlock.address, newMemoryBlockAddress, memoryBlock.size);
+            releaseMemoryBlock(memoryBlock);
+            memoryBlock = new MemoryBlock(newMemoryBlockAddress, memoryBlock.size);
+            this.allocatedMemory.put(baseLevelAddress, memoryBlock);
+        }
+        return memoryBlock.address + (address - baseLevelAddress);
+    }
+    
+    private static void releaseMemoryBlock(MemoryBlock memoryBlock) {
+        if (memoryBlock.refCount.decrementAndGet() == 0) {
+            unsafe().freeMemory(memoryBlock.address);
+        }
+    }
+
     /**
      * Returns the size of a memory block.
      * 
@@ -1263,7 +1454,9 @@ public final class State implements Cloneable {
     }
 
     /**
-     * Removes the registration of a memory block.
+     * Removes the registration of a memory block, and 
+     * deallocates it if it is not used by any other
+     * {@link State}.
      * 
      * @param address a {@code long}, the address as known by this {@link State}
      *        (base-level address).
@@ -1278,7 +1471,7 @@ public final class State implements Cloneable {
         if (!this.allocatedMemory.containsKey(address)) {
             throw new InvalidInputException("Tried to remove a raw memory block corresponding to an unknown (base-level) address.");
         }
-        this.allocatedMemory.remove(address);
+        releaseMemoryBlock(this.allocatedMemory.remove(address));
     }
     
     /**
@@ -1443,7 +1636,7 @@ public final class State implements Cloneable {
         if (!this.zipFiles.containsKey(jzfile)) {
             throw new InvalidInputException("Tried to remove an unknown zip file.");
         }
-        this.zipFiles.remove(jzfile);
+        this.zipFiles.remove(jzfile).refCount.decrementAndGet();
         final HashSet<Long> toRemove = new HashSet<>();
         for (Map.Entry<Long, ZipFileEntry> entry : this.zipFileEntries.entrySet()) {
             if (entry.getValue().jzfile == jzfile) {
@@ -1451,7 +1644,7 @@ public final class State implements Cloneable {
             }
         }
         for (long jzentry : toRemove) {
-            this.zipFileEntries.remove(jzentry);
+            this.zipFileEntries.remove(jzentry).refCount.decrementAndGet();
         }
     }
     
@@ -1460,18 +1653,20 @@ public final class State implements Cloneable {
      * 
      * @param jzentry a {@code long}, the address of a jzentry C structure as known 
      *        by this {@link State} (base-level address).
+     * @return {@code true} iff the jzentry C structure is not used by any
+     *         other {@link State}, and thus must be freed by the caller.
      * @throws InvalidInputException if the state is frozen, or {@code jzentry} 
      *         was not added before by a call to
      *         {@link #addZipFileEntry(long, long, byte[]) addZipFileEntry}.
      */
-    public void removeZipFileEntry(long jzentry) throws InvalidInputException {
+    public boolean removeZipFileEntry(long jzentry) throws InvalidInputException {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
         if (!this.zipFileEntries.containsKey(jzentry)) {
             throw new InvalidInputException("Tried to remove an unknown zip file entry.");
         }
-        this.zipFileEntries.remove(jzentry);
+        return (this.zipFileEntries.remove(jzentry).refCount.decrementAndGet() == 0);
     }
     
     /**
@@ -1511,6 +1706,54 @@ public final class State implements Cloneable {
         return this.inflaters.get(address).address;
     }
     
+    /**
+     * Gets the address of an inflater block that is not 
+     * shared with other {@link State}s, and that can thus 
+     * be used to inflate. If the inflater is shared, this 
+     * {@link State} gets its own copy of it, initialized
+     * with the same {@code nowrap} parameter and dictionary.
+     * 
+     * @param address a {@code long}, the address of an inflater block
+     *        as known by this state (base-level address).
+     * @return a {@code long}, the true address of the inflater block
+     *         (meta-level address).
+     * @throws InvalidInputException if the state is frozen, or 
+     *         {@code address} was not previously registered.
+     */
+    public long getInflaterExclusive(long address) throws InvalidInputException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        if (!this.inflaters.containsKey(address)) {
+            throw new InvalidInputException("Tried to get the address of an unknown inflater.");
+        }
+        final Inflater inf = this.inflaters.get(address);
+        if (inf.refCount.get() == 1) {
+            return inf.address;
+        }
+        try {
+            final Method methodInit = java.util.zip.Inflater.class.getDeclaredMethod("init", boolean.class);
+            methodInit.setAccessible(true);
+            final long addressNew = (long) methodInit.invoke(null, inf.nowrap);
+            final Inflater infNew;
+            if (inf.dictionary == null) {
+                infNew = new Inflater(addressNew, inf.nowrap);
+            } else {
+                final Method methodSetDictionary = java.util.zip.Inflater.class.getDeclaredMethod("setDictionary", long.class, byte[].class, int.class, int.class);
+                methodSetDictionary.setAccessible(true);
+                methodSetDictionary.invoke(null, addressNew, inf.dictionary, 0, inf.dictionary.length);
+                infNew = new Inflater(addressNew, inf.nowrap, inf.dictionary, 0, inf.dictionary.length);
+            }
+            inf.refCount.decrementAndGet();
+            this.inflaters.put(address, infNew);
+            return infNew.address;
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
+                 IllegalArgumentException | InvocationTargetException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+    }
+    
     /**
      * Stores the dictionary of an inflater.
      * 
@@ -1521,8 +1764,9 @@ public final class State implements Cloneable {
      *        where the dictionary starts.
      * @param len a {@code int}, the length of the dictionary.
      * @throws InvalidInputException if the state is frozen, or 
-     *         {@code address} was not previously
-     *         registered, or {@code dictionary == null}, or {@code ofst < 0}, 
+     *         {@code address} was not previously registered, or
+     *         the inflater is shared with other {@link State}s (see
+     *         {@link #getInflaterExclusive(long)}), or {@code dictionary == null}, or {@code ofst < 0}, 
      *         or {@code len < 0}, or {@code ofst >= dictionary.length}, or
      *         {@code ofst + len > dictionary.length}.
      */
@@ -1537,6 +1781,9 @@ public final class State implements Cloneable {
             throw new InvalidInputException("Tried to set the dictionary of an inflater with wrong dictionary, offset or length.");
         }
         final Inflater inflaterOld = this.inflaters.get(address);
+        if (inflaterOld.refCount.get() > 1) {
+            throw new InvalidInputException("Tried to set the dictionary of a shared inflater.");
+        }
         final Inflater inflaterNew = new Inflater(inflaterOld.address, inflaterOld.nowrap, dictionary, ofst, len);
         this.inflaters.put(address, inflaterNew);
     }
@@ -1546,17 +1793,19 @@ public final class State implements Cloneable {
      * 
      * @param address a {@code long}, the address of an inflater block
      *        as known by this state (base-level address).
+     * @return {@code true} iff the inflater block is not used by any
+     *         other {@link State}, and thus must be ended by the caller.
      * @throws InvalidInputException if the state is frozen, or 
      *         {@code address} was not previously registered.
      */
-    public void removeInflater(long address) throws InvalidInputException {
+    public boolean removeInflater(long address) throws InvalidInputException {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
         if (!this.inflaters.containsKey(address)) {
             throw new InvalidInputException("Tried to remove an unknown inflater.");
         }
-        this.inflaters.remove(address);
+        return (this.inflaters.remove(address).refCount.decrementAndGet() == 0);
     }
     
     /**
@@ -1570,10 +1819,10 @@ public final class State implements Cloneable {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
-        if (this.perfCounters.contains(name)) {
+        if (this.perfCounters.containsKey(name)) {
             throw new InvalidInputException("Tried to register the performance counter " + name + " twice.");
         }
-        this.perfCounters.add(name);
+        this.perfCounters = this.perfCounters.put(name, Boolean.TRUE);
     }
 
     /**
@@ -1604,7 +1853,7 @@ public final class State implements Cloneable {
         }
         final ArrayImpl a;
 		try {
-			a = new ArrayImpl(calc, false, false, initValue, length, arrayClass, null, this.historyPoint, false, this.maxSimpleArrayLength);
+			a = new ArrayImpl(calc, false, false, initValue, length, arrayClass, null, this.historyPoint, false, this.maxSimpleArrayLength, this.useArrayTheory);
 		} catch (InvalidTypeException e) {
 			//this should never happen
 			throw new UnexpectedInternalException(e);
@@ -1701,8 +1950,7 @@ public final class State implements Cloneable {
     }
     
     private InstanceImpl doCreateInstance(Calculator calc, ClassFile classFile) {
-        final int numOfStaticFields = classFile.numOfStaticFields();
-        final Signature[] fieldsSignatures = classFile.getAllFields();
+        final FieldLayout fieldLayout = classFile.getFieldLayout();
         final ClassFile cf_JAVA_CLASSLOADER;
         final ClassFile cf_JAVA_THREAD;
         try {
@@ -1716,11 +1964,11 @@ public final class State implements Cloneable {
         }
         try {
             if (classFile.isSubclass(cf_JAVA_CLASSLOADER)) {
-                return new InstanceImpl_JAVA_CLASSLOADER(calc, classFile, null, this.historyPoint, this.nextClassLoaderIdentifier++, numOfStaticFields, fieldsSignatures);
+                return new InstanceImpl_JAVA_CLASSLOADER(calc, classFile, null, this.historyPoint, this.nextClassLoaderIdentifier++, fieldLayout);
             } else if (classFile.isSubclass(cf_JAVA_THREAD)) {
-                return new InstanceImpl_JAVA_THREAD(calc, classFile, null, this.historyPoint, numOfStaticFields, fieldsSignatures);
+                return new InstanceImpl_JAVA_THREAD(calc, classFile, null, this.historyPoint, fieldLayout);
             } else {
-                return new InstanceImpl_DEFAULT(calc, false, classFile, null, this.historyPoint, numOfStaticFields, fieldsSignatures);
+                return new InstanceImpl_DEFAULT(calc, false, classFile, null, this.historyPoint, fieldLayout);
             }
         } catch (InvalidTypeException | InvalidInputException e) {
             //this should never happen
@@ -1747,9 +1995,8 @@ public final class State implements Cloneable {
             if (cf_JAVA_CLASS == null) {
                 throw new UnexpectedInternalException("Could not find the classfile for java.lang.Class.");
             }
-            final int numOfStaticFields = cf_JAVA_CLASS.numOfStaticFields();
-            final Signature[] fieldsSignatures = cf_JAVA_CLASS.getAllFields();
-            final InstanceImpl_JAVA_CLASS myObj = new InstanceImpl_JAVA_CLASS(calc, cf_JAVA_CLASS, null, this.historyPoint, representedClass, numOfStaticFields, fieldsSignatures);
+            final FieldLayout fieldLayout = cf_JAVA_CLASS.getFieldLayout();
+            final InstanceImpl_JAVA_CLASS myObj = new InstanceImpl_JAVA_CLASS(calc, cf_JAVA_CLASS, null, this.historyPoint, representedClass, fieldLayout);
             final ReferenceConcrete retVal = new ReferenceConcrete(this.heap.addNew(myObj));
             
             //initializes the fields of the new instance: The only
@@ -1807,9 +2054,8 @@ public final class State implements Cloneable {
         if (existsKlass(classFile)) {
             return;
         }
-        final int numOfStaticFields = classFile.numOfStaticFields();
-        final Signature[] fieldsSignatures = classFile.getAllFields();
-        final KlassImpl k = new KlassImpl(calc, false, null, this.historyPoint, numOfStaticFields, fieldsSignatures);
+        final FieldLayout fieldLayout = classFile.getFieldLayout();
+        final KlassImpl k = new KlassImpl(calc, false, null, this.historyPoint, fieldLayout);
         k.setIdentityHashCode(calc.valInt(0)); //doesn't care because it is not used
         this.staticMethodArea.set(classFile, k);
     }
@@ -1842,9 +2088,8 @@ public final class State implements Cloneable {
         if (existsKlass(classFile)) {
             return;
         }
-        final int numOfStaticFields = classFile.numOfStaticFields();
-        final Signature[] fieldsSignatures = classFile.getAllFields();
-        final KlassImpl k = new KlassImpl(calc, true, createSymbolKlassPseudoReference(this.lastPreInitialHistoryPoint, classFile), this.lastPreInitialHistoryPoint, numOfStaticFields, fieldsSignatures);
+        final FieldLayout fieldLayout = classFile.getFieldLayout();
+        final KlassImpl k = new KlassImpl(calc, true, createSymbolKlassPseudoReference(this.lastPreInitialHistoryPoint, classFile), this.lastPreInitialHistoryPoint, fieldLayout);
         try {
         	initWithSymbolicValues(k, classFile);
         } catch (NullPointerException e) {
@@ -1909,7 +2154,7 @@ public final class State implements Cloneable {
     throws InvalidTypeException, FrozenStateException {
         try {
             final Primitive length = (Primitive) createSymbolMemberArrayLength(origin);
-            final ArrayImpl obj = new ArrayImpl(calc, true, true, null, length, arrayClass, origin, origin.historyPoint(), isInitial, this.maxSimpleArrayLength);
+            final ArrayImpl obj = new ArrayImpl(calc, true, true, null, length, arrayClass, origin, origin.historyPoint(), isInitial, this.maxSimpleArrayLength, this.useArrayTheory);
 			initIdentityHashCodeSymbolic(obj);
 	        return obj;
 		} catch (InvalidInputException e) {
@@ -1954,9 +2199,8 @@ public final class State implements Cloneable {
         if (cannotExecuteSymbolically(classFile)) {
             throw new CannotAssumeSymbolicObjectException("JBSE does not allow to execute symbolically the methods of class " + classFile.getClassName() + ".");
         }
-        final int numOfStaticFields = classFile.numOfStaticFields();
-        final Signature[] fieldsSignatures = classFile.getAllFields();
-        final InstanceImpl_DEFAULT obj = new InstanceImpl_DEFAULT(calc, true, classFile, origin, origin.historyPoint(), numOfStaticFields, fieldsSignatures);
+        final FieldLayout fieldLayout = classFile.getFieldLayout();
+        final InstanceImpl_DEFAULT obj = new InstanceImpl_DEFAULT(calc, true, classFile, origin, origin.historyPoint(), fieldLayout);
         try {
         	initWithSymbolicValues(obj, classFile);
         } catch (NullPointerException e) {
@@ -2092,7 +2336,7 @@ public final class State implements Cloneable {
             final Instance i = (Instance) getObject(retVal);
             i.setFieldValue(JAVA_STRING_VALUE,  value);
             i.setFieldValue(JAVA_STRING_HASH,   hash);
-            this.stringLiterals.put(stringLit, retVal);
+            this.stringLiterals = this.stringLiterals.put(stringLit, retVal);
         } catch (InvalidInputException e) {
             //this should never happen
             throw new UnexpectedInternalException(e);
@@ -2217,7 +2461,7 @@ public final class State implements Cloneable {
                 throw new UnexpectedInternalException(e);
             }
         } else {
-            this.classes.put(representedClass, createInstance_JAVA_CLASS(calc, representedClass));
+            this.classes = this.classes.put(representedClass, createInstance_JAVA_CLASS(calc, representedClass));
         }
     }
 
@@ -2255,7 +2499,7 @@ public final class State implements Cloneable {
                     throw new UnexpectedInternalException("Could not find the classfile for the primitive type " + typeName + ".");
                 }
                 final ReferenceConcrete retVal = createInstance_JAVA_CLASS(calc, cf);
-                this.classesPrimitive.put(typeName, retVal);
+                this.classesPrimitive = this.classesPrimitive.put(typeName, retVal);
             } catch (InvalidInputException e) {
                 throw new UnexpectedInternalException(e);
             }
@@ -2389,7 +2633,7 @@ public final class State implements Cloneable {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
-        this.methodTypes.put(descriptor, ref);
+        this.methodTypes = this.methodTypes.put(descriptor, ref);
     }
 
     /**
@@ -2669,19 +2913,20 @@ public final class State implements Cloneable {
     
     private void narrowArgs(Calculator calc, Value[] args, Signature methodSignatureImpl, boolean isStatic) 
     throws InvalidTypeException, InvalidInputException {
-        final String[] paramsDescriptor = Type.splitParametersDescriptors(methodSignatureImpl.getDescriptor());
-        final int expectedNumberOfArgs = paramsDescriptor.length + (isStatic ? 0 : 1);
+        final MethodDescriptor methodDescriptor = methodSignatureImpl.getMethodDescriptor();
+        final int expectedNumberOfArgs = methodDescriptor.parametersNumber(isStatic);
         if (args.length != expectedNumberOfArgs) {
         	throw new InvalidInputException("Tried to create a method frame with a number of arguments " + args.length + " different from the expected number of arguments " + expectedNumberOfArgs + ".");
         }
-        for (int i = 0; i < paramsDescriptor.length; ++i) {
-            if (Type.isPrimitive(paramsDescriptor[i]) && ! Type.isPrimitiveOpStack(paramsDescriptor[i].charAt(0))) {
+        for (int i = 0; i < methodDescriptor.getNumberOfParameters(); ++i) {
+            final String paramDescriptor = methodDescriptor.getParameterType(i);
+            if (Type.isPrimitive(paramDescriptor) && ! Type.isPrimitiveOpStack(paramDescriptor.charAt(0))) {
                 final int indexArg = i + (isStatic ? 0 : 1);
                 if (args[indexArg] == null) {
                 	throw new InvalidInputException("Tried to create a method frame with a null argument args[" + indexArg + "].");
                 }
                 try {
-					args[indexArg] = calc.push((Primitive) args[indexArg]).narrow(paramsDescriptor[i].charAt(0)).pop();
+					args[indexArg] = calc.push((Primitive) args[indexArg]).narrow(paramDescriptor.charAt(0)).pop();
 				} catch (InvalidOperandException e) {
 					//this should never happen
 					throw new UnexpectedInternalException(e);
@@ -2708,8 +2953,9 @@ public final class State implements Cloneable {
     private Value[] makeArgsSymbolic(MethodFrame f, boolean isStatic) 
     throws HeapMemoryExhaustedException, CannotAssumeSymbolicObjectException, FrozenStateException {
         final Signature methodSignature = f.getMethodSignature();
-        final String[] paramsDescriptors = Type.splitParametersDescriptors(methodSignature.getDescriptor());
-        final int numArgs = parametersNumber(methodSignature.getDescriptor(), isStatic);
+        final MethodDescriptor methodDescriptor = methodSignature.getMethodDescriptor();
+        final String[] paramsDescriptors = methodDescriptor.getParameterTypes();
+        final int numArgs = methodDescriptor.parametersNumber(isStatic);
         final String methodGenericSignatureType;
 		try {
 			methodGenericSignatureType = f.getMethodClass().getMethodGenericSignatureType(methodSignature);
@@ -2808,8 +3054,7 @@ public final class State implements Cloneable {
      */
     public Reference peekReceiverArg(Signature methodSignature) 
     throws ThreadStackEmptyException, FrozenStateException {
-        final String[] paramsDescriptors = Type.splitParametersDescriptors(methodSignature.getDescriptor());
-        final int nParams = paramsDescriptors.length + 1;
+        final int nParams = methodSignature.getMethodDescriptor().parametersNumber(false);
         final Collection<Value> opStackVals = getCurrentFrame().operands();
         int i = 1;
         for (Value val : opStackVals) { 
@@ -2853,9 +3098,45 @@ public final class State implements Cloneable {
     	if (this.frozen) {
     		throw new FrozenStateException();
     	}
+    	if (this.summaryRecordingStackSize > 0 && this.summaryRecordingStackSize == getStackSize()) {
+    		//the summarized invocation did not return a value
+    		this.summaryRecordingStackSize = -1;
+    	}
     	return this.stack.pop();
     }
 
+    /**
+     * Returns the size of the thread stack at which the 
+     * invocation whose summary is being recorded runs.
+     * 
+     * @return an {@code int}, the size of the thread stack 
+     *         when the frame of the summarized invocation is
+     *         on its top, {@code 0} if no summary is being 
+     *         recorded on this state, or {@code -1} if the 
+     *         summarized invocation exited without returning 
+     *         a value (e.g., by throwing an exception).
+     */
+    public int getSummaryRecordingStackSize() {
+        return this.summaryRecordingStackSize;
+    }
+
+    /**
+     * Sets the size of the thread stack at which the 
+     * invocation whose summary is being recorded runs.
+     * 
+     * @param summaryRecordingStackSize an {@code int}, the size
+     *        of the thread stack when the frame of the summarized
+     *        invocation is on its top, or {@code 0} to stop
+     *        recording.
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public void setSummaryRecordingStackSize(int summaryRecordingStackSize) throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        this.summaryRecordingStackSize = summaryRecordingStackSize;
+    }
+
     /**
      * Removes all the frames from the thread stack.
      * 
@@ -3405,8 +3686,278 @@ public final class State implements Cloneable {
     		throw new FrozenStateException();
     	}
         this.wereResetLastPathConditionClauses = true;
+        this.wasPathConditionRewritten = false;
     }
-
+    
+    /**
+     * Determines whether the path condition was rewritten,
+     * rather than just extended, after the last call to 
+     * {@link #resetLastPathConditionClauses()}. In this 
+     * case the decision procedure's current assumptions 
+     * must be replaced by the whole path condition.
+     * 
+     * @return {@code true} iff after the last call to 
+     *         {@link #resetLastPathConditionClauses()}
+     *         the path condition was rewritten by invoking
+     *         {@link #mergeWith(State, Calculator)}.
+     */
+    public boolean wasPathConditionRewritten() {
+        return this.wasPathConditionRewritten;
+    }
+    
+    /**
+     * Merges another state into this state. The merge 
+     * succeeds only if the two states have the same 
+     * thread stack, heap and static method area, up to 
+     * the values of the primitive operands and local 
+     * variables of their current frames, and if their path
+     * conditions differ only by their last numeric 
+     * assumptions. Every primitive value that differs in the 
+     * two states is replaced in this state by a fresh symbol, 
+     * and the last numeric assumptions of this state are 
+     * replaced with a single clause, the disjunction of the 
+     * last numeric assumptions of the two states, each conjoined
+     * with the equalities between the fresh symbols and the 
+     * values they replace in the state.
+     * 
+     * @param other the {@link State} to be merged into {@code this}.
+     *        It is not modified.
+     * @param calc a {@link Calculator}.
+     * @return {@code true} iff the two states were merged. 
+     *         If the method returns {@code false}, {@code this}
+     *         is not modified.
+     * @throws FrozenStateException if {@code this} is frozen.
+     */
+    public boolean mergeWith(State other, Calculator calc) throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        if (this == other || !sameStructureAs(other)) {
+            return false;
+        }
+        
+        //the path conditions must differ only by their last numeric assumptions
+        final List<Clause> thisClauses = this.pathCondition.getClauses();
+        final List<Clause> otherClauses = other.pathCondition.getClauses();
+        int common = 0;
+        while (common < thisClauses.size() && common < otherClauses.size() && 
+               thisClauses.get(common).equals(otherClauses.get(common))) {
+            ++common;
+        }
+        if (!allClausesAssume(thisClauses, common) || !allClausesAssume(otherClauses, common)) {
+            return false;
+        }
+        
+        //the current frames must differ only by their primitive values
+        final MethodFrame thisFrame = (MethodFrame) this.stack.frames().get(this.stack.frames().size() - 1);
+        final MethodFrame otherFrame = (MethodFrame) other.stack.frames().get(other.stack.frames().size() - 1);
+        final List<Value> thisOperands = (List<Value>) thisFrame.getOperandStack().values();
+        final List<Value> otherOperands = (List<Value>) otherFrame.getOperandStack().values();
+        final LocalVariablesArea thisLocals = thisFrame.getLocalVariableArea();
+        final LocalVariablesArea otherLocals = otherFrame.getLocalVariableArea();
+        final ArrayList<Integer> differingOperands = new ArrayList<>();
+        final ArrayList<Integer> differingLocals = new ArrayList<>();
+        try {
+            for (int i = 0; i < thisOperands.size(); ++i) {
+                final int outcome = compareValues(thisOperands.get(i), otherOperands.get(i));
+                if (outcome < 0) {
+                    return false;
+                } else if (outcome > 0) {
+                    differingOperands.add(i);
+                }
+            }
+            for (int slot = 0; slot < thisLocals.size(); ++slot) {
+                if (thisLocals.isWritten(slot) != otherLocals.isWritten(slot)) {
+                    return false;
+                } else if (thisLocals.isWritten(slot)) {
+                    final int outcome = compareValues(thisLocals.get(slot), otherLocals.get(slot));
+                    if (outcome < 0) {
+                        return false;
+                    } else if (outcome > 0) {
+                        differingLocals.add(slot);
+                    }
+                }
+            }
+        } catch (InvalidSlotException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        
+        //replaces the differing values with fresh symbols, 
+        //and builds the disjunction of the two states' constraints
+        try {
+            this.symbolFactory.skipIdentifiersOf(other.symbolFactory);
+            Primitive thisConstraint = conjunction(calc, thisClauses, common);
+            Primitive otherConstraint = conjunction(calc, otherClauses, common);
+            for (int i : differingOperands) {
+                final Primitive thisValue = (Primitive) thisOperands.get(i);
+                final Primitive otherValue = (Primitive) otherOperands.get(i);
+                final Primitive merged = this.symbolFactory.createSymbolMerge(this.historyPoint, thisValue.getType());
+                thisConstraint = conjoin(calc, thisConstraint, calc.push(merged).eq(thisValue).pop());
+                otherConstraint = conjoin(calc, otherConstraint, calc.push(merged).eq(otherValue).pop());
+                thisFrame.getOperandStack().replace(i, merged);
+            }
+            for (int slot : differingLocals) {
+                final Primitive thisValue = (Primitive) thisLocals.get(slot);
+                final Primitive otherValue = (Primitive) otherLocals.get(slot);
+                final Primitive merged = this.symbolFactory.createSymbolMerge(this.historyPoint, thisValue.getType());
+                thisConstraint = conjoin(calc, thisConstraint, calc.push(merged).eq(thisValue).pop());
+                otherConstraint = conjoin(calc, otherConstraint, calc.push(merged).eq(otherValue).pop());
+                thisLocals.replace(slot, merged);
+            }
+            final Primitive disjunction = (thisConstraint == null || otherConstraint == null ? 
+                                           calc.valBoolean(true) : 
+                                           calc.push(thisConstraint).or(otherConstraint).pop());
+            this.pathCondition.replaceClausesAssume(common, disjunction);
+        } catch (InvalidOperandException | InvalidTypeException | 
+                 InvalidInputException | InvalidSlotException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        this.wasPathConditionRewritten = true;
+        return true;
+    }
+    
+    /**
+     * Checks whether this state and another one may be
+     * merged, as far as their components other than the 
+     * path condition and the values in the current frame 
+     * are concerned.
+     * 
+     * @param other a {@link State}.
+     * @return {@code true} iff {@code this} and {@code other}
+     *         are both post-initial and not stuck, have the 
+     *         same open files and native resources, the same 
+     *         class loaders, string literals, class objects, 
+     *         method types, performance counters and linked 
+     *         call sites, the very same objects in the heap and 
+     *         in the static method area, the same frames below 
+     *         the current one, and current frames for the same 
+     *         method at the same program counter and with the 
+     *         same layout. 
+     */
+    private boolean sameStructureAs(State other) {
+        if (this.phase != Phase.POST_INITIAL || other.phase != Phase.POST_INITIAL || 
+            this.stuck || other.stuck || this.wide || other.wide ||
+            this.bypassStandardLoading != other.bypassStandardLoading ||
+            this.summaryRecordingStackSize != other.summaryRecordingStackSize ||
+            this.nextClassLoaderIdentifier != other.nextClassLoaderIdentifier ||
+            !this.classLoaders.equals(other.classLoaders) ||
+            this.standardClassLoadersNotReady != other.standardClassLoadersNotReady ||
+            this.snippetClassFileCounter != other.snippetClassFileCounter ||
+            !this.stringLiterals.sameMappingsAs(other.stringLiterals) ||
+            !this.classes.sameMappingsAs(other.classes) ||
+            !this.classesPrimitive.sameMappingsAs(other.classesPrimitive) ||
+            !this.methodTypes.sameMappingsAs(other.methodTypes) ||
+            !this.perfCounters.sameMappingsAs(other.perfCounters) ||
+            !this.linkInvokers.sameMappingsAs(other.linkInvokers) ||
+            !this.linkAppendices.sameMappingsAs(other.linkAppendices)) {
+            return false;
+        }
+        
+        //thread stack
+        final List<Frame> thisFrames = this.stack.frames();
+        final List<Frame> otherFrames = other.stack.frames();
+        if (thisFrames.isEmpty() || thisFrames.size() != otherFrames.size()) {
+            return false;
+        }
+        for (int i = 0; i < thisFrames.size() - 1; ++i) {
+            if (thisFrames.get(i) != otherFrames.get(i)) {
+                return false;
+            }
+        }
+        final Frame thisFrame = thisFrames.get(thisFrames.size() - 1);
+        final Frame otherFrame = otherFrames.get(otherFrames.size() - 1);
+        if (!(thisFrame instanceof MethodFrame) || !(otherFrame instanceof MethodFrame) ||
+            thisFrame.getMethodClass() != otherFrame.getMethodClass() ||
+            !thisFrame.getMethodSignature().equals(otherFrame.getMethodSignature()) ||
+            thisFrame.getProgramCounter() != otherFrame.getProgramCounter() ||
+            thisFrame.getReturnProgramCounter() != otherFrame.getReturnProgramCounter() ||
+            ((MethodFrame) thisFrame).getOperandStack().values().size() != ((MethodFrame) otherFrame).getOperandStack().values().size() ||
+            ((MethodFrame) thisFrame).getLocalVariableArea().size() != ((MethodFrame) otherFrame).getLocalVariableArea().size()) {
+            return false;
+        }
+        
+        //native resources
+        if (!this.allocatedMemory.equals(other.allocatedMemory) ||
+            !this.zipFiles.equals(other.zipFiles) ||
+            !this.zipFileEntries.equals(other.zipFileEntries) ||
+            !this.inflaters.equals(other.inflaters) ||
+            !this.files.keySet().equals(other.files.keySet())) {
+            return false;
+        }
+        for (Map.Entry<Long, VirtualFile> entry : this.files.entrySet()) {
+            final VirtualFile thisFile = entry.getValue();
+            final VirtualFile otherFile = other.files.get(entry.getKey());
+            if (thisFile.shared != otherFile.shared) {
+                return false;
+            }
+            if (!isStandardFile(entry.getKey()) && 
+                (thisFile.shared.owner == thisFile || thisFile.shared.owner == otherFile || 
+                 thisFile.position != otherFile.position)) {
+                return false;
+            }
+        }
+        
+        //heap and static method area
+        return this.heap.sameObjectsAs(other.heap) && this.staticMethodArea.sameObjectsAs(other.staticMethodArea);
+    }
+    
+    private static boolean allClausesAssume(List<Clause> clauses, int from) {
+        for (Clause c : clauses.subList(from, clauses.size())) {
+            if (!(c instanceof ClauseAssume)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Compares two values for merging.
+     * 
+     * @param thisValue a {@link Value}.
+     * @param otherValue a {@link Value}.
+     * @return {@code 0} if the values are equal, a positive
+     *         value if they are different primitives with the
+     *         same type, a negative value otherwise.
+     */
+    private static int compareValues(Value thisValue, Value otherValue) {
+        if (thisValue.equals(otherValue)) {
+            return 0;
+        } else if (thisValue instanceof Primitive && otherValue instanceof Primitive && 
+                   thisValue.getType() == otherValue.getType()) {
+            return 1;
+        } else {
+            return -1;
+        }
+    }
+    
+    /**
+     * Builds the conjunction of the conditions of some
+     * {@link ClauseAssume}s.
+     * 
+     * @param calc a {@link Calculator}.
+     * @param clauses a {@link List}{@code <}{@link Clause}{@code >}.
+     * @param from an {@code int}. All the clauses in {@code clauses}
+     *        from this position on must be {@link ClauseAssume}s.
+     * @return the {@link Primitive} conjunction of the conditions of
+     *         the clauses in {@code clauses} from position {@code from} on, 
+     *         or {@code null} (that stands for true) if there are no such clauses.
+     */
+    private static Primitive conjunction(Calculator calc, List<Clause> clauses, int from) 
+    throws InvalidOperandException, InvalidTypeException {
+        Primitive retVal = null;
+        for (Clause c : clauses.subList(from, clauses.size())) {
+            retVal = conjoin(calc, retVal, ((ClauseAssume) c).getCondition());
+        }
+        return retVal;
+    }
+    
+    private static Primitive conjoin(Calculator calc, Primitive conjunction, Primitive condition) 
+    throws InvalidOperandException, InvalidTypeException {
+        return (conjunction == null ? condition : calc.push(conjunction).and(condition).pop());
+    }
+    
     /**
      * Sets the {@link State} stuck because of a return
      * from the topmost method,
@@ -3573,6 +4124,23 @@ public final class State implements Cloneable {
         this.historyPoint = this.historyPoint.nextBranch(additionalBranch);
     }
 
+    /**
+     * Adds a numbered branch to the state's {@link HistoryPoint}. Equivalent to 
+     * {@link #getHistoryPoint()}{@link HistoryPoint#nextBranch(int) .nextBranch(additionalBranch)}.
+     * 
+     * @param additionalBranch 
+     *        an {@code int} that identifies the
+     *        subbranch to be added to the state's
+     *        {@link HistoryPoint}.
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public void addBranchToHistoryPoint(int additionalBranch) throws FrozenStateException {
+        if (this.frozen) {
+                throw new FrozenStateException();
+        }
+        this.historyPoint = this.historyPoint.nextBranch(additionalBranch);
+    }
+
     /**
      * Gets the state's depth in the symbolic execution tree; the depth 
      * is the number of branches above the state.
@@ -3953,13 +4521,53 @@ public final class State implements Cloneable {
     }
     
     /**
-     * Collects and disposes the unreachable heap objects.
+     * Collects and disposes the unreachable heap objects. 
+     * Afterwards, {@link #gcIncremental()} never disposes
+     * the surviving objects.
      * 
      * @throws FrozenStateException if the state is frozen.
      */
     public void gc() throws FrozenStateException {
-        final Set<Long> doNotDispose = new ReachableObjectsCollector().reachable(this, true);
-        this.heap.disposeExcept(doNotDispose);
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        final BitSet doNotDispose = new ReachableObjectsCollector().reachableMarks(this, true);
+        this.heap.disposeUnmarked(doNotDispose, 0L, false);
+        this.heapPositionGcIncremental = this.heap.getNextPosition();
+    }
+    
+    /**
+     * Collects and disposes the unreachable heap objects that
+     * are concrete and were created after the last invocation
+     * of {@link #gc()}. Symbolic objects, and objects that 
+     * were in the heap when {@link #gc()} was invoked (e.g., 
+     * the objects in the initial state), are never disposed,
+     * and so are the objects they reach.
+     * 
+     * @return an {@code int}, the number of disposed objects.
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public int gcIncremental() throws FrozenStateException {
+    	if (this.frozen) {
+    		throw new FrozenStateException();
+    	}
+        //the objects that are never disposed may be aliased 
+        //later, so what they reach must survive
+        final List<Long> neverDisposed = this.heap.undisposablePositions(this.heapPositionGcIncremental, true);
+        final BitSet doNotDispose = new ReachableObjectsCollector().reachableMarks(this, true, neverDisposed);
+        return this.heap.disposeUnmarked(doNotDispose, this.heapPositionGcIncremental, true);
+    }
+    
+    /**
+     * Getter for garbage collection.
+     * 
+     * @return the {@link Collection}{@code <}{@link ReferenceConcrete}{@code >}
+     *         of all the references to the linked invokers and appendices.
+     */
+    Collection<ReferenceConcrete> getLinkInvokersAndAppendices() {
+        final ArrayList<ReferenceConcrete> retVal = new ArrayList<>(this.linkInvokers.values());
+        retVal.addAll(this.linkAppendices.values());
+        return retVal;
     }
     
     /**
@@ -4020,130 +4628,51 @@ public final class State implements Cloneable {
             throw new InternalError(e);
         }
         
-        //stringLiterals
-        o.stringLiterals = new HashMap<>(o.stringLiterals);
-
-        //classes
-        o.classes = new HashMap<>(o.classes);
-
-        //classesPrimitive
-        o.classesPrimitive = new HashMap<>(o.classesPrimitive);
-        
-        //methodTypes
-        o.methodTypes = new HashMap<>(o.methodTypes);
-        
-        //files
-        try {
-            o.files = new HashMap<>();
-            for (Map.Entry<Long, Object> entry : this.files.entrySet()) {
-                if (entry.getValue() instanceof FileInputStream) {
-                    final FileInputStream fisClone;
-                    if (entry.getKey() == this.inFileId) {
-                        fisClone = (FileInputStream) entry.getValue();
-                    } else {
-                        final FileInputStream fisThis = (FileInputStream) entry.getValue();
-                        final String path = (String) FIS_PATH.get(fisThis);
-                        fisClone = new FileInputStream(path);
-                        fisClone.skip(fisThis.getChannel().position());
-                    }
-                    o.files.put(entry.getKey(), fisClone);
-                } else { //entry.getValue() instanceof FileOutputStream
-                    final FileOutputStream fosClone;
-                    if (entry.getKey() == this.outFileId ||  entry.getKey() == this.errFileId) {
-                        fosClone = (FileOutputStream) entry.getValue();
-                    } else {
-                        final FileOutputStream fosThis = (FileOutputStream) entry.getValue();
-                        final String path = (String) FOS_PATH.get(fosThis);
-                        fosClone = new FileOutputStream(path);
-                    }
-                    o.files.put(entry.getKey(), fosClone);
+        //files (the clone shares the streams, and 
+        //starts from the same positions)
+        o.files = new HashMap<>();
+        for (Map.Entry<Long, VirtualFile> entry : this.files.entrySet()) {
+            final VirtualFile file = entry.getValue();
+            final SharedFile shared = file.shared;
+            final long position;
+            if (shared.owner == file && !isStandardFile(entry.getKey())) {
+                try {
+                    position = shared.channel().position();
+                } catch (IOException e) {
+                    //this should never happen
+                    throw new UnexpectedInternalException(e);
                 }
+            } else {
+                position = file.position;
             }
-        } catch (IllegalArgumentException | IllegalAccessException | IOException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
+            shared.refCount.incrementAndGet();
+            o.files.put(entry.getKey(), new VirtualFile(shared, position));
         }
         
-        //allocatedMemory
-        o.allocatedMemory = new HashMap<>();
-        for (Map.Entry<Long, MemoryBlock> entry : this.allocatedMemory.entrySet()) {
-            final long baseLevelAddress = entry.getKey();
-            final long oldMemoryBlockAddress = entry.getValue().address;
-            final long size = entry.getValue().size;
-            final long newMemoryBlockAddress = unsafe().allocateMemory(size);
-            unsafe().copyMemory(oldMemoryBlockAddress, newMemoryBlockAddress, size);
-            o.allocatedMemory.put(baseLevelAddress, new MemoryBlock(newMemoryBlockAddress, size));
+        //allocatedMemory (copied on write)
+        o.allocatedMemory = new TreeMap<>(this.allocatedMemory);
+        for (MemoryBlock memoryBlock : o.allocatedMemory.values()) {
+            memoryBlock.refCount.incrementAndGet();
         }
         
-        //zipFiles
-        o.zipFiles = new HashMap<>();
-        try {
-            final Method methodOpen = java.util.zip.ZipFile.class.getDeclaredMethod("open", String.class, int.class, long.class, boolean.class);
-            methodOpen.setAccessible(true);
-            for (Map.Entry<Long, ZipFile> entry : this.zipFiles.entrySet()) {
-                final ZipFile zf = entry.getValue();
-                final String name = zf.name;
-                final int mode = zf.mode;
-                final long lastModified = zf.lastModified;
-                final boolean usemmap = zf.usemmap;
-                final long jzfileNew = (long) methodOpen.invoke(null, name, mode, lastModified, usemmap);
-                final ZipFile zfNew = new ZipFile(jzfileNew, name, mode, lastModified, usemmap);
-                o.zipFiles.put(entry.getKey(), zfNew);
-            }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | 
-                 NoSuchMethodException | SecurityException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
+        //zipFiles (shared)
+        o.zipFiles = new HashMap<>(this.zipFiles);
+        for (ZipFile zf : o.zipFiles.values()) {
+            zf.refCount.incrementAndGet();
         }
         
-        //zipFileEntries
-        o.zipFileEntries = new HashMap<>();
-        try {
-            final Method methodGetEntry = java.util.zip.ZipFile.class.getDeclaredMethod("getEntry", long.class, byte[].class, boolean.class);
-            methodGetEntry.setAccessible(true);
-            for (Map.Entry<Long, ZipFileEntry> entry : this.zipFileEntries.entrySet()) {
-                final ZipFileEntry zfe = entry.getValue();
-                final long _jzfile = zfe.jzfile;
-                final long jzfile = o.zipFiles.get(_jzfile).jzfile;
-                final byte[] name = zfe.name;
-                final long jzentryNew = (long) methodGetEntry.invoke(null, jzfile, name, true);
-                final ZipFileEntry zfeNew = new ZipFileEntry(jzentryNew, _jzfile, name);
-                o.zipFileEntries.put(entry.getKey(), zfeNew);
-            }
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
-                 IllegalArgumentException | InvocationTargetException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
+        //zipFileEntries (shared)
+        o.zipFileEntries = new HashMap<>(this.zipFileEntries);
+        for (ZipFileEntry zfe : o.zipFileEntries.values()) {
+            zfe.refCount.incrementAndGet();
         }
         
-        //inflaters
-        o.inflaters = new HashMap<>();
-        try {
-            final Method methodInit = java.util.zip.Inflater.class.getDeclaredMethod("init", boolean.class);
-            methodInit.setAccessible(true);
-            final Method methodSetDictionary = java.util.zip.Inflater.class.getDeclaredMethod("setDictionary", long.class, byte[].class, int.class, int.class);
-            methodSetDictionary.setAccessible(true);
-            for (Map.Entry<Long, Inflater> entry : this.inflaters.entrySet()) {
-                final Inflater inf = entry.getValue();
-                final long addressNew = (long) methodInit.invoke(null, inf.nowrap);
-                final Inflater infNew;
-                if (inf.dictionary == null) {
-                    infNew = new Inflater(addressNew, inf.nowrap);
-                } else {
-                    methodSetDictionary.invoke(null, addressNew, inf.dictionary, 0, inf.dictionary.length);
-                    infNew = new Inflater(addressNew, inf.nowrap, inf.dictionary, 0, inf.dictionary.length);
-                }
-                o.inflaters.put(entry.getKey(), infNew);
-            }
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | 
-                 IllegalArgumentException | InvocationTargetException e) {
-            //this should never happen
-            throw new UnexpectedInternalException(e);
+        //inflaters (copied on inflation)
+        o.inflaters = new HashMap<>(this.inflaters);
+        for (Inflater inf : o.inflaters.values()) {
+            inf.refCount.incrementAndGet();
         }
 
-        //perfCounters
-        o.perfCounters = new HashSet<>(o.perfCounters);
-
         //stack
         o.stack = o.stack.clone();
 
@@ -4158,11 +4687,9 @@ public final class State implements Cloneable {
         //symbolFactory
         o.symbolFactory = o.symbolFactory.clone();
         
-        //linkInvokers
-        o.linkInvokers = new HashMap<>(o.linkInvokers);
-        
-        //linkAppendices
-        o.linkAppendices = new HashMap<>(o.linkAppendices);
+        //stringLiterals, classes, classesPrimitive, methodTypes, 
+        //perfCounters, linkInvokers and linkAppendices are
+        //persistent maps, thus they are shared
         
         //all other members are immutable
 
@@ -4170,6 +4697,10 @@ public final class State implements Cloneable {
     }
     
     public State lazyClone() {
+    	final StateCloneEvent event = (Instrumentation.isEnabled() ? new StateCloneEvent() : null);
+    	if (event != null) {
+    		event.begin();
+    	}
     	final State o = deepCopyHeapAndStaticAreaExcluded();
     	
         //heap
@@ -4178,32 +4709,83 @@ public final class State implements Cloneable {
         //staticMethodArea
         o.staticMethodArea = o.staticMethodArea.lazyClone();
 
+        if (event != null) {
+        	event.end();
+        	if (event.shouldCommit()) {
+        		event.commit(true, getStackSize(), 0, this.pathCondition.getClauses().size());
+        	}
+        }
         return o;
     }
     
     @Override
     protected void finalize() {
-        //closes all files except stdin/out/err
-        for (Map.Entry<Long, Object> fileEntry : this.files.entrySet()) {
+        //closes all files except stdin/out/err, 
+        //unless other states use them
+        for (Map.Entry<Long, VirtualFile> fileEntry : this.files.entrySet()) {
             final long fileId = fileEntry.getKey();
-            if (fileId == this.inFileId || fileId == this.outFileId || fileId == this.errFileId) {
+            if (isStandardFile(fileId)) {
+                continue;
+            }
+            final SharedFile shared = fileEntry.getValue().shared;
+            if (shared.refCount.decrementAndGet() > 0) {
                 continue;
             }
-            final Object file = fileEntry.getValue();
             try {
-                if (file instanceof FileInputStream) {
-                    ((FileInputStream) file).close();
-                } else { //file instanceof FileOutputStream
-                    ((FileOutputStream) file).close();
+                if (shared.stream instanceof FileInputStream) {
+                    ((FileInputStream) shared.stream).close();
+                } else { //shared.stream instanceof FileOutputStream
+                    ((FileOutputStream) shared.stream).close();
                 }
             } catch (IOException e) {
                 //go on with the next file
             }
         }
         
-        //deallocates all memory blocks
+        //deallocates all memory blocks not used by other states
         for (MemoryBlock memoryBlock : this.allocatedMemory.values()) {
-        	unsafe().freeMemory(memoryBlock.address);
+            releaseMemoryBlock(memoryBlock);
+        }
+        
+        //frees all zip file entries, and closes all zip
+        //files, not used by other states
+        for (ZipFileEntry zipFileEntry : this.zipFileEntries.values()) {
+            final ZipFile zipFile = this.zipFiles.get(zipFileEntry.jzfile);
+            if (zipFileEntry.refCount.decrementAndGet() == 0 && zipFile != null) {
+                invokeReleaseMethod(java.util.zip.ZipFile.class, "freeEntry", new Class<?>[] { long.class, long.class }, zipFile.jzfile, zipFileEntry.jzentry);
+            }
+        }
+        for (ZipFile zipFile : this.zipFiles.values()) {
+            if (zipFile.refCount.decrementAndGet() == 0) {
+                invokeReleaseMethod(java.util.zip.ZipFile.class, "close", new Class<?>[] { long.class }, zipFile.jzfile);
+            }
+        }
+        
+        //ends all inflaters not used by other states
+        for (Inflater inflater : this.inflaters.values()) {
+            if (inflater.refCount.decrementAndGet() == 0) {
+                invokeReleaseMethod(java.util.zip.Inflater.class, "end", new Class<?>[] { long.class }, inflater.address);
+            }
+        }
+    }
+    
+    /**
+     * Metacircularly invokes a static method that releases 
+     * a native resource, ignoring any failure.
+     * 
+     * @param clazz the {@link Class} declaring the method.
+     * @param methodName a {@link String}, the name of the method.
+     * @param parameterTypes a {@link Class}{@code []}, the types of 
+     *        the parameters of the method.
+     * @param args the arguments of the invocation.
+     */
+    private static void invokeReleaseMethod(Class<?> clazz, String methodName, Class<?>[] parameterTypes, Object... args) {
+        try {
+            final Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            method.invoke(null, args);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //go on with the next resource
         }
     }
 
@@ -4233,6 +4815,10 @@ public final class State implements Cloneable {
 
     @Override
     public State clone() {
+        final StateCloneEvent event = (Instrumentation.isEnabled() ? new StateCloneEvent() : null);
+        if (event != null) {
+            event.begin();
+        }
         final State o = deepCopyHeapAndStaticAreaExcluded();
 
         //heap
@@ -4241,6 +4827,12 @@ public final class State implements Cloneable {
         //staticMethodArea
         o.staticMethodArea = o.staticMethodArea.clone();
 
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit(false, getStackSize(), o.heap.getSize(), this.pathCondition.getClauses().size());
+            }
+        }
         return o;
     }
 }
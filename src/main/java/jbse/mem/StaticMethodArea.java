@@ -1,7 +1,9 @@
 package jbse.mem;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -82,6 +84,52 @@ final class StaticMethodArea implements Cloneable {
         return this.objects;
     }
     
+    /**
+     * Checks whether this static method area stores the
+     * very same {@link Klass} objects as another one. The
+     * check only inspects the classes that were set by
+     * the two areas after their last common ancestor in
+     * the delegation chains.
+     *
+     * @param other a {@link StaticMethodArea}.
+     * @return {@code true} iff {@code this} and {@code other}
+     *         contain the same classes, and for each of them
+     *         they store the same {@link Klass} object (not a
+     *         copy of it). If {@code this} and {@code other}
+     *         have no common ancestor, it conservatively returns
+     *         {@code false}.
+     */
+    boolean sameObjectsAs(StaticMethodArea other) {
+        //finds the last common ancestor
+        final Set<StaticMethodArea> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (StaticMethodArea a = this; a != null; a = a.delegate) {
+            ancestors.add(a);
+        }
+        StaticMethodArea common = other;
+        while (common != null && !ancestors.contains(common)) {
+            common = common.delegate;
+        }
+        if (common == null) {
+            return false;
+        }
+
+        //compares the classes set after the common ancestor
+        final HashSet<ClassFile> classFiles = new HashSet<>();
+        for (StaticMethodArea a = this; a != common; a = a.delegate) {
+            classFiles.addAll(a.objects.keySet());
+        }
+        for (StaticMethodArea a = other; a != common; a = a.delegate) {
+            classFiles.addAll(a.objects.keySet());
+        }
+        for (ClassFile classFile : classFiles) {
+            if (!contains(classFile) || !other.contains(classFile) ||
+                getTheRealThing(classFile) != other.getTheRealThing(classFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     StaticMethodArea lazyClone() {
     	final StaticMethodArea a;
     	try {
@@ -7,7 +7,13 @@ import java.util.List;
 import jbse.mem.exc.ThreadStackEmptyException;
 
 /**
- * Class representing JVM thread stacks.
+ * Class representing JVM thread stacks. Cloning is copy-on-write:
+ * Only the current frame (and, if it is a {@link SnippetFrameWrap}, 
+ * its context frame) is copied, while the frames below it are 
+ * shared between the original stack and the clone. A shared 
+ * frame is copied only when it becomes the current frame again 
+ * after a {@link #pop()}. The frames that are not current must
+ * therefore be accessed read-only.
  */
 class ThreadStack implements Cloneable {
     /** The stack position of the root frame. */
@@ -15,12 +21,20 @@ class ThreadStack implements Cloneable {
 
     /** The actual stack of {@link Frame}s. */
     private ArrayList<Frame> frameStack;
+    
+    /** 
+     * The frames in {@link #frameStack} with position 
+     * less than this are shared with some other 
+     * {@link ThreadStack}, and must not be modified.
+     */
+    private int sharedFrames;
 
     /**
      * Constructor of stack.
      */
     ThreadStack() {
         this.frameStack = new ArrayList<Frame>();
+        this.sharedFrames = 0;
     }
 
     /**
@@ -46,7 +60,35 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.remove(this.frameStack.size() - 1);
+        final Frame retVal = this.frameStack.remove(this.frameStack.size() - 1);
+        if (this.frameStack.size() > 0 && this.frameStack.size() <= this.sharedFrames) {
+            materialize(this.frameStack.size() - 1);
+        }
+        return retVal;
+    }
+
+    /**
+     * Replaces a shared frame with a private copy.
+     * If the frame is a {@link SnippetFrameWrap} whose
+     * context is the frame below it, the latter is 
+     * also copied.
+     * 
+     * @param pos an {@code int}, the position of the
+     *        frame in the stack. It must be the position
+     *        of the topmost shared frame.
+     */
+    private void materialize(int pos) {
+        final Frame f = this.frameStack.get(pos);
+        if (f instanceof SnippetFrameWrap && pos > 0 && 
+            ((SnippetFrameWrap) f).getContextFrame() == this.frameStack.get(pos - 1)) {
+            final MethodFrame contextClone = (MethodFrame) this.frameStack.get(pos - 1).clone();
+            this.frameStack.set(pos - 1, contextClone);
+            this.frameStack.set(pos, ((SnippetFrameWrap) f).cloneWithContext(contextClone));
+            this.sharedFrames = pos - 1;
+        } else {
+            this.frameStack.set(pos, f.clone());
+            this.sharedFrames = pos;
+        }
     }
 
     /**
@@ -63,6 +105,7 @@ class ThreadStack implements Cloneable {
      */
     void clear() {
         this.frameStack.clear();
+        this.sharedFrames = 0;
     }
 
     /**
@@ -97,7 +140,8 @@ class ThreadStack implements Cloneable {
 
     /**
      * Returns an unmodifiable list of all the frames
-     * in the stack.
+     * in the stack. Only the current frame may be 
+     * modified.
      * 
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the frames in the stack, in their push order.
@@ -134,11 +178,15 @@ class ThreadStack implements Cloneable {
             throw new InternalError(e);
         }
 
-        final ArrayList<Frame> frameStackClone = new ArrayList<Frame>();
-        for (int i = 0; i < this.frameStack.size(); ++i) {
-            frameStackClone.add(this.frameStack.get(i).clone());
-        }
+        //all the frames but the current one (and its
+        //context, if it is a wrapping snippet frame) 
+        //are shared between this stack and the clone
+        final ArrayList<Frame> frameStackClone = new ArrayList<Frame>(this.frameStack);
         o.frameStack = frameStackClone;
+        if (frameStackClone.size() > 0) {
+            o.materialize(frameStackClone.size() - 1);
+        }
+        this.sharedFrames = o.sharedFrames;
         return o;
     }   
 }
\ No newline at end of file
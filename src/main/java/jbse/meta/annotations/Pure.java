@@ -0,0 +1,21 @@
+package jbse.meta.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation applies to methods. It indicates that the annotated 
+ * method is pure, i.e., its return value only depends on its parameters 
+ * and it has no side effects. 
+ * If a static method with primitive parameters and return type is 
+ * annotated with this annotation, the paths of its first invocation 
+ * with symbolic parameters are recorded as a summary, and the 
+ * subsequent invocations branch on the paths of the summary 
+ * rather than executing the method.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.CLASS)
+public @interface Pure {
+}
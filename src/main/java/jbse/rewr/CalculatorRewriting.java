@@ -3,6 +3,7 @@ package jbse.rewr;
 import static jbse.val.Rewriter.applyRewriters;
 
 import java.util.ArrayList;
+import java.util.function.LongConsumer;
 
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.val.Calculator;
@@ -17,6 +18,8 @@ import jbse.val.exc.NoResultException;
  */
 public class CalculatorRewriting extends Calculator {
     private final ArrayList<RewriterCalculatorRewriting> rewriters = new ArrayList<>();
+    private LongConsumer simplificationTimeObserver = null;
+    private int simplificationDepth = 0; //rewriters simplify through this calculator, so simplifications nest
 
     /**
      * Constructor.
@@ -36,6 +39,7 @@ public class CalculatorRewriting extends Calculator {
     		rewriterNew.calc = this;
     		this.rewriters.add(rewriterNew);
     	}
+    	this.simplificationTimeObserver = calc.simplificationTimeObserver;
     }
     
     /**
@@ -48,14 +52,36 @@ public class CalculatorRewriting extends Calculator {
         this.rewriters.add(rewriter);
     }
 
+    /**
+     * Sets an observer of the time spent simplifying.
+     * 
+     * @param simplificationTimeObserver a {@link LongConsumer}
+     *        that is notified, after every simplification, of
+     *        its duration in nanoseconds (the simplifications
+     *        nested in another one are not notified, since their 
+     *        duration is included in the outer one), or {@code null} 
+     *        if simplifications must not be timed.
+     */
+    public void setSimplificationTimeObserver(LongConsumer simplificationTimeObserver) {
+    	this.simplificationTimeObserver = simplificationTimeObserver;
+    }
+
     @Override
     public Primitive simplify(Primitive p) {
+    	final boolean timed = (this.simplificationTimeObserver != null && this.simplificationDepth == 0);
+    	final long start = (timed ? System.nanoTime() : 0L);
+    	++this.simplificationDepth;
     	try {
     		final Primitive retVal = applyRewriters(p, this.rewriters);
     		return retVal;
     	} catch (NoResultException e) {
     		//this should not happen
     		throw new UnexpectedInternalException(e);
+    	} finally {
+    		--this.simplificationDepth;
+    		if (timed) {
+    			this.simplificationTimeObserver.accept(System.nanoTime() - start);
+    		}
     	}
     }
 }
@@ -31,7 +31,7 @@ import jbse.val.exc.InvalidTypeException;
  * 
  * @author Pietro Braione
  */
-class Monomial implements Comparable<Monomial> {
+public class Monomial implements Comparable<Monomial> {
 	/** The type. */
 	private final char type;
 
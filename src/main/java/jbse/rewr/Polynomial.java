@@ -24,7 +24,10 @@ import jbse.val.exc.InvalidOperandException;
 import jbse.val.exc.InvalidOperatorException;
 import jbse.val.exc.InvalidTypeException;
 
-class Polynomial {
+/**
+ * Class for polynomials, i.e., sums of {@link Monomial}s.
+ */
+public class Polynomial {
 	/** The type. */
 	private final char type;
 
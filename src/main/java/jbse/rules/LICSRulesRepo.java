@@ -2,18 +2,16 @@ package jbse.rules;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import jbse.common.Type;
 import jbse.val.ReferenceSymbolic;
 
 public final class LICSRulesRepo implements Cloneable {
-	private HashMap<String, Set<LICSRuleExpandsTo>> rulesExpandsTo = new HashMap<>();
-	private HashMap<String, Set<LICSRuleAliases>> rulesAliases = new HashMap<>();
-    private HashMap<String, Set<LICSRuleAliases>> rulesNeverAliases = new HashMap<>();
-	private HashMap<String, Set<LICSRuleNotNull>> rulesNotNull = new HashMap<>();
+	private HashMap<String, RuleIndex<LICSRuleExpandsTo>> rulesExpandsTo = new HashMap<>();
+	private HashMap<String, RuleIndex<LICSRuleAliases>> rulesAliases = new HashMap<>();
+    private HashMap<String, RuleIndex<LICSRuleAliases>> rulesNeverAliases = new HashMap<>();
+	private HashMap<String, RuleIndex<LICSRuleNotNull>> rulesNotNull = new HashMap<>();
 
     /**
      * Specifies a possible expansion for symbolic references. Typically, a 
@@ -41,9 +39,9 @@ public final class LICSRulesRepo implements Cloneable {
      *                     on the existence of other matching expansion rules.
      */
 	public void addExpandTo(String toExpand, String originExp, String classAllowed) {
-		Set<LICSRuleExpandsTo> c = this.rulesExpandsTo.get(toExpand);
+		RuleIndex<LICSRuleExpandsTo> c = this.rulesExpandsTo.get(toExpand);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesExpandsTo.put(toExpand, c);
 		}
 		c.add(new LICSRuleExpandsTo(originExp, classAllowed));
@@ -81,9 +79,9 @@ public final class LICSRulesRepo implements Cloneable {
      *                       a max-rule.
      */
 	public void addResolveAliasOrigin(String toResolve, String originExp, String pathAllowedExp) {
-		Set<LICSRuleAliases> c = this.rulesAliases.get(toResolve);
+		RuleIndex<LICSRuleAliases> c = this.rulesAliases.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new LICSRuleAliasesTarget(originExp, pathAllowedExp));
@@ -114,9 +112,9 @@ public final class LICSRulesRepo implements Cloneable {
      *                       on the existence of other matching alias rules.
      */
 	public void addResolveAliasInstanceof(String toResolve, String originExp, String classAllowed) {
-		Set<LICSRuleAliases> c = this.rulesAliases.get(toResolve);
+		RuleIndex<LICSRuleAliases> c = this.rulesAliases.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new LICSRuleAliasesInstanceof(originExp, classAllowed));
@@ -150,9 +148,9 @@ public final class LICSRulesRepo implements Cloneable {
      *                          the path {ROOT}/list).
      */
     public void addResolveAliasNever(String toResolve, String originExp, String pathDisallowedExp) {
-        Set<LICSRuleAliases> c = this.rulesNeverAliases.get(toResolve);
+        RuleIndex<LICSRuleAliases> c = this.rulesNeverAliases.get(toResolve);
         if (c == null) {
-            c = new HashSet<>();
+            c = new RuleIndex<>();
             this.rulesNeverAliases.put(toResolve, c);
         }
         c.add(new LICSRuleAliasesTarget(originExp, pathDisallowedExp));
@@ -172,9 +170,9 @@ public final class LICSRulesRepo implements Cloneable {
      *                       will match.
      */ 
 	public void addResolveNotNull(String toResolve, String originExp) {
-		Set<LICSRuleNotNull> c = this.rulesNotNull.get(toResolve);
+		RuleIndex<LICSRuleNotNull> c = this.rulesNotNull.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesNotNull.put(toResolve, c);
 		}
 		c.add(new LICSRuleNotNull(originExp));
@@ -192,13 +190,9 @@ public final class LICSRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<LICSRuleExpandsTo> retVal = new ArrayList<LICSRuleExpandsTo>();
-		final Set<LICSRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
+		final RuleIndex<LICSRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
 		if (rulesSet != null) {
-			for (LICSRuleExpandsTo rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
+			retVal.addAll(rulesSet.matching(ref));
 		}
 		return retVal;
 	}
@@ -215,10 +209,10 @@ public final class LICSRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-		final Set<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
+		final RuleIndex<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
 		if (rulesSet != null) {
-			for (LICSRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && !rule.requiresMax()) {
+			for (LICSRuleAliases rule : rulesSet.matching(ref)) {
+				if (!rule.requiresMax()) {
 					retVal.add(rule);
 				}
 			}
@@ -238,10 +232,10 @@ public final class LICSRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-		final Set<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
+		final RuleIndex<LICSRuleAliases> rulesSet = this.rulesAliases.get(refClass);
 		if (rulesSet != null) {
-			for (LICSRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && rule.requiresMax()) {
+			for (LICSRuleAliases rule : rulesSet.matching(ref)) {
+				if (rule.requiresMax()) {
 					retVal.add(rule);
 				}
 			}
@@ -262,13 +256,9 @@ public final class LICSRulesRepo implements Cloneable {
         final String type = ref.getStaticType();
         final String refClass = Type.className(type);
         final ArrayList<LICSRuleAliases> retVal = new ArrayList<LICSRuleAliases>();
-        final Set<LICSRuleAliases> rulesSet = this.rulesNeverAliases.get(refClass);
+        final RuleIndex<LICSRuleAliases> rulesSet = this.rulesNeverAliases.get(refClass);
         if (rulesSet != null) {
-            for (LICSRuleAliases rule : rulesSet) {
-                if (rule.matches(ref)) {
-                    retVal.add(rule);
-                }
-            }
+            retVal.addAll(rulesSet.matching(ref));
         }
         return retVal;
     }
@@ -282,15 +272,8 @@ public final class LICSRulesRepo implements Cloneable {
 	public boolean someMatchingLICSRulesNotNull(ReferenceSymbolic ref) {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
-		final Set<LICSRuleNotNull> rulesSet = this.rulesNotNull.get(refClass);
-		if (rulesSet != null) {
-			for (LICSRuleNotNull rule : rulesSet) {
-				if (rule.matches(ref)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		final RuleIndex<LICSRuleNotNull> rulesSet = this.rulesNotNull.get(refClass);
+		return (rulesSet != null && !rulesSet.matching(ref).isEmpty());
 	}
 
     @Override
@@ -303,17 +286,21 @@ public final class LICSRulesRepo implements Cloneable {
         }
         
         //deep copy
+        o.rulesExpandsTo = new HashMap<>();
+        for (Map.Entry<String, RuleIndex<LICSRuleExpandsTo>> e : this.rulesExpandsTo.entrySet()) {
+            o.rulesExpandsTo.put(e.getKey(), e.getValue().clone());
+        }
         o.rulesAliases = new HashMap<>();
-        for (Map.Entry<String, Set<LICSRuleAliases>> e : this.rulesAliases.entrySet()) {
-            o.rulesAliases.put(e.getKey(), new HashSet<>(e.getValue()));
+        for (Map.Entry<String, RuleIndex<LICSRuleAliases>> e : this.rulesAliases.entrySet()) {
+            o.rulesAliases.put(e.getKey(), e.getValue().clone());
         }
-        o.rulesExpandsTo = new HashMap<>();
-        for (Map.Entry<String, Set<LICSRuleExpandsTo>> e : this.rulesExpandsTo.entrySet()) {
-            o.rulesExpandsTo.put(e.getKey(), new HashSet<>(e.getValue()));
+        o.rulesNeverAliases = new HashMap<>();
+        for (Map.Entry<String, RuleIndex<LICSRuleAliases>> e : this.rulesNeverAliases.entrySet()) {
+            o.rulesNeverAliases.put(e.getKey(), e.getValue().clone());
         }
         o.rulesNotNull = new HashMap<>();
-        for (Map.Entry<String, Set<LICSRuleNotNull>> e : this.rulesNotNull.entrySet()) {
-            o.rulesNotNull.put(e.getKey(), new HashSet<>(e.getValue()));
+        for (Map.Entry<String, RuleIndex<LICSRuleNotNull>> e : this.rulesNotNull.entrySet()) {
+            o.rulesNotNull.put(e.getKey(), e.getValue().clone());
         }
         
         return o;
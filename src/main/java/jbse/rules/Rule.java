@@ -1,7 +1,10 @@
 package jbse.rules;
 
 import static jbse.rules.Util.makeOriginPatternAbsolute;
+import static jbse.rules.Util.makeOriginPatternRelative;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,8 +19,31 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public abstract class Rule {
+	/** The maximum number of relative patterns cached by a rule. */
+	private static final int MAX_CACHED_RELATIVE_PATTERNS = 256;
+	
 	protected final Pattern originPattern;
 	
+	/** 
+	 * The longest literal prefix of the origin {@link String}s 
+	 * matched by {@link #originPattern}.
+	 */
+	private final String originLiteralPrefix;
+	
+	/** 
+	 * Caches the relative patterns built by this rule, 
+	 * by relative expression and origin {@link String}. 
+	 */
+	private final LinkedHashMap<String, Pattern> relativePatterns = 
+	new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+		private static final long serialVersionUID = -2196830415713478519L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+			return size() > MAX_CACHED_RELATIVE_PATTERNS;
+		}
+	};
+	
 	/**
 	 * Constructor.
 	 * 
@@ -28,6 +54,84 @@ public abstract class Rule {
 	 */
 	public Rule(String originExp) { 
 		this.originPattern = makeOriginPatternAbsolute(originExp == null ? Util.ANY : originExp);
+		this.originLiteralPrefix = literalPrefix(this.originPattern.pattern());
+	}
+	
+	/**
+	 * Returns the longest literal prefix of a regular expression,
+	 * i.e., a {@link String} that is a prefix of all the 
+	 * {@link String}s matched by the regular expression.
+	 * 
+	 * @param regex a {@link String}, the regular expression.
+	 * @return a {@link String}, possibly empty.
+	 */
+	private static String literalPrefix(String regex) {
+		//an alternative at top level (or anywhere, to be safe)
+		//may match strings without a common prefix
+		for (int i = 0; i < regex.length(); ++i) {
+			final char c = regex.charAt(i);
+			if (c == '\\') {
+				++i;
+			} else if (c == '|') {
+				return "";
+			}
+		}
+		
+		final StringBuilder retVal = new StringBuilder();
+		int lastAtomStart = 0;
+		for (int i = 0; i < regex.length(); ++i) {
+			final char c = regex.charAt(i);
+			if (c == '*' || c == '+' || c == '?' || c == '{') {
+				//the last atom is quantified, thus it is not part of the prefix
+				retVal.setLength(lastAtomStart);
+				break;
+			} else if (c == '(' || c == ')' || c == '[' || c == ']' || c == '^' || c == '$' || c == '.') {
+				break;
+			} else if (c == '\\') {
+				if (i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+					//character class, back reference, quotation...
+					break;
+				}
+				lastAtomStart = retVal.length();
+				retVal.append(regex.charAt(i + 1));
+				++i;
+			} else {
+				lastAtomStart = retVal.length();
+				retVal.append(c);
+			}
+		}
+		return retVal.toString();
+	}
+	
+	/**
+	 * Returns the longest literal prefix of the origin 
+	 * {@link String}s matched by this rule. 
+	 * 
+	 * @return a {@link String}, possibly empty.
+	 */
+	final String getOriginLiteralPrefix() {
+		return this.originLiteralPrefix;
+	}
+	
+	/**
+	 * Builds the pattern of an origin expression relative to a 
+	 * reference matching this rule. Patterns are cached, since 
+	 * the same reference is usually resolved many times.
+	 * 
+	 * @param originExpRelative a {@link String}, the relative 
+	 *        origin expression.
+	 * @param ref a {@link ReferenceSymbolic} matching this rule.
+	 * @return the {@link Pattern} for {@code originExpRelative} 
+	 *         when referred to {@code ref}.
+	 */
+	protected final Pattern makeRelativePattern(String originExpRelative, ReferenceSymbolic ref) {
+		final String key = originExpRelative + '\u0000' + ref.asOriginString();
+		Pattern retVal = this.relativePatterns.get(key);
+		if (retVal == null) {
+			retVal = makeOriginPatternRelative(originExpRelative, ref, this.originPattern);
+			this.relativePatterns.put(key, retVal);
+		}
+		return retVal;
 	}
 	
 	/**
@@ -38,8 +142,18 @@ public abstract class Rule {
 	 *         matches this rule.
 	 */
 	public final boolean matches(ReferenceSymbolic ref) {
-		//checks if the origin of ref origin matches the pattern
-		final String originString = ref.asOriginString();
+		return matches(ref.asOriginString());
+	}
+	
+	/**
+	 * Checks if an origin {@link String} matches this rule.
+	 * 
+	 * @param originString a {@link String}.
+	 * @return {@code true} iff {@code originString} 
+	 *         matches this rule.
+	 */
+	final boolean matches(String originString) {
+		//checks if the origin string matches the pattern
 		final Matcher m = this.originPattern.matcher(originString);
 		final boolean retVal = m.matches();
 		return retVal;
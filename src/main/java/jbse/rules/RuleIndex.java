@@ -0,0 +1,141 @@
+package jbse.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import jbse.val.ReferenceSymbolic;
+
+/**
+ * A set of {@link Rule}s compiled for fast matching. The
+ * literal prefixes of the origin patterns of the rules
+ * are compiled into a trie, so that the origin of a
+ * {@link ReferenceSymbolic} is scanned once to select
+ * the candidate rules, and only the regular expressions
+ * of the candidates are matched. The result of matching
+ * is also cached by origin, since the same symbolic
+ * reference is usually resolved many times along
+ * different paths. The trie is rebuilt lazily after
+ * a rule is added.
+ *
+ * @param <R> the type of the rules.
+ */
+final class RuleIndex<R extends Rule> implements Cloneable {
+	/** The maximum number of origins whose matching rules are cached. */
+	private static final int MAX_CACHED_ORIGINS = 4096;
+
+	/** A node of the trie of the literal origin prefixes. */
+	private static final class TrieNode<R> {
+		final HashMap<Character, TrieNode<R>> children = new HashMap<>();
+		final ArrayList<R> rules = new ArrayList<>();
+	}
+
+	/** The rules. */
+	private LinkedHashSet<R> rules = new LinkedHashSet<>();
+
+	/** The trie of the rules, or {@code null} if it must be rebuilt. */
+	private TrieNode<R> trie = null;
+
+	/** Caches the matching rules by origin string. */
+	private LinkedHashMap<String, List<R>> cache = makeCache();
+
+	private static <R> LinkedHashMap<String, List<R>> makeCache() {
+		return new LinkedHashMap<String, List<R>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 6405497914011707815L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<R>> eldest) {
+				return size() > MAX_CACHED_ORIGINS;
+			}
+		};
+	}
+
+	/**
+	 * Adds a rule.
+	 *
+	 * @param rule the rule to add.
+	 */
+	void add(R rule) {
+		if (this.rules.add(rule)) {
+			this.trie = null;
+			this.cache.clear();
+		}
+	}
+
+	/**
+	 * Returns all the rules in this index whose origin pattern
+	 * matches a symbolic reference.
+	 *
+	 * @param ref a {@link ReferenceSymbolic}.
+	 * @return an unmodifiable {@link List}{@code <R>} of
+	 *         all the rules matching {@code ref}.
+	 */
+	List<R> matching(ReferenceSymbolic ref) {
+		final String originString = ref.asOriginString();
+		List<R> retVal = this.cache.get(originString);
+		if (retVal == null) {
+			retVal = Collections.unmodifiableList(match(originString));
+			this.cache.put(originString, retVal);
+		}
+		return retVal;
+	}
+
+	private ArrayList<R> match(String originString) {
+		if (this.trie == null) {
+			buildTrie();
+		}
+
+		//collects the candidates along the path of the origin in the trie
+		final ArrayList<R> candidates = new ArrayList<>();
+		TrieNode<R> node = this.trie;
+		candidates.addAll(node.rules);
+		for (int i = 0; i < originString.length(); ++i) {
+			node = node.children.get(originString.charAt(i));
+			if (node == null) {
+				break;
+			}
+			candidates.addAll(node.rules);
+		}
+
+		//matches the candidates
+		final ArrayList<R> retVal = new ArrayList<>();
+		for (R rule : candidates) {
+			if (rule.matches(originString)) {
+				retVal.add(rule);
+			}
+		}
+		return retVal;
+	}
+
+	private void buildTrie() {
+		final TrieNode<R> root = new TrieNode<>();
+		for (R rule : this.rules) {
+			final String prefix = rule.getOriginLiteralPrefix();
+			TrieNode<R> node = root;
+			for (int i = 0; i < prefix.length(); ++i) {
+				node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode<>());
+			}
+			node.rules.add(rule);
+		}
+		this.trie = root;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public RuleIndex<R> clone() {
+		final RuleIndex<R> o;
+		try {
+			o = (RuleIndex<R>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e); //will not happen
+		}
+		o.rules = new LinkedHashSet<>(this.rules);
+		o.trie = null;
+		o.cache = makeCache();
+		return o;
+	}
+}
@@ -1,7 +1,5 @@
 package jbse.rules;
 
-import static jbse.rules.Util.makeOriginPatternRelative;
-
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,7 +51,7 @@ public abstract class TriggerRule extends Rule {
 		}
 		
 		//makes the pattern
-		final Pattern p = makeOriginPatternRelative(this.triggerMethodParameter, ref, this.originPattern);
+		final Pattern p = makeRelativePattern(this.triggerMethodParameter, ref);
 
 		//checks if the origin of o matches the pattern
 		final String originString = o.getOrigin().asOriginString();
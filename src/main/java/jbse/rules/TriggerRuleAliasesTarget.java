@@ -1,7 +1,5 @@
 package jbse.rules;
 
-import static jbse.rules.Util.makeOriginPatternRelative;
-
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,7 +41,7 @@ public final class TriggerRuleAliasesTarget extends TriggerRuleAliases {
 	@Override
 	public boolean satisfies(ReferenceSymbolic ref, Objekt o) {
 		//makes the pattern
-		final Pattern p = makeOriginPatternRelative(this.targetExp, ref, this.originPattern);
+		final Pattern p = makeRelativePattern(this.targetExp, ref);
 		
 		//checks if the origin of o matches the pattern
 		final String originString = o.getOrigin().asOriginString();
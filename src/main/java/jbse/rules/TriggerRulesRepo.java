@@ -2,9 +2,7 @@ package jbse.rules;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import jbse.bc.Signature;
 import jbse.common.Type;
@@ -17,9 +15,9 @@ import jbse.val.ReferenceSymbolic;
  * @author Pietro Braione
  */
 public final class TriggerRulesRepo implements Cloneable {
-	private HashMap<String, Set<TriggerRuleExpandsTo>> rulesExpandsTo = new HashMap<>();
-	private HashMap<String, Set<TriggerRuleAliases>> rulesAliases = new HashMap<>();
-	private HashMap<String, Set<TriggerRuleNull>> rulesNull = new HashMap<>();
+	private HashMap<String, RuleIndex<TriggerRuleExpandsTo>> rulesExpandsTo = new HashMap<>();
+	private HashMap<String, RuleIndex<TriggerRuleAliases>> rulesAliases = new HashMap<>();
+	private HashMap<String, RuleIndex<TriggerRuleNull>> rulesNull = new HashMap<>();
 
     /**
      * Specifies a possible expansion for symbolic references. Typically, a 
@@ -50,9 +48,9 @@ public final class TriggerRulesRepo implements Cloneable {
      */
 	public void addExpandTo(String toExpand, String originExp,
 	String classAllowed, Signature triggerMethod, String triggerParameter) {
-		Set<TriggerRuleExpandsTo> c = this.rulesExpandsTo.get(toExpand);
+		RuleIndex<TriggerRuleExpandsTo> c = this.rulesExpandsTo.get(toExpand);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesExpandsTo.put(toExpand, c);
 		}
 		c.add(new TriggerRuleExpandsTo(originExp, classAllowed, triggerMethod, triggerParameter));
@@ -95,9 +93,9 @@ public final class TriggerRulesRepo implements Cloneable {
      */
 	public void addResolveAliasOrigin(String toResolve, String originExp,
 	String pathAllowedExp, Signature triggerMethod, String triggerParameter) {
-		Set<TriggerRuleAliases> c = this.rulesAliases.get(toResolve);
+		RuleIndex<TriggerRuleAliases> c = this.rulesAliases.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new TriggerRuleAliasesTarget(originExp, pathAllowedExp, triggerMethod, triggerParameter));
@@ -133,9 +131,9 @@ public final class TriggerRulesRepo implements Cloneable {
      */
 	public void addResolveAliasInstanceof(String toResolve, String originExp,
 	String classAllowed, Signature triggerMethod, String triggerParameter) {
-		Set<TriggerRuleAliases> c = this.rulesAliases.get(toResolve);
+		RuleIndex<TriggerRuleAliases> c = this.rulesAliases.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesAliases.put(toResolve, c);
 		}
 		c.add(new TriggerRuleAliasesInstanceof(originExp, classAllowed, triggerMethod, triggerParameter));
@@ -160,9 +158,9 @@ public final class TriggerRulesRepo implements Cloneable {
      */ 
 	public void addResolveNull(String toResolve, String originExp, Signature triggerMethod, 
 	String triggerParameter) {
-		Set<TriggerRuleNull> c = this.rulesNull.get(toResolve);
+		RuleIndex<TriggerRuleNull> c = this.rulesNull.get(toResolve);
 		if (c == null) {
-			c = new HashSet<>();
+			c = new RuleIndex<>();
 			this.rulesNull.put(toResolve, c);
 		}
 		c.add(new TriggerRuleNull(originExp, triggerMethod, triggerParameter));
@@ -180,13 +178,9 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleExpandsTo> retVal = new ArrayList<>();
-		final Set<TriggerRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
+		final RuleIndex<TriggerRuleExpandsTo> rulesSet = this.rulesExpandsTo.get(refClass);
 		if (rulesSet != null) {
-			for (TriggerRuleExpandsTo rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
+			retVal.addAll(rulesSet.matching(ref));
 		}
 		return retVal;
 	}
@@ -203,10 +197,10 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleAliases> retVal = new ArrayList<>();
-		final Set<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
+		final RuleIndex<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
 		if (rulesSet != null) {
-			for (TriggerRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && !rule.requiresMax()) {
+			for (TriggerRuleAliases rule : rulesSet.matching(ref)) {
+				if (!rule.requiresMax()) {
 					retVal.add(rule);
 				}
 			}
@@ -226,10 +220,10 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleAliases> retVal = new ArrayList<>();
-		final Set<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
+		final RuleIndex<TriggerRuleAliases> rulesSet = this.rulesAliases.get(refClass);
 		if (rulesSet != null) {
-			for (TriggerRuleAliases rule : rulesSet) {
-				if (rule.matches(ref) && rule.requiresMax()) {
+			for (TriggerRuleAliases rule : rulesSet.matching(ref)) {
+				if (rule.requiresMax()) {
 					retVal.add(rule);
 				}
 			}
@@ -249,13 +243,9 @@ public final class TriggerRulesRepo implements Cloneable {
 		final String type = ref.getStaticType();
 		final String refClass = Type.className(type);
 		final ArrayList<TriggerRuleNull> retVal = new ArrayList<>();
-		final Set<TriggerRuleNull> rulesSet = this.rulesNull.get(refClass);
+		final RuleIndex<TriggerRuleNull> rulesSet = this.rulesNull.get(refClass);
 		if (rulesSet != null) {
-			for (TriggerRuleNull rule : rulesSet) {
-				if (rule.matches(ref)) {
-					retVal.add(rule);
-				}
-			}
+			retVal.addAll(rulesSet.matching(ref));
 		}
 		return retVal;
 	}
@@ -271,16 +261,16 @@ public final class TriggerRulesRepo implements Cloneable {
         
         //deep copy
         o.rulesAliases = new HashMap<>();
-        for (Map.Entry<String, Set<TriggerRuleAliases>> e : this.rulesAliases.entrySet()) {
-            o.rulesAliases.put(e.getKey(), new HashSet<>(e.getValue()));
+        for (Map.Entry<String, RuleIndex<TriggerRuleAliases>> e : this.rulesAliases.entrySet()) {
+            o.rulesAliases.put(e.getKey(), e.getValue().clone());
         }
         o.rulesExpandsTo = new HashMap<>();
-        for (Map.Entry<String, Set<TriggerRuleExpandsTo>> e : this.rulesExpandsTo.entrySet()) {
-            o.rulesExpandsTo.put(e.getKey(), new HashSet<>(e.getValue()));
+        for (Map.Entry<String, RuleIndex<TriggerRuleExpandsTo>> e : this.rulesExpandsTo.entrySet()) {
+            o.rulesExpandsTo.put(e.getKey(), e.getValue().clone());
         }
         o.rulesNull = new HashMap<>();
-        for (Map.Entry<String, Set<TriggerRuleNull>> e : this.rulesNull.entrySet()) {
-            o.rulesNull.put(e.getKey(), new HashSet<>(e.getValue()));
+        for (Map.Entry<String, RuleIndex<TriggerRuleNull>> e : this.rulesNull.entrySet()) {
+            o.rulesNull.put(e.getKey(), e.getValue().clone());
         }
         
         return o;
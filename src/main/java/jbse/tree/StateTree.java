@@ -1,12 +1,18 @@
 package jbse.tree;
 
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 
+import jbse.bc.Signature;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.State;
 import jbse.mem.State.Phase;
 import jbse.mem.exc.FrozenStateException;
+import jbse.mem.exc.ThreadStackEmptyException;
+import jbse.val.Calculator;
 import jbse.val.HistoryPoint;
 
 /**
@@ -151,6 +157,21 @@ public class StateTree {
     /** Flag indicating whether the next state is a user-provided start state. */
     private boolean userProvidedStartState = false;
 
+    /** 
+     * The {@link Calculator} used to merge the states at the 
+     * loop points, or {@code null} if states must not be merged.
+     */
+    private Calculator mergeCalculator = null;
+
+    /** 
+     * Maps the signature of each method with the program 
+     * counters of its loop points.
+     */
+    private final HashMap<Signature, BitSet> loopPoints = new HashMap<>();
+
+    /** The number of states that were merged into other states. */
+    private int mergedStates = 0;
+
     /**
      * Constructor.
      */
@@ -168,6 +189,69 @@ public class StateTree {
         return this.stateIdMode;
     }
     
+    /**
+     * Sets whether the states at loop points must be merged.
+     * When a post-initial state at a loop point is added to 
+     * this tree, all the states in the tree that can be merged
+     * into it (see {@link State#mergeWith(State, Calculator)})
+     * are merged and removed from the tree. By default states 
+     * are not merged.
+     * 
+     * @param mergeCalculator the {@link Calculator} used to 
+     *        merge states, or {@code null} if states must not 
+     *        be merged.
+     */
+    public void setStateMerging(Calculator mergeCalculator) {
+        this.mergeCalculator = mergeCalculator;
+    }
+
+    /**
+     * Checks whether the states at loop points are merged.
+     * 
+     * @return {@code true} iff the states at loop points are merged.
+     */
+    public boolean mergesStates() {
+        return this.mergeCalculator != null;
+    }
+
+    /**
+     * Registers a loop point, i.e., a program point where 
+     * the states must be merged.
+     * 
+     * @param method the {@link Signature} of a method.
+     * @param programCounter an {@code int}, a program counter 
+     *        in {@code method}.
+     */
+    public void addLoopPoint(Signature method, int programCounter) {
+        if (programCounter >= 0) {
+            this.loopPoints.computeIfAbsent(method, k -> new BitSet()).set(programCounter);
+        }
+    }
+
+    /**
+     * Checks whether a program point is a loop point.
+     * 
+     * @param method the {@link Signature} of a method.
+     * @param programCounter an {@code int}, a program counter 
+     *        in {@code method}.
+     * @return {@code true} iff {@link #addLoopPoint(Signature, int) addLoopPoint}{@code (method, programCounter)}
+     *         was previously invoked.
+     */
+    public boolean isLoopPoint(Signature method, int programCounter) {
+        final BitSet points = this.loopPoints.get(method);
+        return (points != null && programCounter >= 0 && points.get(programCounter));
+    }
+
+    /**
+     * Returns the number of states that were merged 
+     * into other states, and thus removed from this tree.
+     * 
+     * @return an {@code int}.
+     */
+    public int getNumOfMergedStates() {
+        return this.mergedStates;
+    }
+
     /**
      * Returns the pre-initial history point, based
      * on the branch identification mode.
@@ -236,12 +320,13 @@ public class StateTree {
                 //in compact mode nextState() will update the history point            
                 add(s);
             } else if (this.stateIdMode == StateIdentificationMode.REPLICABLE) {
-                s.addBranchToHistoryPoint(String.valueOf(branchNumber));
+                s.addBranchToHistoryPoint(branchNumber);
                 add(s);
             } else { // (this.stateIdMode == StateIdentificationMode.LONG)
                 s.addBranchToHistoryPoint(branchIdentifier);
                 add(s);
             }
+            possiblyMerge(s);
         } else {  //phase == Phase.PRE_INITIAL || phase == Phase.INITIAL
             throw new InvalidInputException("Tried to add a " + (s.phase() == Phase.PRE_INITIAL ? "pre-" : "") + "initial state to a state tree branch.");
         }
@@ -257,6 +342,16 @@ public class StateTree {
     public boolean hasStates() {
         return !this.stateBuffer.isEmpty();
     }
+
+    /**
+     * Returns the number of states that remain to be explored.
+     * 
+     * @return an {@code int}, the number of {@link State}s 
+     *         that must be emitted yet.
+     */
+    public int getNumOfStates() {
+        return this.stateBuffer.size();
+    }
     
     /**
      * Returns the number of states that remain to be explored
@@ -320,7 +415,7 @@ public class StateTree {
         }
         
         if (!this.userProvidedStartState && this.stateIdMode == StateIdentificationMode.COMPACT && s.phase() == Phase.POST_INITIAL) {
-            s.addBranchToHistoryPoint(String.valueOf(b.emittedStates));
+            s.addBranchToHistoryPoint(b.emittedStates);
         } //else, the history point was already set by addState
         this.userProvidedStartState = false;
 
@@ -412,6 +507,63 @@ public class StateTree {
         }
     }    
 
+    /**
+     * Merges into a state that was just added to the
+     * buffer all the other states in the buffer that can 
+     * be merged into it, if states must be merged and 
+     * the state is at a loop point.
+     * 
+     * @param s the {@link State} just added to the buffer.
+     * @throws FrozenStateException if {@code s} is frozen.
+     */
+    private void possiblyMerge(State s) throws FrozenStateException {
+        if (this.mergeCalculator == null || s.getStackSize() == 0) {
+            return;
+        }
+        try {
+            if (!isLoopPoint(s.getCurrentMethodSignature(), s.getCurrentProgramCounter())) {
+                return;
+            }
+        } catch (ThreadStackEmptyException e) {
+            //this should never happen
+            throw new UnexpectedInternalException(e);
+        }
+        int position = 1; //skips s, that is at position 0
+        for (Iterator<State> it = this.stateBuffer.listIterator(position); it.hasNext(); ) {
+            final State other = it.next();
+            if (s.mergeWith(other, this.mergeCalculator)) {
+                it.remove();
+                removeFromBranch(position);
+                ++this.mergedStates;
+            } else {
+                ++position;
+            }
+        }
+    }
+
+    /**
+     * Decreases the total count of states in the branch
+     * of a state that was removed from the buffer, and 
+     * possibly removes the branch.
+     * 
+     * @param position an {@code int}, the position in the 
+     *        buffer of the removed state.
+     */
+    private void removeFromBranch(int position) {
+        int start = 0;
+        for (Iterator<BranchInfo> it = this.branchList.iterator(); it.hasNext(); ) {
+            final BranchInfo info = it.next();
+            start += info.totalStates - info.emittedStates;
+            if (position < start) {
+                --info.totalStates;
+                if (info.totalStates == info.emittedStates) {
+                    it.remove();
+                }
+                return;
+            }
+        }
+    }
+
     /**
      * Adds a state to the buffer and increases the 
      * total count of states in the branch.
@@ -1,15 +1,16 @@
 package jbse.val;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Class for history points in symbolic execution. A history point identifies a
- * state in the symbolic execution by specifying the identifier of the branch 
+ * state in the symbolic execution by specifying the identifier of the branch
  * in the symbolic tree and the sequence number (distance from the branch)
  * where the state is. It is immutable.
  * 
  * @author Pietro Braione
- *
+ * 
  */
 public final class HistoryPoint {
     public static final String BRANCH_IDENTIFIER_SEPARATOR_COMPACT = ".";
@@ -17,9 +18,117 @@ public final class HistoryPoint {
     public static final String BRANCH_IDENTIFIER_SEPARATOR_LONG = "|";
     public static final String BRANCH_IDENTIFIER_DEFAULT_LONG = "ROOT";
     
+    /**
+     * A branch identifier, i.e., a sequence of branch labels.
+     * Branches are persistent and share their prefixes with
+     * their parent branches. Each label is coded by an {@code int}:
+     * Nonnegative numeric labels are coded by their value, all
+     * the other labels are coded by a negative number (see
+     * {@link HistoryPoint#labelCode(String)}).
+     */
+    private static final class Branch {
+        /** The empty branch. */
+        static final Branch EMPTY = new Branch(null, 0);
+        
+        /** The parent branch, or {@code null} if this is the empty branch. */
+        final Branch parent;
+        
+        /** The code of the last label, meaningless if this is the empty branch. */
+        final int label;
+        
+        /** The number of labels. */
+        final int depth;
+        
+        /** The cached hash code. */
+        final int hashCode;
+        
+        /**
+         * Caches the {@link String} form of this branch
+         * (it is lazily built, and only for output).
+         */
+        String toString = null;
+        
+        Branch(Branch parent, int label) {
+            this.parent = parent;
+            this.label = label;
+            this.depth = (parent == null ? 0 : parent.depth + 1);
+            this.hashCode = (parent == null ? 1 : 31 * parent.hashCode + label);
+        }
+        
+        /**
+         * Returns the ancestor of this branch with a given depth.
+         * 
+         * @param depth an {@code int}, it must be {@code 0 <= depth <= this.depth}.
+         * @return a {@link Branch}.
+         */
+        Branch ancestor(int depth) {
+            Branch retVal = this;
+            while (retVal.depth > depth) {
+                retVal = retVal.parent;
+            }
+            return retVal;
+        }
+        
+        /**
+         * Checks whether this branch is a (possibly improper)
+         * prefix of another one.
+         * 
+         * @param other a {@link Branch}.
+         * @return {@code true} iff this branch is a prefix of
+         *         {@code other}.
+         */
+        boolean isPrefixOf(Branch other) {
+            if (this.depth > other.depth) {
+                return false;
+            }
+            return sameLabels(this, other.ancestor(this.depth));
+        }
+        
+        /**
+         * Returns the labels of this branch, from the
+         * root to the leaf.
+         * 
+         * @return an {@code int[]}.
+         */
+        int[] labels() {
+            final int[] retVal = new int[this.depth];
+            for (Branch b = this; b.depth > 0; b = b.parent) {
+                retVal[b.depth - 1] = b.label;
+            }
+            return retVal;
+        }
+        
+        /**
+         * Checks whether two branches with same depth
+         * have the same labels.
+         * 
+         * @param b1 a {@link Branch}.
+         * @param b2 a {@link Branch}, with {@code b2.depth == b1.depth}.
+         * @return {@code true} iff {@code b1} and {@code b2}
+         *         have the same labels.
+         */
+        static boolean sameLabels(Branch b1, Branch b2) {
+            //stops as soon as the branches share their prefix
+            while (b1 != b2) {
+                if (b1.hashCode != b2.hashCode || b1.label != b2.label) {
+                    return false;
+                }
+                b1 = b1.parent;
+                b2 = b2.parent;
+            }
+            return true;
+        }
+    }
+    
+    /** Codes the nonnumeric labels (the code is {@code -1 - index}). */
+    private static final HashMap<String, Integer> LABEL_CODES = new HashMap<>();
+    
+    /** Decodes the nonnumeric labels (the code is {@code -1 - index}). */
+    private static final ArrayList<String> LABELS = new ArrayList<>();
+    
     private final boolean compact;
     
-    private final ArrayList<String> branchIdentifier;
+    private final Branch branchIdentifier;
     
     private final int sequenceNumber;
     
@@ -36,17 +145,68 @@ public final class HistoryPoint {
      * Constructor for any (known) history point.
      * 
      * @param compact a {@code boolean}.
-     * @param branchIdentifier an {@link ArrayList}{@code <}{@link String}{@code >}.
+     * @param branchIdentifier a {@link Branch}.
      * @param sequenceNumber an {@code int}.
      */
-    private HistoryPoint(boolean compact, ArrayList<String> branchIdentifier, int sequenceNumber) {
+    private HistoryPoint(boolean compact, Branch branchIdentifier, int sequenceNumber) {
         this.compact = compact;
         this.branchIdentifier = branchIdentifier;
         this.sequenceNumber = sequenceNumber;
     }
     
     /**
-     * Factory method. Builds the unknown {@link HistoryPoint} 
+     * Returns the code of a branch label.
+     * 
+     * @param label a {@link String}.
+     * @return an {@code int}, the value of {@code label} if
+     *         {@code label} is the canonical decimal representation
+     *         of a nonnegative {@code int}, a negative value otherwise.
+     */
+    private static int labelCode(String label) {
+        final int length = label.length();
+        if (length > 0 && length < 10 && (length == 1 || label.charAt(0) != '0')) {
+            int value = 0;
+            for (int i = 0; i < length; ++i) {
+                final char c = label.charAt(i);
+                if (c < '0' || c > '9') {
+                    value = -1;
+                    break;
+                }
+                value = value * 10 + (c - '0');
+            }
+            if (value >= 0) {
+                return value;
+            }
+        }
+        synchronized (LABEL_CODES) {
+            Integer retVal = LABEL_CODES.get(label);
+            if (retVal == null) {
+                LABELS.add(label);
+                retVal = -LABELS.size();
+                LABEL_CODES.put(label, retVal);
+            }
+            return retVal;
+        }
+    }
+    
+    /**
+     * Returns the branch label with a given code.
+     * 
+     * @param code an {@code int}, a code returned by
+     *        {@link #labelCode(String)}.
+     * @return the label, a {@link String}.
+     */
+    private static String label(int code) {
+        if (code >= 0) {
+            return Integer.toString(code);
+        }
+        synchronized (LABEL_CODES) {
+            return LABELS.get(-1 - code);
+        }
+    }
+    
+    /**
+     * Factory method. Builds the unknown {@link HistoryPoint}
      * (used only for the Any term).
      * 
      * @return a {@link HistoryPoint}.
@@ -61,8 +221,7 @@ public final class HistoryPoint {
      * @return a {@link HistoryPoint}.
      */
     public static HistoryPoint startingPreInitial(boolean compact) {
-        final ArrayList<String> preInitialBranchIdentifier = new ArrayList<>();
-        return new HistoryPoint(compact, preInitialBranchIdentifier, 0);
+        return new HistoryPoint(compact, Branch.EMPTY, 0);
     }
     
     /**
@@ -71,9 +230,8 @@ public final class HistoryPoint {
      * @return a {@link HistoryPoint}.
      */
     public HistoryPoint startingInitial() {
-        final ArrayList<String> initialBranchIdentifier = new ArrayList<>();
-        initialBranchIdentifier.add(this.compact ? BRANCH_IDENTIFIER_DEFAULT_COMPACT : BRANCH_IDENTIFIER_DEFAULT_LONG);
-        return new HistoryPoint(this.compact, initialBranchIdentifier, 0);
+        final int label = labelCode(this.compact ? BRANCH_IDENTIFIER_DEFAULT_COMPACT : BRANCH_IDENTIFIER_DEFAULT_LONG);
+        return new HistoryPoint(this.compact, new Branch(Branch.EMPTY, label), 0);
     }
     
     /**
@@ -97,23 +255,64 @@ public final class HistoryPoint {
      *         the unknown {@link HistoryPoint}.
      */
     public HistoryPoint nextBranch(String additionalBranch) {
-        final ArrayList<String> nextBranchIdentifier = new ArrayList<>(this.branchIdentifier);
-        nextBranchIdentifier.add(additionalBranch);
-        return new HistoryPoint(this.compact, nextBranchIdentifier, 0);
+        if (this.branchIdentifier == null) {
+            throw new NullPointerException();
+        }
+        return new HistoryPoint(this.compact, new Branch(this.branchIdentifier, labelCode(additionalBranch)), 0);
+    }
+    
+    /**
+     * Factory method. Builds a {@link HistoryPoint} next in time
+     * on a numbered subbranch. Equivalent to
+     * {@link #nextBranch(String) nextBranch}{@code (}{@link String#valueOf(int) String.valueOf}{@code (additionalBranch))}
+     * but does not build any {@link String} when {@code additionalBranch >= 0}.
+     * 
+     * @param additionalBranch an {@code int} that identifies
+     *        the subbranch.
+     * @return a {@link HistoryPoint}.
+     * @throws NullPointerException if this {@link HistoryPoint} is
+     *         the unknown {@link HistoryPoint}.
+     */
+    public HistoryPoint nextBranch(int additionalBranch) {
+        if (this.branchIdentifier == null) {
+            throw new NullPointerException();
+        }
+        final int label = (additionalBranch >= 0 ? additionalBranch : labelCode(String.valueOf(additionalBranch)));
+        return new HistoryPoint(this.compact, new Branch(this.branchIdentifier, label), 0);
     }
     
     /**
      * Returns the branch identifier as a {@link String}.
+     * It should be used only for output.
      * 
      * @return a {@link String}.
      */
     public String getBranchIdentifier() {
-        final StringBuilder retVal = new StringBuilder();
-        for (String b : this.branchIdentifier) {
-            retVal.append(this.compact ? BRANCH_IDENTIFIER_SEPARATOR_COMPACT : BRANCH_IDENTIFIER_SEPARATOR_LONG);
-            retVal.append(b);
+        if (this.branchIdentifier.toString == null) {
+            final StringBuilder retVal = new StringBuilder();
+            for (int label : this.branchIdentifier.labels()) {
+                retVal.append(separator());
+                retVal.append(label(label));
+            }
+            this.branchIdentifier.toString = retVal.toString();
         }
-        return retVal.toString();
+        return this.branchIdentifier.toString;
+    }
+    
+    private char separator() {
+        return (this.compact ? BRANCH_IDENTIFIER_SEPARATOR_COMPACT : BRANCH_IDENTIFIER_SEPARATOR_LONG).charAt(0);
+    }
+    
+    /**
+     * Returns the number of labels in the branch identifier,
+     * i.e., the depth of the branch.
+     * 
+     * @return a nonnegative {@code int}.
+     * @throws NullPointerException if this {@link HistoryPoint} is
+     *         the unknown {@link HistoryPoint}.
+     */
+    public int getBranchDepth() {
+        return this.branchIdentifier.depth;
     }
     
     /**
@@ -125,32 +324,128 @@ public final class HistoryPoint {
         return this.sequenceNumber;
     }
     
+    /**
+     * Checks whether this {@link HistoryPoint} is on the same branch
+     * of another one.
+     * 
+     * @param other a {@link HistoryPoint}. It must not be {@code null}.
+     * @return {@code true} iff this object's branch identifier is
+     *         equal to {@code other}'s branch identifier.
+     * @throws NullPointerException if {@code other == null}, or if
+     *         this or {@code other} is the unknown {@link HistoryPoint}.
+     */
+    public boolean sameBranch(HistoryPoint other) {
+        return (this.branchIdentifier.depth == other.branchIdentifier.depth &&
+                Branch.sameLabels(this.branchIdentifier, other.branchIdentifier));
+    }
+    
+    /**
+     * Checks whether the branch of this {@link HistoryPoint} is a
+     * prefix of the branch of another one.
+     * 
+     * @param other a {@link HistoryPoint}. It must not be {@code null}.
+     * @return {@code true} iff this object's branch identifier is
+     *         a (possibly improper) prefix of {@code other}'s
+     *         branch identifier.
+     * @throws NullPointerException if {@code other == null}, or if
+     *         this or {@code other} is the unknown {@link HistoryPoint}.
+     */
+    public boolean branchIsPrefixOf(HistoryPoint other) {
+        return this.branchIdentifier.isPrefixOf(other.branchIdentifier);
+    }
+    
+    /**
+     * Checks whether the branch identifier of this {@link HistoryPoint}
+     * and a branch identifier in {@link String} form, as returned by
+     * {@link #getBranchIdentifier()}, are one a prefix of the other.
+     * Does not build the {@link String} form of this object's
+     * branch identifier.
+     * 
+     * @param branchIdentifier a {@link String}. It must not be {@code null}.
+     * @return {@code true} iff the branch identifier of this
+     *         {@link HistoryPoint} is equal to {@code branchIdentifier},
+     *         or starts with {@code branchIdentifier} followed by a branch
+     *         separator, or if {@code branchIdentifier} starts with
+     *         the branch identifier of this {@link HistoryPoint} followed
+     *         by a branch separator.
+     * @throws NullPointerException if {@code branchIdentifier == null}, or if
+     *         this is the unknown {@link HistoryPoint}.
+     */
+    public boolean branchPrefixRelated(String branchIdentifier) {
+        final char separator = separator();
+        final int length = branchIdentifier.length();
+        int pos = 0;
+        for (int label : this.branchIdentifier.labels()) {
+            if (pos == length) {
+                //branchIdentifier is a prefix of this branch identifier,
+                //and the latter continues with a separator
+                return true;
+            }
+            if (branchIdentifier.charAt(pos) != separator) {
+                return false;
+            }
+            ++pos;
+            pos = matchLabel(branchIdentifier, pos, label);
+            if (pos < 0) {
+                return false;
+            }
+        }
+        return (pos == length ||
+                branchIdentifier.charAt(pos) == BRANCH_IDENTIFIER_SEPARATOR_COMPACT.charAt(0) ||
+                branchIdentifier.charAt(pos) == BRANCH_IDENTIFIER_SEPARATOR_LONG.charAt(0));
+    }
+    
+    /**
+     * Matches a label against a {@link String}.
+     * 
+     * @param s a {@link String}.
+     * @param pos an {@code int}, the position in {@code s} where
+     *        the label should start.
+     * @param label an {@code int}, the code of the label.
+     * @return the position in {@code s} after the label, or
+     *         {@code -1} if the label does not occur in {@code s}
+     *         at {@code pos}.
+     */
+    private static int matchLabel(String s, int pos, int label) {
+        if (label < 0) {
+            final String labelString = label(label);
+            return (s.startsWith(labelString, pos) ? pos + labelString.length() : -1);
+        }
+    
+        //numeric label: compares digit by digit
+        int divisor = 1;
+        while (label / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            if (pos == s.length() || s.charAt(pos) != (char) ('0' + (label / divisor) % 10)) {
+                return -1;
+            }
+            ++pos;
+        }
+        return pos;
+    }
+    
     /**
      * Checks whether this {@link HistoryPoint} weakly comes before
      * (i.e., comes before or {@link #equals(Object) equals}) another one.
      * 
      * @param other a {@link HistoryPoint}. It must not be {@code null}.
-     * @return {@code true} iff this object's branch identifier is a 
+     * @return {@code true} iff this object's branch identifier is a
      *         proper prefix of {@code other}'s branch identifier, or if
-     *         the two branch identifiers are equal and 
+     *         the two branch identifiers are equal and
      *         {@code this.}{@link #getSequenceNumber() getSequenceNumber}{@code () <= other.}{@link #getSequenceNumber() getSequenceNumber}{@code ()}.
      * @throws NullPointerException if {@code other == null}.
      */
     public boolean weaklyBefore(HistoryPoint other) {
-        if (this.branchIdentifier.size() > other.branchIdentifier.size()) {
+        if (!branchIsPrefixOf(other)) {
             return false;
         }
-        
-        for (int i = 0; i < this.branchIdentifier.size(); ++i) {
-            if (!this.branchIdentifier.get(i).equals(other.branchIdentifier.get(i))) {
-                return false;
-            }
-        }
-        
-        if (this.branchIdentifier.size() == other.branchIdentifier.size() && this.sequenceNumber > other.sequenceNumber) {
+    
+        if (this.branchIdentifier.depth == other.branchIdentifier.depth && this.sequenceNumber > other.sequenceNumber) {
             return false;
         }
-        
+    
         return true;
     }
     
@@ -158,11 +453,11 @@ public final class HistoryPoint {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + (this.branchIdentifier == null ? 0 : this.branchIdentifier.hashCode());
+        result = prime * result + (this.branchIdentifier == null ? 0 : this.branchIdentifier.hashCode);
         result = prime * result + this.sequenceNumber;
         return result;
     }
-
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -175,20 +470,18 @@ public final class HistoryPoint {
             return false;
         }
         final HistoryPoint other = (HistoryPoint) obj;
-        if (this.branchIdentifier == null) {
-        	if (other.branchIdentifier != null) {
-        		return false;
-        	}
-        }
-        if (!this.branchIdentifier.equals(other.branchIdentifier)) {
+        if (this.sequenceNumber != other.sequenceNumber) {
             return false;
         }
-        if (this.sequenceNumber != other.sequenceNumber) {
+        if (this.branchIdentifier == null || other.branchIdentifier == null) {
+            return (this.branchIdentifier == other.branchIdentifier);
+        }
+        if (!sameBranch(other)) {
             return false;
         }
         return true;
     }
-
+    
     @Override
     public String toString() {
     	if (this.branchIdentifier == null) {
@@ -102,6 +102,27 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
     /** Maximum (long) */
     public static final String MAX_LONG = JAVA_STRICTMATH_MAX_LONG.toString();
     
+    //the theory of arrays, used to represent the content of arrays
+    
+    /** The content of an array with all members set to the argument */
+    public static final String ARRAY_CONST = "const";
+    
+    /** The (symbolic) initial content of the array whose origin is the argument */
+    public static final String ARRAY_INITIAL = "initial";
+    
+    /** The content of an array (1st argument) updated at an index (2nd argument) with a value (3rd argument) */
+    public static final String ARRAY_STORE = "store";
+    
+    /** 
+     * The content of an array (1st argument) updated by copying the content of another array 
+     * (2nd argument) from a source position (3rd argument) to a destination position 
+     * (4th argument) for a given length (5th argument) 
+     */
+    public static final String ARRAY_COPY = "arraycopy";
+    
+    /** The member of an array content (1st argument) at an index (2nd argument) */
+    public static final String ARRAY_SELECT = "select";
+    
     /** The function name. */
 	private final String operator;
 	
@@ -111,10 +132,16 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 	/** The hash code of this object. */
     private final int hashCode;
 
-    /** The string representation of this object. */
-	private final String toString;
+    /** 
+     * The string representation of this object, lazily 
+     * calculated because the terms of the theory of arrays 
+     * nest a term for each update of an array, and their 
+     * strings would cost quadratic time and memory.
+     */
+	private String toString; //nonfinal, lazily calculated
 	
-	private final String originString;
+	/** The origin string of this object, lazily calculated. */
+	private String originString; //nonfinal, lazily calculated
 	
 	/**
 	 * Constructor. 
@@ -151,46 +178,72 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 		tmpHashCode = prime * tmpHashCode + ((operator == null) ? 0 : operator.hashCode());
                 tmpHashCode = prime * tmpHashCode + ((historyPoint == null) ? 0 : historyPoint.hashCode());
 		this.hashCode = tmpHashCode;
-		
-		//calculates toString
-		{
-			final StringBuilder buf = new StringBuilder();
-			buf.append(this.operator);
-			buf.append('(');
-			boolean first = true;
-			for (Value v : this.args) {
-				buf.append(first ? "" : ",");
+	}
+	
+	/**
+	 * Appends the string representation of this object 
+	 * to a {@link StringBuilder}, without calculating 
+	 * the string representations of the nested 
+	 * {@link PrimitiveSymbolicApply}s.
+	 * 
+	 * @param buf a {@link StringBuilder}.
+	 */
+	private void appendString(StringBuilder buf) {
+		if (this.toString != null) {
+			buf.append(this.toString);
+			return;
+		}
+		buf.append(this.operator);
+		buf.append('(');
+		boolean first = true;
+		for (Value v : this.args) {
+			buf.append(first ? "" : ",");
+			if (v instanceof PrimitiveSymbolicApply) {
+				((PrimitiveSymbolicApply) v).appendString(buf);
+			} else {
 				buf.append(v.toString());
-				first = false;
 			}
-			buf.append(')');
-			if (historyPoint != null) {
-				buf.append('@');
-				buf.append(historyPoint.toString());
+			first = false;
+		}
+		buf.append(')');
+		if (historyPoint() != null) {
+			buf.append('@');
+			buf.append(historyPoint().toString());
+		}
+	}
+	
+	/**
+	 * Appends the origin string of this object 
+	 * to a {@link StringBuilder}, without calculating 
+	 * the origin strings of the nested 
+	 * {@link PrimitiveSymbolicApply}s.
+	 * 
+	 * @param buf a {@link StringBuilder}.
+	 */
+	private void appendOriginString(StringBuilder buf) {
+		if (this.originString != null) {
+			buf.append(this.originString);
+			return;
+		}
+		buf.append('<');
+		buf.append(this.operator);
+		buf.append('@');
+		boolean first = true;
+		for (Value v : this.args) {
+			buf.append(first ? "" : ",");
+			if (v instanceof PrimitiveSymbolicApply) {
+				((PrimitiveSymbolicApply) v).appendOriginString(buf);
+			} else {
+				buf.append(v.isSymbolic() ? ((Symbolic) v).asOriginString() : v.toString());
 			}
-			this.toString = buf.toString();
+			first = false;
 		}
-		
-		//calculates originString
-		{
-            final StringBuilder buf = new StringBuilder();
-            buf.append('<');
-            buf.append(this.operator);
-            buf.append('@');
-            boolean first = true;
-            for (Value v : this.args) {
-                    buf.append(first ? "" : ",");
-                    buf.append(v.isSymbolic() ? ((Symbolic) v).asOriginString() : v.toString());
-                    first = false;
-            }
-            if (historyPoint() == null) {
-                buf.append('>');
-            } else {
-                buf.append('@');
-                buf.append(historyPoint().toString());
-                buf.append('>');
-            }
-            this.originString = buf.toString();
+		if (historyPoint() == null) {
+			buf.append('>');
+		} else {
+			buf.append('@');
+			buf.append(historyPoint().toString());
+			buf.append('>');
 		}
 	}
 	
@@ -206,6 +259,11 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 	
 	@Override
 	public String asOriginString() {
+		if (this.originString == null) {
+			final StringBuilder buf = new StringBuilder();
+			appendOriginString(buf);
+			this.originString = buf.toString();
+		}
 		return this.originString;
 	}
 	
@@ -229,6 +287,11 @@ public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed impl
 
 	@Override
 	public String toString() {
+		if (this.toString == null) {
+			final StringBuilder buf = new StringBuilder();
+			appendString(buf);
+			this.toString = buf.toString();
+		}
 		return this.toString;
 	}
 
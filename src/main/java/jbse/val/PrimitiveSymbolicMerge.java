@@ -0,0 +1,94 @@
+package jbse.val;
+
+import jbse.common.exc.InvalidInputException;
+import jbse.val.exc.InvalidTypeException;
+
+/**
+ * Class that represent a {@link PrimitiveSymbolicAtomic} that stands
+ * for the value of a variable in a state obtained by merging two 
+ * states where the variable has different values. Different merge
+ * symbols are always different, unless they have the same identifier.
+ */
+public final class PrimitiveSymbolicMerge extends PrimitiveSymbolicAtomic {
+    /** The identifier of this symbol. */
+    private final int id;
+
+    /** The origin string of this symbol. */
+    private final String originString;
+
+    /** The hash code of this object. */
+    private final int hashCode;
+
+    /**
+     * Constructor.
+     * 
+     * @param id an {@link int}, the identifier of the symbol. Different
+     *        object with same identifier will be treated as equal.
+     * @param type the type of the represented value.
+     * @param historyPoint the current {@link HistoryPoint}. It must not be {@code null}.
+     * @throws InvalidTypeException if {@code type} is not primitive.
+     * @throws InvalidInputException if {@code historyPoint == null}.
+     */
+    PrimitiveSymbolicMerge(int id, char type, HistoryPoint historyPoint) 
+    throws InvalidTypeException, InvalidInputException {
+        super(id, type, historyPoint);
+        this.id = id;
+        this.originString = "{MERGE}:" + id;
+
+        //calculates hashCode
+        final int prime = 3041;
+        int result = 1;
+        result = prime * result + id;
+        this.hashCode = result;
+    }
+
+    /**
+     * Returns the identifier of this symbol.
+     * 
+     * @return an {@code int}.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    @Override
+    public String asOriginString() {
+        return this.originString;
+    }
+
+    @Override
+    public Symbolic root() {
+        return this;
+    }
+
+    @Override
+    public boolean hasContainer(Symbolic s) {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        return equals(s);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PrimitiveSymbolicMerge other = (PrimitiveSymbolicMerge) obj;
+        if (this.id != other.id) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -227,6 +227,33 @@ public final class SymbolFactory implements Cloneable {
         }
     }
 
+    /**
+     * A Factory Method for creating primitive symbolic values. 
+     * The symbol stands for the value of a variable in a state 
+     * obtained by merging two states.
+     * 
+     * @param historyPoint the {@link HistoryPoint} of the symbol.
+     * @param type a {@code char}, the type of the symbol.
+     * @return a {@link PrimitiveSymbolicMerge}, different from 
+     *         all the other symbols created by this factory.
+     * @throws InvalidTypeException if {@code type} is not a primitive type.
+     * @throws InvalidInputException if {@code historyPoint == null}.
+     */
+    public PrimitiveSymbolicMerge createSymbolMerge(HistoryPoint historyPoint, char type) throws InvalidTypeException, InvalidInputException {
+        return new PrimitiveSymbolicMerge(getNextIdPrimitiveSymbolic(), type, historyPoint);
+    }
+
+    /**
+     * Ensures that this factory will not create symbols 
+     * with the identifiers already used by another factory.
+     * 
+     * @param other a {@link SymbolFactory}.
+     */
+    public void skipIdentifiersOf(SymbolFactory other) {
+        this.nextIdPrimSym = Math.max(this.nextIdPrimSym, other.nextIdPrimSym);
+        this.nextIdRefSym = Math.max(this.nextIdRefSym, other.nextIdRefSym);
+    }
+
     private int getNextIdPrimitiveSymbolic() {
         final int retVal = this.nextIdPrimSym++;
         return retVal;
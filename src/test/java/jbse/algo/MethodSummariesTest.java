@@ -0,0 +1,199 @@
+package jbse.algo;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.dec.DecisionProcedureAlwSat;
+import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Calculator;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+import jbse.val.Value;
+
+public class MethodSummariesTest {
+    private static final String CLASS_NAME = "tsafe/main/SimpleCalculator";
+    private static final Signature SIG_METHOD = new Signature(CLASS_NAME, "(D)D", "metersPerLonAt");
+    private static final Signature SIG_SUMMARIZED = new Signature(CLASS_NAME, "(D)D", "summarized");
+    private Calculator calc;
+    private SymbolFactory symbolFactory;
+    private HistoryPoint hp;
+    private State state;
+    private MethodSummaries summaries;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), userPath);
+
+        //state with a frame for SimpleCalculator.metersPerLonAt(double)
+        final CalculatorRewriting calc = new CalculatorRewriting();
+        calc.addRewriter(new RewriterOperationOnSimplex());
+        this.calc = calc;
+        this.symbolFactory = new SymbolFactory();
+        this.hp = HistoryPoint.startingPreInitial(true).startingInitial();
+        this.state = new State(true, this.hp, 100, 100, env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), this.symbolFactory);
+        this.state.setPhasePostInitial();
+        final ClassFile cf = this.state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+        final ReferenceSymbolic receiver = this.symbolFactory.createSymbolLocalVariableReference(this.hp, "L" + CLASS_NAME + ";", "L" + CLASS_NAME + ";", "this");
+        this.state.pushFrame(this.calc, cf, SIG_METHOD, true, 0, receiver, symbol("y"));
+
+        this.summaries = new MethodSummaries();
+    }
+
+    private Primitive symbol(String name) throws Exception {
+        return this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "D", name);
+    }
+
+    /**
+     * Records the summary of an invocation of a method with formal
+     * parameter {@code x} that returns {@code 1.0} if {@code x > 0},
+     * {@code x} otherwise.
+     */
+    private void recordTwoPaths(Primitive x) throws Exception {
+        assertTrue(this.summaries.startRecording(SIG_SUMMARIZED, this.state, new Value[] { x }, 0));
+        assertTrue(this.summaries.isRecording());
+        final State s1 = this.state.lazyClone();
+        final State s2 = this.state.lazyClone();
+
+        //first path, there is another pending state
+        s1.assume(this.calc.push(x).gt(this.calc.valDouble(0.0)).pop());
+        this.summaries.recordReturn(s1, this.calc, this.calc.valDouble(1.0));
+        this.summaries.onPathEnd(s1, 1);
+        assertNull(this.summaries.getEntries(SIG_SUMMARIZED));
+
+        //second path, the last one
+        s2.assume(this.calc.push(x).le(this.calc.valDouble(0.0)).pop());
+        this.summaries.recordReturn(s2, this.calc, x);
+        this.summaries.onPathEnd(s2, 0);
+    }
+
+    @Test
+    public void testRecord() throws Exception {
+        final Primitive x = symbol("x");
+        assertTrue(this.summaries.isNew(SIG_SUMMARIZED));
+        recordTwoPaths(x);
+        assertFalse(this.summaries.isRecording());
+        assertFalse(this.summaries.isNew(SIG_SUMMARIZED));
+        assertArrayEquals(new Primitive[] { x }, this.summaries.getFormals(SIG_SUMMARIZED));
+        final List<MethodSummaries.Entry> entries = this.summaries.getEntries(SIG_SUMMARIZED);
+        assertEquals(2, entries.size());
+        assertEquals(this.calc.valDouble(1.0), entries.get(0).getReturnValue());
+        assertEquals(x, entries.get(1).getReturnValue());
+
+        //it is recorded once
+        assertFalse(this.summaries.startRecording(SIG_SUMMARIZED, this.state, new Value[] { symbol("z") }, 0));
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        final Primitive x = symbol("x");
+        recordTwoPaths(x);
+        final List<MethodSummaries.Entry> entries = this.summaries.getEntries(SIG_SUMMARIZED);
+        final Primitive z = symbol("z");
+        final Primitive[] conditions = new Primitive[entries.size()];
+        final Primitive[] returnValues = new Primitive[entries.size()];
+        assertTrue(Algo_INVOKEMETA_Summarized.instantiate(this.calc, this.summaries.getFormals(SIG_SUMMARIZED), new Value[] { z }, entries, conditions, returnValues));
+        assertEquals(this.calc.push(z).gt(this.calc.valDouble(0.0)).pop(), conditions[0]);
+        assertEquals(this.calc.valDouble(1.0), returnValues[0]);
+        assertEquals(z, returnValues[1]);
+
+        //concrete actual parameters
+        assertTrue(Algo_INVOKEMETA_Summarized.instantiate(this.calc, this.summaries.getFormals(SIG_SUMMARIZED), new Value[] { this.calc.valDouble(2.0) }, entries, conditions, returnValues));
+        assertEquals(this.calc.valBoolean(true), conditions[0]);
+        assertEquals(this.calc.valDouble(2.0), returnValues[1]);
+
+        //actual parameters mentioning the formal parameters
+        assertFalse(Algo_INVOKEMETA_Summarized.instantiate(this.calc, this.summaries.getFormals(SIG_SUMMARIZED), new Value[] { x }, entries, conditions, returnValues));
+    }
+
+    @Test
+    public void testNoneSatisfiable() throws Exception {
+        final Primitive x = symbol("x");
+        recordTwoPaths(x);
+        final List<MethodSummaries.Entry> entries = this.summaries.getEntries(SIG_SUMMARIZED);
+        final Primitive[] conditions = new Primitive[entries.size()];
+        final Primitive[] returnValues = new Primitive[entries.size()];
+        final DecisionProcedureAlwSat dec = new DecisionProcedureAlwSat(this.calc);
+        assertTrue(Algo_INVOKEMETA_Summarized.instantiate(this.calc, this.summaries.getFormals(SIG_SUMMARIZED), new Value[] { this.calc.valDouble(2.0) }, entries, conditions, returnValues));
+        assertEquals(Collections.singletonList(0), Algo_INVOKEMETA_Summarized.satisfiable(dec, conditions));
+        
+        //no satisfiable path, the method must be executed
+        conditions[0] = this.calc.valBoolean(false);
+        assertTrue(Algo_INVOKEMETA_Summarized.satisfiable(dec, conditions).isEmpty());
+    }
+
+    @Test
+    public void testIsSummarizable() throws Exception {
+        assertTrue(Algo_INVOKEMETA_Summarized.isSummarizable(SIG_SUMMARIZED));
+        assertFalse(Algo_INVOKEMETA_Summarized.isSummarizable(new Signature(CLASS_NAME, "(Ljava/lang/Object;)D", "summarized")));
+        assertFalse(Algo_INVOKEMETA_Summarized.isSummarizable(new Signature(CLASS_NAME, "(D)Ljava/lang/Object;", "summarized")));
+    }
+
+    @Test
+    public void testNotStarted() throws Exception {
+        //parameters mentioned by the path condition
+        final Primitive x = symbol("x");
+        final State s = this.state.lazyClone();
+        s.assume(this.calc.push(x).gt(this.calc.valDouble(0.0)).pop());
+        assertFalse(this.summaries.startRecording(SIG_SUMMARIZED, s, new Value[] { x }, 0));
+
+        //repeated or concrete parameters
+        final Signature sig2 = new Signature(CLASS_NAME, "(DD)D", "summarized");
+        final Primitive z = symbol("z");
+        assertFalse(this.summaries.startRecording(sig2, this.state, new Value[] { z, z }, 0));
+        assertFalse(this.summaries.startRecording(sig2, this.state, new Value[] { z, this.calc.valDouble(1.0) }, 0));
+        assertTrue(this.summaries.isNew(sig2));
+
+        //another summary is being recorded
+        assertTrue(this.summaries.startRecording(SIG_SUMMARIZED, this.state, new Value[] { z }, 0));
+        assertFalse(this.summaries.startRecording(sig2, this.state, new Value[] { symbol("w"), symbol("v") }, 0));
+    }
+
+    @Test
+    public void testDiscardedOnPathNotReturning() throws Exception {
+        assertTrue(this.summaries.startRecording(SIG_SUMMARIZED, this.state, new Value[] { symbol("x") }, 0));
+
+        //the path ends inside the invocation, e.g., by an exception
+        this.summaries.onPathEnd(this.state, 0);
+        assertFalse(this.summaries.isRecording());
+        assertNull(this.summaries.getEntries(SIG_SUMMARIZED));
+        assertNull(this.summaries.getFormals(SIG_SUMMARIZED));
+        assertFalse(this.summaries.isNew(SIG_SUMMARIZED));
+    }
+
+    @Test
+    public void testDiscardedOnOtherSymbols() throws Exception {
+        final Primitive x = symbol("x");
+        assertTrue(this.summaries.startRecording(SIG_SUMMARIZED, this.state, new Value[] { x }, 0));
+
+        //the path assumes something on a symbol that is not a formal parameter
+        final State s = this.state.lazyClone();
+        s.assume(this.calc.push(symbol("y")).gt(x).pop());
+        this.summaries.recordReturn(s, this.calc, x);
+        this.summaries.onPathEnd(s, 0);
+        assertNull(this.summaries.getEntries(SIG_SUMMARIZED));
+    }
+}
@@ -0,0 +1,85 @@
+package jbse.algo.meta;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.mem.Array;
+import jbse.mem.ArrayImpl;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+
+public class Algo_JAVA_STRING_CHARATTest {
+    private CalculatorRewriting calc;
+    private ClassFile cf_ARRAY_CHAR;
+    private HistoryPoint hp;
+    private SymbolFactory symbolFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), Collections.emptyList());
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        hier.loadCreateClass(JAVA_OBJECT);
+        hier.loadCreateClass(JAVA_CLONEABLE);
+        hier.loadCreateClass(JAVA_SERIALIZABLE);
+        this.cf_ARRAY_CHAR = hier.loadCreateClass("" + ARRAYOF + CHAR);
+
+        //calculator and symbols
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hp = HistoryPoint.startingPreInitial(true);
+        this.symbolFactory = new SymbolFactory();
+    }
+
+    private Array chars(Primitive... members) throws Exception {
+        final Array retVal = new ArrayImpl(this.calc, false, false, null, this.calc.valInt(members.length), this.cf_ARRAY_CHAR, null, this.hp, false, 100, false);
+        for (int i = 0; i < members.length; ++i) {
+            retVal.setFast(this.calc.valInt(i), members[i]);
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testCharAtSymbolicIndex() throws Exception {
+        final Primitive index = this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "" + INT, "index");
+        final Array a = chars(this.calc.valChar('a'), this.calc.valChar('b'), this.calc.valChar('c'));
+        final Primitive charAt = Algo_JAVA_STRING_CHARAT.charAt(this.calc, a, index);
+        assertFalse(charAt instanceof Simplex);
+        assertEquals(CHAR, charAt.getType());
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(this.calc.valChar("abc".charAt(i)), this.calc.push(charAt).replace(index, this.calc.valInt(i)).pop());
+        }
+    }
+
+    @Test
+    public void testCharAtSymbolicChars() throws Exception {
+        final Primitive index = this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "" + INT, "index");
+        final Primitive x = this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "" + CHAR, "x");
+        final Array a = chars(this.calc.valChar('a'), x);
+        final Primitive charAt = Algo_JAVA_STRING_CHARAT.charAt(this.calc, a, index);
+        assertEquals(this.calc.valChar('a'), this.calc.push(charAt).replace(index, this.calc.valInt(0)).pop());
+        assertEquals(this.calc.valChar('z'), this.calc.push(charAt).replace(index, this.calc.valInt(1)).replace(x, this.calc.valChar('z')).pop());
+    }
+}
@@ -0,0 +1,108 @@
+package jbse.algo.meta;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.mem.Array;
+import jbse.mem.ArrayImpl;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+
+public class Algo_JAVA_STRING_EQUALSTest {
+    private CalculatorRewriting calc;
+    private ClassFile cf_ARRAY_CHAR;
+    private HistoryPoint hp;
+    private SymbolFactory symbolFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), Collections.emptyList());
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        hier.loadCreateClass(JAVA_OBJECT);
+        hier.loadCreateClass(JAVA_CLONEABLE);
+        hier.loadCreateClass(JAVA_SERIALIZABLE);
+        this.cf_ARRAY_CHAR = hier.loadCreateClass("" + ARRAYOF + CHAR);
+        
+        //calculator and symbols
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hp = HistoryPoint.startingPreInitial(true);
+        this.symbolFactory = new SymbolFactory();
+    }
+    
+    private Array chars(Primitive... members) throws Exception {
+        final Array retVal = new ArrayImpl(this.calc, false, false, null, this.calc.valInt(members.length), this.cf_ARRAY_CHAR, null, this.hp, false, 100, false);
+        for (int i = 0; i < members.length; ++i) {
+            retVal.setFast(this.calc.valInt(i), members[i]);
+        }
+        return retVal;
+    }
+    
+    private Primitive symbolicChar(String name) throws Exception {
+        return this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "C", name);
+    }
+
+    @Test
+    public void testCharsEqualConcrete() throws Exception {
+        final Array a = chars(this.calc.valChar('a'), this.calc.valChar('b'));
+        final Array b = chars(this.calc.valChar('a'), this.calc.valChar('b'));
+        final Array c = chars(this.calc.valChar('a'), this.calc.valChar('c'));
+        assertEquals(this.calc.valBoolean(true), Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 0, b, 0, 2));
+        assertEquals(this.calc.valBoolean(false), Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 0, c, 0, 2));
+        assertEquals(this.calc.valBoolean(true), Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 0, c, 0, 1));
+    }
+
+    @Test
+    public void testCharsEqualSymbolic() throws Exception {
+        final Primitive x = symbolicChar("x");
+        final Array a = chars(this.calc.valChar('a'), x);
+        final Array b = chars(this.calc.valChar('a'), this.calc.valChar('b'));
+        final Primitive equal = Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 0, b, 0, 2);
+        assertFalse(equal instanceof Simplex);
+        assertTrue(equal.toString().contains(x.toString()));
+        final Primitive xIsB = this.calc.push(x).widen(INT).eq(this.calc.valInt('b')).pop();
+        assertEquals(xIsB, equal);
+    }
+
+    @Test
+    public void testCharsEqualSymbolicMismatch() throws Exception {
+        final Primitive x = symbolicChar("x");
+        final Array a = chars(x, this.calc.valChar('a'));
+        final Array b = chars(this.calc.valChar('b'), this.calc.valChar('c'));
+        assertEquals(this.calc.valBoolean(false), Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 0, b, 0, 2));
+    }
+
+    @Test
+    public void testCharsEqualWithOffset() throws Exception {
+        final Primitive x = symbolicChar("x");
+        final Array a = chars(this.calc.valChar('a'), this.calc.valChar('b'), x);
+        final Array prefix = chars(this.calc.valChar('b'));
+        assertEquals(this.calc.valBoolean(true), Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 1, prefix, 0, 1));
+        final Primitive equal = Algo_JAVA_STRING_EQUALS.charsEqual(this.calc, a, 2, prefix, 0, 1);
+        assertFalse(equal instanceof Simplex);
+    }
+}
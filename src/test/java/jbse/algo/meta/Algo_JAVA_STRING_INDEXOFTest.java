@@ -0,0 +1,115 @@
+package jbse.algo.meta;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.CHAR;
+import static jbse.common.Type.INT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.mem.Array;
+import jbse.mem.ArrayImpl;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.Simplex;
+import jbse.val.SymbolFactory;
+
+public class Algo_JAVA_STRING_INDEXOFTest {
+    private static final char[] ALPHABET = { 'a', 'b', 'c' };
+    private CalculatorRewriting calc;
+    private ClassFile cf_ARRAY_CHAR;
+    private HistoryPoint hp;
+    private SymbolFactory symbolFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), Collections.emptyList());
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        hier.loadCreateClass(JAVA_OBJECT);
+        hier.loadCreateClass(JAVA_CLONEABLE);
+        hier.loadCreateClass(JAVA_SERIALIZABLE);
+        this.cf_ARRAY_CHAR = hier.loadCreateClass("" + ARRAYOF + CHAR);
+
+        //calculator and symbols
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hp = HistoryPoint.startingPreInitial(true);
+        this.symbolFactory = new SymbolFactory();
+    }
+
+    private Array chars(Primitive... members) throws Exception {
+        final Array retVal = new ArrayImpl(this.calc, false, false, null, this.calc.valInt(members.length), this.cf_ARRAY_CHAR, null, this.hp, false, 100, false);
+        for (int i = 0; i < members.length; ++i) {
+            retVal.setFast(this.calc.valInt(i), members[i]);
+        }
+        return retVal;
+    }
+
+    private Primitive symbolicChar(String name) throws Exception {
+        return this.symbolFactory.createSymbolLocalVariablePrimitive(this.hp, "C", name);
+    }
+
+    @Test
+    public void testIndexOfConcrete() throws Exception {
+        final String s = "abcab";
+        final Array a = chars(this.calc.valChar('a'), this.calc.valChar('b'), this.calc.valChar('c'), this.calc.valChar('a'), this.calc.valChar('b'));
+        for (char ch : new char[] { 'a', 'b', 'c', 'd' }) {
+            for (int fromIndex = 0; fromIndex <= s.length() + 1; ++fromIndex) {
+                assertEquals(this.calc.valInt(s.indexOf(ch, fromIndex)), Algo_JAVA_STRING_INDEXOF.indexOf(this.calc, a, this.calc.valInt(ch), fromIndex));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfSymbolicChars() throws Exception {
+        final Primitive x = symbolicChar("x");
+        final Primitive y = symbolicChar("y");
+        final Array a = chars(this.calc.valChar('a'), x, this.calc.valChar('b'), y);
+        for (char ch : ALPHABET) {
+            for (int fromIndex = 0; fromIndex <= 4; ++fromIndex) {
+                final Primitive indexOf = Algo_JAVA_STRING_INDEXOF.indexOf(this.calc, a, this.calc.valInt(ch), fromIndex);
+                for (char xVal : ALPHABET) {
+                    for (char yVal : ALPHABET) {
+                        final String s = new String(new char[] { 'a', xVal, 'b', yVal });
+                        final Primitive actual = this.calc.push(indexOf).replace(x, this.calc.valChar(xVal)).replace(y, this.calc.valChar(yVal)).pop();
+                        assertEquals(this.calc.valInt(s.indexOf(ch, fromIndex)), actual);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfSymbolicSearched() throws Exception {
+        final Primitive x = symbolicChar("x");
+        final Primitive z = symbolicChar("z");
+        final Primitive zInt = this.calc.push(z).widen(INT).pop();
+        final Array a = chars(x, this.calc.valChar('b'), this.calc.valChar('a'));
+        final Primitive indexOf = Algo_JAVA_STRING_INDEXOF.indexOf(this.calc, a, zInt, 0);
+        assertFalse(indexOf instanceof Simplex);
+        for (char xVal : ALPHABET) {
+            for (char zVal : ALPHABET) {
+                final String s = new String(new char[] { xVal, 'b', 'a' });
+                final Primitive actual = this.calc.push(indexOf).replace(x, this.calc.valChar(xVal)).replace(z, this.calc.valChar(zVal)).pop();
+                assertEquals(this.calc.valInt(s.indexOf(zVal)), actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package jbse.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class JAVA_MAPTest {
+    /**
+     * Sets a (possibly private or final) field of a map.
+     */
+    private static void setField(JAVA_MAP<?, ?> map, String fieldName, Object value) throws Exception {
+        final Field f = JAVA_MAP.class.getDeclaredField(fieldName);
+        f.setAccessible(true);
+        f.set(map, value);
+    }
+
+    /**
+     * Invokes a private method of a map, the way
+     * the refinement algorithms upcall it.
+     */
+    private static void upcall(JAVA_MAP<?, ?> map, String methodName, Object... args) throws Exception {
+        final Class<?>[] paramTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; ++i) {
+            paramTypes[i] = Object.class;
+        }
+        final Method m = JAVA_MAP.class.getDeclaredMethod(methodName, paramTypes);
+        m.setAccessible(true);
+        m.invoke(map, args);
+    }
+
+    /**
+     * Builds an initial map as {@code initSymbolic} does,
+     * with a given (unknown) size and hash code.
+     */
+    private static JAVA_MAP<String, String> initial(int size, int hashCode) throws Exception {
+        final JAVA_MAP<String, String> initial = new JAVA_MAP<>();
+        setField(initial, "isInitial", true);
+        setField(initial, "initialHashCode", hashCode);
+        setField(initial, "absentValues", new ArrayList<>());
+        setField(initial, "size", size);
+        return initial;
+    }
+
+    /**
+     * Builds a symbolic map backed by an initial map,
+     * as {@code initSymbolic} does.
+     */
+    private static JAVA_MAP<String, String> backedBy(JAVA_MAP<String, String> initial) throws Exception {
+        final JAVA_MAP<String, String> map = new JAVA_MAP<>();
+        setField(map, "initialMap", initial);
+        setField(map, "size", initial.size());
+        return map;
+    }
+
+    private static int pairHashCode(String key, String value) {
+        return new AbstractMap.SimpleEntry<>(key, value).hashCode();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final JAVA_MAP<String, String> map = new JAVA_MAP<>();
+        assertNull(map.put("a", "1"));
+        assertNull(map.put(null, "2"));
+        assertEquals("1", map.put("a", "3"));
+        assertEquals(2, map.size());
+        assertEquals("3", map.get("a"));
+        assertEquals("2", map.get(null));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsValue("3"));
+        assertFalse(map.containsValue("1"));
+        assertNull(map.get("b"));
+        assertEquals("3", map.remove("a"));
+        assertNull(map.remove("a"));
+        assertFalse(map.containsKey("a"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRehash() {
+        final JAVA_MAP<Integer, Integer> map = new JAVA_MAP<>(2);
+        final HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(i, -i);
+            expected.put(i, -i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(Integer.valueOf(-i), map.get(i));
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final JAVA_MAP<String, String> map = new JAVA_MAP<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        map.put("c", "3");
+        int visited = 0;
+        for (Iterator<Map.Entry<String, String>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<String, String> e = it.next();
+            ++visited;
+            if (e.getKey().equals("b")) {
+                it.remove();
+            }
+        }
+        assertEquals(3, visited);
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("b"));
+        assertEquals("1", map.get("a"));
+        assertEquals("3", map.get("c"));
+
+        //remove without next
+        try {
+            map.keySet().iterator().remove();
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testClone() {
+        final JAVA_MAP<String, String> map = new JAVA_MAP<>();
+        map.put("a", "1");
+        @SuppressWarnings("unchecked")
+        final JAVA_MAP<String, String> clone = (JAVA_MAP<String, String>) map.clone();
+        clone.put("b", "2");
+        map.remove("a");
+        assertEquals(2, clone.size());
+        assertEquals("1", clone.get("a"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEqualsComparesContent() {
+        final JAVA_MAP<String, String> map = new JAVA_MAP<>();
+        map.put("a", "1");
+        map.put("b", null);
+        final HashMap<String, String> same = new HashMap<>();
+        same.put("a", "1");
+        same.put("b", null);
+        final HashMap<String, String> otherKey = new HashMap<>();
+        otherKey.put("a", "1");
+        otherKey.put("c", null);
+        final HashMap<String, String> otherValue = new HashMap<>();
+        otherValue.put("a", "2");
+        otherValue.put("b", null);
+        assertTrue(map.equals(same));
+        assertFalse(map.equals(otherKey));
+        assertFalse(map.equals(otherValue));
+        assertFalse(map.equals(new HashMap<>()));
+    }
+
+    @Test
+    public void testHashCodeSubtractsOnlyOverriddenOrRemovedInitialEntries() throws Exception {
+        final int initialHashCode = 12345;
+        final JAVA_MAP<String, String> initial = initial(3, initialHashCode);
+        upcall(initial, "refineIn", "a", "1");
+        upcall(initial, "refineIn", "b", "2");
+        upcall(initial, "refineOutKey", "c");
+        final JAVA_MAP<String, String> map = backedBy(initial);
+
+        //untouched initial map
+        assertEquals(initialHashCode, map.hashCode());
+
+        //overrides a, removes b, adds c
+        assertEquals("1", map.put("a", "10"));
+        assertEquals("2", map.remove("b"));
+        assertNull(map.put("c", "3"));
+        assertEquals(3, map.size());
+        assertEquals(initialHashCode
+                     - pairHashCode("a", "1") + pairHashCode("a", "10")
+                     - pairHashCode("b", "2")
+                     + pairHashCode("c", "3"), map.hashCode());
+    }
+
+    @Test
+    public void testHashCodeRefinesTheInitialMap() throws Exception {
+        final int initialHashCode = 12345;
+        final JAVA_MAP<String, String> initial = initial(1, initialHashCode);
+        final JAVA_MAP<String, String> map = backedBy(initial);
+
+        //adds a pair whose key is not refined in the initial map
+        upcall(map, "addNode", "d", "4");
+        setField(map, "size", 2);
+
+        //a key not refined in the initial map requires refinement,
+        //that is performed by the symbolic executor
+        try {
+            map.hashCode();
+            fail();
+        } catch (UnsatisfiedLinkError e) {
+            assertTrue(e.getMessage().contains("refineOnKeyCombinationsAndBranch"));
+        }
+
+        //refining the initial map on the key (the refinement
+        //upcalls the initial map) is enough to calculate the hash code
+        upcall(initial, "refineOutKey", "d");
+        assertEquals(initialHashCode + pairHashCode("d", "4"), map.hashCode());
+    }
+
+    @Test
+    public void testPutRemovedInitialKey() throws Exception {
+        final JAVA_MAP<String, String> initial = initial(1, 0);
+        upcall(initial, "refineIn", "a", "1");
+        final JAVA_MAP<String, String> map = backedBy(initial);
+        assertEquals("1", map.remove("a"));
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey("a"));
+
+        //the key was removed, so it is not in the map
+        assertNull(map.put("a", "2"));
+        assertEquals(1, map.size());
+        assertEquals("2", map.get("a"));
+        assertEquals("2", map.put("a", "3"));
+        assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,129 @@
+package jbse.bc;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static jbse.bc.ClassLoaders.CLASSLOADER_BOOT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+public class ClassFilePrefetcherTest {
+    private static final byte[] REFERRING = { 0 };
+    private static final byte[] FOUND = { 1 };
+
+    /** Logs the bytecode arrays it preparses. */
+    private static final class ClassFileFactoryLogging extends ClassFileFactory {
+        final List<byte[]> preparsed = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void preparse(byte[] bytecode) {
+            this.preparsed.add(bytecode);
+        }
+
+        @Override
+        protected Collection<String> referredClassNames(byte[] bytecode) {
+            return (bytecode == REFERRING ? Arrays.asList("a/Loaded", "[La/Array;", "a/Referred") : Collections.emptyList());
+        }
+
+        @Override
+        protected ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected ClassFile newClassFileAnonymous(byte[] bytecode, ClassFile cf_JAVA_OBJECT, ConstantPoolValue[] cpPatches, ClassFile hostClass) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Logs the classes it reads, and finds in the
+     * application classpath only the class
+     * with a given name.
+     */
+    private static final class ReaderLogging implements ClassFilePrefetcher.BytecodeReader {
+        final List<String> read = new CopyOnWriteArrayList<>();
+        final CountDownLatch found = new CountDownLatch(1);
+        private final String toFind;
+        private final ClassFileFactoryLogging f;
+
+        ReaderLogging(String toFind, ClassFileFactoryLogging f) {
+            this.toFind = toFind;
+            this.f = f;
+        }
+
+        @Override
+        public ClassHierarchy.FindBytecodeResult prefetch(String className, int definingLoader, Consumer<byte[]> beforePublishing) {
+            this.read.add(definingLoader + " " + className);
+            if (className.equals(this.toFind) && definingLoader == CLASSLOADER_APP) {
+                beforePublishing.accept(FOUND);
+                //the bytecode is published after it is parsed
+                assertTrue(this.f.preparsed.contains(FOUND));
+                this.found.countDown();
+                return new ClassHierarchy.FindBytecodeResult(FOUND, Paths.get("."));
+            }
+            return null;
+        }
+    }
+
+    @Test
+    public void testPrefetchFollowsDelegation() throws InterruptedException {
+        final ClassFileFactoryLogging f = new ClassFileFactoryLogging();
+        final ReaderLogging reader = new ReaderLogging("a/Referred", f);
+        final ClassFilePrefetcher prefetcher = new ClassFilePrefetcher(f, reader, 1);
+        prefetcher.prefetch(CLASSLOADER_APP, "a/Referred");
+        assertTrue(reader.found.await(10, TimeUnit.SECONDS));
+        assertEquals(CLASSLOADER_APP - CLASSLOADER_BOOT + 1, reader.read.size());
+        assertEquals(1, f.preparsed.size());
+        assertSame(FOUND, f.preparsed.get(0));
+    }
+
+    @Test
+    public void testPrefetchReferredSkipsLoadedAndArrays() throws InterruptedException {
+        final ClassFileFactoryLogging f = new ClassFileFactoryLogging();
+        final ReaderLogging reader = new ReaderLogging("a/Referred", f);
+        final ClassFilePrefetcher prefetcher = new ClassFilePrefetcher(f, reader, 1);
+        prefetcher.prefetchReferred(CLASSLOADER_APP, "a/Loaded", REFERRING);
+        assertTrue(reader.found.await(10, TimeUnit.SECONDS));
+        for (String read : reader.read) {
+            assertTrue(read.endsWith(" a/Referred"));
+        }
+    }
+
+    @Test
+    public void testLoadedClassesDoNotExhaustRequests() throws InterruptedException {
+        final ClassFileFactoryLogging f = new ClassFileFactoryLogging();
+        final ReaderLogging reader = new ReaderLogging("a/Referred", f);
+        final ClassFilePrefetcher prefetcher = new ClassFilePrefetcher(f, reader, 1);
+        for (int i = 0; i < 10000; ++i) {
+            prefetcher.prefetchReferred(CLASSLOADER_APP, "a/Loaded" + i, FOUND);
+        }
+        prefetcher.prefetch(CLASSLOADER_APP, "a/Referred");
+        assertTrue(reader.found.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdown() throws InterruptedException {
+        final ClassFileFactoryLogging f = new ClassFileFactoryLogging();
+        final ReaderLogging reader = new ReaderLogging("a/Referred", f);
+        final ClassFilePrefetcher prefetcher = new ClassFilePrefetcher(f, reader, 1);
+        prefetcher.shutdown();
+        
+        //requests after shutdown are ignored
+        prefetcher.prefetch(CLASSLOADER_APP, "a/Referred");
+        prefetcher.prefetchReferred(CLASSLOADER_APP, "a/Loaded", REFERRING);
+        assertEquals(0, reader.read.size());
+        assertEquals(1, reader.found.getCount());
+    }
+}
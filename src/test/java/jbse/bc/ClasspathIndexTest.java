@@ -0,0 +1,133 @@
+package jbse.bc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClasspathIndexTest {
+    private static final byte[] CONTENT_A = { 1, 2, 3 };
+    private static final byte[] CONTENT_B = { 4, 5 };
+    private static final byte[] CONTENT_C = { 6 };
+    private Path dir;
+    private Path jar;
+    private ClasspathIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        //a directory with p/A.class
+        this.dir = Files.createTempDirectory("jbse");
+        Files.createDirectories(this.dir.resolve("p"));
+        Files.write(this.dir.resolve("p/A.class"), CONTENT_A);
+
+        //a jar file with p/B.class and q/C.class
+        this.jar = Files.createTempFile("jbse", ".jar");
+        writeJar(CONTENT_B, CONTENT_C);
+
+        this.index = new ClasspathIndex(Arrays.asList(this.dir, this.jar));
+    }
+
+    private void writeJar(byte[] contentB, byte[] contentC) throws IOException {
+        try (final JarOutputStream outStr = new JarOutputStream(Files.newOutputStream(this.jar))) {
+            putEntry(outStr, "p/B.class", contentB);
+            putEntry(outStr, "q/C.class", contentC);
+        }
+    }
+
+    private static void putEntry(JarOutputStream outStr, String name, byte[] content) throws IOException {
+        outStr.putNextEntry(new JarEntry(name));
+        outStr.write(content);
+        outStr.closeEntry();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(this.dir.resolve("p/A.class"));
+        Files.delete(this.dir.resolve("p"));
+        Files.delete(this.dir);
+        Files.delete(this.jar);
+    }
+
+    @Test
+    public void testFind() {
+        final ClassHierarchy.FindBytecodeResult a = this.index.find("p/A.class");
+        assertArrayEquals(CONTENT_A, a.bytecode);
+        assertEquals(this.dir, a.loadedFrom);
+        final ClassHierarchy.FindBytecodeResult c = this.index.find("q/C.class");
+        assertArrayEquals(CONTENT_C, c.bytecode);
+        assertEquals(this.jar, c.loadedFrom);
+        assertNull(this.index.find("q/D.class"));
+    }
+
+    @Test
+    public void testPrefetchThenFind() {
+        final ClassHierarchy.FindBytecodeResult prefetched = this.index.prefetch("p/B.class", bytecode -> { });
+        assertArrayEquals(CONTENT_B, prefetched.bytecode);
+        assertSame(prefetched, this.index.find("p/B.class"));
+
+        //the prefetched content is consumed by the first lookup
+        final ClassHierarchy.FindBytecodeResult found = this.index.find("p/B.class");
+        assertNotSame(prefetched, found);
+        assertArrayEquals(CONTENT_B, found.bytecode);
+        assertNull(this.index.prefetch("q/D.class", bytecode -> { }));
+    }
+
+    @Test
+    public void testBeforePublishingInvokedOnce() {
+        final AtomicInteger invoked = new AtomicInteger(0);
+        final ClassHierarchy.FindBytecodeResult first = this.index.prefetch("p/A.class", bytecode -> {
+            assertArrayEquals(CONTENT_A, bytecode);
+            invoked.incrementAndGet();
+        });
+        final ClassHierarchy.FindBytecodeResult second = this.index.prefetch("p/A.class", bytecode -> invoked.incrementAndGet());
+        assertSame(first, second);
+        assertEquals(1, invoked.get());
+    }
+
+    @Test
+    public void testPrefetchAfterFindDropped() {
+        this.index.find("p/A.class");
+        final ClassHierarchy.FindBytecodeResult prefetched = this.index.prefetch("p/A.class", bytecode -> { });
+        assertArrayEquals(CONTENT_A, prefetched.bytecode);
+        assertNotSame(prefetched, this.index.find("p/A.class"));
+    }
+
+    @Test
+    public void testClassFilesInPackage() {
+        final HashSet<String> expected = new HashSet<>(Arrays.asList("p/A.class", "p/B.class"));
+        final HashSet<String> actual = new HashSet<>();
+        for (String fileName : this.index.classFilesInPackage("p")) {
+            actual.add(fileName);
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testCloseThenFind() throws IOException {
+        assertArrayEquals(CONTENT_C, this.index.find("q/C.class").bytecode);
+        this.index.prefetch("p/B.class", bytecode -> { });
+        this.index.close();
+
+        //the jar file is opened again, and the prefetched content is dropped
+        Files.delete(this.jar);
+        writeJar(CONTENT_C, CONTENT_B);
+        assertArrayEquals(CONTENT_B, this.index.find("q/C.class").bytecode);
+        assertArrayEquals(CONTENT_C, this.index.find("p/B.class").bytecode);
+        this.index.close();
+        this.index.close();
+    }
+}
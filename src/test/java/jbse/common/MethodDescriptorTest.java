@@ -0,0 +1,45 @@
+package jbse.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class MethodDescriptorTest {
+	@Test
+	public void testSplit() {
+		final MethodDescriptor d = MethodDescriptor.of("(I[[JLjava/lang/String;D[Ljava/lang/Object;)[Z");
+		assertArrayEquals(new String[] { "I", "[[J", "Ljava/lang/String;", "D", "[Ljava/lang/Object;" }, d.getParameterTypes());
+		assertEquals("[Z", d.getReturnType());
+		assertEquals(5, d.parametersNumber(true));
+		assertEquals(6, d.parametersNumber(false));
+		assertEquals(6, d.parametersSlots(true));
+		assertEquals(7, d.parametersSlots(false));
+	}
+
+	@Test
+	public void testNoParameters() {
+		final MethodDescriptor d = MethodDescriptor.of("()V");
+		assertEquals(0, d.getNumberOfParameters());
+		assertEquals("V", d.getReturnType());
+	}
+
+	@Test
+	public void testInterned() {
+		assertSame(MethodDescriptor.of("(J)I"), MethodDescriptor.of(new String("(J)I")));
+	}
+
+	@Test
+	public void testCacheBounded() {
+		final MethodDescriptor d = MethodDescriptor.of("(JJ)I");
+		for (int i = 0; i < MethodDescriptor.CACHE_CAPACITY; ++i) {
+			MethodDescriptor.of("(Lp/C" + i + ";)V");
+		}
+		final MethodDescriptor dAgain = MethodDescriptor.of("(JJ)I");
+		assertNotSame(d, dAgain);
+		assertEquals(d, dAgain);
+		assertEquals(d.hashCode(), dAgain.hashCode());
+	}
+}
@@ -0,0 +1,94 @@
+package jbse.dec;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.common.exc.InvalidInputException;
+import jbse.dec.DecisionProcedureSignAnalysisTest.DecisionProcedureNoDecision;
+import jbse.dec.DecisionProcedureSignAnalysisTest.NoDecisionException;
+import jbse.dec.exc.DecisionException;
+import jbse.mem.ClauseAssume;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.Expression;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+
+public class DecisionProcedureLinearIntegerArithmeticTest {
+	CalculatorRewriting calc;
+	DecisionProcedureLinearIntegerArithmetic dec;
+
+	@Before
+	public void setUp() throws InvalidInputException {
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+		this.dec = new DecisionProcedureLinearIntegerArithmetic(new DecisionProcedureNoDecision(this.calc));
+	}
+
+	@Test
+	public void simpleTest1()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > B, B > 5 |-/- A < 7
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).gt(B).pop()));
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(B).gt(this.calc.valInt(5)).pop()));
+		assertFalse(this.dec.isSat((Expression) this.calc.push(A).lt(this.calc.valInt(7)).pop()));
+	}
+
+	@Test
+	public void simpleTest2()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > B, B > 5 |- A + B == 14 (decided locally)
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).gt(B).pop()));
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(B).gt(this.calc.valInt(5)).pop()));
+		assertTrue(this.dec.isSat((Expression) this.calc.push(A).add(B).eq(this.calc.valInt(14)).pop()));
+	}
+
+	@Test
+	public void integerTest()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//true |-/- 2 * A == 15
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		assertFalse(this.dec.isSat((Expression) this.calc.push(A).mul(this.calc.valInt(2)).eq(this.calc.valInt(15)).pop()));
+	}
+
+	@Test
+	public void popTest()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 5 |- A < 7 after popping A > 6
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).gt(this.calc.valInt(5)).pop()));
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).gt(this.calc.valInt(6)).pop()));
+		assertFalse(this.dec.isSat((Expression) this.calc.push(A).lt(this.calc.valInt(7)).pop()));
+		this.dec.popAssumptionLocal();
+		assertTrue(this.dec.isSat((Expression) this.calc.push(A).lt(this.calc.valInt(7)).pop()));
+	}
+
+	@Test(expected=NoDecisionException.class)
+	public void nonlinearTest()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A > 0, B > 0 |-?- A * B < 0
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		final Term B = this.calc.valTerm(Type.INT, "B");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).gt(this.calc.valInt(0)).pop()));
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(B).gt(this.calc.valInt(0)).pop()));
+		this.dec.isSat((Expression) this.calc.push(A).mul(B).lt(this.calc.valInt(0)).pop());
+	}
+
+	@Test(expected=NoDecisionException.class)
+	public void mixedTest()
+	throws InvalidInputException, DecisionException, InvalidOperandException, InvalidTypeException {
+		//A * A > 3 |-?- A > 0
+		final Term A = this.calc.valTerm(Type.INT, "A");
+		this.dec.pushAssumption(new ClauseAssume((Expression) this.calc.push(A).mul(A).gt(this.calc.valInt(3)).pop()));
+		this.dec.isSat((Expression) this.calc.push(A).gt(this.calc.valInt(0)).pop());
+	}
+}
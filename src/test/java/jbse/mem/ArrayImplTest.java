@@ -0,0 +1,139 @@
+package jbse.mem;
+
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.INT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.rewr.CalculatorRewriting;
+import jbse.rewr.RewriterOperationOnSimplex;
+import jbse.val.HistoryPoint;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicApply;
+
+public class ArrayImplTest {
+    private static final int MAX_SIMPLE_ARRAY_LENGTH = 100;
+    private CalculatorRewriting calc;
+    private ClassFile cf_ARRAY_INT;
+    private HistoryPoint hp;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), Collections.emptyList());
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        hier.loadCreateClass(JAVA_OBJECT);
+        hier.loadCreateClass(JAVA_CLONEABLE);
+        hier.loadCreateClass(JAVA_SERIALIZABLE);
+        this.cf_ARRAY_INT = hier.loadCreateClass("" + ARRAYOF + INT);
+
+        //calculator
+        this.calc = new CalculatorRewriting();
+        this.calc.addRewriter(new RewriterOperationOnSimplex());
+        this.hp = HistoryPoint.startingPreInitial(true);
+    }
+
+    private ArrayImpl array(int length, boolean useArrayTheory) throws Exception {
+        return new ArrayImpl(this.calc, false, false, null, this.calc.valInt(length), this.cf_ARRAY_INT, null, this.hp, false, MAX_SIMPLE_ARRAY_LENGTH, useArrayTheory);
+    }
+
+    private static String operator(Primitive p) {
+        return ((PrimitiveSymbolicApply) p).getOperator();
+    }
+
+    @Test
+    public void testTheoryRepHasNoEntries() throws Exception {
+        final ArrayImpl a = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        assertTrue(a.hasTheoryRep());
+        assertFalse(a.hasSimpleRep());
+        assertEquals(PrimitiveSymbolicApply.ARRAY_CONST, operator(a.getTheoryContents()));
+        assertTrue(a.values().isEmpty());
+        assertFalse(a.entries().hasNext());
+    }
+
+    @Test
+    public void testNoTheoryRepWhenSimple() throws Exception {
+        final ArrayImpl a = array(MAX_SIMPLE_ARRAY_LENGTH, true);
+        assertFalse(a.hasTheoryRep());
+        assertNull(a.getTheoryContents());
+        assertEquals(MAX_SIMPLE_ARRAY_LENGTH, a.values().size());
+    }
+
+    @Test
+    public void testTheoryStoreSelect() throws Exception {
+        final ArrayImpl a = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        a.set(this.calc, this.calc.valInt(5), this.calc.valInt(42));
+        assertEquals(PrimitiveSymbolicApply.ARRAY_STORE, operator(a.getTheoryContents()));
+        assertTrue(a.values().isEmpty());
+        final Collection<Array.AccessOutcome> outcomes = a.get(this.calc, this.calc.valInt(5));
+        assertEquals(1, outcomes.size());
+        final Array.AccessOutcome outcome = outcomes.iterator().next();
+        assertTrue(outcome instanceof Array.AccessOutcomeInValue);
+        assertEquals(this.calc.valInt(42), ((Array.AccessOutcomeInValue) outcome).getValue());
+        final Array.AccessOutcome other = a.get(this.calc, this.calc.valInt(6)).iterator().next();
+        assertEquals(this.calc.valInt(0), ((Array.AccessOutcomeInValue) other).getValue());
+    }
+
+    @Test
+    public void testTheoryManyStores() throws Exception {
+        final int stores = 5000;
+        final ArrayImpl a = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        for (int i = 0; i < stores; ++i) {
+            a.set(this.calc, this.calc.valInt(i % MAX_SIMPLE_ARRAY_LENGTH), this.calc.valInt(i));
+        }
+        
+        //the string of the nested terms is built in linear time
+        final String theoryContents = a.getTheoryContents().toString();
+        assertTrue(theoryContents.startsWith(PrimitiveSymbolicApply.ARRAY_STORE + "(" + PrimitiveSymbolicApply.ARRAY_STORE + "("));
+        assertEquals(stores, theoryContents.split(PrimitiveSymbolicApply.ARRAY_STORE + "\\(", -1).length - 1);
+        assertSame(theoryContents, a.getTheoryContents().toString());
+    }
+
+    @Test
+    public void testTheoryCloneEntries() throws Exception {
+        final ArrayImpl src = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        src.set(this.calc, this.calc.valInt(5), this.calc.valInt(42));
+        final ArrayImpl dest = array(MAX_SIMPLE_ARRAY_LENGTH + 1, false);
+        assertFalse(dest.values().isEmpty());
+        dest.cloneEntries(src, this.calc);
+        assertTrue(dest.hasTheoryRep());
+        assertSame(src.getTheoryContents(), dest.getTheoryContents());
+        assertTrue(dest.values().isEmpty());
+
+        //cloning back a non-theory array drops the theory representation
+        dest.cloneEntries(array(MAX_SIMPLE_ARRAY_LENGTH + 1, false), this.calc);
+        assertFalse(dest.hasTheoryRep());
+        assertNull(dest.getTheoryContents());
+        assertEquals(1, dest.values().size());
+    }
+
+    @Test
+    public void testTheoryArraycopy() throws Exception {
+        final ArrayImpl src = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        final ArrayImpl dest = array(MAX_SIMPLE_ARRAY_LENGTH + 1, true);
+        assertFalse(dest.arraycopy(this.calc, src, this.calc.valInt(0), this.calc.valInt(1), this.calc.valInt(10), null).hasNext());
+        assertTrue(dest.hasTheoryRep());
+        assertEquals(PrimitiveSymbolicApply.ARRAY_COPY, operator(dest.getTheoryContents()));
+        assertTrue(dest.values().isEmpty());
+        assertTrue(dest.toString().contains(dest.getTheoryContents().toString()));
+    }
+}
@@ -0,0 +1,112 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.SortedMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.rewr.CalculatorRewriting;
+
+public class HeapTest {
+    private CalculatorRewriting calc;
+    private ClassFile classFile;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), userPath);
+
+        //class hierarchy
+        final ClassHierarchy hier = new ClassHierarchy(env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap());
+        this.classFile = hier.loadCreateClass(CLASSLOADER_APP, "tsafe/main/SimpleCalculator", true);
+        
+        //calculator
+        this.calc = new CalculatorRewriting();
+    }
+    
+    private HeapObjektImpl newInstance() throws Exception {
+        return new InstanceImpl_DEFAULT(this.calc, false, this.classFile, null, null, this.classFile.getFieldLayout());
+    }
+
+    @Test
+    public void testDisposeUnmarked() throws Exception {
+        final Heap heap = new Heap(100);
+        final long pos0 = heap.addNew(newInstance());
+        final long pos1 = heap.addNew(newInstance());
+        final BitSet marked = new BitSet();
+        marked.set((int) pos0);
+        assertEquals(1, heap.disposeUnmarked(marked, 0L, false));
+        assertTrue(heap.existsAt(pos0));
+        assertFalse(heap.existsAt(pos1));
+        assertNull(heap.getObject(pos1));
+        assertEquals(1, heap.getSize());
+        assertFalse(heap.getObjects().containsKey(pos1));
+    }
+
+    @Test
+    public void testDisposeUnmarkedAfterLazyClone() throws Exception {
+        final Heap heap = new Heap(100);
+        final long pos0 = heap.addNew(newInstance());
+        final long pos1 = heap.addNew(newInstance());
+        final Heap clone = heap.lazyClone();
+        final BitSet marked = new BitSet();
+        marked.set((int) pos0);
+        assertEquals(1, clone.disposeUnmarked(marked, 0L, false));
+        
+        //the disposed object is masked in the clone...
+        assertFalse(clone.existsAt(pos1));
+        assertEquals(1, clone.getSize());
+        final SortedMap<Long, Objekt> objects = clone.getObjects();
+        assertEquals(1, objects.size());
+        assertFalse(objects.containsKey(pos1));
+        assertFalse(objects.containsValue(null));
+        assertEquals(0, clone.disposeUnmarked(marked, 0L, false));
+        
+        //...but not in the original heap
+        assertTrue(heap.existsAt(pos1));
+        assertEquals(2, heap.getSize());
+        assertEquals(2, heap.getObjects().size());
+    }
+
+    @Test
+    public void testDisposeUnmarkedFromPosition() throws Exception {
+        final Heap heap = new Heap(100);
+        final long pos0 = heap.addNew(newInstance());
+        final long pos1 = heap.addNew(newInstance());
+        assertEquals(1, heap.disposeUnmarked(new BitSet(), pos1, false));
+        assertTrue(heap.existsAt(pos0));
+        assertFalse(heap.existsAt(pos1));
+    }
+
+    @Test
+    public void testSameObjectsAs() throws Exception {
+        final Heap heap = new Heap(100);
+        heap.addNew(newInstance());
+        final Heap clone1 = heap.lazyClone();
+        final Heap clone2 = heap.lazyClone();
+        assertTrue(clone1.sameObjectsAs(clone2));
+        clone1.getObject(Util.POS_ROOT); //makes a wrapper of the same object
+        assertTrue(clone1.sameObjectsAs(clone2));
+        clone2.addNew(newInstance());
+        assertFalse(clone1.sameObjectsAs(clone2));
+        assertFalse(clone1.sameObjectsAs(heap.clone()));
+        assertEquals(1, heap.getObjects().size());
+    }
+}
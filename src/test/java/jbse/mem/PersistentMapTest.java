@@ -0,0 +1,94 @@
+package jbse.mem;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class PersistentMapTest {
+    /** A key with a fixed hash code, to force collisions. */
+    private static final class Key {
+        private final int hash;
+        private final String name;
+
+        Key(int hash, String name) {
+            this.hash = hash;
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Key && ((Key) o).hash == this.hash && ((Key) o).name.equals(this.name));
+        }
+    }
+
+    @Test
+    public void testPutGet() {
+        PersistentMap<Integer, String> m = PersistentMap.empty();
+        for (int i = 0; i < 5000; ++i) {
+            m = m.put(i, "v" + i);
+        }
+        assertEquals(5000, m.size());
+        for (int i = 0; i < 5000; ++i) {
+            assertEquals("v" + i, m.get(i));
+        }
+        assertNull(m.get(5000));
+        assertFalse(m.containsKey(-1));
+    }
+
+    @Test
+    public void testPutDoesNotModifyOriginal() {
+        final PersistentMap<String, String> m1 = PersistentMap.<String, String> empty().put("a", "1");
+        final PersistentMap<String, String> m2 = m1.put("a", "2").put("b", "3");
+        assertEquals(1, m1.size());
+        assertEquals("1", m1.get("a"));
+        assertFalse(m1.containsKey("b"));
+        assertEquals(2, m2.size());
+        assertEquals("2", m2.get("a"));
+        assertEquals("3", m2.get("b"));
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentMap<Key, String> m = PersistentMap.empty();
+        m = m.put(new Key(7, "a"), "1").put(new Key(7, "b"), "2").put(new Key(7 | (1 << 30), "c"), "3");
+        m = m.put(new Key(7, "a"), "4");
+        assertEquals(3, m.size());
+        assertEquals("4", m.get(new Key(7, "a")));
+        assertEquals("2", m.get(new Key(7, "b")));
+        assertEquals("3", m.get(new Key(7 | (1 << 30), "c")));
+        assertNull(m.get(new Key(7, "c")));
+        assertEquals(new HashSet<>(Arrays.asList("2", "3", "4")), new HashSet<>(m.values()));
+    }
+
+    @Test
+    public void testSameMappingsAs() {
+        PersistentMap<Integer, String> m1 = PersistentMap.empty();
+        PersistentMap<Integer, String> m2 = PersistentMap.empty();
+        for (int i = 0; i < 100; ++i) {
+            m1 = m1.put(i, "v" + i);
+            m2 = m2.put(99 - i, "v" + (99 - i));
+        }
+        assertTrue(m1.sameMappingsAs(m2));
+        assertTrue(m1.sameMappingsAs(m1.put(5, "v5")));
+        assertFalse(m1.sameMappingsAs(m1.put(5, "w5")));
+        assertFalse(m1.sameMappingsAs(m1.put(100, "v100")));
+        assertFalse(m1.put(100, "v100").sameMappingsAs(m1.put(101, "v100")));
+    }
+
+    @Test
+    public void testSameMappingsAsCollisions() {
+        final PersistentMap<Key, String> m1 = PersistentMap.<Key, String> empty().put(new Key(7, "a"), "1").put(new Key(7, "b"), "2");
+        final PersistentMap<Key, String> m2 = PersistentMap.<Key, String> empty().put(new Key(7, "b"), "2").put(new Key(7, "a"), "1");
+        assertTrue(m1.sameMappingsAs(m2));
+        assertFalse(m1.sameMappingsAs(m2.put(new Key(7, "a"), "3")));
+        assertFalse(m1.put(new Key(7, "c"), "3").sameMappingsAs(m2.put(new Key(7, "d"), "3")));
+    }
+}
@@ -0,0 +1,279 @@
+package jbse.mem;
+
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
+import static jbse.bc.Signatures.JAVA_CLONEABLE;
+import static jbse.bc.Signatures.JAVA_OBJECT;
+import static jbse.bc.Signatures.JAVA_SERIALIZABLE;
+import static jbse.bc.Signatures.JAVA_THREAD;
+import static jbse.bc.Signatures.JAVA_THREADGROUP;
+import static jbse.common.Type.ARRAYOF;
+import static jbse.common.Type.REFERENCE;
+import static jbse.common.Type.TYPEEND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sun.misc.Unsafe;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactoryJavassist;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Calculator;
+import jbse.val.HistoryPoint;
+import jbse.val.Null;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicMerge;
+import jbse.val.ReferenceConcrete;
+import jbse.val.ReferenceSymbolic;
+import jbse.val.SymbolFactory;
+
+public class StateTest {
+    private static final String CLASS_NAME = "tsafe/main/SimpleCalculator";
+    private static final Signature SIG_METHOD = new Signature(CLASS_NAME, "(D)D", "metersPerLonAt");
+    private static final String ARRAY_OF_OBJECT = "" + ARRAYOF + REFERENCE + JAVA_OBJECT + TYPEEND;
+    private Calculator calc;
+    private SymbolFactory symbolFactory;
+    private State state;
+    private ReferenceSymbolic receiver;
+    private Primitive arg;
+
+    @Before
+    public void setUp() throws Exception {
+        //environment
+        final ArrayList<Path> userPath = new ArrayList<>();
+        userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+        final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), userPath);
+
+        //state with a frame for SimpleCalculator.metersPerLonAt(double)
+        this.calc = new CalculatorRewriting();
+        this.symbolFactory = new SymbolFactory();
+        final HistoryPoint hp = HistoryPoint.startingPreInitial(true).startingInitial();
+        this.state = new State(true, hp, 100, 100, env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), this.symbolFactory);
+        this.state.setPhasePostInitial();
+        final ClassFile cf = this.state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+        this.receiver = this.symbolFactory.createSymbolLocalVariableReference(hp, "L" + CLASS_NAME + ";", "L" + CLASS_NAME + ";", "this");
+        this.arg = this.symbolFactory.createSymbolLocalVariablePrimitive(hp, "D", "x");
+        this.state.pushFrame(this.calc, cf, SIG_METHOD, true, 0, this.receiver, this.arg);
+    }
+
+    /**
+     * Lazily clones {@code s} twice, stores two different constants
+     * in the local variable at slot 1 of the clones and assumes
+     * two different numeric conditions on them. Then merges the
+     * second clone into the first and returns the first one.
+     */
+    private State branchAndMerge(State s) throws Exception {
+        final State s1 = s.lazyClone();
+        final State s2 = s.lazyClone();
+        s1.setLocalVariable(1, this.calc.valDouble(1.0));
+        s1.assume(this.calc.push(this.arg).gt(this.calc.valDouble(0.0)).pop());
+        s2.setLocalVariable(1, this.calc.valDouble(2.0));
+        s2.assume(this.calc.push(this.arg).le(this.calc.valDouble(0.0)).pop());
+        assertTrue(s1.mergeWith(s2, this.calc));
+        return s1;
+    }
+
+    @Test
+    public void testMergeWithReplacesDifferingLocals() throws Exception {
+        final int sizeBefore = this.state.getPathCondition().size();
+        final State merged = branchAndMerge(this.state);
+        final Primitive m = (Primitive) merged.getLocalVariableValue(1);
+        assertTrue(m instanceof PrimitiveSymbolicMerge);
+        assertTrue(merged.wasPathConditionRewritten());
+        assertEquals(sizeBefore + 1, merged.getPathCondition().size());
+
+        //the last clause is (x > 0 && m == 1.0) || (x <= 0 && m == 2.0)
+        final Clause last = merged.getPathCondition().get(sizeBefore);
+        assertTrue(last instanceof ClauseAssume);
+        final Primitive first = this.calc.push(this.arg).gt(this.calc.valDouble(0.0)).and(this.calc.push(m).eq(this.calc.valDouble(1.0)).pop()).pop();
+        final Primitive second = this.calc.push(this.arg).le(this.calc.valDouble(0.0)).and(this.calc.push(m).eq(this.calc.valDouble(2.0)).pop()).pop();
+        assertEquals(this.calc.push(first).or(second).pop(), ((ClauseAssume) last).getCondition());
+    }
+
+    @Test
+    public void testMergeWithTwiceAtSameLoopHead() throws Exception {
+        final State mergedFirst = branchAndMerge(this.state);
+        final Primitive first = (Primitive) mergedFirst.getLocalVariableValue(1);
+        final State mergedSecond = branchAndMerge(mergedFirst);
+        final Primitive second = (Primitive) mergedSecond.getLocalVariableValue(1);
+        assertTrue(second instanceof PrimitiveSymbolicMerge);
+        assertNotEquals(first, second);
+        assertNotEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void testMergeWithIncompatibleValues() throws Exception {
+        final State s1 = this.state.lazyClone();
+        final State s2 = this.state.lazyClone();
+        s1.pushOperand(this.calc.valInt(1));
+        s2.pushOperand(this.calc.valFloat(1.0f));
+        assertFalse(s1.mergeWith(s2, this.calc));
+        assertFalse(s1.mergeWith(s1, this.calc));
+    }
+
+    @Test
+    public void testMergeWithDifferentRegistries() throws Exception {
+        final State s1 = this.state.lazyClone();
+        final State s2 = this.state.lazyClone();
+        s1.registerPerfCounter("a");
+        s2.registerPerfCounter("b");
+        assertFalse(s1.mergeWith(s2, this.calc));
+
+        final State s3 = this.state.lazyClone();
+        final State s4 = this.state.lazyClone();
+        final ReferenceConcrete invoker = new ReferenceConcrete(1);
+        final ReferenceConcrete appendix = new ReferenceConcrete(2);
+        s3.link(new Signature(CLASS_NAME, "()V", "a"), invoker, appendix);
+        s4.link(new Signature(CLASS_NAME, "()V", "b"), invoker, appendix);
+        assertFalse(s3.mergeWith(s4, this.calc));
+
+        //same registrations done separately
+        s4.link(new Signature(CLASS_NAME, "()V", "a"), invoker, appendix);
+        s3.link(new Signature(CLASS_NAME, "()V", "b"), invoker, appendix);
+        assertTrue(s3.mergeWith(s4, this.calc));
+    }
+
+    private static Unsafe unsafe() throws Exception {
+        final Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        return (Unsafe) theUnsafe.get(null);
+    }
+
+    @Test
+    public void testTranslateMemoryAddress() throws Exception {
+        final Unsafe unsafe = unsafe();
+        final long address1 = unsafe.allocateMemory(16);
+        final long address2 = unsafe.allocateMemory(8);
+        this.state.addMemoryBlock(address1, 16);
+        this.state.addMemoryBlock(address2, 8);
+        assertEquals(address1, this.state.translateMemoryAddress(address1, false));
+        assertEquals(address1 + 15, this.state.translateMemoryAddress(address1 + 15, false));
+        assertEquals(address2 + 4, this.state.translateMemoryAddress(address2 + 4, true));
+        assertEquals(Math.min(address1, address2) - 1, this.state.translateMemoryAddress(Math.min(address1, address2) - 1, false));
+        this.state.removeMemoryBlock(address1);
+        this.state.removeMemoryBlock(address2);
+    }
+
+    @Test
+    public void testMemoryBlockCopiedOnWrite() throws Exception {
+        final Unsafe unsafe = unsafe();
+        final long address = unsafe.allocateMemory(16);
+        unsafe.putLong(address + 8, 1L);
+        this.state.addMemoryBlock(address, 16);
+        final State clone = this.state.clone();
+        
+        //reading does not copy
+        assertEquals(address + 8, clone.translateMemoryAddress(address + 8, false));
+        
+        //writing a shared block copies it
+        final long addressClone = clone.translateMemoryAddress(address + 8, true);
+        assertNotEquals(address + 8, addressClone);
+        assertEquals(1L, unsafe.getLong(addressClone));
+        unsafe.putLong(addressClone, 2L);
+        assertEquals(1L, unsafe.getLong(this.state.translateMemoryAddress(address + 8, false)));
+        assertEquals(addressClone, clone.translateMemoryAddress(address + 8, true));
+        
+        //the block is no more shared
+        assertEquals(address + 8, this.state.translateMemoryAddress(address + 8, true));
+        clone.removeMemoryBlock(address);
+        this.state.removeMemoryBlock(address);
+    }
+
+    @Test
+    public void testInflaterShared() throws Exception {
+        final long address = 42L;
+        this.state.addInflater(address, false);
+        final State clone = this.state.clone();
+        assertEquals(this.state.getInflater(address), clone.getInflater(address));
+        assertFalse(this.state.removeInflater(address));
+        assertTrue(clone.removeInflater(address));
+    }
+
+    @Test
+    public void testZipFileEntryShared() throws Exception {
+        final long jzfile = 42L;
+        final long jzentry = 43L;
+        this.state.addZipFile(jzfile, "foo.zip", 1, 0L, false);
+        this.state.addZipFileEntry(jzentry, jzfile, new byte[] { 'a' });
+        final State clone = this.state.clone();
+        assertEquals(this.state.getZipFileEntryJz(jzentry), clone.getZipFileEntryJz(jzentry));
+        assertFalse(clone.removeZipFileEntry(jzentry));
+        assertTrue(this.state.removeZipFileEntry(jzentry));
+        clone.removeZipFile(jzfile);
+        this.state.removeZipFile(jzfile);
+    }
+
+    private ClassFile loadArrayOfObject() throws Exception {
+        final ClassHierarchy hier = this.state.getClassHierarchy();
+        hier.loadCreateClass(JAVA_OBJECT);
+        hier.loadCreateClass(JAVA_CLONEABLE);
+        hier.loadCreateClass(JAVA_SERIALIZABLE);
+        return hier.loadCreateClass(ARRAY_OF_OBJECT);
+    }
+
+    /** 
+     * Resolves the root object and sets the main 
+     * thread and thread group, so the state can 
+     * be collected. 
+     */
+    private void prepareForGc() throws Exception {
+        final ClassFile cf = this.state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+        this.state.ensureKlass(this.calc, cf);
+        this.state.assumeExpands(this.calc, this.receiver, cf);
+        final ClassHierarchy hier = this.state.getClassHierarchy();
+        this.state.setMainThreadGroup(this.state.createInstance(this.calc, hier.loadCreateClass(JAVA_THREADGROUP)));
+        this.state.setMainThread(this.state.createInstance(this.calc, hier.loadCreateClass(JAVA_THREAD)));
+    }
+
+    @Test
+    public void testGcIncrementalKeepsReachedFromOlderObjects() throws Exception {
+        final ClassFile cf = this.state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+        final ClassFile cfArray = loadArrayOfObject();
+        prepareForGc();
+        
+        //an array that survives gc
+        final ReferenceConcrete array = this.state.createArray(this.calc, Null.getInstance(), this.calc.valInt(1), cfArray);
+        this.state.pushOperand(array);
+        this.state.gc();
+        
+        //a new object referred only by the array, 
+        //which is then unreachable from the roots
+        final ReferenceConcrete foo = this.state.createInstance(this.calc, cf);
+        ((Array) this.state.getObject(array)).set(this.calc, this.calc.valInt(0), foo);
+        this.state.popOperand();
+        this.state.gcIncremental();
+        assertNotNull(this.state.getObject(array));
+        assertNotNull(this.state.getObject(foo));
+    }
+
+    @Test
+    public void testGcIncrementalKeepsReachedFromSymbolicObjects() throws Exception {
+        final ClassFile cf = this.state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+        final ClassFile cfArray = loadArrayOfObject();
+        prepareForGc();
+        
+        //o.next expands to X, X[0] = new Foo(), o.next = null
+        final ReferenceSymbolic next = this.symbolFactory.createSymbolLocalVariableReference(this.state.getHistoryPoint(), ARRAY_OF_OBJECT, ARRAY_OF_OBJECT, "next");
+        this.state.assumeExpands(this.calc, next, cfArray);
+        final ReferenceConcrete foo = this.state.createInstance(this.calc, cf);
+        ((Array) this.state.getObject(next)).set(this.calc, this.calc.valInt(0), foo);
+        this.state.gcIncremental();
+        
+        //o.prev may later alias X, so X[0] must not dangle
+        assertNotNull(this.state.getObject(foo));
+    }
+}
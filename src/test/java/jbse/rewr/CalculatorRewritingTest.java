@@ -0,0 +1,60 @@
+package jbse.rewr;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jbse.common.Type;
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.val.Term;
+import jbse.val.exc.InvalidOperandException;
+import jbse.val.exc.InvalidTypeException;
+import jbse.val.exc.NoResultException;
+
+public final class CalculatorRewritingTest {
+	/** Rewrites the term NESTED to NESTED + 1, building it with the calculator. */
+	private static class RewriterNesting extends RewriterCalculatorRewriting {
+		@Override
+		protected void rewriteTerm(Term x) throws NoResultException {
+			if (!"NESTED".equals(x.getValue())) {
+				super.rewriteTerm(x);
+				return;
+			}
+			try {
+				setResult(this.calc.push(this.calc.valTerm(Type.INT, "INNER")).add(this.calc.valInt(1)).pop());
+			} catch (InvalidTypeException | InvalidOperandException e) {
+				//should not happen
+				throw new UnexpectedInternalException(e);
+			}
+		}
+	}
+
+	private CalculatorRewriting calc;
+	private AtomicInteger observed;
+
+	@Before
+	public void before() {
+		this.calc = new CalculatorRewriting();
+		this.calc.addRewriter(new RewriterNesting());
+		this.observed = new AtomicInteger(0);
+		this.calc.setSimplificationTimeObserver(nanos -> this.observed.incrementAndGet());
+	}
+
+	@Test
+	public void testNestedSimplificationsNotTimed() throws Exception {
+		this.calc.simplify(this.calc.valTerm(Type.INT, "NESTED"));
+		assertEquals(1, this.observed.get());
+		this.calc.simplify(this.calc.valTerm(Type.INT, "NESTED"));
+		assertEquals(2, this.observed.get());
+	}
+
+	@Test
+	public void testCopyTimed() throws Exception {
+		final CalculatorRewriting copy = new CalculatorRewriting(this.calc);
+		copy.simplify(copy.valTerm(Type.INT, "NESTED"));
+		assertEquals(1, this.observed.get());
+	}
+}
@@ -1,26 +1,40 @@
 package jbse.tree;
 
+import static jbse.bc.ClassLoaders.CLASSLOADER_APP;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 
 import org.junit.Test;
 
+import jbse.bc.ClassFile;
 import jbse.bc.ClassFileFactoryJavassist;
 import jbse.bc.Classpath;
+import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
 import jbse.common.exc.InvalidInputException;
 import jbse.mem.State;
+import jbse.rewr.CalculatorRewriting;
 import jbse.tree.StateTree.BranchPoint;
 import jbse.tree.StateTree.BreadthMode;
 import jbse.tree.StateTree.StateIdentificationMode;
+import jbse.val.Calculator;
+import jbse.val.HistoryPoint;
+import jbse.val.ReferenceSymbolic;
 import jbse.val.SymbolFactory;
 
 public class StateTreeTest {
+	private static final String CLASS_NAME = "tsafe/main/SimpleCalculator";
+	private static final Signature SIG_METHOD = new Signature(CLASS_NAME, "(D)D", "metersPerLonAt");
+	
 	@Test
 	public void testPossiblyAddBranchPoint() {
 		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
@@ -124,4 +138,184 @@ public class StateTreeTest {
 		final State statePicked = tree.getStateAtBranch(bp_1_2, 1);
 		assertSame(_1_2_6, statePicked);
 	}
+	
+	@Test
+	public void testLoopPoints() {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		final Signature method = new Signature("Foo", "()V", "bar");
+		assertFalse(tree.mergesStates());
+		assertFalse(tree.isLoopPoint(method, 5));
+		tree.addLoopPoint(method, 5);
+		assertTrue(tree.isLoopPoint(method, 5));
+		assertFalse(tree.isLoopPoint(method, 6));
+		assertFalse(tree.isLoopPoint(new Signature("Foo", "()V", "baz"), 5));
+	}
+	
+	/**
+	 * Builds a tree that merges states at the entry 
+	 * of SimpleCalculator.metersPerLonAt(double).
+	 */
+	private static StateTree mergingTree(Calculator calc) {
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		tree.setStateMerging(calc);
+		tree.addLoopPoint(SIG_METHOD, 0);
+		return tree;
+	}
+	
+	/**
+	 * Builds a post-initial state with a frame for 
+	 * SimpleCalculator.metersPerLonAt(double), at
+	 * its entry.
+	 */
+	private static State stateAtLoopPoint(StateTree tree, Calculator calc) throws Exception {
+		final ArrayList<Path> userPath = new ArrayList<>();
+		userPath.add(Paths.get("src/test/resources/jbse/bc/testdata"));
+		final Classpath env = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home", "")), Collections.emptyList(), userPath);
+		final SymbolFactory symbolFactory = new SymbolFactory();
+		final HistoryPoint hp = tree.getPreInitialHistoryPoint().startingInitial();
+		final State state = new State(true, hp, 100, 100, env, ClassFileFactoryJavassist.class, Collections.emptyMap(), Collections.emptyMap(), symbolFactory);
+		state.setPhasePostInitial();
+		final ClassFile cf = state.getClassHierarchy().loadCreateClass(CLASSLOADER_APP, CLASS_NAME, true);
+		final ReferenceSymbolic receiver = symbolFactory.createSymbolLocalVariableReference(hp, "L" + CLASS_NAME + ";", "L" + CLASS_NAME + ";", "this");
+		state.pushFrame(calc, cf, SIG_METHOD, true, 0, receiver, symbolFactory.createSymbolLocalVariablePrimitive(hp, "D", "x"));
+		return state;
+	}
+	
+	/** 
+	 * Returns a clone of a state with a given value 
+	 * in its local variable at slot 1. The clones 
+	 * can be merged.
+	 */
+	private static State mergeable(State s, Calculator calc, double value) throws Exception {
+		final State retVal = s.lazyClone();
+		retVal.setLocalVariable(1, calc.valDouble(value));
+		return retVal;
+	}
+	
+	/** 
+	 * Returns a clone of a state with a given number of 
+	 * operands. The clones cannot be merged with the 
+	 * clones with a different number of operands.
+	 */
+	private static State unmergeable(State s, Calculator calc, int numOperands) throws Exception {
+		final State retVal = s.lazyClone();
+		for (int i = 0; i < numOperands; ++i) {
+			retVal.pushOperand(calc.valInt(i));
+		}
+		return retVal;
+	}
+	
+	@Test
+	public void testPossiblyMergeSameBranch() throws Exception {
+		final Calculator calc = new CalculatorRewriting();
+		final StateTree tree = mergingTree(calc);
+		final State s = stateAtLoopPoint(tree, calc);
+		final State p1 = mergeable(s, calc, 1.0);
+		final State q1 = unmergeable(s, calc, 1);
+		final State p2 = mergeable(s, calc, 2.0);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		final BranchPoint bp = tree.nextBranch();
+		tree.addState(p1, 0, null);
+		tree.addState(q1, 0, null);
+		tree.addState(p2, 0, null);
+		
+		//p1 is merged into p2
+		assertEquals(1, tree.getNumOfMergedStates());
+		assertEquals(2, tree.getNumOfStates());
+		assertEquals(2, tree.getNumOfStatesAtBranch(bp));
+		assertSame(p2, tree.nextState());
+		assertSame(q1, tree.nextState());
+		assertFalse(tree.hasStates());
+		assertNull(tree.nextBranch());
+	}
+	
+	@Test
+	public void testPossiblyMergeNotAtLoopPoint() throws Exception {
+		final Calculator calc = new CalculatorRewriting();
+		final StateTree tree = new StateTree(StateIdentificationMode.COMPACT, BreadthMode.MORE_THAN_ONE);
+		tree.setStateMerging(calc);
+		final State s = stateAtLoopPoint(tree, calc);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		tree.addState(mergeable(s, calc, 1.0), 0, null);
+		tree.addState(mergeable(s, calc, 2.0), 0, null);
+		assertEquals(0, tree.getNumOfMergedStates());
+		assertEquals(2, tree.getNumOfStates());
+	}
+	
+	@Test
+	public void testPossiblyMergeFromOlderBranch() throws Exception {
+		final Calculator calc = new CalculatorRewriting();
+		final StateTree tree = mergingTree(calc);
+		final State s = stateAtLoopPoint(tree, calc);
+		
+		//first branch: q1, p0, q2; q2 is emitted
+		final State q1 = unmergeable(s, calc, 1);
+		final State p0 = mergeable(s, calc, 0.0);
+		final State q2 = unmergeable(s, calc, 2);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		final BranchPoint bp1 = tree.nextBranch();
+		tree.addState(q1, 0, null);
+		tree.addState(p0, 0, null);
+		tree.addState(q2, 0, null);
+		assertSame(q2, tree.nextState());
+		assertEquals(".1.1", q2.getBranchIdentifier().toString());
+		
+		//second branch: q3, p2; p0 is merged into p2
+		final State q3 = unmergeable(s, calc, 3);
+		final State p2 = mergeable(s, calc, 2.0);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		final BranchPoint bp2 = tree.nextBranch();
+		tree.addState(q3, 0, null);
+		tree.addState(p2, 0, null);
+		assertEquals(1, tree.getNumOfMergedStates());
+		assertEquals(3, tree.getNumOfStates());
+		assertEquals(2, tree.getNumOfStatesAtBranch(bp2));
+		assertEquals(1, tree.getNumOfStatesAtBranch(bp1));
+		assertSame(p2, tree.getStateAtBranch(bp2, 0));
+		assertSame(q3, tree.getStateAtBranch(bp2, 1));
+		assertSame(q1, tree.getStateAtBranch(bp1, 0));
+		
+		//the states are emitted in order, and the first 
+		//branch is exhausted after q1
+		assertSame(p2, tree.nextState());
+		assertSame(q3, tree.nextState());
+		assertSame(bp1, tree.nextBranch());
+		assertSame(q1, tree.nextState());
+		assertEquals(".1.2", q1.getBranchIdentifier().toString());
+		assertFalse(tree.hasStates());
+		assertNull(tree.nextBranch());
+	}
+	
+	@Test
+	public void testPossiblyMergeExhaustsOlderBranch() throws Exception {
+		final Calculator calc = new CalculatorRewriting();
+		final StateTree tree = mergingTree(calc);
+		final State s = stateAtLoopPoint(tree, calc);
+		
+		//first branch: p0, q1; q1 is emitted
+		final State p0 = mergeable(s, calc, 0.0);
+		final State q1 = unmergeable(s, calc, 1);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		final BranchPoint bp1 = tree.nextBranch();
+		tree.addState(p0, 0, null);
+		tree.addState(q1, 0, null);
+		assertSame(q1, tree.nextState());
+		
+		//second branch: q2, p2; p0, the last state 
+		//of the first branch, is merged into p2
+		final State q2 = unmergeable(s, calc, 2);
+		final State p2 = mergeable(s, calc, 2.0);
+		tree.possiblyAddBranchPoint(true, false, false, false);
+		final BranchPoint bp2 = tree.nextBranch();
+		tree.addState(q2, 0, null);
+		tree.addState(p2, 0, null);
+		assertEquals(1, tree.getNumOfMergedStates());
+		assertEquals(0, tree.getNumOfStatesAtBranch(bp1));
+		assertEquals(2, tree.getNumOfStatesAtBranch(bp2));
+		assertSame(p2, tree.nextState());
+		assertSame(bp2, tree.nextBranch());
+		assertSame(q2, tree.nextState());
+		assertFalse(tree.hasStates());
+		assertNull(tree.nextBranch());
+	}
 }
@@ -0,0 +1,53 @@
+package jbse.val;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistoryPointTest {
+	@Test
+	public void testBranchIdentifier() {
+		final HistoryPoint hp = HistoryPoint.startingPreInitial(true).startingInitial().nextBranch(3).nextBranch("12").next();
+		assertEquals(".1.3.12", hp.getBranchIdentifier());
+		assertEquals(".1.3.12[1]", hp.toString());
+		assertEquals(3, hp.getBranchDepth());
+
+		final HistoryPoint hpLong = HistoryPoint.startingPreInitial(false).startingInitial().nextBranch("T_NULL").nextBranch(2);
+		assertEquals("|ROOT|T_NULL|2", hpLong.getBranchIdentifier());
+	}
+
+	@Test
+	public void testEquals() {
+		final HistoryPoint initial = HistoryPoint.startingPreInitial(true).startingInitial();
+		final HistoryPoint hp1 = initial.nextBranch(2).nextBranch(1);
+		final HistoryPoint hp2 = initial.nextBranch("2").nextBranch(1);
+		assertEquals(hp1, hp2);
+		assertEquals(hp1.hashCode(), hp2.hashCode());
+		assertFalse(hp1.equals(hp1.next()));
+		assertFalse(hp1.equals(initial.nextBranch(2).nextBranch(2)));
+		assertFalse(hp1.equals(HistoryPoint.unknown()));
+	}
+
+	@Test
+	public void testWeaklyBefore() {
+		final HistoryPoint initial = HistoryPoint.startingPreInitial(true).startingInitial();
+		final HistoryPoint hp = initial.nextBranch(2);
+		assertTrue(initial.weaklyBefore(hp));
+		assertTrue(hp.weaklyBefore(hp.next()));
+		assertFalse(hp.next().weaklyBefore(hp));
+		assertFalse(hp.weaklyBefore(initial.nextBranch(1).nextBranch(2)));
+	}
+
+	@Test
+	public void testBranchPrefixRelated() {
+		final HistoryPoint hp = HistoryPoint.startingPreInitial(true).startingInitial().nextBranch(2).nextBranch(13);
+		assertTrue(hp.branchPrefixRelated(".1.2.13"));
+		assertTrue(hp.branchPrefixRelated(".1.2"));
+		assertTrue(hp.branchPrefixRelated(".1.2.13.4"));
+		assertFalse(hp.branchPrefixRelated(".1.2.1"));
+		assertFalse(hp.branchPrefixRelated(".1.2.134"));
+		assertFalse(hp.branchPrefixRelated(".1.3"));
+	}
+}